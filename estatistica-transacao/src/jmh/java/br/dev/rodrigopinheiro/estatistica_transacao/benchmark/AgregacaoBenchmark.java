@@ -0,0 +1,105 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.benchmark;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.BigDecimalStatistics;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.FixedPoint;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Estatistica;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.service.EstatisticaCalculator;
+
+/**
+ * Agregação de {@code volume} transações: {@code BigDecimalStatistics} valor a
+ * valor e combinando parciais (como os buckets por segundo de uma janela), e o
+ * {@code EstatisticaCalculator} sobre transações com e sem ponto fixo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AgregacaoBenchmark {
+
+    private static final int ESCALA = FixedPoint.DEFAULT_SCALE;
+    // Parciais de 60 valores, como uma janela de 60 buckets de um segundo
+    private static final int VALORES_POR_PARCIAL = 60;
+
+    @Param({"1000", "100000"})
+    private int volume;
+
+    private BigDecimal[] valores;
+    private BigDecimalStatistics[] parciais;
+    private List<Transacao> transacoesPontoFixo;
+    private List<Transacao> transacoesBigDecimal;
+    private EstatisticaCalculator calculadora;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        Instant agora = Instant.now();
+        valores = new BigDecimal[volume];
+        transacoesPontoFixo = new ArrayList<>(volume);
+        transacoesBigDecimal = new ArrayList<>(volume);
+        for (int i = 0; i < volume; i++) {
+            valores[i] = BigDecimal.valueOf(random.nextInt(10_000_000), ESCALA);
+            transacoesPontoFixo.add(Transacao.comPontoFixo(valores[i], agora, ESCALA));
+            transacoesBigDecimal.add(new Transacao(valores[i], agora));
+        }
+
+        parciais = new BigDecimalStatistics[(volume + VALORES_POR_PARCIAL - 1) / VALORES_POR_PARCIAL];
+        for (int i = 0; i < parciais.length; i++) {
+            parciais[i] = new BigDecimalStatistics();
+        }
+        for (int i = 0; i < volume; i++) {
+            parciais[i / VALORES_POR_PARCIAL].accept(valores[i]);
+        }
+        calculadora = new EstatisticaCalculator(ESCALA);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalAccept() {
+        BigDecimalStatistics stats = new BigDecimalStatistics();
+        for (BigDecimal valor : valores) {
+            stats.accept(valor);
+        }
+        return stats.getAvg(2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalCombine() {
+        BigDecimalStatistics stats = new BigDecimalStatistics();
+        for (BigDecimalStatistics parcial : parciais) {
+            stats.combine(parcial);
+        }
+        return stats.getAvg(2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public Estatistica calculadoraPontoFixo() {
+        return calculadora.calcular(transacoesPontoFixo);
+    }
+
+    @Benchmark
+    public Estatistica calculadoraBigDecimal() {
+        return calculadora.calcular(transacoesBigDecimal);
+    }
+}
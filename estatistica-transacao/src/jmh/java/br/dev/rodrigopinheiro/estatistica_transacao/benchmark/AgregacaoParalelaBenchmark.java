@@ -0,0 +1,81 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.benchmark;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.FixedPoint;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Estatistica;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.service.EstatisticaCalculator;
+
+/**
+ * {@code EstatisticaCalculator} sequencial e paralelo sobre {@code volume}
+ * transações, para achar o {@code limiar-paralelo}: o menor volume em que o
+ * tempo com {@code paralelismo} threads fica abaixo do sequencial
+ * ({@code paralelismo = 1}). Os volumes vão de uma janela curta com pouco
+ * tráfego até uma hora de carga alta; o resultado depende do número de
+ * núcleos, então deve ser medido na máquina de produção:
+ * {@code -Djmh.args="AgregacaoParalela -p paralelismo=1,16"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AgregacaoParalelaBenchmark {
+
+    private static final int ESCALA = FixedPoint.DEFAULT_SCALE;
+
+    @Param({"4096", "16384", "32768", "65536", "262144", "1048576"})
+    private int volume;
+
+    @Param({"1", "4", "16"})
+    private int paralelismo;
+
+    @Param({"4096"})
+    private int bloco;
+
+    private List<Transacao> transacoes;
+    private EstatisticaCalculator calculadora;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        Instant agora = Instant.now();
+        transacoes = new ArrayList<>(volume);
+        for (int i = 0; i < volume; i++) {
+            BigDecimal valor = BigDecimal.valueOf(random.nextInt(10_000_000), ESCALA);
+            transacoes.add(Transacao.comPontoFixo(valor, agora, ESCALA));
+        }
+        // Limiar zero: com mais de uma thread toda lista passa pelo pool
+        calculadora = new EstatisticaCalculator(ESCALA, 0, bloco, paralelismo);
+    }
+
+    @TearDown
+    public void tearDown() {
+        calculadora.close();
+    }
+
+    @Benchmark
+    public Estatistica calcular() {
+        return calculadora.calcular(transacoes);
+    }
+}
@@ -0,0 +1,83 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.benchmark;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.BigDecimalStatistics;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.FixedPoint;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.FixedPointStatistics;
+
+/**
+ * Compara a agregação em BigDecimal com a agregação em ponto fixo (long) para
+ * o mesmo conjunto de valores. Rodar com {@code -prof gc} mostra também a
+ * diferença de alocação por operação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AritmeticaBenchmark {
+
+    private static final int ESCALA = FixedPoint.DEFAULT_SCALE;
+
+    @Param({"1000", "100000"})
+    private int quantidade;
+
+    private BigDecimal[] valores;
+    private long[] valoresEscalados;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        valores = new BigDecimal[quantidade];
+        valoresEscalados = new long[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            valores[i] = BigDecimal.valueOf(random.nextInt(10_000_000), 2);
+            valoresEscalados[i] = FixedPoint.toScaled(valores[i], ESCALA);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimalStatistics stats = new BigDecimalStatistics();
+        for (BigDecimal valor : valores) {
+            stats.accept(valor);
+        }
+        return stats.getAvg(2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public BigDecimal pontoFixo() {
+        FixedPointStatistics stats = new FixedPointStatistics(ESCALA);
+        for (int i = 0; i < valores.length; i++) {
+            stats.accept(valoresEscalados[i], valores[i]);
+        }
+        return stats.getAvg(2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public BigDecimal pontoFixoComConversao() {
+        // Inclui o custo de converter na borda, como faz o TransacaoWebMapper
+        FixedPointStatistics stats = new FixedPointStatistics(ESCALA);
+        for (BigDecimal valor : valores) {
+            stats.accept(FixedPoint.toScaled(valor, ESCALA), valor);
+        }
+        return stats.getAvg(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,141 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.FixedPoint;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.bucket.BucketConcorrente;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.bucket.BucketEstatistica;
+
+/**
+ * Vazão de escrita em um único segundo: {@code BucketConcorrente.addTransacao}
+ * contra um {@link BucketEstatistica} protegido por {@code synchronized}, com
+ * {@code escritores} threads no mesmo bucket.
+ *
+ * Com um escritor o bucket sincronizado costuma vencer: o lock não tem disputa
+ * e cada escrita do {@code BucketConcorrente} paga os CAS de min/max e os
+ * {@code getAndAdd} da célula. A vantagem das células aparece quando há mais de
+ * um escritor e mais de um núcleo: o lock passa a serializar as escritas e a
+ * vazão sincronizada cai, enquanto a das células cresce até o número de núcleos
+ * ({@code MAX_CELULAS}). Numa máquina de um núcleo só há uma célula e as duas
+ * variantes ficam próximas em qualquer número de escritores.
+ *
+ * Os escritores seguem o mesmo esquema do {@code EscritaRepositorioBenchmark}:
+ * {@value #ESCRITAS_POR_CHAMADA} escritas divididas entre threads de um pool já
+ * iniciado. Com {@code percentis} cada valor também entra no sketch de quantis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BucketConcorrenteBenchmark {
+
+    private static final int ESCALA = FixedPoint.DEFAULT_SCALE;
+    private static final int ESCRITAS_POR_CHAMADA = 64 * 1024;
+    private static final int VALORES = 1024;
+
+    @Param({"1", "2", "4", "8", "32"})
+    private int escritores;
+
+    @Param({"false", "true"})
+    private boolean percentis;
+
+    private ExecutorService pool;
+    private BigDecimal[] valores;
+    private long[] valoresEscalados;
+
+    private BucketConcorrente concorrente;
+    private BucketEstatistica sincronizado;
+    private List<Callable<Void>> escritasConcorrentes;
+    private List<Callable<Void>> escritasSincronizadas;
+
+    @Setup
+    public void setup() {
+        pool = Executors.newFixedThreadPool(escritores);
+
+        Random random = new Random(42);
+        valores = new BigDecimal[VALORES];
+        valoresEscalados = new long[VALORES];
+        for (int i = 0; i < VALORES; i++) {
+            valores[i] = BigDecimal.valueOf(random.nextInt(10_000_000), ESCALA);
+            valoresEscalados[i] = FixedPoint.toScaled(valores[i], ESCALA);
+        }
+
+        escritasConcorrentes = tarefas(v -> concorrente.addTransacao(valoresEscalados[v], valores[v]));
+        escritasSincronizadas = tarefas(v -> {
+            synchronized (sincronizado) {
+                sincronizado.addTransacao(valores[v]);
+            }
+        });
+    }
+
+    /** Buckets novos a cada iteração, para a soma não crescer sem limite. */
+    @Setup(Level.Iteration)
+    public void novosBuckets() {
+        concorrente = new BucketConcorrente(ESCALA, percentis);
+        sincronizado = new BucketEstatistica(ESCALA, percentis);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ESCRITAS_POR_CHAMADA)
+    public void concorrente() throws Exception {
+        executar(escritasConcorrentes);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ESCRITAS_POR_CHAMADA)
+    public void sincronizado() throws Exception {
+        executar(escritasSincronizadas);
+    }
+
+    private List<Callable<Void>> tarefas(IntConsumer escrever) {
+        List<Callable<Void>> tarefas = new ArrayList<>();
+        int porEscritor = ESCRITAS_POR_CHAMADA / escritores;
+        for (int e = 0; e < escritores; e++) {
+            int deslocamento = e * 31;
+            tarefas.add(() -> {
+                for (int i = 0; i < porEscritor; i++) {
+                    escrever.accept((i + deslocamento) & (VALORES - 1));
+                }
+                return null;
+            });
+        }
+        return tarefas;
+    }
+
+    private void executar(List<Callable<Void>> tarefas) throws Exception {
+        for (Future<Void> futuro : pool.invokeAll(tarefas)) {
+            futuro.get();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.benchmark;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.FixedPoint;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository.BucketTransacaoRepository;
+
+/**
+ * Vazão de {@code BucketTransacaoRepository.save} com {@code escritores} threads
+ * escrevendo ao mesmo tempo nos segundos mais recentes, como numa rajada.
+ *
+ * O número de escritores é um {@code @Param} para aparecer na mesma tabela de
+ * resultados: cada chamada divide {@value #ESCRITAS_POR_CHAMADA} escritas entre
+ * threads de um pool já iniciado, e o custo de coordenar o pool fica diluído nas
+ * escritas. O resultado é em transações por segundo somando todos os escritores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EscritaRepositorioBenchmark {
+
+    private static final int ESCALA = FixedPoint.DEFAULT_SCALE;
+    private static final int ESCRITAS_POR_CHAMADA = 64 * 1024;
+    private static final int VALORES = 1024;
+
+    @Param({"1", "2", "4", "8"})
+    private int escritores;
+
+    private BucketTransacaoRepository repositorio;
+    private ExecutorService pool;
+    private List<Callable<Void>> tarefas;
+    private BigDecimal[] valores;
+    private long[] valoresEscalados;
+
+    @Setup
+    public void setup() {
+        repositorio = new BucketTransacaoRepository(ESCALA, 60, 3600, 1440, false);
+        pool = Executors.newFixedThreadPool(escritores);
+
+        Random random = new Random(42);
+        valores = new BigDecimal[VALORES];
+        valoresEscalados = new long[VALORES];
+        for (int i = 0; i < VALORES; i++) {
+            valores[i] = BigDecimal.valueOf(random.nextInt(10_000_000), ESCALA);
+            valoresEscalados[i] = FixedPoint.toScaled(valores[i], ESCALA);
+        }
+
+        tarefas = new ArrayList<>();
+        int porEscritor = ESCRITAS_POR_CHAMADA / escritores;
+        for (int e = 0; e < escritores; e++) {
+            int deslocamento = e * 31;
+            tarefas.add(() -> {
+                escrever(porEscritor, deslocamento);
+                return null;
+            });
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ESCRITAS_POR_CHAMADA)
+    public void save() throws Exception {
+        for (Future<Void> futuro : pool.invokeAll(tarefas)) {
+            futuro.get();
+        }
+    }
+
+    private void escrever(int quantidade, int deslocamento) {
+        // Segundos atuais: a consolidação e a janela seguem o relógio real
+        long segundo = System.currentTimeMillis() / 1000;
+        for (int i = 0; i < quantidade; i++) {
+            int v = (i + deslocamento) & (VALORES - 1);
+            repositorio.save(new Transacao(
+                    valores[v], Instant.ofEpochSecond(segundo - (i & 7)), valoresEscalados[v], ESCALA));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ponto de entrada do profile jmh: aceita os mesmos argumentos do
+ * {@code org.openjdk.jmh.Main}, mas sempre liga o profiler de GC, para que toda
+ * execução traga a taxa de alocação ({@code gc.alloc.rate.norm}, em bytes por
+ * operação) ao lado do tempo.
+ */
+public class ExecutarBenchmarks {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions linhaDeComando = new CommandLineOptions(args);
+        if (linhaDeComando.shouldHelp()) {
+            linhaDeComando.showHelp();
+            return;
+        }
+
+        ChainedOptionsBuilder opcoes = new OptionsBuilder().parent(linhaDeComando);
+        boolean gcInformado = linhaDeComando.getProfilers().stream()
+                .anyMatch(p -> p.getKlass().equals("gc") || p.getKlass().equals(GCProfiler.class.getName()));
+        if (!gcInformado) {
+            opcoes.addProfiler(GCProfiler.class);
+        }
+
+        Runner runner = new Runner(opcoes.build());
+        if (linhaDeComando.shouldList()) {
+            runner.list();
+        } else {
+            runner.run();
+        }
+    }
+}
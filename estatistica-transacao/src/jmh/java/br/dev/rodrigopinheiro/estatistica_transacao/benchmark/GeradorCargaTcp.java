@@ -0,0 +1,122 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.benchmark;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.EstatisticaTransacaoApplication;
+import br.dev.rodrigopinheiro.estatistica_transacao.adapters.tcp.BinarioTcpListener;
+import br.dev.rodrigopinheiro.estatistica_transacao.adapters.tcp.FrameBinario;
+
+/**
+ * Gerador de carga para o protocolo binário TCP. Abre N conexões, envia as
+ * transações o mais rápido possível e espera o ack final de cada conexão, então
+ * a vazão medida é de transações já registradas, não só enviadas.
+ *
+ * Argumentos: {@code [conexoes] [transacoesPorConexao] [host] [porta]}. Sem host,
+ * sobe a própria aplicação com o listener em uma porta livre.
+ *
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Dbenchmark.main=br.dev.rodrigopinheiro.estatistica_transacao.benchmark.GeradorCargaTcp -Djmh.args="4 1000000"
+ * </pre>
+ */
+public class GeradorCargaTcp {
+
+    private static final int FRAMES_POR_ESCRITA = 4096;
+
+    public static void main(String[] args) throws Exception {
+        int conexoes = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        long transacoesPorConexao = args.length > 1 ? Long.parseLong(args[1]) : 1_000_000;
+
+        ConfigurableApplicationContext contexto = null;
+        InetSocketAddress endereco;
+        if (args.length > 3) {
+            endereco = new InetSocketAddress(args[2], Integer.parseInt(args[3]));
+        } else {
+            // Como argumentos, e não properties padrão, para vencer o application.yml
+            contexto = new SpringApplicationBuilder(EstatisticaTransacaoApplication.class)
+                    .run("--server.port=0", "--app.tcp.habilitado=true", "--app.tcp.porta=0",
+                            "--logging.level.root=WARN");
+            endereco = new InetSocketAddress("localhost", contexto.getBean(BinarioTcpListener.class).getPortaLocal());
+        }
+
+        try {
+            executar(endereco, conexoes, transacoesPorConexao);
+        } finally {
+            if (contexto != null) {
+                contexto.close();
+            }
+        }
+    }
+
+    private static void executar(InetSocketAddress endereco, int conexoes, long transacoesPorConexao) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(conexoes);
+        List<Future<long[]>> resultados = new ArrayList<>();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < conexoes; i++) {
+            int semente = i;
+            resultados.add(executor.submit(() -> enviar(endereco, transacoesPorConexao, semente)));
+        }
+
+        long aceitas = 0;
+        long rejeitadas = 0;
+        for (int i = 0; i < conexoes; i++) {
+            long[] ack = resultados.get(i).get();
+            System.out.printf("Conexão %d: aceitas=%d rejeitadas=%d%n", i, ack[0], ack[1]);
+            aceitas += ack[0];
+            rejeitadas += ack[1];
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        executor.shutdown();
+
+        System.out.printf("Total: %d transações em %.2f s (%.0f tx/s), aceitas=%d rejeitadas=%d%n",
+                aceitas + rejeitadas, segundos, (aceitas + rejeitadas) / segundos, aceitas, rejeitadas);
+    }
+
+    /** @return o último ack recebido: aceitas e rejeitadas */
+    private static long[] enviar(InetSocketAddress endereco, long transacoes, int semente) throws IOException {
+        Random random = new Random(semente);
+        ByteBuffer saida = ByteBuffer.allocateDirect(FRAMES_POR_ESCRITA * FrameBinario.TAMANHO_TRANSACAO);
+        ByteBuffer entrada = ByteBuffer.allocateDirect(64 * FrameBinario.TAMANHO_ACK);
+        long[] ack = new long[2];
+
+        try (SocketChannel canal = SocketChannel.open(endereco)) {
+            long enviadas = 0;
+            while (enviadas < transacoes) {
+                // Um pouco no passado, para não cair em data futura por diferença de relógio
+                long epochMillis = System.currentTimeMillis() - 1_000;
+                saida.clear();
+                while (saida.hasRemaining() && enviadas < transacoes) {
+                    FrameBinario.escreverTransacao(saida, epochMillis, random.nextInt(1_000_000));
+                    enviadas++;
+                }
+                saida.flip();
+                while (saida.hasRemaining()) {
+                    canal.write(saida);
+                }
+            }
+            canal.shutdownOutput();
+
+            // Acks são acumulados: basta o último antes do servidor fechar
+            while (canal.read(entrada) >= 0) {
+                entrada.flip();
+                while (entrada.remaining() >= FrameBinario.TAMANHO_ACK) {
+                    ack[0] = entrada.getLong();
+                    ack[1] = entrada.getLong();
+                }
+                entrada.compact();
+            }
+        }
+        return ack;
+    }
+}
@@ -0,0 +1,123 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.benchmark;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.EstatisticaTransacaoApplication;
+
+/**
+ * Vazão de ingestão pela API HTTP: uma transação por POST /transacao contra
+ * lotes de {@value #TAMANHO_LOTE} em POST /transacao/lote e em NDJSON por POST
+ * /transacao/stream. Os resultados são em transações por segundo, então podem
+ * ser comparados diretamente.
+ *
+ * Sobe a aplicação inteira em uma porta livre, com o log em WARN para medir o
+ * custo de despacho e não o de escrever no console.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class IngestaoLoteBenchmark {
+
+    private static final int TAMANHO_LOTE = 100;
+
+    private ConfigurableApplicationContext contexto;
+    private HttpClient cliente;
+    private HttpRequest requisicaoIndividual;
+    private HttpRequest requisicaoLote;
+    private HttpRequest requisicaoStream;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        contexto = new SpringApplicationBuilder(EstatisticaTransacaoApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run();
+        int porta = contexto.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+        URI base = URI.create("http://localhost:" + porta + "/transacao");
+
+        // Transações do último segundo, como numa rajada
+        Random random = new Random(42);
+        Instant agora = Instant.now().minusSeconds(1);
+        StringJoiner lote = new StringJoiner(",", "[", "]");
+        StringJoiner stream = new StringJoiner("\n");
+        for (int i = 0; i < TAMANHO_LOTE; i++) {
+            String transacao = transacao(BigDecimal.valueOf(random.nextInt(1_000_000), 2), agora);
+            lote.add(transacao);
+            stream.add(transacao);
+        }
+
+        cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        requisicaoIndividual = post(base, "application/json", transacao(new BigDecimal("123.45"), agora));
+        requisicaoLote = post(base.resolve("/transacao/lote"), "application/json", lote.toString());
+        requisicaoStream = post(base.resolve("/transacao/stream"), "application/x-ndjson", stream.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public int individual() throws Exception {
+        return enviar(requisicaoIndividual);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TAMANHO_LOTE)
+    public int lote() throws Exception {
+        return enviar(requisicaoLote);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TAMANHO_LOTE)
+    public int stream() throws Exception {
+        return enviar(requisicaoStream);
+    }
+
+    private int enviar(HttpRequest requisicao) throws Exception {
+        int status = cliente.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status >= 300) {
+            throw new IllegalStateException("Resposta inesperada: " + status);
+        }
+        return status;
+    }
+
+    private static HttpRequest post(URI uri, String contentType, String corpo) {
+        return HttpRequest.newBuilder(uri)
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(corpo))
+                .build();
+    }
+
+    private static String transacao(BigDecimal valor, Instant dataHora) {
+        return "{\"valor\":" + valor.toPlainString() + ",\"dataHora\":\"" + dataHora + "\"}";
+    }
+}
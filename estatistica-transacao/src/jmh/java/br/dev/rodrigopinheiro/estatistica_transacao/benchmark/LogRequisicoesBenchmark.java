@@ -0,0 +1,123 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.benchmark;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config.LogRequisicoesProperties;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.log.CategoriaLog;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.log.RegistroRequisicoes;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.FileAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Custo de log por transação registrada: as três linhas INFO síncronas que o
+ * POST /transacao escrevia (controller antes e depois, caso de uso ao salvar)
+ * contra o {@link RegistroRequisicoes} com a amostragem padrão de 1% e com
+ * todas as entradas. Os resultados são em transações por segundo.
+ *
+ * Os dois lados escrevem em arquivos em {@code target/benchmark-log} com o
+ * padrão de log do Spring Boot, para medir formatação e I/O reais.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class LogRequisicoesBenchmark {
+
+    private static final String PADRAO = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5level %pid --- [%15.15thread] %-40.40logger{39} : %msg%n";
+
+    private final BigDecimal valor = new BigDecimal("1234.56");
+    private final OffsetDateTime dataHora = OffsetDateTime.of(2025, 10, 20, 10, 15, 30, 0, ZoneOffset.UTC);
+
+    private Logger loggerSincrono;
+    private RegistroRequisicoes amostrado;
+    private RegistroRequisicoes completo;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        loggerSincrono = configurar("benchmark.sincrono", "sincrono.log");
+        configurar(RegistroRequisicoes.NOME_LOGGER, "requisicoes.log");
+        amostrado = iniciar(0.01);
+        completo = iniciar(1.0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        amostrado.stop();
+        completo.stop();
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+    }
+
+    @Benchmark
+    public void sincrono() {
+        loggerSincrono.info("Iniciando registro de transação - Valor: {}, DataHora: {}", valor, dataHora);
+        loggerSincrono.info("Transação salva com sucesso no repositório - Valor: {}, DataHora: {}", valor, dataHora);
+        loggerSincrono.info("Transação registrada com sucesso - Valor: {}, DataHora: {}", valor, dataHora);
+    }
+
+    @Benchmark
+    public void amostrado() {
+        if (amostrado.amostrar(CategoriaLog.INGESTAO)) {
+            amostrado.registrar(CategoriaLog.INGESTAO, "transacao.registrada", "valor", valor, "dataHora", dataHora);
+        }
+    }
+
+    @Benchmark
+    public void assincronoCompleto() {
+        // Com a fila cheia as entradas são descartadas: mede o teto sem bloquear
+        completo.registrar(CategoriaLog.INGESTAO, "transacao.registrada", "valor", valor, "dataHora", dataHora);
+    }
+
+    private static RegistroRequisicoes iniciar(double amostragem) {
+        LogRequisicoesProperties properties = new LogRequisicoesProperties();
+        properties.getAmostragem().put(CategoriaLog.INGESTAO, amostragem);
+        RegistroRequisicoes registro = new RegistroRequisicoes(properties, new SimpleMeterRegistry());
+        registro.start();
+        return registro;
+    }
+
+    private static Logger configurar(String nome, String arquivo) {
+        LoggerContext contexto = (LoggerContext) LoggerFactory.getILoggerFactory();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(contexto);
+        encoder.setPattern(PADRAO);
+        encoder.start();
+
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(contexto);
+        appender.setFile("target/benchmark-log/" + arquivo);
+        appender.setAppend(false);
+        appender.setEncoder(encoder);
+        appender.start();
+
+        Logger logger = contexto.getLogger(nome);
+        logger.setLevel(ch.qos.logback.classic.Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        return logger;
+    }
+}
@@ -0,0 +1,95 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.benchmark;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.FixedPoint;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Estatistica;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository.BucketTransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository.ColunarTransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository.InMemoryTransacaoRepository;
+
+/**
+ * Consultas nos repositórios com {@code volume} transações espalhadas pela
+ * última hora. O repositório de buckets usa a mesma configuração do
+ * application.yml: com janela de 60 s a consulta cai no agregado incremental e
+ * com as demais na árvore de segmentos.
+ *
+ * O fim da janela é fixado no setup, e não lido do relógio a cada chamada, para
+ * que os dados não saiam da janela durante a medição.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepositorioBenchmark {
+
+    private static final int ESCALA = FixedPoint.DEFAULT_SCALE;
+    private static final int SEGUNDOS_RETIDOS = 3600;
+
+    @Param({"10", "60", "3600"})
+    private int janelaSegundos;
+
+    @Param({"10000", "1000000"})
+    private int volume;
+
+    private BucketTransacaoRepository bucket;
+    private InMemoryTransacaoRepository inMemory;
+    private ColunarTransacaoRepository colunar;
+    private Instant inicio;
+    private Instant fim;
+
+    @Setup
+    public void setup() {
+        bucket = new BucketTransacaoRepository(ESCALA, 60, SEGUNDOS_RETIDOS, 1440, false);
+        inMemory = new InMemoryTransacaoRepository();
+        colunar = new ColunarTransacaoRepository(ESCALA);
+
+        Random random = new Random(42);
+        long agora = Instant.now().getEpochSecond();
+        for (int i = 0; i < volume; i++) {
+            BigDecimal valor = BigDecimal.valueOf(random.nextInt(10_000_000), ESCALA);
+            Transacao transacao = Transacao.comPontoFixo(valor,
+                    Instant.ofEpochSecond(agora - random.nextInt(SEGUNDOS_RETIDOS)), ESCALA);
+            bucket.save(transacao);
+            inMemory.save(transacao);
+            colunar.save(transacao);
+        }
+
+        fim = Instant.ofEpochSecond(agora);
+        inicio = fim.minusSeconds(janelaSegundos);
+    }
+
+    @Benchmark
+    public Estatistica bucketCalcularEstatisticas() {
+        return bucket.calcularEstatisticasEntre(inicio, fim);
+    }
+
+    @Benchmark
+    public Estatistica colunarCalcularEstatisticas() {
+        return colunar.calcularEstatisticasEntre(inicio, fim);
+    }
+
+    @Benchmark
+    public List<Transacao> inMemoryFindSince() {
+        return inMemory.findSince(inicio);
+    }
+}
@@ -0,0 +1,270 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.benchmark;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.EstatisticaTransacaoApplication;
+
+/**
+ * Teste de carga ponta a ponta: sobe a aplicação em uma porta livre para cada
+ * {@code app.repository.type} e dispara tráfego misto de POST /transacao,
+ * GET /estatistica e DELETE /transacao a uma taxa fixa.
+ *
+ * A carga é em malha aberta: a requisição i tem um horário previsto
+ * ({@code inicio + i / taxa}) e a latência é medida a partir dele, e não de
+ * quando a requisição de fato saiu. Se o servidor atrasa e todos os
+ * trabalhadores ficam ocupados, a espera entra na latência das requisições
+ * seguintes, corrigindo a omissão coordenada.
+ *
+ * Argumentos {@code chave=valor}, todos opcionais:
+ * <ul>
+ * <li>{@code tipos} repositórios a testar (padrão {@code bucket,ring,inmemory})</li>
+ * <li>{@code taxa} requisições por segundo (padrão 2000)</li>
+ * <li>{@code concorrencia} requisições simultâneas no máximo (padrão 32)</li>
+ * <li>{@code duracao} segundos medidos por repositório (padrão 30)</li>
+ * <li>{@code aquecimento} segundos descartados antes da medição (padrão 10)</li>
+ * <li>{@code mix} percentuais de POST, GET e DELETE (padrão {@code 90,9,1})</li>
+ * <li>{@code saida} diretório dos resultados (padrão {@code target/carga})</li>
+ * </ul>
+ *
+ * Grava um JSON com os percentis por repositório e endpoint, para comparar entre
+ * versões, e um log de histogramas HdrHistogram com a distribuição completa.
+ *
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Dbenchmark.main=br.dev.rodrigopinheiro.estatistica_transacao.benchmark.TesteCargaHttp -Djmh.args="taxa=5000 duracao=60"
+ * </pre>
+ */
+public class TesteCargaHttp {
+
+    // Latências acima disso saturam no máximo do histograma
+    private static final long MAIOR_LATENCIA_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    enum Endpoint {
+        POST_TRANSACAO, GET_ESTATISTICA, DELETE_TRANSACAO
+    }
+
+    record Configuracao(List<String> tipos, int taxa, int concorrencia, int duracao, int aquecimento,
+            int[] mix, Path saida) {
+
+        static Configuracao de(String[] args) {
+            Map<String, String> valores = new LinkedHashMap<>();
+            for (String arg : args) {
+                int igual = arg.indexOf('=');
+                if (igual <= 0) {
+                    throw new IllegalArgumentException("Argumento deve ser chave=valor: " + arg);
+                }
+                valores.put(arg.substring(0, igual), arg.substring(igual + 1));
+            }
+            String[] mix = valores.getOrDefault("mix", "90,9,1").split(",");
+            if (mix.length != 3) {
+                throw new IllegalArgumentException("mix deve ter três percentuais: POST,GET,DELETE");
+            }
+            return new Configuracao(
+                    List.of(valores.getOrDefault("tipos", "bucket,ring,inmemory").split(",")),
+                    Integer.parseInt(valores.getOrDefault("taxa", "2000")),
+                    Integer.parseInt(valores.getOrDefault("concorrencia", "32")),
+                    Integer.parseInt(valores.getOrDefault("duracao", "30")),
+                    Integer.parseInt(valores.getOrDefault("aquecimento", "10")),
+                    new int[] {Integer.parseInt(mix[0]), Integer.parseInt(mix[1]), Integer.parseInt(mix[2])},
+                    Path.of(valores.getOrDefault("saida", "target/carga")));
+        }
+
+        Endpoint sortear(int percentil) {
+            if (percentil < mix[0]) {
+                return Endpoint.POST_TRANSACAO;
+            }
+            return percentil < mix[0] + mix[1] ? Endpoint.GET_ESTATISTICA : Endpoint.DELETE_TRANSACAO;
+        }
+    }
+
+    /** Percentis em milissegundos, como ficam no JSON. */
+    record Resultado(String tipo, String endpoint, long requisicoes, long erros, double taxaAlcancada,
+            double p50Ms, double p99Ms, double p999Ms, double maxMs) {
+    }
+
+    record Relatorio(String inicio, int taxa, int concorrencia, int duracao, int aquecimento, int[] mix,
+            List<Resultado> resultados) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Configuracao configuracao = Configuracao.de(args);
+        Files.createDirectories(configuracao.saida());
+        String carimbo = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC).format(Instant.now());
+        Path arquivoHistogramas = configuracao.saida().resolve("carga-" + carimbo + ".hlog");
+        Path arquivoJson = configuracao.saida().resolve("carga-" + carimbo + ".json");
+
+        List<Resultado> resultados = new ArrayList<>();
+        try (PrintStream log = new PrintStream(Files.newOutputStream(arquivoHistogramas))) {
+            HistogramLogWriter escritor = new HistogramLogWriter(log);
+            escritor.outputLogFormatVersion();
+            escritor.outputLegend();
+            for (String tipo : configuracao.tipos()) {
+                resultados.addAll(executar(tipo, configuracao, escritor));
+            }
+        }
+
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(arquivoJson.toFile(),
+                new Relatorio(carimbo, configuracao.taxa(), configuracao.concorrencia(), configuracao.duracao(),
+                        configuracao.aquecimento(), configuracao.mix(), resultados));
+
+        System.out.printf("%n%-9s %-17s %10s %7s %9s %9s %9s %9s %9s%n",
+                "tipo", "endpoint", "req", "erros", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Resultado r : resultados) {
+            System.out.printf("%-9s %-17s %10d %7d %9.0f %9.3f %9.3f %9.3f %9.3f%n", r.tipo(), r.endpoint(),
+                    r.requisicoes(), r.erros(), r.taxaAlcancada(), r.p50Ms(), r.p99Ms(), r.p999Ms(), r.maxMs());
+        }
+        System.out.printf("%nResultados: %s%nHistogramas: %s%n", arquivoJson, arquivoHistogramas);
+    }
+
+    private static List<Resultado> executar(String tipo, Configuracao configuracao, HistogramLogWriter escritor)
+            throws Exception {
+        // Como argumentos, e não properties padrão, para vencer o application.yml
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(EstatisticaTransacaoApplication.class)
+                .run("--server.port=0", "--app.repository.type=" + tipo, "--logging.level.root=WARN");
+        try {
+            int porta = contexto.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            Carga carga = new Carga(URI.create("http://localhost:" + porta), configuracao);
+
+            System.out.printf("[%s] aquecendo por %d s%n", tipo, configuracao.aquecimento());
+            carga.rodar(configuracao.aquecimento());
+
+            System.out.printf("[%s] medindo por %d s a %d req/s%n", tipo, configuracao.duracao(), configuracao.taxa());
+            carga.zerar();
+            long inicio = System.currentTimeMillis();
+            carga.rodar(configuracao.duracao());
+            long fim = System.currentTimeMillis();
+
+            List<Resultado> resultados = new ArrayList<>();
+            for (Endpoint endpoint : Endpoint.values()) {
+                Histogram histograma = carga.histogramas.get(endpoint);
+                histograma.setStartTimeStamp(inicio);
+                histograma.setEndTimeStamp(fim);
+                histograma.setTag(tipo + "." + endpoint.name());
+                escritor.outputIntervalHistogram(histograma);
+                resultados.add(new Resultado(tipo, endpoint.name(), histograma.getTotalCount(),
+                        carga.erros.get(endpoint).sum(), histograma.getTotalCount() * 1000.0 / (fim - inicio),
+                        emMs(histograma.getValueAtPercentile(50)), emMs(histograma.getValueAtPercentile(99)),
+                        emMs(histograma.getValueAtPercentile(99.9)), emMs(histograma.getMaxValue())));
+            }
+            return resultados;
+        } finally {
+            contexto.close();
+        }
+    }
+
+    private static double emMs(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /** Gera as requisições no ritmo configurado e registra as latências. */
+    private static final class Carga {
+
+        private final URI base;
+        private final Configuracao configuracao;
+        private final HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        private final Map<Endpoint, Histogram> histogramas = new EnumMap<>(Endpoint.class);
+        private final Map<Endpoint, LongAdder> erros = new EnumMap<>(Endpoint.class);
+
+        Carga(URI base, Configuracao configuracao) {
+            this.base = base;
+            this.configuracao = configuracao;
+            for (Endpoint endpoint : Endpoint.values()) {
+                histogramas.put(endpoint, new ConcurrentHistogram(MAIOR_LATENCIA_NANOS, 3));
+                erros.put(endpoint, new LongAdder());
+            }
+        }
+
+        void zerar() {
+            histogramas.values().forEach(Histogram::reset);
+            erros.values().forEach(LongAdder::reset);
+        }
+
+        void rodar(int segundos) throws InterruptedException {
+            long intervaloNanos = TimeUnit.SECONDS.toNanos(1) / configuracao.taxa();
+            long total = (long) configuracao.taxa() * segundos;
+            long inicio = System.nanoTime();
+            AtomicLong proxima = new AtomicLong();
+
+            ExecutorService trabalhadores = Executors.newFixedThreadPool(configuracao.concorrencia());
+            for (int t = 0; t < configuracao.concorrencia(); t++) {
+                trabalhadores.execute(() -> {
+                    long i;
+                    while ((i = proxima.getAndIncrement()) < total) {
+                        long previsto = inicio + i * intervaloNanos;
+                        long espera = previsto - System.nanoTime();
+                        if (espera > 0) {
+                            LockSupport.parkNanos(espera);
+                        }
+                        Endpoint endpoint = configuracao.sortear((int) (i % 100));
+                        boolean ok = enviar(endpoint);
+                        // A partir do horário previsto: inclui a espera por um trabalhador livre
+                        histogramas.get(endpoint).recordValue(Math.min(System.nanoTime() - previsto, MAIOR_LATENCIA_NANOS));
+                        if (!ok) {
+                            erros.get(endpoint).increment();
+                        }
+                    }
+                });
+            }
+            trabalhadores.shutdown();
+            trabalhadores.awaitTermination(segundos + 60L, TimeUnit.SECONDS);
+        }
+
+        private boolean enviar(Endpoint endpoint) {
+            HttpRequest requisicao = switch (endpoint) {
+                case POST_TRANSACAO -> HttpRequest.newBuilder(base.resolve("/transacao"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(transacaoAleatoria()))
+                        .build();
+                case GET_ESTATISTICA -> HttpRequest.newBuilder(base.resolve("/estatistica")).GET().build();
+                case DELETE_TRANSACAO -> HttpRequest.newBuilder(base.resolve("/transacao")).DELETE().build();
+            };
+            try {
+                int status = cliente.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode();
+                return status < 300;
+            } catch (IOException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private static String transacaoAleatoria() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            BigDecimal valor = BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+            Instant dataHora = Instant.now().minusSeconds(random.nextInt(30));
+            return "{\"valor\":" + valor.toPlainString() + ",\"dataHora\":\"" + dataHora + "\"}";
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.adapters.tcp;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.application.port.in.RegistrarTransacoesLotePort;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config.EstatisticaProperties;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config.TcpProperties;
+
+/**
+ * Listener TCP do protocolo binário (ver {@link FrameBinario}), para produtores
+ * de alto volume que não querem pagar o parse de JSON.
+ *
+ * Uma única thread com seletor NIO atende todas as conexões. As transações
+ * passam pelas mesmas regras de validação do registro via HTTP; frames
+ * rejeitados só aparecem nos contadores do ack.
+ */
+@Component
+@ConditionalOnProperty(name = "app.tcp.habilitado", havingValue = "true")
+public class BinarioTcpListener implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinarioTcpListener.class);
+
+    private final RegistrarTransacoesLotePort registrarTransacoesLotePort;
+    private final TcpProperties tcpProperties;
+    private final EstatisticaProperties estatisticaProperties;
+    private final Set<ConexaoBinaria> conexoes = ConcurrentHashMap.newKeySet();
+
+    private Selector selector;
+    private ServerSocketChannel servidor;
+    private Thread thread;
+    private volatile boolean rodando;
+
+    public BinarioTcpListener(RegistrarTransacoesLotePort registrarTransacoesLotePort, TcpProperties tcpProperties,
+            EstatisticaProperties estatisticaProperties) {
+        this.registrarTransacoesLotePort = registrarTransacoesLotePort;
+        this.tcpProperties = tcpProperties;
+        this.estatisticaProperties = estatisticaProperties;
+    }
+
+    @Override
+    public void start() {
+        try {
+            selector = Selector.open();
+            servidor = ServerSocketChannel.open();
+            servidor.bind(new InetSocketAddress(tcpProperties.getPorta()));
+            servidor.configureBlocking(false);
+            servidor.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível abrir a porta TCP " + tcpProperties.getPorta(), e);
+        }
+
+        rodando = true;
+        thread = new Thread(this::executar, "tcp-binario");
+        thread.start();
+        logger.info("Listener binário TCP iniciado - Porta: {}", getPortaLocal());
+    }
+
+    @Override
+    public void stop() {
+        rodando = false;
+        selector.wakeup();
+        try {
+            thread.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Listener binário TCP encerrado");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return rodando;
+    }
+
+    public int getPortaLocal() {
+        return servidor.socket().getLocalPort();
+    }
+
+    public List<ConexaoBinaria> getConexoes() {
+        return List.copyOf(conexoes);
+    }
+
+    private void executar() {
+        try {
+            while (rodando) {
+                selector.select();
+                Iterator<SelectionKey> chaves = selector.selectedKeys().iterator();
+                while (chaves.hasNext()) {
+                    SelectionKey chave = chaves.next();
+                    chaves.remove();
+                    if (chave.isAcceptable()) {
+                        aceitar();
+                    } else {
+                        atender(chave);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Erro no seletor do listener binário TCP", e);
+        } finally {
+            conexoes.forEach(ConexaoBinaria::fechar);
+            conexoes.clear();
+            try {
+                servidor.close();
+                selector.close();
+            } catch (IOException e) {
+                logger.debug("Erro ao fechar o listener binário TCP", e);
+            }
+        }
+    }
+
+    private void aceitar() throws IOException {
+        SocketChannel canal = servidor.accept();
+        if (canal == null) {
+            return;
+        }
+        canal.configureBlocking(false);
+        canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        SelectionKey chave = canal.register(selector, SelectionKey.OP_READ);
+        ConexaoBinaria conexao = new ConexaoBinaria(canal, chave, registrarTransacoesLotePort,
+                tcpProperties.getTamanhoBuffer(), estatisticaProperties.getEscalaPontoFixo());
+        chave.attach(conexao);
+        conexoes.add(conexao);
+        logger.info("Conexão binária aceita - Remoto: {}", conexao.getRemoto());
+    }
+
+    private void atender(SelectionKey chave) {
+        ConexaoBinaria conexao = (ConexaoBinaria) chave.attachment();
+        try {
+            if (chave.isReadable()) {
+                conexao.ler();
+            }
+            if (chave.isValid() && chave.isWritable()) {
+                conexao.escrever();
+            }
+        } catch (IOException e) {
+            logger.warn("Erro na conexão binária {}: {}", conexao.getRemoto(), e.getMessage());
+            conexao.fechar();
+        } catch (RuntimeException e) {
+            logger.error("Erro ao registrar transações da conexão binária {}", conexao.getRemoto(), e);
+            conexao.fechar();
+        }
+        if (!conexao.isAberta()) {
+            conexoes.remove(conexao);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.adapters.tcp;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.application.port.in.RegistrarTransacoesLotePort;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.ResultadoLote;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+
+/**
+ * Estado de uma conexão do protocolo binário. Só é usada pela thread do
+ * seletor; os contadores são voláteis apenas para leitura externa (actuator).
+ *
+ * Cada leitura do socket decodifica todos os frames completos direto do buffer
+ * direto, registra-os como um grupo e responde com um ack. Um frame partido
+ * entre leituras fica no buffer até completar.
+ */
+public class ConexaoBinaria {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConexaoBinaria.class);
+
+    private final SocketChannel canal;
+    private final SelectionKey chave;
+    private final String remoto;
+    private final RegistrarTransacoesLotePort registrarTransacoesLotePort;
+    private final int escala;
+
+    private final ByteBuffer entrada;
+    private final ByteBuffer saida = ByteBuffer.allocateDirect(FrameBinario.TAMANHO_ACK);
+    private final List<Transacao> grupo = new ArrayList<>();
+
+    private volatile long recebidas;
+    private volatile long aceitas;
+    private volatile long rejeitadas;
+    private boolean ackAtrasado;
+    private boolean entradaEncerrada;
+
+    ConexaoBinaria(SocketChannel canal, SelectionKey chave, RegistrarTransacoesLotePort registrarTransacoesLotePort,
+            int tamanhoBuffer, int escala) throws IOException {
+        this.canal = canal;
+        this.chave = chave;
+        this.remoto = String.valueOf(canal.getRemoteAddress());
+        this.registrarTransacoesLotePort = registrarTransacoesLotePort;
+        this.escala = escala;
+        // Múltiplo do frame, para que uma leitura cheia não termine com frame partido à toa
+        int frames = Math.max(1, tamanhoBuffer / FrameBinario.TAMANHO_TRANSACAO);
+        this.entrada = ByteBuffer.allocateDirect(frames * FrameBinario.TAMANHO_TRANSACAO);
+        this.saida.limit(0);
+    }
+
+    void ler() throws IOException {
+        int lidos = canal.read(entrada);
+        if (lidos < 0) {
+            entradaEncerrada = true;
+            if (entrada.position() > 0) {
+                logger.warn("Conexão {} encerrada com frame incompleto - Bytes descartados: {}", remoto, entrada.position());
+            }
+            chave.interestOps(chave.interestOps() & ~SelectionKey.OP_READ);
+            // Ack final, para o cliente saber que tudo foi processado
+            enviarAck();
+            encerrarSeConcluida();
+            return;
+        }
+
+        entrada.flip();
+        while (entrada.remaining() >= FrameBinario.TAMANHO_TRANSACAO) {
+            long epochMillis = entrada.getLong();
+            long valorEscalado = entrada.getLong();
+            grupo.add(toTransacao(epochMillis, valorEscalado));
+        }
+        entrada.compact();
+
+        if (!grupo.isEmpty()) {
+            ResultadoLote resultado = registrarTransacoesLotePort.execute(grupo);
+            recebidas += grupo.size();
+            aceitas += resultado.aceitas();
+            rejeitadas += grupo.size() - resultado.aceitas();
+            grupo.clear();
+            enviarAck();
+        }
+    }
+
+    void escrever() throws IOException {
+        canal.write(saida);
+        if (saida.hasRemaining()) {
+            return;
+        }
+        chave.interestOps(chave.interestOps() & ~SelectionKey.OP_WRITE);
+        if (ackAtrasado) {
+            ackAtrasado = false;
+            enviarAck();
+        }
+        encerrarSeConcluida();
+    }
+
+    void fechar() {
+        chave.cancel();
+        try {
+            canal.close();
+        } catch (IOException e) {
+            logger.debug("Erro ao fechar conexão {}", remoto, e);
+        }
+        logger.info("Conexão binária encerrada - Remoto: {}, Recebidas: {}, Aceitas: {}, Rejeitadas: {}",
+                   remoto, recebidas, aceitas, rejeitadas);
+    }
+
+    boolean isAberta() {
+        return canal.isOpen();
+    }
+
+    private void enviarAck() throws IOException {
+        if (saida.hasRemaining()) {
+            // O cliente ainda não leu o anterior; os contadores vão no próximo
+            ackAtrasado = true;
+            return;
+        }
+        saida.clear();
+        FrameBinario.escreverAck(saida, aceitas, rejeitadas);
+        saida.flip();
+        canal.write(saida);
+        if (saida.hasRemaining()) {
+            chave.interestOps(chave.interestOps() | SelectionKey.OP_WRITE);
+        }
+    }
+
+    private void encerrarSeConcluida() {
+        if (entradaEncerrada && !saida.hasRemaining() && !ackAtrasado) {
+            fechar();
+        }
+    }
+
+    private Transacao toTransacao(long epochMillis, long valorEscalado) {
+        Instant dataHora = Instant.ofEpochMilli(epochMillis);
+        BigDecimal valor = BigDecimal.valueOf(valorEscalado, escala);
+        // O valor já chega em ponto fixo: nada a converter
+        return new Transacao(valor, dataHora, valorEscalado, escala);
+    }
+
+    public String getRemoto() {
+        return remoto;
+    }
+
+    public long getRecebidas() {
+        return recebidas;
+    }
+
+    public long getAceitas() {
+        return aceitas;
+    }
+
+    public long getRejeitadas() {
+        return rejeitadas;
+    }
+}
@@ -0,0 +1,33 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.adapters.tcp;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Formato dos frames do protocolo binário, todos big-endian e de tamanho fixo.
+ *
+ * Transação (cliente para servidor), {@value #TAMANHO_TRANSACAO} bytes:
+ * {@code long} dataHora em epoch millis e {@code long} valor em ponto fixo na
+ * escala configurada em {@code app.estatistica.escala-ponto-fixo} (com escala 2,
+ * 123.45 é enviado como 12345).
+ *
+ * Ack (servidor para cliente), {@value #TAMANHO_ACK} bytes: {@code long}
+ * aceitas e {@code long} rejeitadas, acumulados desde o início da conexão. Como
+ * são acumulados, acks não lidos a tempo podem ser substituídos pelo mais
+ * recente sem perda de informação.
+ */
+public final class FrameBinario {
+
+    public static final int TAMANHO_TRANSACAO = 16;
+    public static final int TAMANHO_ACK = 16;
+
+    private FrameBinario() {
+    }
+
+    public static void escreverTransacao(ByteBuffer destino, long epochMillis, long valorEscalado) {
+        destino.putLong(epochMillis).putLong(valorEscalado);
+    }
+
+    public static void escreverAck(ByteBuffer destino, long aceitas, long rejeitadas) {
+        destino.putLong(aceitas).putLong(rejeitadas);
+    }
+}
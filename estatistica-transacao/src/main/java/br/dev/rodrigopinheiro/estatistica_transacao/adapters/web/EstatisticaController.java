@@ -1,17 +1,26 @@
 package br.dev.rodrigopinheiro.estatistica_transacao.adapters.web;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.cache.SnapshotEstatistica;
 import br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.dto.EstatisticaResponse;
+import br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.dto.HistogramaResponse;
 import br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.mapper.EstatisticaWebMapper;
 import br.dev.rodrigopinheiro.estatistica_transacao.application.port.in.ObterEstatisticasPort;
+import br.dev.rodrigopinheiro.estatistica_transacao.application.port.in.ObterHistogramaPort;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Estatistica;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Histograma;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -23,21 +32,28 @@ import io.swagger.v3.oas.annotations.media.Schema;
 @Tag(name = "Estatísticas", description = "Operações para consulta de estatísticas das transações financeiras")
 public class EstatisticaController {
 
-    private static final Logger logger = LoggerFactory.getLogger(EstatisticaController.class);
-
     private final ObterEstatisticasPort obterEstatisticasPort;
+    private final ObterHistogramaPort obterHistogramaPort;
     private final EstatisticaWebMapper estatisticaWebMapper;
+    private final SnapshotEstatistica snapshotEstatistica;
 
     public EstatisticaController(ObterEstatisticasPort obterEstatisticasPort, 
-                                 EstatisticaWebMapper estatisticaWebMapper) {
+                                 ObterHistogramaPort obterHistogramaPort,
+                                 EstatisticaWebMapper estatisticaWebMapper,
+                                 SnapshotEstatistica snapshotEstatistica) {
         this.obterEstatisticasPort = obterEstatisticasPort;
+        this.obterHistogramaPort = obterHistogramaPort;
         this.estatisticaWebMapper = estatisticaWebMapper;
+        this.snapshotEstatistica = snapshotEstatistica;
     }
 
     @Operation(
         summary = "Obtém estatísticas das transações",
         description = "Retorna estatísticas calculadas das transações registradas nos últimos 60 segundos " +
-                     "(janela configurável). Inclui contagem, soma, média, valor mínimo e máximo."
+                     "(janela configurável). Inclui contagem, soma, média, valor mínimo e máximo. " +
+                     "O parâmetro janela permite consultar outra janela, até a janela máxima configurada. " +
+                     "Sem o parâmetro, a resposta vem de um snapshot recalculado a cada segundo ou escrita, " +
+                     "com ETag e Cache-Control; If-None-Match com o ETag atual retorna 304."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -47,19 +63,71 @@ public class EstatisticaController {
                 mediaType = "application/json",
                 schema = @Schema(implementation = EstatisticaResponse.class)
             )
+        ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Estatísticas inalteradas desde o ETag informado em If-None-Match"
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Janela não numérica"
+        ),
+        @ApiResponse(
+            responseCode = "422",
+            description = "Janela menor que 1 segundo ou maior que a janela máxima"
         )
     })
     @GetMapping
-    public EstatisticaResponse getEstatisticas() {
-        logger.info("Iniciando consulta de estatísticas das transações");
-        
-        Estatistica estatistica = obterEstatisticasPort.execute();
-        EstatisticaResponse response = estatisticaWebMapper.toResponse(estatistica);
-        
-        logger.info("Estatísticas consultadas com sucesso - Count: {}, Sum: {}, Avg: {}, Min: {}, Max: {}", 
-                   response.count(), response.sum(), response.avg(), response.min(), response.max());
-        
-        return response;
+    public ResponseEntity<?> getEstatisticas(
+            @Parameter(description = "Janela em segundos (padrão: janela configurada)", example = "300")
+            @RequestParam(name = "janela", required = false) Integer janela) {
+        if (janela == null) {
+            // O Spring compara o ETag com If-None-Match e responde 304 sem corpo
+            SnapshotEstatistica.Snapshot snapshot = snapshotEstatistica.obter();
+            return ResponseEntity.ok()
+                    .eTag(snapshot.etag())
+                    .cacheControl(CacheControl.maxAge(1, TimeUnit.SECONDS))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(snapshot.corpo());
+        }
+
+        Estatistica estatistica = obterEstatisticasPort.execute(janela);
+        // O log da consulta é do caso de uso, amostrado (ver RegistroRequisicoes)
+        return ResponseEntity.ok(estatisticaWebMapper.toResponse(estatistica));
+    }
+
+    @Operation(
+        summary = "Obtém o histograma dos valores das transações",
+        description = "Retorna quantas transações da janela caíram em cada faixa de valor. As faixas são fixas, " +
+                     "em escala logarítmica 1-2-5 (0,01; 0,02; 0,05; 0,1; ...) até 1e9, e vêm todas na resposta, " +
+                     "inclusive as vazias. O parâmetro janela funciona como em GET /estatistica."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Histograma calculado com sucesso",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = HistogramaResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Janela não numérica"
+        ),
+        @ApiResponse(
+            responseCode = "422",
+            description = "Janela menor que 1 segundo ou maior que a janela máxima"
+        )
+    })
+    @GetMapping("/histograma")
+    public ResponseEntity<HistogramaResponse> getHistograma(
+            @Parameter(description = "Janela em segundos (padrão: janela configurada)", example = "300")
+            @RequestParam(name = "janela", required = false) Integer janela) {
+        Histograma histograma = janela == null
+                ? obterHistogramaPort.execute()
+                : obterHistogramaPort.execute(janela);
+        return ResponseEntity.ok(estatisticaWebMapper.toResponse(histograma));
     }
     
 }
@@ -1,18 +1,31 @@
 package br.dev.rodrigopinheiro.estatistica_transacao.adapters.web;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 
+import br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.dto.LoteTransacaoResponse;
+import br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.dto.StreamTransacaoResponse;
 import br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.dto.TransacaoRequest;
+import br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.mapper.ResumoStream;
+import br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.mapper.TransacaoLoteReader;
 import br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.mapper.TransacaoWebMapper;
 import br.dev.rodrigopinheiro.estatistica_transacao.application.port.in.LimparTransacoesPort;
 import br.dev.rodrigopinheiro.estatistica_transacao.application.port.in.RegistrarTransacaoPort;
+import br.dev.rodrigopinheiro.estatistica_transacao.application.port.in.RegistrarTransacoesLotePort;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.ResultadoLote;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -22,16 +35,23 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 @Tag(name = "Transações", description = "Operações relacionadas ao registro e gerenciamento de transações financeiras")
 public class TransacaoController {
 
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     private static final Logger logger = LoggerFactory.getLogger(TransacaoController.class);
 
     private final RegistrarTransacaoPort registrarTransacaoPort;
+    private final RegistrarTransacoesLotePort registrarTransacoesLotePort;
     private final LimparTransacoesPort deletarTransacoesPort;
     private final TransacaoWebMapper transacaoWebMapper;
+    private final TransacaoLoteReader transacaoLoteReader;
     
-    public TransacaoController(RegistrarTransacaoPort registrarTransacaoPort, LimparTransacoesPort deletarTransacoesPort, TransacaoWebMapper transacaoWebMapper) {
+    public TransacaoController(RegistrarTransacaoPort registrarTransacaoPort, RegistrarTransacoesLotePort registrarTransacoesLotePort,
+            LimparTransacoesPort deletarTransacoesPort, TransacaoWebMapper transacaoWebMapper, TransacaoLoteReader transacaoLoteReader) {
         this.registrarTransacaoPort = registrarTransacaoPort;
+        this.registrarTransacoesLotePort = registrarTransacoesLotePort;
         this.deletarTransacoesPort = deletarTransacoesPort;
         this.transacaoWebMapper = transacaoWebMapper;
+        this.transacaoLoteReader = transacaoLoteReader;
     }
     
 
@@ -60,14 +80,79 @@ public class TransacaoController {
         @Parameter(description = "Dados da transação a ser registrada", required = true)
         @RequestBody TransacaoRequest request
     ) {
-        logger.info("Iniciando registro de transação - Valor: {}, DataHora: {}", 
-                   request.valor(), request.dataHora());
-        
+        // O log do registro é do caso de uso, amostrado (ver RegistroRequisicoes)
         Transacao transacao = transacaoWebMapper.toDomain(request);
         registrarTransacaoPort.execute(transacao);
-        
-        logger.info("Transação registrada com sucesso - Valor: {}, DataHora: {}", 
-                   request.valor(), request.dataHora());
+    }
+
+    @Operation(
+        summary = "Registra um lote de transações",
+        description = "Registra um array de transações em uma única requisição. Cada item é validado " +
+                     "com as mesmas regras do registro individual; os válidos são registrados e os " +
+                     "inválidos são devolvidos com o índice no array e o motivo."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200", 
+            description = "Lote processado; a resposta lista os itens rejeitados"
+        ),
+        @ApiResponse(
+            responseCode = "422", 
+            description = "Lote com mais itens que o máximo configurado"
+        ),
+        @ApiResponse(
+            responseCode = "400", 
+            description = "JSON malformado ou corpo que não é um array"
+        )
+    })
+    @PostMapping(path = "/lote", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public LoteTransacaoResponse registrarLote(
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Array de transações a serem registradas",
+            required = true,
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = TransacaoRequest.class)))
+        )
+        InputStream corpo
+    ) throws IOException {
+        // Lido em streaming, sem data binding para List<TransacaoRequest>
+        TransacaoLoteReader.Lote lote = transacaoLoteReader.ler(corpo);
+        ResultadoLote resultado = registrarTransacoesLotePort.execute(lote.transacoes());
+
+        return transacaoWebMapper.toLoteResponse(lote, resultado);
+    }
+
+    @Operation(
+        summary = "Registra um stream NDJSON de transações",
+        description = "Lê uma transação por linha enquanto o corpo chega, registrando cada grupo de linhas " +
+                     "assim que é recebido, sem esperar o fim da requisição. A memória usada não depende do " +
+                     "tamanho do stream. Linhas inválidas são contadas e ignoradas; ao fim do stream a " +
+                     "resposta traz os totais de aceitas e rejeitadas."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200", 
+            description = "Stream processado; a resposta traz os totais"
+        )
+    })
+    @PostMapping(path = "/stream", consumes = APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public StreamTransacaoResponse registrarStream(
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Transações em NDJSON, uma por linha",
+            required = true,
+            content = @Content(mediaType = APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = TransacaoRequest.class))
+        )
+        InputStream corpo
+    ) throws IOException {
+        ResumoStream resumo = new ResumoStream();
+        long total = transacaoLoteReader.lerNdjson(corpo,
+                grupo -> resumo.registrar(grupo, registrarTransacoesLotePort.execute(grupo.transacoes())));
+
+        StreamTransacaoResponse response = resumo.toResponse(total);
+        logger.info("Stream de transações encerrado - Total: {}, Aceitas: {}, Rejeitadas: {}", 
+                   response.total(), response.aceitas(), response.rejeitadas());
+        return response;
     }
 
     @Operation(
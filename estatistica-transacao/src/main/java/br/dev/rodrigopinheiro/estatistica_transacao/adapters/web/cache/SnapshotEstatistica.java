@@ -0,0 +1,106 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.cache;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.mapper.EstatisticaWebMapper;
+import br.dev.rodrigopinheiro.estatistica_transacao.application.port.in.ObterEstatisticasPort;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.TransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.time.Relogio;
+
+/**
+ * Resposta de GET /estatistica para a janela padrão, já serializada.
+ *
+ * O snapshot vale enquanto o segundo do relógio é o mesmo e o repositório não
+ * recebeu escritas depois do cálculo ({@link TransacaoRepository#versao()}).
+ * Um leitor aceita qualquer snapshot calculado depois da sua chegada, então
+ * leitores concorrentes esperam um único cálculo em vez de repeti-lo. A cada
+ * virada de segundo o snapshot é recalculado antes das leituras.
+ *
+ * O ETag é derivado do conteúdo: enquanto as estatísticas não mudam, o mesmo
+ * ETag vale de um segundo para o outro.
+ */
+@Component
+public class SnapshotEstatistica {
+
+    private final ObterEstatisticasPort obterEstatisticasPort;
+    private final TransacaoRepository repository;
+    private final Relogio relogio;
+    private final EstatisticaWebMapper estatisticaWebMapper;
+    private final ObjectMapper objectMapper;
+
+    private volatile Snapshot atual;
+
+    public SnapshotEstatistica(ObterEstatisticasPort obterEstatisticasPort, TransacaoRepository repository,
+            Relogio relogio, EstatisticaWebMapper estatisticaWebMapper, ObjectMapper objectMapper) {
+        this.obterEstatisticasPort = obterEstatisticasPort;
+        this.repository = repository;
+        this.relogio = relogio;
+        this.estatisticaWebMapper = estatisticaWebMapper;
+        this.objectMapper = objectMapper;
+    }
+
+    public Snapshot obter() {
+        // Versão lida antes do segundo e do cálculo: uma escrita concorrente só
+        // faz o próximo leitor recalcular, nunca perder a escrita
+        long versao = repository.versao();
+        long segundo = relogio.agora().getEpochSecond();
+        Snapshot snapshot = atual;
+        if (snapshot != null && snapshot.vale(segundo, versao)) {
+            return snapshot;
+        }
+        synchronized (this) {
+            snapshot = atual;
+            if (snapshot != null && snapshot.vale(segundo, versao)) {
+                return snapshot;
+            }
+            snapshot = calcular(segundo, versao);
+            atual = snapshot;
+            return snapshot;
+        }
+    }
+
+    @Scheduled(cron = "* * * * * *")
+    public void atualizar() {
+        obter();
+    }
+
+    private Snapshot calcular(long segundo, long versao) {
+        byte[] corpo;
+        try {
+            corpo = objectMapper.writeValueAsBytes(estatisticaWebMapper.toResponse(obterEstatisticasPort.execute()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível serializar as estatísticas", e);
+        }
+        return new Snapshot(segundo, versao, corpo, etag(corpo));
+    }
+
+    private static String etag(byte[] corpo) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(corpo);
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param segundo segundo do relógio em que foi calculado
+     * @param versao  versão do repositório lida antes do cálculo
+     * @param corpo   resposta serializada em JSON
+     * @param etag    ETag forte, já entre aspas
+     */
+    public record Snapshot(long segundo, long versao, byte[] corpo, String etag) {
+
+        boolean vale(long segundo, long versao) {
+            return this.segundo == segundo && this.versao >= versao;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.dto;
 
 import java.math.BigDecimal;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import io.swagger.v3.oas.annotations.media.Schema;
 
 @Schema(description = "Estatísticas calculadas das transações financeiras")
@@ -34,6 +36,42 @@ public record EstatisticaResponse(
         description = "Maior valor entre as transações", 
         example = "500.00"
     )
-    BigDecimal max
+    BigDecimal max,
+
+    @Schema(
+        description = "Variância populacional dos valores (arredondada para 2 casas decimais)",
+        example = "24120.04"
+    )
+    BigDecimal variance,
+
+    @Schema(
+        description = "Desvio padrão populacional dos valores (arredondado para 2 casas decimais)",
+        example = "155.31"
+    )
+    BigDecimal stddev,
+
+    @Schema(
+        description = "Mediana estimada dos valores, com erro relativo de até 1%. Presente só com os percentis habilitados",
+        example = "180.00",
+        nullable = true
+    )
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    BigDecimal p50,
+
+    @Schema(
+        description = "Percentil 90 estimado dos valores, com erro relativo de até 1%. Presente só com os percentis habilitados",
+        example = "420.00",
+        nullable = true
+    )
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    BigDecimal p90,
+
+    @Schema(
+        description = "Percentil 99 estimado dos valores, com erro relativo de até 1%. Presente só com os percentis habilitados",
+        example = "495.00",
+        nullable = true
+    )
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    BigDecimal p99
     ) {
 }
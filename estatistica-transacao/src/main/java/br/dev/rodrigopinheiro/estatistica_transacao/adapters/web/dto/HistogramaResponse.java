@@ -0,0 +1,45 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Distribuição dos valores das transações em faixas fixas de escala logarítmica")
+public record HistogramaResponse(
+    @Schema(
+        description = "Número total de transações na janela de tempo",
+        example = "5"
+    )
+    long count,
+
+    @Schema(description = "Faixas em ordem crescente, sempre as mesmas, inclusive as vazias")
+    List<Faixa> faixas
+    ) {
+
+    @Schema(description = "Faixa de valores do histograma")
+    public record Faixa(
+        @Schema(
+            description = "Limite inferior da faixa, inclusivo",
+            example = "100"
+        )
+        BigDecimal de,
+
+        @Schema(
+            description = "Limite superior da faixa, exclusivo. Ausente na última faixa, que não tem limite",
+            example = "200",
+            nullable = true
+        )
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        BigDecimal ate,
+
+        @Schema(
+            description = "Número de transações com valor na faixa",
+            example = "3"
+        )
+        long count
+        ) {
+    }
+}
@@ -0,0 +1,46 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Resultado do registro de um lote de transações")
+public record LoteTransacaoResponse(
+    @Schema(
+        description = "Quantidade de transações recebidas no lote",
+        example = "3"
+    )
+    int total,
+
+    @Schema(
+        description = "Quantidade de transações registradas",
+        example = "2"
+    )
+    int aceitas,
+
+    @Schema(description = "Transações rejeitadas, em ordem de índice")
+    List<Rejeicao> rejeitadas
+) {
+
+    @Schema(description = "Transação rejeitada do lote")
+    public record Rejeicao(
+        @Schema(
+            description = "Posição da transação no array enviado, a partir de 0",
+            example = "1"
+        )
+        int indice,
+
+        @Schema(
+            description = "Código do motivo da rejeição",
+            example = "VALOR_NEGATIVO"
+        )
+        String codigo,
+
+        @Schema(
+            description = "Descrição do motivo da rejeição",
+            example = "Valor negativo não é permitido"
+        )
+        String mensagem
+    ) {
+    }
+}
@@ -0,0 +1,33 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.dto;
+
+import java.util.Map;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Resumo do registro de um stream NDJSON de transações")
+public record StreamTransacaoResponse(
+    @Schema(
+        description = "Quantidade de linhas recebidas, sem contar as em branco",
+        example = "1000"
+    )
+    long total,
+
+    @Schema(
+        description = "Quantidade de transações registradas",
+        example = "998"
+    )
+    long aceitas,
+
+    @Schema(
+        description = "Quantidade de linhas rejeitadas",
+        example = "2"
+    )
+    long rejeitadas,
+
+    @Schema(
+        description = "Quantidade de linhas rejeitadas por código do motivo",
+        example = "{\"JSON_INVALID\": 1, \"DATA_FUTURA\": 1}"
+    )
+    Map<String, Long> rejeitadasPorCodigo
+) {
+}
@@ -2,6 +2,7 @@ package br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.handler;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -9,7 +10,10 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+
 import br.dev.rodrigopinheiro.estatistica_transacao.application.exception.RegraNegocioException;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.exception.CapacidadeEsgotadaException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
 
@@ -31,6 +35,15 @@ public class RestExceptionHandler {
         return ResponseEntity.unprocessableEntity().build();
     }
 
+    @ExceptionHandler(CapacidadeEsgotadaException.class)
+    public ResponseEntity<Void> handleCapacidadeEsgotadaException(CapacidadeEsgotadaException ex, HttpServletRequest request) {
+        logger.warn("Transação recusada, capacidade esgotada - URI: {}, Método: {}, IP: {}", 
+                   request.getRequestURI(), 
+                   request.getMethod(), 
+                   getClientIpAddress(request));
+        return ResponseEntity.status(HttpStatus.INSUFFICIENT_STORAGE).build();
+    }
+
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<Void> handleHttpMessageNotReadableException(HttpMessageNotReadableException ex, HttpServletRequest request) {
         logger.warn("JSON inválido recebido - URI: {}, Método: {}, Erro: {}, IP: {}", 
@@ -41,6 +54,17 @@ public class RestExceptionHandler {
         return ResponseEntity.badRequest().build();
     }
 
+    @ExceptionHandler(JsonProcessingException.class)
+    public ResponseEntity<Void> handleJsonProcessingException(JsonProcessingException ex, HttpServletRequest request) {
+        // Lançada pelos endpoints que leem o corpo em streaming, sem o conversor do Spring
+        logger.warn("JSON inválido recebido - URI: {}, Método: {}, Erro: {}, IP: {}", 
+                   request.getRequestURI(), 
+                   request.getMethod(), 
+                   ex.getOriginalMessage(),
+                   getClientIpAddress(request));
+        return ResponseEntity.badRequest().build();
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Void> handleMethodArgumentNotValidException(MethodArgumentNotValidException ex, HttpServletRequest request) {
         logger.warn("Validação de argumentos falhou - URI: {}, Método: {}, Erros: {}, IP: {}", 
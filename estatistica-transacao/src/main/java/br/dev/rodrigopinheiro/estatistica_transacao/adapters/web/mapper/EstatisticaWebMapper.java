@@ -3,18 +3,36 @@ package br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.mapper;
 import org.springframework.stereotype.Component;
 
 import br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.dto.EstatisticaResponse;
+import br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.dto.HistogramaResponse;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Estatistica;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Histograma;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Percentis;
 
 @Component
 public class EstatisticaWebMapper {
 
     public EstatisticaResponse toResponse(Estatistica estatistica) {
+        Percentis percentis = estatistica.percentis();
         return new EstatisticaResponse(
             estatistica.count(),
            estatistica.sum(),
            estatistica.avg(),
            estatistica.min(),
-           estatistica.max()
+           estatistica.max(),
+           estatistica.variance(),
+           estatistica.stddev(),
+           percentis != null ? percentis.p50() : null,
+           percentis != null ? percentis.p90() : null,
+           percentis != null ? percentis.p99() : null
+        );
+    }
+
+    public HistogramaResponse toResponse(Histograma histograma) {
+        return new HistogramaResponse(
+            histograma.count(),
+            histograma.faixas().stream()
+                .map(faixa -> new HistogramaResponse.Faixa(faixa.de(), faixa.ate(), faixa.count()))
+                .toList()
         );
     }
     
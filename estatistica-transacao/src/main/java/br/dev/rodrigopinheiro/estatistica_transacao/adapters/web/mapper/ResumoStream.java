@@ -0,0 +1,42 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.mapper;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.dto.StreamTransacaoResponse;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.ResultadoLote;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.enums.ErroCode;
+
+/**
+ * Contadores de um stream NDJSON. Guarda só totais por código, e não as
+ * rejeições em si, para que a memória não cresça com o tamanho do stream.
+ */
+public class ResumoStream {
+
+    private long aceitas;
+    private long rejeitadas;
+    private final Map<ErroCode, Long> porCodigo = new EnumMap<>(ErroCode.class);
+
+    /** Soma um grupo: as rejeições da leitura e as da validação. */
+    public void registrar(TransacaoLoteReader.Lote grupo, ResultadoLote resultado) {
+        aceitas += resultado.aceitas();
+        for (ResultadoLote.Rejeicao rejeicao : grupo.rejeicoes()) {
+            rejeitar(rejeicao.erro());
+        }
+        for (ResultadoLote.Rejeicao rejeicao : resultado.rejeicoes()) {
+            rejeitar(rejeicao.erro());
+        }
+    }
+
+    public StreamTransacaoResponse toResponse(long total) {
+        Map<String, Long> rejeitadasPorCodigo = new LinkedHashMap<>();
+        porCodigo.forEach((erro, quantidade) -> rejeitadasPorCodigo.put(erro.code(), quantidade));
+        return new StreamTransacaoResponse(total, aceitas, rejeitadas, rejeitadasPorCodigo);
+    }
+
+    private void rejeitar(ErroCode erro) {
+        rejeitadas++;
+        porCodigo.merge(erro, 1L, Long::sum);
+    }
+}
@@ -0,0 +1,294 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.mapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.dto.TransacaoRequest;
+import br.dev.rodrigopinheiro.estatistica_transacao.application.exception.RegraNegocioException;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.ResultadoLote;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.enums.ErroCode;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config.EstatisticaProperties;
+
+/**
+ * Lê um array JSON de transações com o parser de streaming do Jackson, sem
+ * passar pelo data binding de uma {@code List<TransacaoRequest>}.
+ *
+ * Cada elemento é lido token a token. Um elemento que não é objeto, ou que tem
+ * {@code valor} ou {@code dataHora} com tipo incompatível, é rejeitado no seu
+ * índice e a leitura continua; campos desconhecidos são ignorados, como no
+ * registro individual. JSON malformado ou raiz que não é array interrompe a
+ * leitura com {@link JsonParseException}.
+ *
+ * Também lê NDJSON (uma transação por linha) de forma incremental: as linhas são
+ * entregues em grupos pequenos assim que chegam, e uma linha inválida é
+ * rejeitada sem interromper o stream.
+ */
+@Component
+public class TransacaoLoteReader {
+
+    // Linhas maiores que isso são rejeitadas sem serem guardadas inteiras
+    static final int MAX_BYTES_LINHA = 16 * 1024;
+    static final int TAMANHO_GRUPO_NDJSON = 256;
+
+    private final JsonFactory jsonFactory;
+    private final TransacaoWebMapper transacaoWebMapper;
+    private final EstatisticaProperties estatisticaProperties;
+
+    public TransacaoLoteReader(ObjectMapper objectMapper, TransacaoWebMapper transacaoWebMapper,
+            EstatisticaProperties estatisticaProperties) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.transacaoWebMapper = transacaoWebMapper;
+        this.estatisticaProperties = estatisticaProperties;
+    }
+
+    public Lote ler(InputStream corpo) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(corpo)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Esperado um array de transações");
+            }
+
+            List<Transacao> transacoes = new ArrayList<>();
+            List<Integer> indices = new ArrayList<>();
+            List<ResultadoLote.Rejeicao> rejeicoes = new ArrayList<>();
+            int indice = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new JsonParseException(parser, "Array de transações incompleto");
+                }
+                if (indice >= estatisticaProperties.getMaxItensLote()) {
+                    throw new RegraNegocioException(ErroCode.LOTE_MUITO_GRANDE);
+                }
+
+                TransacaoRequest request = null;
+                if (token == JsonToken.START_OBJECT) {
+                    request = lerTransacao(parser);
+                } else {
+                    parser.skipChildren();
+                }
+                if (request == null) {
+                    rejeicoes.add(new ResultadoLote.Rejeicao(indice, ErroCode.JSON_INVALID));
+                } else {
+                    transacoes.add(transacaoWebMapper.toDomain(request));
+                    indices.add(indice);
+                }
+                indice++;
+            }
+
+            if (parser.nextToken() != null) {
+                throw new JsonParseException(parser, "Conteúdo após o array de transações");
+            }
+            return new Lote(indice, transacoes, indices, rejeicoes);
+        }
+    }
+
+    /**
+     * Lê um corpo NDJSON até o fim, entregando as linhas em grupos de até
+     * {@value #TAMANHO_GRUPO_NDJSON}. Um grupo é entregue antes de bloquear à
+     * espera de mais dados, para que cada linha seja aplicada assim que chega; a
+     * memória usada não depende do tamanho do stream. Linhas em branco são
+     * ignoradas, e os índices de cada grupo são relativos ao próprio grupo.
+     *
+     * @return quantidade de linhas lidas, sem contar as em branco
+     */
+    public long lerNdjson(InputStream corpo, Consumer<Lote> aoLerGrupo) throws IOException {
+        byte[] buffer = new byte[8 * 1024];
+        byte[] linha = new byte[1024];
+        int tamanhoLinha = 0;
+        boolean linhaGrande = false;
+        long linhas = 0;
+        GrupoNdjson grupo = new GrupoNdjson();
+
+        while (true) {
+            if (grupo.total > 0 && corpo.available() <= 0) {
+                // Nada mais disponível sem bloquear: aplica o que já chegou
+                aoLerGrupo.accept(grupo.fechar());
+            }
+            int lidos = corpo.read(buffer);
+            if (lidos < 0) {
+                break;
+            }
+            for (int i = 0; i < lidos; i++) {
+                byte b = buffer[i];
+                if (b != '\n') {
+                    if (tamanhoLinha < MAX_BYTES_LINHA) {
+                        if (tamanhoLinha == linha.length) {
+                            linha = Arrays.copyOf(linha, Math.min(linha.length * 2, MAX_BYTES_LINHA));
+                        }
+                        linha[tamanhoLinha++] = b;
+                    } else {
+                        linhaGrande = true;
+                    }
+                    continue;
+                }
+                if (adicionarLinha(grupo, linha, tamanhoLinha, linhaGrande)) {
+                    linhas++;
+                }
+                tamanhoLinha = 0;
+                linhaGrande = false;
+                if (grupo.total == TAMANHO_GRUPO_NDJSON) {
+                    aoLerGrupo.accept(grupo.fechar());
+                }
+            }
+        }
+
+        // Última linha sem quebra no fim
+        if (adicionarLinha(grupo, linha, tamanhoLinha, linhaGrande)) {
+            linhas++;
+        }
+        if (grupo.total > 0) {
+            aoLerGrupo.accept(grupo.fechar());
+        }
+        return linhas;
+    }
+
+    /** @return se a linha contou (não estava em branco) */
+    private boolean adicionarLinha(GrupoNdjson grupo, byte[] linha, int tamanho, boolean linhaGrande) throws IOException {
+        if (linhaGrande) {
+            grupo.rejeitar();
+            return true;
+        }
+        if (tamanho > 0 && linha[tamanho - 1] == '\r') {
+            tamanho--;
+        }
+        if (isEmBranco(linha, tamanho)) {
+            return false;
+        }
+
+        TransacaoRequest request = null;
+        try (JsonParser parser = jsonFactory.createParser(linha, 0, tamanho)) {
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                request = lerTransacao(parser);
+                if (parser.nextToken() != null) {
+                    // Mais de um valor na mesma linha
+                    request = null;
+                }
+            }
+        } catch (JsonProcessingException e) {
+            request = null;
+        }
+
+        if (request == null) {
+            grupo.rejeitar();
+        } else {
+            grupo.aceitar(transacaoWebMapper.toDomain(request));
+        }
+        return true;
+    }
+
+    private static boolean isEmBranco(byte[] linha, int tamanho) {
+        for (int i = 0; i < tamanho; i++) {
+            byte b = linha[i];
+            if (b != ' ' && b != '\t' && b != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lê os campos de um objeto até o seu fim.
+     *
+     * @return a transação lida, ou {@code null} se algum campo tem tipo incompatível
+     */
+    private TransacaoRequest lerTransacao(JsonParser parser) throws IOException {
+        BigDecimal valor = null;
+        OffsetDateTime dataHora = null;
+        boolean valido = true;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String campo = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (campo) {
+                case "valor" -> {
+                    if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                        valor = parser.getDecimalValue();
+                    } else if (token == JsonToken.VALUE_STRING) {
+                        try {
+                            valor = new BigDecimal(parser.getText());
+                        } catch (NumberFormatException e) {
+                            valido = false;
+                        }
+                    } else if (token != JsonToken.VALUE_NULL) {
+                        valido = false;
+                        parser.skipChildren();
+                    }
+                }
+                case "dataHora" -> {
+                    if (token == JsonToken.VALUE_STRING) {
+                        try {
+                            dataHora = OffsetDateTime.parse(parser.getText());
+                        } catch (DateTimeParseException e) {
+                            valido = false;
+                        }
+                    } else if (token != JsonToken.VALUE_NULL) {
+                        valido = false;
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return valido ? new TransacaoRequest(valor, dataHora) : null;
+    }
+
+    /** Linhas do grupo NDJSON atual, descartadas a cada entrega. */
+    private static final class GrupoNdjson {
+
+        private List<Transacao> transacoes = new ArrayList<>();
+        private List<Integer> indices = new ArrayList<>();
+        private List<ResultadoLote.Rejeicao> rejeicoes = new ArrayList<>();
+        private int total;
+
+        void aceitar(Transacao transacao) {
+            transacoes.add(transacao);
+            indices.add(total++);
+        }
+
+        void rejeitar() {
+            rejeicoes.add(new ResultadoLote.Rejeicao(total++, ErroCode.JSON_INVALID));
+        }
+
+        Lote fechar() {
+            Lote lote = new Lote(total, transacoes, indices, rejeicoes);
+            transacoes = new ArrayList<>();
+            indices = new ArrayList<>();
+            rejeicoes = new ArrayList<>();
+            total = 0;
+            return lote;
+        }
+    }
+
+    /**
+     * Transações lidas de um lote.
+     *
+     * @param total      quantidade de elementos do array
+     * @param transacoes transações que puderam ser lidas, na ordem do array
+     * @param indices    índice no array de cada uma das transações lidas
+     * @param rejeicoes  elementos que não puderam ser lidos
+     */
+    public record Lote(
+        int total,
+        List<Transacao> transacoes,
+        List<Integer> indices,
+        List<ResultadoLote.Rejeicao> rejeicoes
+    ) {
+    }
+}
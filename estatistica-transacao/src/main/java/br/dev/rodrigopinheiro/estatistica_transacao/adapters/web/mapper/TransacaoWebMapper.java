@@ -1,17 +1,50 @@
 package br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.mapper;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
 import org.springframework.stereotype.Component;
 
+import br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.dto.LoteTransacaoResponse;
 import br.dev.rodrigopinheiro.estatistica_transacao.adapters.web.dto.TransacaoRequest;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.ResultadoLote;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config.EstatisticaProperties;
 
 @Component
 public class TransacaoWebMapper {
+
+    private final EstatisticaProperties estatisticaProperties;
+
+    public TransacaoWebMapper(EstatisticaProperties estatisticaProperties) {
+        this.estatisticaProperties = estatisticaProperties;
+    }
     
     public Transacao toDomain(TransacaoRequest request) {
-        return new Transacao(
-            request.valor(),
-            request.dataHora() != null ? request.dataHora().toInstant() : null
-        );
+        Instant dataHora = request.dataHora() != null ? request.dataHora().toInstant() : null;
+        // Conversão única para ponto fixo; daqui em diante a agregação usa long
+        return Transacao.comPontoFixo(request.valor(), dataHora, estatisticaProperties.getEscalaPontoFixo());
+    }
+
+    /**
+     * Junta as rejeições da leitura do lote com as da validação, traduzindo os
+     * índices da validação (relativos às transações lidas) para o array enviado.
+     */
+    public LoteTransacaoResponse toLoteResponse(TransacaoLoteReader.Lote lote, ResultadoLote resultado) {
+        List<LoteTransacaoResponse.Rejeicao> rejeitadas = new ArrayList<>();
+        for (ResultadoLote.Rejeicao rejeicao : lote.rejeicoes()) {
+            rejeitadas.add(toRejeicao(rejeicao.indice(), rejeicao));
+        }
+        for (ResultadoLote.Rejeicao rejeicao : resultado.rejeicoes()) {
+            rejeitadas.add(toRejeicao(lote.indices().get(rejeicao.indice()), rejeicao));
+        }
+        rejeitadas.sort(Comparator.comparingInt(LoteTransacaoResponse.Rejeicao::indice));
+        return new LoteTransacaoResponse(lote.total(), resultado.aceitas(), rejeitadas);
+    }
+
+    private static LoteTransacaoResponse.Rejeicao toRejeicao(int indice, ResultadoLote.Rejeicao rejeicao) {
+        return new LoteTransacaoResponse.Rejeicao(indice, rejeicao.erro().code(), rejeicao.erro().message());
     }
 }
@@ -4,4 +4,5 @@ import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Estatistica;
 
 public interface ObterEstatisticasPort {
     Estatistica execute();
+    Estatistica execute(int janelaSegundos);
 }
@@ -0,0 +1,8 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.application.port.in;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Histograma;
+
+public interface ObterHistogramaPort {
+    Histograma execute();
+    Histograma execute(int janelaSegundos);
+}
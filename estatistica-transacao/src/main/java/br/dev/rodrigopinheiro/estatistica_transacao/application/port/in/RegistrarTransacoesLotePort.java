@@ -0,0 +1,10 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.application.port.in;
+
+import java.util.List;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.ResultadoLote;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+
+public interface RegistrarTransacoesLotePort {
+    ResultadoLote execute(List<Transacao> transacoes);
+}
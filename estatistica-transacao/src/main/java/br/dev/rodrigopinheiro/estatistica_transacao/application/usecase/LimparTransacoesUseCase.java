@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import br.dev.rodrigopinheiro.estatistica_transacao.application.port.in.LimparTransacoesPort;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.DiarioTransacoes;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.TransacaoRepository;
 import org.springframework.stereotype.Service;
 
@@ -13,15 +14,18 @@ public class LimparTransacoesUseCase implements LimparTransacoesPort {
     private static final Logger logger = LoggerFactory.getLogger(LimparTransacoesUseCase.class);
     
     private final TransacaoRepository repository;
+    private final DiarioTransacoes diario;
 
-    public LimparTransacoesUseCase(TransacaoRepository repository) {
+    public LimparTransacoesUseCase(TransacaoRepository repository, DiarioTransacoes diario) {
         this.repository = repository;
+        this.diario = diario;
     }
     
     @Override
     public void execute() {
         logger.info("Iniciando limpeza de todas as transações do repositório");
         
+        diario.limpar();
         repository.deleteAll();
         
         logger.info("Limpeza de transações concluída com sucesso");
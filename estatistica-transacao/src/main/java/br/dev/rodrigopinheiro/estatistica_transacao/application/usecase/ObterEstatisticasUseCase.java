@@ -3,18 +3,26 @@ package br.dev.rodrigopinheiro.estatistica_transacao.application.usecase;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import br.dev.rodrigopinheiro.estatistica_transacao.application.exception.RegraNegocioException;
 import br.dev.rodrigopinheiro.estatistica_transacao.application.port.in.ObterEstatisticasPort;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Estatistica;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.enums.ErroCode;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.TransacaoRepository;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.EstatisticaRepository;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.service.EstatisticaCalculator;
 import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config.EstatisticaProperties;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.log.CategoriaLog;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.log.RegistroRequisicoes;
 import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.time.Relogio;
 
 import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 @Service
 public class ObterEstatisticasUseCase implements ObterEstatisticasPort {
     
@@ -24,38 +32,76 @@ public class ObterEstatisticasUseCase implements ObterEstatisticasPort {
     private final Relogio relogio;
     private final EstatisticaProperties estatisticaProperties;
     private final EstatisticaCalculator calculator;
+    private final RegistroRequisicoes registroRequisicoes;
+    private final Timer tempoOtimizada;
+    private final Timer tempoTradicional;
 
     public ObterEstatisticasUseCase(TransacaoRepository repository, Relogio relogio,
-            EstatisticaProperties estatisticaProperties, EstatisticaCalculator calculator) {
+            EstatisticaProperties estatisticaProperties, EstatisticaCalculator calculator,
+            MeterRegistry meterRegistry, RegistroRequisicoes registroRequisicoes) {
         this.repository = repository;
         this.relogio = relogio;
         this.estatisticaProperties = estatisticaProperties;
         this.calculator = calculator;
+        this.registroRequisicoes = registroRequisicoes;
+        this.tempoOtimizada = tempoConsulta(meterRegistry, "otimizada");
+        this.tempoTradicional = tempoConsulta(meterRegistry, "tradicional");
+    }
+
+    private static Timer tempoConsulta(MeterRegistry meterRegistry, String estrategia) {
+        return Timer.builder("estatistica.consulta")
+                .description("Tempo de cálculo das estatísticas, pela estratégia usada")
+                .tag("estrategia", estrategia)
+                .register(meterRegistry);
     }
 
     @Override
     public Estatistica execute() {
+        return execute(estatisticaProperties.getJanelaSegundos());
+    }
+
+    @Override
+    public Estatistica execute(int janelaSegundos) {
+        if (janelaSegundos < 1 || janelaSegundos > estatisticaProperties.getMaxJanelaSegundos()) {
+            registroRequisicoes.registrarErro(CategoriaLog.CONSULTA, "estatistica.janela-invalida",
+                    "janela", janelaSegundos, "maxJanela", estatisticaProperties.getMaxJanelaSegundos());
+            throw new RegraNegocioException(ErroCode.JANELA_INVALIDA);
+        }
+
         Instant agora = relogio.agora();
-        Instant desde = agora.minusSeconds(estatisticaProperties.getJanelaSegundos());
+        Instant desde = agora.minusSeconds(janelaSegundos);
         
         logger.debug("Iniciando cálculo de estatísticas - Janela: {} segundos, Desde: {}, Até: {}", 
-                    estatisticaProperties.getJanelaSegundos(), desde, agora);
+                    janelaSegundos, desde, agora);
 
+        long inicio = System.nanoTime();
         // Strategy Pattern: usa método otimizado se disponível, senão usa abordagem tradicional
         if (repository instanceof EstatisticaRepository estatisticaRepo) {
             logger.debug("Usando estratégia otimizada (EstatisticaRepository) para cálculo");
             // Estratégia otimizada: calcula diretamente dos buckets (O(1))
-            Estatistica resultado = estatisticaRepo.calcularEstatisticasSince(desde);
-            logger.info("Estatísticas calculadas via estratégia otimizada - Count: {}, Sum: {}, Avg: {}, Min: {}, Max: {}", 
-                       resultado.count(), resultado.sum(), resultado.avg(), resultado.min(), resultado.max());
+            Estatistica resultado = estatisticaRepo.calcularEstatisticasEntre(desde, agora);
+            long duracao = System.nanoTime() - inicio;
+            tempoOtimizada.record(duracao, TimeUnit.NANOSECONDS);
+            registrarConsulta("otimizada", janelaSegundos, duracao, resultado);
             return resultado;
         } else {
             logger.debug("Usando estratégia tradicional (TransacaoRepository) para cálculo");
             // Estratégia tradicional: busca transações e calcula (O(n))
             Estatistica resultado = calculator.calcular(repository.findSince(desde));
-            logger.info("Estatísticas calculadas via estratégia tradicional - Count: {}, Sum: {}, Avg: {}, Min: {}, Max: {}", 
-                       resultado.count(), resultado.sum(), resultado.avg(), resultado.min(), resultado.max());
+            long duracao = System.nanoTime() - inicio;
+            tempoTradicional.record(duracao, TimeUnit.NANOSECONDS);
+            registrarConsulta("tradicional", janelaSegundos, duracao, resultado);
             return resultado;
         }
     }
+
+    private void registrarConsulta(String estrategia, int janelaSegundos, long duracaoNs, Estatistica resultado) {
+        if (!registroRequisicoes.amostrar(CategoriaLog.CONSULTA)) {
+            return;
+        }
+        registroRequisicoes.registrar(CategoriaLog.CONSULTA, "estatistica.calculada",
+                "estrategia", estrategia, "janela", janelaSegundos, "duracaoNs", duracaoNs,
+                "count", resultado.count(), "sum", resultado.sum(), "avg", resultado.avg(),
+                "min", resultado.min(), "max", resultado.max(), "stddev", resultado.stddev());
+    }
 }
@@ -0,0 +1,81 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.application.usecase;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.application.exception.RegraNegocioException;
+import br.dev.rodrigopinheiro.estatistica_transacao.application.port.in.ObterHistogramaPort;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Histograma;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.enums.ErroCode;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.EstatisticaRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.TransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.service.EstatisticaCalculator;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config.EstatisticaProperties;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.log.CategoriaLog;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.log.RegistroRequisicoes;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.time.Relogio;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@Service
+public class ObterHistogramaUseCase implements ObterHistogramaPort {
+
+    private static final Logger logger = LoggerFactory.getLogger(ObterHistogramaUseCase.class);
+
+    private final TransacaoRepository repository;
+    private final Relogio relogio;
+    private final EstatisticaProperties estatisticaProperties;
+    private final EstatisticaCalculator calculator;
+    private final RegistroRequisicoes registroRequisicoes;
+    private final Timer tempoConsulta;
+
+    public ObterHistogramaUseCase(TransacaoRepository repository, Relogio relogio,
+            EstatisticaProperties estatisticaProperties, EstatisticaCalculator calculator,
+            MeterRegistry meterRegistry, RegistroRequisicoes registroRequisicoes) {
+        this.repository = repository;
+        this.relogio = relogio;
+        this.estatisticaProperties = estatisticaProperties;
+        this.calculator = calculator;
+        this.registroRequisicoes = registroRequisicoes;
+        this.tempoConsulta = Timer.builder("histograma.consulta")
+                .description("Tempo de cálculo do histograma de valores")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Histograma execute() {
+        return execute(estatisticaProperties.getJanelaSegundos());
+    }
+
+    @Override
+    public Histograma execute(int janelaSegundos) {
+        if (janelaSegundos < 1 || janelaSegundos > estatisticaProperties.getMaxJanelaSegundos()) {
+            registroRequisicoes.registrarErro(CategoriaLog.CONSULTA, "histograma.janela-invalida",
+                    "janela", janelaSegundos, "maxJanela", estatisticaProperties.getMaxJanelaSegundos());
+            throw new RegraNegocioException(ErroCode.JANELA_INVALIDA);
+        }
+
+        Instant agora = relogio.agora();
+        Instant desde = agora.minusSeconds(janelaSegundos);
+
+        long inicio = System.nanoTime();
+        // Mesma estratégia das estatísticas: contagens dos agregados se houver, senão as transações
+        Histograma resultado = repository instanceof EstatisticaRepository estatisticaRepo
+                ? estatisticaRepo.calcularHistogramaEntre(desde, agora)
+                : calculator.calcularHistograma(repository.findSince(desde));
+        long duracao = System.nanoTime() - inicio;
+        tempoConsulta.record(duracao, TimeUnit.NANOSECONDS);
+
+        logger.debug("Histograma calculado em {} ns - Janela: {} segundos, Transações: {}",
+                duracao, janelaSegundos, resultado.count());
+        if (registroRequisicoes.amostrar(CategoriaLog.CONSULTA)) {
+            registroRequisicoes.registrar(CategoriaLog.CONSULTA, "histograma.calculado",
+                    "janela", janelaSegundos, "duracaoNs", duracao, "count", resultado.count());
+        }
+        return resultado;
+    }
+}
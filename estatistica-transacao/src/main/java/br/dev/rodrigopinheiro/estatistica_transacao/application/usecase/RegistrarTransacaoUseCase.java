@@ -1,55 +1,200 @@
 package br.dev.rodrigopinheiro.estatistica_transacao.application.usecase;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.exception.CapacidadeEsgotadaException;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.ResultadoLote;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.enums.ErroCode;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.DiarioTransacoes;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.TransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.jfr.RegistroTransacaoEvent;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.log.CategoriaLog;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.log.RegistroRequisicoes;
 import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.time.Relogio;
 
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 import br.dev.rodrigopinheiro.estatistica_transacao.application.exception.RegraNegocioException;
 import br.dev.rodrigopinheiro.estatistica_transacao.application.port.in.RegistrarTransacaoPort;
+import br.dev.rodrigopinheiro.estatistica_transacao.application.port.in.RegistrarTransacoesLotePort;
 
 @Service
-public class RegistrarTransacaoUseCase implements RegistrarTransacaoPort{
+public class RegistrarTransacaoUseCase implements RegistrarTransacaoPort, RegistrarTransacoesLotePort {
     
     private static final Logger logger = LoggerFactory.getLogger(RegistrarTransacaoUseCase.class);
     
     private final TransacaoRepository repo;
+    private final DiarioTransacoes diario;
     private final Relogio relogio;
+    private final RegistroRequisicoes registroRequisicoes;
+
+    // Medidores criados uma vez: no caminho quente só há incremento, sem busca por nome
+    private final Timer tempoIndividual;
+    private final Timer tempoLote;
+    private final Counter aceitas;
+    private final Map<ErroCode, Counter> rejeitadas = new EnumMap<>(ErroCode.class);
     
-    public RegistrarTransacaoUseCase(TransacaoRepository repo, Relogio relogio) {
+    public RegistrarTransacaoUseCase(TransacaoRepository repo, DiarioTransacoes diario, Relogio relogio,
+            MeterRegistry meterRegistry, RegistroRequisicoes registroRequisicoes) {
         this.repo = repo;
+        this.diario = diario;
         this.relogio = relogio;
+        this.registroRequisicoes = registroRequisicoes;
+        this.tempoIndividual = Timer.builder("transacao.registro")
+                .description("Tempo de registro de transações, incluindo a validação")
+                .tag("operacao", "individual")
+                .register(meterRegistry);
+        this.tempoLote = Timer.builder("transacao.registro")
+                .description("Tempo de registro de transações, incluindo a validação")
+                .tag("operacao", "lote")
+                .register(meterRegistry);
+        this.aceitas = Counter.builder("transacao.aceitas")
+                .description("Transações registradas")
+                .register(meterRegistry);
+        for (ErroCode erro : ErroCode.values()) {
+            rejeitadas.put(erro, Counter.builder("transacao.rejeitadas")
+                    .description("Transações rejeitadas na validação, por código do erro")
+                    .tag("erro", erro.code())
+                    .register(meterRegistry));
+        }
     }
 
     public void execute(Transacao transacao) {
+        RegistroTransacaoEvent evento = new RegistroTransacaoEvent();
+        evento.begin();
+        long inicio = System.nanoTime();
+        String erro = null;
+        try {
+            registrar(transacao);
+        } catch (RegraNegocioException e) {
+            erro = e.getCode();
+            throw e;
+        } catch (CapacidadeEsgotadaException e) {
+            erro = ErroCode.CAPACIDADE_ESGOTADA.code();
+            throw e;
+        } finally {
+            tempoIndividual.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            if (evento.shouldCommit()) {
+                evento.operacao = "individual";
+                evento.quantidade = 1;
+                evento.aceitas = erro == null ? 1 : 0;
+                evento.rejeitadas = erro == null ? 0 : 1;
+                evento.erro = erro;
+                evento.commit();
+            }
+        }
+    }
+
+    private void registrar(Transacao transacao) {
         logger.debug("Iniciando validação de transação - Valor: {}, DataHora: {}", 
                     transacao.valor(), transacao.dataHora());
         
-        if(transacao.valor()==null) {
-            logger.warn("Tentativa de registro com valor nulo");
-            throw new RegraNegocioException(ErroCode.VALOR_INVALIDO);
+        ErroCode erro = validar(transacao, relogio.agora());
+        if (erro != null) {
+            rejeitadas.get(erro).increment();
+            registroRequisicoes.registrarErro(CategoriaLog.INGESTAO, "transacao.rejeitada",
+                    "erro", erro.code(), "valor", transacao.valor(), "dataHora", transacao.dataHora());
+            throw new RegraNegocioException(erro);
+        }
+    
+        logger.debug("Validação concluída, salvando transação no repositório");
+        try {
+            repo.save(transacao);
+        } catch (CapacidadeEsgotadaException e) {
+            rejeitadas.get(ErroCode.CAPACIDADE_ESGOTADA).increment();
+            registroRequisicoes.registrarErro(CategoriaLog.INGESTAO, "transacao.rejeitada",
+                    "erro", ErroCode.CAPACIDADE_ESGOTADA.code(), "valor", transacao.valor(),
+                    "dataHora", transacao.dataHora());
+            throw e;
+        }
+        diario.registrar(transacao);
+        aceitas.increment();
+        if (registroRequisicoes.amostrar(CategoriaLog.INGESTAO)) {
+            registroRequisicoes.registrar(CategoriaLog.INGESTAO, "transacao.registrada",
+                    "valor", transacao.valor(), "dataHora", transacao.dataHora());
+        }
+    }
+
+    /**
+     * Valida cada transação do lote com as mesmas regras do registro individual e
+     * salva as aceitas em uma única chamada ao repositório. Uma transação inválida
+     * não impede as demais. Se o repositório esgota a capacidade no meio do lote,
+     * as que ele não guardou voltam como rejeitadas.
+     */
+    @Override
+    public ResultadoLote execute(List<Transacao> transacoes) {
+        RegistroTransacaoEvent evento = new RegistroTransacaoEvent();
+        evento.begin();
+        long inicio = System.nanoTime();
+        Instant agora = relogio.agora();
+        List<Transacao> aceitas = new ArrayList<>(transacoes.size());
+        int[] indicesAceitas = new int[transacoes.size()];
+        List<ResultadoLote.Rejeicao> rejeicoes = new ArrayList<>();
+
+        for (int i = 0; i < transacoes.size(); i++) {
+            Transacao transacao = transacoes.get(i);
+            ErroCode erro = validar(transacao, agora);
+            if (erro != null) {
+                rejeitadas.get(erro).increment();
+                rejeicoes.add(new ResultadoLote.Rejeicao(i, erro));
+            } else {
+                indicesAceitas[aceitas.size()] = i;
+                aceitas.add(transacao);
+            }
+        }
+
+        try {
+            repo.saveAll(aceitas);
+        } catch (CapacidadeEsgotadaException e) {
+            for (int i = e.getSalvas(); i < aceitas.size(); i++) {
+                rejeicoes.add(new ResultadoLote.Rejeicao(indicesAceitas[i], ErroCode.CAPACIDADE_ESGOTADA));
+            }
+            rejeitadas.get(ErroCode.CAPACIDADE_ESGOTADA).increment(aceitas.size() - e.getSalvas());
+            aceitas = aceitas.subList(0, e.getSalvas());
+        }
+        diario.registrar(aceitas);
+        this.aceitas.increment(aceitas.size());
+        tempoLote.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        if (evento.shouldCommit()) {
+            evento.operacao = "lote";
+            evento.quantidade = transacoes.size();
+            evento.aceitas = aceitas.size();
+            evento.rejeitadas = rejeicoes.size();
+            evento.commit();
         }
-        if(transacao.dataHora()==null) {
-            logger.warn("Tentativa de registro com data nula");
-            throw new RegraNegocioException(ErroCode.DATA_INVALIDA);
+        if (registroRequisicoes.amostrar(CategoriaLog.LOTE)) {
+            registroRequisicoes.registrar(CategoriaLog.LOTE, "lote.registrado",
+                    "aceitas", aceitas.size(), "rejeitadas", rejeicoes.size());
+        }
+        return new ResultadoLote(aceitas.size(), rejeicoes);
+    }
+
+    private ErroCode validar(Transacao transacao, Instant agora) {
+        if (transacao.valor() == null) {
+            return ErroCode.VALOR_INVALIDO;
+        }
+        if (transacao.dataHora() == null) {
+            return ErroCode.DATA_INVALIDA;
         }
         if (transacao.valor().signum() < 0) {
-            logger.warn("Tentativa de registro com valor negativo: {}", transacao.valor());
-            throw new RegraNegocioException(ErroCode.VALOR_NEGATIVO);
+            return ErroCode.VALOR_NEGATIVO;
         }
-        if (transacao.dataHora().isAfter(relogio.agora())) {
-            logger.warn("Tentativa de registro com data futura: {}", transacao.dataHora());
-            throw new RegraNegocioException(ErroCode.DATA_FUTURA);
+        if (transacao.dataHora().isAfter(agora)) {
+            return ErroCode.DATA_FUTURA;
         }
-    
-        logger.debug("Validação concluída, salvando transação no repositório");
-        repo.save(transacao);
-        logger.info("Transação salva com sucesso no repositório - Valor: {}, DataHora: {}", 
-                   transacao.valor(), transacao.dataHora());
+        return null;
     }
 }
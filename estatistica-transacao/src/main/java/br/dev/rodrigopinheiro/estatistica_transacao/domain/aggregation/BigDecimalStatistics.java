@@ -1,14 +1,34 @@
 package br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation;
 
 import java.math.BigDecimal;
+import java.math.MathContext;
 import java.math.RoundingMode;
 import java.util.Objects;
 import java.util.function.Function;
 import java.util.stream.Collector;
 
+/**
+ * Estatísticas exatas em BigDecimal.
+ *
+ * Além de count, soma, min e max guarda a soma dos quadrados, o segundo momento.
+ * É a forma do combine paralelo de Chan em que combinar dois agregados é somar
+ * os momentos; como a soma e a soma dos quadrados são exatas, a variância
+ * {@code (n·Σx² − (Σx)²) / n²} não sofre o cancelamento que essa fórmula tem em
+ * ponto flutuante, e o resultado não depende da ordem em que os agregados
+ * foram combinados.
+ *
+ * Min e max seguem a mesma regra em todos os caminhos: em empate de valor
+ * (ex.: 1.0 e 1.00) prevalece a maior escala, então o BigDecimal devolvido
+ * também não depende da ordem de chegada.
+ */
 public final class BigDecimalStatistics {
+
+    // Precisão intermediária da variância antes da raiz e do arredondamento final
+    private static final MathContext PRECISION = MathContext.DECIMAL128;
+
     private long count;
     private BigDecimal sum = BigDecimal.ZERO;
+    private BigDecimal sumOfSquares = BigDecimal.ZERO;
     private BigDecimal min = BigDecimal.ZERO;
     private BigDecimal max = BigDecimal.ZERO;
    
@@ -18,26 +38,47 @@ public final class BigDecimalStatistics {
             min = value;
             max = value;
         }else{
-            if (value.compareTo(min) < 0) min = value;
-            if (value.compareTo(max) > 0) max = value;
+            if (isBetterMin(value, min)) min = value;
+            if (isBetterMax(value, max)) max = value;
         }
         sum = sum.add(value);
+        sumOfSquares = sumOfSquares.add(value.multiply(value));
         count++;
     }
 
     public void combine (BigDecimalStatistics other) {
-        if (other == null || other.count == 0) return;
+        if (other == null) return;
+        combine(other.count, other.sum, other.sumOfSquares, other.min, other.max);
+    }
+
+    void combine (long otherCount, BigDecimal otherSum, BigDecimal otherSumOfSquares,
+            BigDecimal otherMin, BigDecimal otherMax) {
+        if (otherCount == 0) return;
         if (count == 0) {
-            this.count = other.count;
-            this.sum = other.sum;
-            this.min = other.min;
-            this.max = other.max;
+            this.count = otherCount;
+            this.sum = otherSum;
+            this.sumOfSquares = otherSumOfSquares;
+            this.min = otherMin;
+            this.max = otherMax;
             return;
         }
-        this.count+=other.count;
-        this.sum = this.sum.add(other.sum);
-        if (other.min.compareTo(this.min) < 0) this.min = other.min;
-        if (other.max.compareTo(this.max) > 0) this.max = other.max;
+        this.count+=otherCount;
+        this.sum = this.sum.add(otherSum);
+        this.sumOfSquares = this.sumOfSquares.add(otherSumOfSquares);
+        if (isBetterMin(otherMin, this.min)) this.min = otherMin;
+        if (isBetterMax(otherMax, this.max)) this.max = otherMax;
+    }
+
+    /** Se {@code candidate} substitui {@code current} como min: menor valor ou, no empate, maior escala. */
+    public static boolean isBetterMin(BigDecimal candidate, BigDecimal current) {
+        int comparison = candidate.compareTo(current);
+        return comparison < 0 || (comparison == 0 && candidate.scale() > current.scale());
+    }
+
+    /** Se {@code candidate} substitui {@code current} como max: maior valor ou, no empate, maior escala. */
+    public static boolean isBetterMax(BigDecimal candidate, BigDecimal current) {
+        int comparison = candidate.compareTo(current);
+        return comparison > 0 || (comparison == 0 && candidate.scale() > current.scale());
     }
 
     public long getCount() {
@@ -48,6 +89,10 @@ public final class BigDecimalStatistics {
         return sum;
     }   
 
+    public BigDecimal getSumOfSquares() {
+        return sumOfSquares;
+    }
+
     public BigDecimal getMin() {
         return count==0 ? BigDecimal.ZERO : min;
     }
@@ -59,6 +104,45 @@ public final class BigDecimalStatistics {
         return sum.divide(BigDecimal.valueOf(count), scale, roundingMode);
     }
 
+    public BigDecimal getVariance(int scale, RoundingMode roundingMode) {
+        return variance(count, sum, sumOfSquares, scale, roundingMode);
+    }
+
+    public BigDecimal getStandardDeviation(int scale, RoundingMode roundingMode) {
+        return standardDeviation(count, sum, sumOfSquares, scale, roundingMode);
+    }
+
+    /**
+     * Variância populacional a partir dos momentos exatos.
+     */
+    public static BigDecimal variance(long count, BigDecimal sum, BigDecimal sumOfSquares,
+            int scale, RoundingMode roundingMode) {
+        if (count == 0) return BigDecimal.ZERO.setScale(scale);
+        return exactVariance(count, sum, sumOfSquares).setScale(scale, roundingMode);
+    }
+
+    /**
+     * Desvio padrão populacional, a raiz da variância calculada com 34 dígitos
+     * antes de arredondar.
+     */
+    public static BigDecimal standardDeviation(long count, BigDecimal sum, BigDecimal sumOfSquares,
+            int scale, RoundingMode roundingMode) {
+        if (count == 0) return BigDecimal.ZERO.setScale(scale);
+        return exactVariance(count, sum, sumOfSquares).sqrt(PRECISION).setScale(scale, roundingMode);
+    }
+
+    private static BigDecimal exactVariance(long count, BigDecimal sum, BigDecimal sumOfSquares) {
+        BigDecimal n = BigDecimal.valueOf(count);
+        // Numerador exato; só a divisão por n² arredonda
+        BigDecimal numerator = n.multiply(sumOfSquares).subtract(sum.multiply(sum));
+        // Só fica negativo se count, soma e quadrados foram lidos em momentos
+        // diferentes de um bucket ainda recebendo valores
+        if (numerator.signum() < 0) {
+            return BigDecimal.ZERO;
+        }
+        return numerator.divide(n.multiply(n), PRECISION);
+    }
+
    public static Collector<BigDecimal, BigDecimalStatistics, BigDecimalStatistics> toCollector() {
         return Collector.of(
             BigDecimalStatistics::new,
@@ -0,0 +1,55 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Conversão entre BigDecimal e inteiros escalados (ponto fixo).
+ *
+ * Um valor é representado como {@code long} na escala configurada (com escala 2,
+ * 123.45 vira 12345). Valores com mais casas decimais que a escala, ou que não
+ * cabem em um long, não são representáveis e seguem pelo caminho BigDecimal.
+ */
+public final class FixedPoint {
+
+    public static final int DEFAULT_SCALE = 2;
+
+    /** Marca um valor que não pode ser representado em ponto fixo. */
+    public static final long NOT_REPRESENTABLE = Long.MIN_VALUE;
+
+    private static final BigInteger LOW_MASK = BigInteger.ONE.shiftLeft(Long.SIZE).subtract(BigInteger.ONE);
+
+    private FixedPoint() {
+    }
+
+    public static long toScaled(BigDecimal value, int scale) {
+        if (value == null || value.scale() > scale) {
+            return NOT_REPRESENTABLE;
+        }
+        if (value.precision() - value.scale() + scale > 18) {
+            // Não cabe com certeza em um long: evita a exceção no caminho comum
+            return NOT_REPRESENTABLE;
+        }
+        long scaled = value.movePointRight(scale).longValue();
+        return scaled == NOT_REPRESENTABLE ? NOT_REPRESENTABLE : scaled;
+    }
+
+    /**
+     * Reconstrói o BigDecimal na escala original do valor, que é sempre exata
+     * porque só são convertidos valores com no máximo {@code scale} casas.
+     */
+    public static BigDecimal toBigDecimal(long scaledValue, int scale, int originalScale) {
+        return BigDecimal.valueOf(scaledValue, scale).setScale(originalScale, RoundingMode.UNNECESSARY);
+    }
+
+    /**
+     * Soma de quadrados guardada em 128 bits sem sinal ({@code high} e
+     * {@code low}), em {@code 2 * scale} casas, como BigDecimal.
+     */
+    public static BigDecimal squaresToBigDecimal(long high, long low, int scale) {
+        BigInteger unscaled = BigInteger.valueOf(high).shiftLeft(Long.SIZE)
+                .or(BigInteger.valueOf(low).and(LOW_MASK));
+        return new BigDecimal(unscaled, 2 * scale);
+    }
+}
@@ -0,0 +1,192 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/**
+ * Estatísticas em ponto fixo: count, soma, min e max acumulados em {@code long}
+ * na escala configurada, sem alocar BigDecimal por valor. A soma dos quadrados,
+ * para a variância, fica em 128 bits sem sinal ({@code sumSqHigh} e
+ * {@code sumSqLow}) no dobro da escala; com valores não negativos e a soma
+ * cabendo em um long, ela nunca passa de 2^126.
+ *
+ * O resultado é idêntico ao de {@link BigDecimalStatistics}, inclusive a escala
+ * dos BigDecimal devolvidos: a soma usa a maior escala entre os valores e min/max
+ * mantêm a escala original do valor escolhido, a maior em caso de empate. Quando um valor não é representável
+ * ou a soma estoura o long, o acumulador migra seu estado para um
+ * {@link BigDecimalStatistics} e segue por ele dali em diante.
+ */
+public final class FixedPointStatistics {
+    private final int scale;
+
+    private long count;
+    private long sum;
+    private int sumScale;
+    private long sumSqHigh;
+    private long sumSqLow;
+    private long min;
+    private int minScale;
+    private long max;
+    private int maxScale;
+
+    private BigDecimalStatistics decimal;
+
+    public FixedPointStatistics(int scale) {
+        this.scale = scale;
+    }
+
+    /**
+     * @param scaledValue valor já convertido por {@link FixedPoint#toScaled}, ou
+     *                    {@link FixedPoint#NOT_REPRESENTABLE}
+     * @param value       o mesmo valor em BigDecimal, usado para a escala original
+     *                    e como fallback
+     */
+    public void accept(long scaledValue, BigDecimal value) {
+        if (value == null) return;
+        if (decimal != null || scaledValue == FixedPoint.NOT_REPRESENTABLE) {
+            toDecimal().accept(value);
+            return;
+        }
+        int valueScale = value.scale();
+        combineFixed(1, scaledValue, Math.max(0, valueScale), Math.multiplyHigh(scaledValue, scaledValue),
+                scaledValue * scaledValue, scaledValue, valueScale, scaledValue, valueScale);
+    }
+
+    public void combine(FixedPointStatistics other) {
+        if (other == null) return;
+        if (other.decimal != null) {
+            toDecimal().combine(other.decimal);
+            return;
+        }
+        combineFixed(other.count, other.sum, other.sumScale, other.sumSqHigh, other.sumSqLow,
+                other.min, other.minScale, other.max, other.maxScale);
+    }
+
+    /**
+     * Combina um agregado em ponto fixo já calculado (por exemplo, uma célula de bucket).
+     *
+     * @param otherSumSqHigh 64 bits altos da soma dos quadrados dos valores escalados
+     * @param otherSumSqLow  64 bits baixos, sem sinal
+     */
+    public void combineFixed(long otherCount, long otherSum, int otherSumScale, long otherSumSqHigh,
+            long otherSumSqLow, long otherMin, int otherMinScale, long otherMax, int otherMaxScale) {
+        if (otherCount == 0) return;
+        if (decimal != null) {
+            decimal.combine(otherCount,
+                    FixedPoint.toBigDecimal(otherSum, scale, otherSumScale),
+                    FixedPoint.squaresToBigDecimal(otherSumSqHigh, otherSumSqLow, scale),
+                    FixedPoint.toBigDecimal(otherMin, scale, otherMinScale),
+                    FixedPoint.toBigDecimal(otherMax, scale, otherMaxScale));
+            return;
+        }
+
+        long newSum = sum + otherSum;
+        long newSumSqLow = sumSqLow + otherSumSqLow;
+        long newSumSqHigh = sumSqHigh + otherSumSqHigh + (Long.compareUnsigned(newSumSqLow, sumSqLow) < 0 ? 1 : 0);
+        if (((sum ^ newSum) & (otherSum ^ newSum)) < 0 || newSumSqHigh < 0) {
+            // Estouro do long ou dos 127 bits dos quadrados: segue em BigDecimal
+            toDecimal();
+            combineFixed(otherCount, otherSum, otherSumScale, otherSumSqHigh, otherSumSqLow,
+                    otherMin, otherMinScale, otherMax, otherMaxScale);
+            return;
+        }
+
+        if (count == 0) {
+            min = otherMin;
+            minScale = otherMinScale;
+            max = otherMax;
+            maxScale = otherMaxScale;
+        } else {
+            if (otherMin < min || (otherMin == min && otherMinScale > minScale)) {
+                min = otherMin;
+                minScale = otherMinScale;
+            }
+            if (otherMax > max || (otherMax == max && otherMaxScale > maxScale)) {
+                max = otherMax;
+                maxScale = otherMaxScale;
+            }
+        }
+        sum = newSum;
+        sumSqHigh = newSumSqHigh;
+        sumSqLow = newSumSqLow;
+        if (otherSumScale > sumScale) sumScale = otherSumScale;
+        count += otherCount;
+    }
+
+    /**
+     * Combina um agregado que só existe em BigDecimal.
+     */
+    public void combineDecimal(long otherCount, BigDecimal otherSum, BigDecimal otherSumOfSquares,
+            BigDecimal otherMin, BigDecimal otherMax) {
+        if (otherCount == 0) return;
+        toDecimal().combine(otherCount, otherSum, otherSumOfSquares, otherMin, otherMax);
+    }
+
+    public boolean isFixedPoint() {
+        return decimal == null;
+    }
+
+    public long getCount() {
+        return decimal != null ? decimal.getCount() : count;
+    }
+
+    public BigDecimal getSum() {
+        if (decimal != null) return decimal.getSum();
+        return count == 0 ? BigDecimal.ZERO : FixedPoint.toBigDecimal(sum, scale, sumScale);
+    }
+
+    public BigDecimal getSumOfSquares() {
+        if (decimal != null) return decimal.getSumOfSquares();
+        return count == 0 ? BigDecimal.ZERO : FixedPoint.squaresToBigDecimal(sumSqHigh, sumSqLow, scale);
+    }
+
+    public BigDecimal getMin() {
+        if (decimal != null) return decimal.getMin();
+        return count == 0 ? BigDecimal.ZERO : FixedPoint.toBigDecimal(min, scale, minScale);
+    }
+
+    public BigDecimal getMax() {
+        if (decimal != null) return decimal.getMax();
+        return count == 0 ? BigDecimal.ZERO : FixedPoint.toBigDecimal(max, scale, maxScale);
+    }
+
+    public BigDecimal getAvg(int avgScale, RoundingMode roundingMode) {
+        if (decimal != null) return decimal.getAvg(avgScale, roundingMode);
+        if (count == 0) return BigDecimal.ZERO.setScale(avgScale);
+        return getSum().divide(BigDecimal.valueOf(count), avgScale, roundingMode);
+    }
+
+    public BigDecimal getVariance(int varianceScale, RoundingMode roundingMode) {
+        if (decimal != null) return decimal.getVariance(varianceScale, roundingMode);
+        return BigDecimalStatistics.variance(count, getSum(), getSumOfSquares(), varianceScale, roundingMode);
+    }
+
+    public BigDecimal getStandardDeviation(int deviationScale, RoundingMode roundingMode) {
+        if (decimal != null) return decimal.getStandardDeviation(deviationScale, roundingMode);
+        return BigDecimalStatistics.standardDeviation(count, getSum(), getSumOfSquares(), deviationScale, roundingMode);
+    }
+
+    private BigDecimalStatistics toDecimal() {
+        if (decimal == null) {
+            BigDecimalStatistics migrated = new BigDecimalStatistics();
+            migrated.combine(count, getSum(), getSumOfSquares(), getMin(), getMax());
+            decimal = migrated;
+        }
+        return decimal;
+    }
+
+    public static <T> Collector<T, FixedPointStatistics, FixedPointStatistics> summarizing(int scale,
+            ToLongFunction<T> scaledMapper, Function<T, BigDecimal> mapper) {
+        Objects.requireNonNull(scaledMapper, "scaledMapper");
+        Objects.requireNonNull(mapper, "mapper");
+        return Collector.of(
+            () -> new FixedPointStatistics(scale),
+            (acc, t) -> acc.accept(scaledMapper.applyAsLong(t), mapper.apply(t)),
+            (left, right) -> { left.combine(right); return left; }
+        );
+    }
+}
@@ -0,0 +1,97 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Histograma de valores em faixas fixas, em escala logarítmica.
+ *
+ * Os limites seguem a série 1-2-5 (0,01; 0,02; 0,05; 0,1; 0,2; 0,5; 1; ...) até
+ * 1e9, três faixas por década; a primeira é {@code [0, 0,01)} e a última
+ * {@code [1e9, ∞)}. Cada faixa inclui o limite inferior e exclui o superior.
+ *
+ * Como todo histograma tem as mesmas {@value #BIN_COUNT} faixas, combinar dois é
+ * somar as contagens posição a posição, em um laço sem desvios que o JIT
+ * vetoriza, e o custo não depende de quantos valores entraram.
+ */
+public final class LogHistogram {
+
+    private static final int MIN_EXPONENT = -2;
+    private static final int MAX_EXPONENT = 9;
+    private static final int[] MANTISSAS = {1, 2, 5};
+    private static final int BINS_PER_DECADE = 3;
+
+    public static final int BIN_COUNT = 1 + (MAX_EXPONENT - MIN_EXPONENT) * BINS_PER_DECADE + 1;
+
+    private static final BigDecimal[] LOWER_BOUNDS = lowerBounds();
+    // Os mesmos limites em double, para a busca; cada um é o double mais próximo do decimal
+    private static final double[] LOWER_BOUNDS_DOUBLE = Arrays.stream(LOWER_BOUNDS)
+            .mapToDouble(BigDecimal::doubleValue)
+            .toArray();
+
+    private final long[] counts = new long[BIN_COUNT];
+
+    private static BigDecimal[] lowerBounds() {
+        List<BigDecimal> limites = new ArrayList<>();
+        limites.add(BigDecimal.ZERO);
+        for (int expoente = MIN_EXPONENT; expoente < MAX_EXPONENT; expoente++) {
+            for (int mantissa : MANTISSAS) {
+                limites.add(limite(mantissa, expoente));
+            }
+        }
+        limites.add(limite(1, MAX_EXPONENT));
+        return limites.toArray(BigDecimal[]::new);
+    }
+
+    private static BigDecimal limite(int mantissa, int expoente) {
+        // Escala nunca negativa, para o limite sair sem notação científica (1000, e não 1E+3)
+        return BigDecimal.valueOf(mantissa, -expoente).setScale(Math.max(0, -expoente));
+    }
+
+    /**
+     * Faixa de um valor. Valores negativos caem na primeira faixa.
+     */
+    public static int binOf(double value) {
+        int posicao = Arrays.binarySearch(LOWER_BOUNDS_DOUBLE, value);
+        // Igual a um limite: a faixa que começa nele; senão, a anterior ao ponto de inserção
+        return posicao >= 0 ? posicao : Math.max(0, -posicao - 2);
+    }
+
+    public static BigDecimal lowerBound(int bin) {
+        return LOWER_BOUNDS[bin];
+    }
+
+    /** Limite superior (exclusivo) da faixa, ou {@code null} para a última. */
+    public static BigDecimal upperBound(int bin) {
+        return bin + 1 < BIN_COUNT ? LOWER_BOUNDS[bin + 1] : null;
+    }
+
+    public void accept(double value) {
+        counts[binOf(value)]++;
+    }
+
+    public void acceptBin(int bin, long n) {
+        counts[bin] += n;
+    }
+
+    public void merge(LogHistogram other) {
+        long[] outras = other.counts;
+        for (int i = 0; i < BIN_COUNT; i++) {
+            counts[i] += outras[i];
+        }
+    }
+
+    public long getCount(int bin) {
+        return counts[bin];
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (long n : counts) {
+            total += n;
+        }
+        return total;
+    }
+}
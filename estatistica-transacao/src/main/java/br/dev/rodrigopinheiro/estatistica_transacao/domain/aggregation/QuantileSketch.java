@@ -0,0 +1,190 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation;
+
+/**
+ * Sketch de quantis no estilo DDSketch, com erro relativo garantido.
+ *
+ * Cada valor positivo cai no bin {@code i = ceil(log_γ(v))}, com
+ * {@code γ = (1 + α) / (1 - α)}; o bin {@code i} cobre {@code (γ^(i-1), γ^i]} e é
+ * representado por {@code 2γ^i / (γ + 1)}, que fica a no máximo {@code α} (1%) de
+ * qualquer valor do bin. Um quantil estimado tem, portanto, erro relativo de no
+ * máximo 1% em relação a algum valor que está na posição pedida.
+ *
+ * Os bins são contagens, então dois sketches se combinam somando bin a bin, e o
+ * resultado é o mesmo que se todos os valores tivessem entrado em um só sketch,
+ * em qualquer ordem. Pelo mesmo motivo um sketch pode ser subtraído de outro
+ * que o contém.
+ *
+ * O tamanho é fixo: {@value #MAX_BINS} bins cobrem de {@value #MIN_INDEXED_VALUE}
+ * até cerca de 6e13. Valores menores (e maiores que zero) caem no primeiro bin e
+ * maiores no último, fora da garantia de erro; zero tem contagem própria. Só o
+ * trecho entre o menor e o maior bin usado fica alocado, no máximo
+ * {@value #MAX_BINS} longs (16 KB).
+ */
+public final class QuantileSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+    public static final int MAX_BINS = 2048;
+    public static final double MIN_INDEXED_VALUE = 1e-4;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    public static final int MIN_INDEX = (int) Math.ceil(Math.log(MIN_INDEXED_VALUE) / LOG_GAMMA);
+    public static final int MAX_INDEX = MIN_INDEX + MAX_BINS - 1;
+
+    private static final int INITIAL_BINS = 64;
+
+    // bins[i] conta o índice offset + i; só [minIndex, maxIndex] pode ser diferente de zero
+    private long[] bins;
+    private int offset;
+    private int minIndex;
+    private int maxIndex;
+    private long zeroCount;
+    private long count;
+
+    /**
+     * Índice do bin de um valor, já limitado a {@code [MIN_INDEX, MAX_INDEX]}, ou
+     * {@code MIN_INDEX - 1} para zero e valores negativos.
+     */
+    public static int indexOf(double value) {
+        if (!(value > 0)) {
+            return MIN_INDEX - 1;
+        }
+        if (value <= MIN_INDEXED_VALUE) {
+            return MIN_INDEX;
+        }
+        int index = (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+        return Math.min(index, MAX_INDEX);
+    }
+
+    /** Valor que representa o bin, a no máximo 1% de qualquer valor dele. */
+    public static double valueOf(int index) {
+        return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+
+    public void accept(double value) {
+        acceptIndex(indexOf(value), 1);
+    }
+
+    /**
+     * @param index índice devolvido por {@link #indexOf}
+     * @param n     quantidade de valores no bin; negativa para retirar valores
+     */
+    public void acceptIndex(int index, long n) {
+        count += n;
+        if (index < MIN_INDEX) {
+            zeroCount += n;
+            return;
+        }
+        if (bins == null) {
+            bins = new long[INITIAL_BINS];
+            offset = Math.max(MIN_INDEX, Math.min(index - INITIAL_BINS / 2, MAX_INDEX - INITIAL_BINS + 1));
+            minIndex = index;
+            maxIndex = index;
+        } else if (index < minIndex || index > maxIndex) {
+            int novoMin = Math.min(minIndex, index);
+            int novoMax = Math.max(maxIndex, index);
+            if (novoMin < offset || novoMax >= offset + bins.length) {
+                realocar(novoMin, novoMax);
+            }
+            minIndex = novoMin;
+            maxIndex = novoMax;
+        }
+        bins[index - offset] += n;
+    }
+
+    private void realocar(int novoMin, int novoMax) {
+        int usados = novoMax - novoMin + 1;
+        int tamanho = Math.min(MAX_BINS, Math.max(bins.length * 2, usados));
+        // Folga dividida entre os dois lados, sem sair do intervalo de índices
+        int novoOffset = Math.max(MIN_INDEX, Math.min(novoMin - (tamanho - usados) / 2, MAX_INDEX - tamanho + 1));
+        long[] novos = new long[tamanho];
+        System.arraycopy(bins, minIndex - offset, novos, minIndex - novoOffset, maxIndex - minIndex + 1);
+        bins = novos;
+        offset = novoOffset;
+    }
+
+    public void merge(QuantileSketch other) {
+        combinar(other, 1);
+    }
+
+    /** Retira os valores de um sketch que foi combinado neste. */
+    public void subtract(QuantileSketch other) {
+        combinar(other, -1);
+    }
+
+    private void combinar(QuantileSketch other, int sinal) {
+        if (other == null || other.count == 0) {
+            return;
+        }
+        if (other.zeroCount != 0) {
+            acceptIndex(MIN_INDEX - 1, sinal * other.zeroCount);
+        }
+        if (other.bins == null) {
+            return;
+        }
+        // Garante o trecho inteiro de uma vez, e não bin a bin
+        acceptIndex(other.minIndex, 0);
+        acceptIndex(other.maxIndex, 0);
+        for (int i = other.minIndex; i <= other.maxIndex; i++) {
+            long n = other.bins[i - other.offset];
+            if (n != 0) {
+                bins[i - offset] += sinal * n;
+                count += sinal * n;
+            }
+        }
+    }
+
+    /**
+     * Valor estimado no quantil {@code q} (entre 0 e 1), ou {@code NaN} se o
+     * sketch está vazio.
+     */
+    public double quantile(double q) {
+        if (count <= 0) {
+            return Double.NaN;
+        }
+        double posicao = q * (count - 1);
+        long acumulado = zeroCount;
+        if (acumulado > posicao) {
+            return 0;
+        }
+        if (bins == null) {
+            return 0;
+        }
+        for (int i = minIndex; i <= maxIndex; i++) {
+            acumulado += bins[i - offset];
+            if (acumulado > posicao) {
+                return valueOf(i);
+            }
+        }
+        return valueOf(maxIndex);
+    }
+
+    /** Passa cada bin não vazio, em ordem, com o índice e a contagem. */
+    public void forEachBin(BinConsumer consumer) {
+        if (zeroCount != 0) {
+            consumer.accept(MIN_INDEX - 1, zeroCount);
+        }
+        if (bins == null) {
+            return;
+        }
+        for (int i = minIndex; i <= maxIndex; i++) {
+            long n = bins[i - offset];
+            if (n != 0) {
+                consumer.accept(i, n);
+            }
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    @FunctionalInterface
+    public interface BinConsumer {
+        void accept(int index, long n);
+    }
+}
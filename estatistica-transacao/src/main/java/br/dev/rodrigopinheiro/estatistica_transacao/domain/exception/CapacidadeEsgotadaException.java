@@ -0,0 +1,20 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.domain.exception;
+
+/**
+ * Lançada pelo repositório quando não há mais onde guardar uma transação. As
+ * transações de um lote anteriores à que falhou foram salvas; ela e as
+ * seguintes, não.
+ */
+public class CapacidadeEsgotadaException extends RuntimeException {
+    private final int salvas;
+
+    public CapacidadeEsgotadaException(int salvas) {
+        super("Capacidade de armazenamento esgotada");
+        this.salvas = salvas;
+    }
+
+    /** Quantas transações do lote, a partir do início, foram salvas antes da falha. */
+    public int getSalvas() {
+        return salvas;
+    }
+}
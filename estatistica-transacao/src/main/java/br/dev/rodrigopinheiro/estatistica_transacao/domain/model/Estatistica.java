@@ -2,15 +2,30 @@ package br.dev.rodrigopinheiro.estatistica_transacao.domain.model;
 
 import java.math.BigDecimal;
 
+/**
+ * @param variance  variância populacional dos valores
+ * @param stddev    desvio padrão populacional dos valores
+ * @param percentis estimativas dos percentis, ou {@code null} quando o
+ *                  repositório não os calcula
+ */
 public record Estatistica(
     long count,
     BigDecimal sum,
     BigDecimal avg,
     BigDecimal min,
-    BigDecimal max
+    BigDecimal max,
+    BigDecimal variance,
+    BigDecimal stddev,
+    Percentis percentis
 ) {
+
+    public Estatistica(long count, BigDecimal sum, BigDecimal avg, BigDecimal min, BigDecimal max,
+            BigDecimal variance, BigDecimal stddev) {
+        this(count, sum, avg, min, max, variance, stddev, null);
+    }
     
     public static Estatistica vazia() {
-        return new Estatistica(0, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+        return new Estatistica(0, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+                BigDecimal.ZERO, BigDecimal.ZERO);
     }
 }
@@ -0,0 +1,39 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.domain.model;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.LogHistogram;
+
+/**
+ * Distribuição dos valores nas faixas fixas do {@link LogHistogram}, todas
+ * presentes e em ordem, inclusive as vazias.
+ */
+public record Histograma(
+    long count,
+    List<Faixa> faixas
+) {
+
+    /**
+     * @param de  limite inferior, inclusivo
+     * @param ate limite superior, exclusivo, ou {@code null} na última faixa
+     */
+    public record Faixa(BigDecimal de, BigDecimal ate, long count) {
+    }
+
+    public static Histograma de(LogHistogram histograma) {
+        List<Faixa> faixas = new ArrayList<>(LogHistogram.BIN_COUNT);
+        long total = 0;
+        for (int i = 0; i < LogHistogram.BIN_COUNT; i++) {
+            long count = histograma != null ? histograma.getCount(i) : 0;
+            faixas.add(new Faixa(LogHistogram.lowerBound(i), LogHistogram.upperBound(i), count));
+            total += count;
+        }
+        return new Histograma(total, List.copyOf(faixas));
+    }
+
+    public static Histograma vazio() {
+        return de(null);
+    }
+}
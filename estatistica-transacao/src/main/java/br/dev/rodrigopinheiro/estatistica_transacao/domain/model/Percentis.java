@@ -0,0 +1,42 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.domain.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.QuantileSketch;
+
+/**
+ * Percentis estimados dos valores, com erro relativo de no máximo
+ * {@link QuantileSketch#RELATIVE_ACCURACY} dentro da faixa coberta pelo sketch.
+ */
+public record Percentis(
+    BigDecimal p50,
+    BigDecimal p90,
+    BigDecimal p99
+) {
+
+    /**
+     * Estima os percentis a partir do sketch. As estimativas ficam entre o min e
+     * o max exatos, que são devolvidos como estão quando a estimativa passa deles.
+     */
+    public static Percentis estimar(QuantileSketch sketch, BigDecimal min, BigDecimal max) {
+        if (sketch == null || sketch.isEmpty()) {
+            return null;
+        }
+        return new Percentis(
+                estimar(sketch, 0.50, min, max),
+                estimar(sketch, 0.90, min, max),
+                estimar(sketch, 0.99, min, max));
+    }
+
+    private static BigDecimal estimar(QuantileSketch sketch, double quantil, BigDecimal min, BigDecimal max) {
+        double estimativa = sketch.quantile(quantil);
+        if (estimativa <= min.doubleValue()) {
+            return min;
+        }
+        if (estimativa >= max.doubleValue()) {
+            return max;
+        }
+        return BigDecimal.valueOf(estimativa).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,18 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.domain.model;
+
+import java.util.List;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.enums.ErroCode;
+
+/**
+ * Resultado do registro de um lote: quantas transações foram aceitas e, para
+ * cada rejeitada, a posição no lote e o motivo.
+ */
+public record ResultadoLote(
+    int aceitas,
+    List<Rejeicao> rejeicoes
+) {
+
+    public record Rejeicao(int indice, ErroCode erro) {
+    }
+}
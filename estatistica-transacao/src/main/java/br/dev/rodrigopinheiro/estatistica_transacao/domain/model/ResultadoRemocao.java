@@ -0,0 +1,14 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.domain.model;
+
+/**
+ * Resultado de uma fatia da remoção incremental: quantos itens saíram e se
+ * já não resta nada anterior ao limite pedido.
+ *
+ * @param removidas itens removidos nesta fatia (transações ou buckets, conforme o repositório)
+ * @param concluida se a remoção até o limite terminou
+ */
+public record ResultadoRemocao(
+    long removidas,
+    boolean concluida
+) {
+}
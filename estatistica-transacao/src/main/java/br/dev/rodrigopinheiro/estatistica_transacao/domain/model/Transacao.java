@@ -3,11 +3,46 @@ package br.dev.rodrigopinheiro.estatistica_transacao.domain.model;
 import java.math.BigDecimal;
 import java.time.Instant;
 
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.FixedPoint;
+
+/**
+ * Transação registrada.
+ *
+ * Além do valor em BigDecimal, pode carregar o valor já convertido para ponto
+ * fixo ({@code valorEscalado} na {@code escala} informada), para que a agregação
+ * trabalhe com long sem converter de novo a cada passo. Um valor que não cabe
+ * no ponto fixo fica com {@link FixedPoint#NOT_REPRESENTABLE} na escala da
+ * conversão, e também não é convertido de novo.
+ */
 public record Transacao
 (
-    BigDecimal valor, 
-    Instant dataHora
+    BigDecimal valor,
+    Instant dataHora,
+    long valorEscalado,
+    int escala
 ) {
-} 
 
+    // Escala de uma transação que ainda não passou pela conversão
+    private static final int SEM_ESCALA = Integer.MIN_VALUE;
+
+    public Transacao(BigDecimal valor, Instant dataHora) {
+        this(valor, dataHora, FixedPoint.NOT_REPRESENTABLE, SEM_ESCALA);
+    }
+
+    public static Transacao comPontoFixo(BigDecimal valor, Instant dataHora, int escala) {
+        return new Transacao(valor, dataHora, FixedPoint.toScaled(valor, escala), escala);
+    }
+
+    /**
+     * Valor em ponto fixo na escala pedida. Reaproveita a conversão feita na
+     * criação quando a escala coincide, inclusive o resultado
+     * {@link FixedPoint#NOT_REPRESENTABLE}; caso contrário converte na hora.
+     */
+    public long valorEmEscala(int escalaDesejada) {
+        if (escala == escalaDesejada) {
+            return valorEscalado;
+        }
+        return FixedPoint.toScaled(valor, escalaDesejada);
+    }
+}
 
@@ -5,6 +5,9 @@ public enum ErroCode {
     VALOR_INVALIDO("VALOR_INVALIDO", "Valor não pode ser nulo"),
     DATA_INVALIDA("DATA_INVALIDA", "Data e hora não podem ser nulas"),
     DATA_FUTURA("DATA_FUTURA", "Data e hora não podem ser futuras"),
+    JANELA_INVALIDA("JANELA_INVALIDA", "Janela deve estar entre 1 segundo e a janela máxima configurada"),
+    LOTE_MUITO_GRANDE("LOTE_MUITO_GRANDE", "Lote excede a quantidade máxima de transações"),
+    CAPACIDADE_ESGOTADA("CAPACIDADE_ESGOTADA", "Capacidade de armazenamento esgotada"),
     JSON_INVALID("JSON_INVALID", "Corpo da requisição inválido"),
     VALIDATION_FAILED("VALIDATION_FAILED", "Validação falhou");
 
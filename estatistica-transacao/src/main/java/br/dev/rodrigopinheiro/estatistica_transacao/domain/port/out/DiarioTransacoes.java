@@ -0,0 +1,25 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out;
+
+import java.util.List;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+
+/**
+ * Registro durável das transações aceitas, gravado assim que o repositório as
+ * guarda e antes da resposta, para que o estado possa ser reconstruído depois
+ * de um reinício. O que o repositório recusa não entra no registro.
+ *
+ * A implementação padrão não registra nada.
+ */
+public interface DiarioTransacoes {
+
+    default void registrar(Transacao transacao) {
+    }
+
+    default void registrar(List<Transacao> transacoes) {
+    }
+
+    /** Descarta tudo o que foi registrado, junto com o repositório. */
+    default void limpar() {
+    }
+}
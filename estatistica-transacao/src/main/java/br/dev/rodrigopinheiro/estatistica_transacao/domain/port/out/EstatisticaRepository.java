@@ -2,7 +2,10 @@ package br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out;
 
 import java.time.Instant;
 
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.LogHistogram;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Estatistica;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Histograma;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
 
 /**
  * Interface especializada que estende TransacaoRepository
@@ -25,5 +28,38 @@ public interface EstatisticaRepository extends TransacaoRepository {
      * @param since momento a partir do qual calcular as estatísticas
      * @return estatísticas calculadas diretamente dos dados agregados
      */
-    Estatistica calcularEstatisticasSince(Instant since);
+    default Estatistica calcularEstatisticasSince(Instant since) {
+        return calcularEstatisticasEntre(since, Instant.now());
+    }
+
+    /**
+     * Calcula estatísticas dos segundos entre {@code inicio} e {@code fim},
+     * ambos inclusivos.
+     *
+     * Recebe o fim explicitamente para que a janela siga o relógio da
+     * aplicação, e não o relógio do repositório.
+     *
+     * @param inicio momento a partir do qual calcular as estatísticas
+     * @param fim    momento até o qual calcular as estatísticas
+     * @return estatísticas calculadas diretamente dos dados agregados
+     */
+    Estatistica calcularEstatisticasEntre(Instant inicio, Instant fim);
+
+    /**
+     * Histograma dos valores entre {@code inicio} e {@code fim}, ambos
+     * inclusivos, nas faixas fixas do {@link LogHistogram}.
+     *
+     * A implementação padrão percorre as transações de {@link #findSince}, o que
+     * serve aos repositórios exatos; os que mantêm contagens por faixa nos
+     * agregados sobrescrevem este método.
+     */
+    default Histograma calcularHistogramaEntre(Instant inicio, Instant fim) {
+        LogHistogram histograma = new LogHistogram();
+        for (Transacao transacao : findSince(inicio)) {
+            if (!transacao.dataHora().isAfter(fim)) {
+                histograma.accept(transacao.valor().doubleValue());
+            }
+        }
+        return Histograma.de(histograma);
+    }
 }
\ No newline at end of file
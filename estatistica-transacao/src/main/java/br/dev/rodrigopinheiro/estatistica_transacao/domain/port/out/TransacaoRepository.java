@@ -3,11 +3,57 @@ package br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out;
 import java.time.Instant;
 import java.util.List;
 
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.exception.CapacidadeEsgotadaException;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.ResultadoRemocao;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
 
 public interface TransacaoRepository {
+
+    /**
+     * @throws CapacidadeEsgotadaException se o repositório tem um limite de
+     *                                     memória e ele foi atingido
+     */
     void save(Transacao transacao);
+
+    /**
+     * Salva várias transações de uma vez. Repositórios que conseguem agrupar as
+     * escritas (por exemplo, por segundo) sobrescrevem este método.
+     *
+     * @throws CapacidadeEsgotadaException com quantas transações, a partir do
+     *                                     início, foram salvas antes do limite
+     */
+    default void saveAll(List<Transacao> transacoes) {
+        for (int i = 0; i < transacoes.size(); i++) {
+            try {
+                save(transacoes.get(i));
+            } catch (CapacidadeEsgotadaException e) {
+                throw new CapacidadeEsgotadaException(i);
+            }
+        }
+    }
+
     void deleteAll();
     List<Transacao> findSince(Instant since);
     void deleteBefore(Instant limite);
+
+    /**
+     * Remove o que é anterior ao limite em uma fatia de no máximo
+     * {@code prazoNanos}, aproximadamente. Chamadas seguintes continuam de onde
+     * a anterior parou, então a limpeza nunca segura o repositório por uma
+     * passada inteira.
+     *
+     * A implementação padrão remove tudo de uma vez com {@link #deleteBefore}
+     * e não conta os itens removidos.
+     */
+    default ResultadoRemocao removerExpiradas(Instant limite, long prazoNanos) {
+        deleteBefore(limite);
+        return new ResultadoRemocao(0, true);
+    }
+
+    /**
+     * Contador que só cresce e avança depois de cada escrita ou remoção. Quem
+     * guarda um resultado calculado a partir do repositório compara a versão
+     * lida antes do cálculo com a atual para saber se ele ainda vale.
+     */
+    long versao();
 }
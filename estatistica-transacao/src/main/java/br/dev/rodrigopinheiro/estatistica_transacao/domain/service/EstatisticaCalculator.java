@@ -2,27 +2,161 @@ package br.dev.rodrigopinheiro.estatistica_transacao.domain.service;
 
 import java.math.RoundingMode;
 import java.util.List;
-import org.springframework.stereotype.Component;
-import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.BigDecimalStatistics;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.FixedPoint;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.FixedPointStatistics;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.LogHistogram;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Estatistica;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Histograma;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
 
-@Component
-public class EstatisticaCalculator {
+/**
+ * Calcula as estatísticas a partir das transações, no caminho tradicional
+ * (repositórios que não agregam por conta própria).
+ *
+ * Listas com pelo menos {@code limiar-paralelo} transações são divididas em
+ * blocos contíguos de {@code bloco-paralelo} posições, agregados em paralelo em
+ * um {@link ForkJoinPool} próprio, e não no comum, para não disputar threads
+ * com streams paralelos de outras partes. Os parciais são combinados na ordem
+ * da lista, então o resultado é idêntico ao da agregação sequencial. O pool só
+ * é criado na primeira lista que passa do limiar.
+ *
+ * O bean é criado em {@code EstatisticaConfig}, a partir de
+ * {@code app.estatistica}.
+ */
+public class EstatisticaCalculator implements AutoCloseable {
+
+    private final int escala;
+    private final int limiarParalelo;
+    private final int blocoParalelo;
+    private final int paralelismo;
+    private volatile ForkJoinPool pool;
+
+    public EstatisticaCalculator() {
+        this(FixedPoint.DEFAULT_SCALE);
+    }
+
+    public EstatisticaCalculator(int escala) {
+        this(escala, Integer.MAX_VALUE, 1, 1);
+    }
+
+    /**
+     * @param limiarParalelo quantidade de transações a partir da qual a
+     *                       agregação é paralela
+     * @param blocoParalelo  transações por tarefa, sem subdivisão
+     * @param paralelismo    threads do pool; zero usa um por processador e um
+     *                       desliga a agregação paralela
+     */
+    public EstatisticaCalculator(int escala, int limiarParalelo, int blocoParalelo, int paralelismo) {
+        if (blocoParalelo < 1) {
+            throw new IllegalArgumentException("bloco-paralelo deve ser positivo: " + blocoParalelo);
+        }
+        this.escala = escala;
+        this.limiarParalelo = limiarParalelo;
+        this.blocoParalelo = blocoParalelo;
+        this.paralelismo = paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors();
+    }
 
     public Estatistica calcular(List<Transacao> transacoes) {
         if (transacoes == null || transacoes.isEmpty()) {
             return Estatistica.vazia();
         }
 
-        BigDecimalStatistics stats = transacoes.stream()
-                .collect(BigDecimalStatistics.summarizing(Transacao::valor));
+        // Ponto fixo quando a transação já vem convertida; BigDecimal nos demais casos
+        FixedPointStatistics stats = paralela(transacoes)
+                ? pool().invoke(new Agregacao(transacoes, 0, transacoes.size()))
+                : transacoes.stream()
+                        .collect(FixedPointStatistics.summarizing(escala,
+                                t -> t.valorEmEscala(escala), Transacao::valor));
 
         return new Estatistica(
                 stats.getCount(),
                 stats.getSum(),
                 stats.getAvg(2, RoundingMode.HALF_UP),
                 stats.getMin(),
-                stats.getMax());
+                stats.getMax(),
+                stats.getVariance(2, RoundingMode.HALF_UP),
+                stats.getStandardDeviation(2, RoundingMode.HALF_UP));
+    }
+
+    private boolean paralela(List<Transacao> transacoes) {
+        // Sem acesso aleatório, dividir a lista custaria mais do que agregá-la
+        return paralelismo > 1 && transacoes.size() >= limiarParalelo && transacoes instanceof RandomAccess;
+    }
+
+    private ForkJoinPool pool() {
+        ForkJoinPool atual = pool;
+        if (atual == null) {
+            synchronized (this) {
+                atual = pool;
+                if (atual == null) {
+                    atual = new ForkJoinPool(paralelismo, EstatisticaCalculator::novaThread, null, false);
+                    pool = atual;
+                }
+            }
+        }
+        return atual;
+    }
+
+    private static ForkJoinWorkerThread novaThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("estatistica-agregacao-" + thread.getPoolIndex());
+        return thread;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+        }
+    }
+
+    /**
+     * Agrega {@code [inicio, fim)}: divide ao meio até o bloco e combina a
+     * metade da direita na da esquerda, preservando a ordem da lista.
+     */
+    private final class Agregacao extends RecursiveTask<FixedPointStatistics> {
+
+        private final List<Transacao> transacoes;
+        private final int inicio;
+        private final int fim;
+
+        Agregacao(List<Transacao> transacoes, int inicio, int fim) {
+            this.transacoes = transacoes;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected FixedPointStatistics compute() {
+            if (fim - inicio <= blocoParalelo) {
+                FixedPointStatistics stats = new FixedPointStatistics(escala);
+                for (int i = inicio; i < fim; i++) {
+                    Transacao transacao = transacoes.get(i);
+                    stats.accept(transacao.valorEmEscala(escala), transacao.valor());
+                }
+                return stats;
+            }
+            int meio = (inicio + fim) >>> 1;
+            Agregacao direita = new Agregacao(transacoes, meio, fim);
+            direita.fork();
+            FixedPointStatistics esquerda = new Agregacao(transacoes, inicio, meio).compute();
+            esquerda.combine(direita.join());
+            return esquerda;
+        }
+    }
+
+    public Histograma calcularHistograma(List<Transacao> transacoes) {
+        LogHistogram histograma = new LogHistogram();
+        if (transacoes != null) {
+            for (Transacao transacao : transacoes) {
+                histograma.accept(transacao.valor().doubleValue());
+            }
+        }
+        return Histograma.de(histograma);
     }
 }
\ No newline at end of file
@@ -0,0 +1,172 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.bucket;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongFunction;
+
+/**
+ * Base das estruturas derivadas dos buckets por segundo que são mantidas
+ * incrementalmente, cobrindo sempre os últimos {@code segundos} segundos.
+ *
+ * As escritas continuam indo direto para os {@link BucketConcorrente}, sem lock:
+ * {@link #marcarAlterado(long)} apenas enfileira o segundo alterado (uma vez por
+ * segundo pendente). A cada consulta, {@link #sincronizar(long)} avança a
+ * cobertura até o fim pedido, lê os segundos que entraram e os que foram
+ * alterados, e repassa o snapshot de cada um para {@link #registrar}.
+ *
+ * A cobertura só avança: se o fim consultado voltar no tempo, ou pular mais que
+ * a capacidade, tudo é reconstruído a partir dos buckets.
+ *
+ * O estado das subclasses é protegido pelo monitor da instância; métodos que o
+ * acessam devem ser {@code synchronized}.
+ */
+public abstract class AgregadoIncremental {
+
+    protected static final long VAZIO = Long.MIN_VALUE;
+
+    private final int segundos;
+    private final LongFunction<BucketConcorrente> buckets;
+
+    // Segundo pendente por posição: evita enfileirar o mesmo segundo várias vezes
+    private final AtomicLongArray pendentes;
+    private final ConcurrentLinkedQueue<Long> alterados = new ConcurrentLinkedQueue<>();
+
+    // Início da cobertura vista pela última consulta; escritas anteriores são ignoradas
+    private volatile long inicioCobertura = Long.MAX_VALUE;
+    private long fimCobertura = VAZIO;
+
+    /**
+     * @param segundos quantidade de segundos cobertos, terminando no fim consultado
+     * @param buckets  busca o bucket de um segundo, ou {@code null}
+     */
+    protected AgregadoIncremental(int segundos, LongFunction<BucketConcorrente> buckets) {
+        if (segundos <= 0) {
+            throw new IllegalArgumentException("segundos deve ser positivo: " + segundos);
+        }
+        this.segundos = segundos;
+        this.buckets = buckets;
+        this.pendentes = new AtomicLongArray(segundos);
+        limparPendentes();
+    }
+
+    /**
+     * Avisa que o bucket do segundo recebeu uma escrita. Deve ser chamado depois
+     * da escrita no bucket.
+     */
+    public void marcarAlterado(long segundo) {
+        if (segundo < inicioCobertura) {
+            // Fora da cobertura (ou nenhuma consulta ainda): a próxima reconstrução lê o bucket
+            return;
+        }
+        int indice = indice(segundo);
+        while (true) {
+            long atual = pendentes.get(indice);
+            if (atual == segundo) {
+                return;
+            }
+            if (pendentes.compareAndSet(indice, atual, segundo)) {
+                alterados.offer(segundo);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Remove os segundos anteriores ao limite (buckets apagados).
+     */
+    public synchronized void descartarAntesDe(long limiteSegundo) {
+        descartarRegistrosAntesDe(limiteSegundo);
+    }
+
+    public synchronized void limpar() {
+        inicioCobertura = Long.MAX_VALUE;
+        alterados.clear();
+        limparPendentes();
+        limparAgregado();
+        fimCobertura = VAZIO;
+    }
+
+    protected int getSegundos() {
+        return segundos;
+    }
+
+    protected int indice(long segundo) {
+        return Math.floorMod(segundo, segundos);
+    }
+
+    /**
+     * Atualiza a estrutura para cobrir {@code [fimSegundo - segundos + 1, fimSegundo]}.
+     * Deve ser chamado com o monitor da instância.
+     */
+    protected void sincronizar(long fimSegundo) {
+        long inicio = fimSegundo - segundos + 1;
+
+        if (fimCobertura == VAZIO || fimSegundo < fimCobertura || fimSegundo - fimCobertura >= segundos) {
+            reconstruir(fimSegundo);
+        } else if (fimSegundo > fimCobertura) {
+            // Publica o novo início antes de ler os buckets que entram na cobertura
+            inicioCobertura = inicio;
+            aoAvancar(inicio);
+            for (long segundo = fimCobertura + 1; segundo <= fimSegundo; segundo++) {
+                aplicar(segundo);
+            }
+            fimCobertura = fimSegundo;
+        }
+
+        Long segundo;
+        while ((segundo = alterados.poll()) != null) {
+            if (segundo < inicio) {
+                pendentes.compareAndSet(indice(segundo), segundo, VAZIO);
+            } else if (segundo <= fimSegundo) {
+                aplicar(segundo);
+            }
+            // Segundos à frente do fim continuam pendentes e são lidos quando entrarem na cobertura
+        }
+    }
+
+    /**
+     * Substitui o que foi registrado para o segundo pelo snapshot atual do bucket,
+     * ou por {@code null} se o bucket não existe ou está vazio.
+     */
+    protected abstract void registrar(long segundo, BucketEstatistica snapshot);
+
+    /**
+     * Chamado quando a cobertura avança para começar em {@code inicioSegundo}. A
+     * posição de cada segundo que sai é reaproveitada pelo segundo que entra, e
+     * este é passado para {@link #registrar} logo em seguida.
+     */
+    protected void aoAvancar(long inicioSegundo) {
+    }
+
+    /** Remove o que foi registrado para segundos anteriores ao limite. */
+    protected abstract void descartarRegistrosAntesDe(long limiteSegundo);
+
+    /** Volta ao estado vazio. */
+    protected abstract void limparAgregado();
+
+    private void reconstruir(long fimSegundo) {
+        long inicio = fimSegundo - segundos + 1;
+        // Ordem importa: fila, marcas e início publicados antes de ler os buckets,
+        // para que uma escrita concorrente seja vista aqui ou enfileirada de novo
+        alterados.clear();
+        limparPendentes();
+        inicioCobertura = inicio;
+        limparAgregado();
+        for (long segundo = inicio; segundo <= fimSegundo; segundo++) {
+            aplicar(segundo);
+        }
+        fimCobertura = fimSegundo;
+    }
+
+    private void aplicar(long segundo) {
+        pendentes.compareAndSet(indice(segundo), segundo, VAZIO);
+        BucketConcorrente bucket = buckets.apply(segundo);
+        registrar(segundo, bucket == null || bucket.isEmpty() ? null : bucket.snapshot());
+    }
+
+    private void limparPendentes() {
+        for (int i = 0; i < segundos; i++) {
+            pendentes.set(i, VAZIO);
+        }
+    }
+}
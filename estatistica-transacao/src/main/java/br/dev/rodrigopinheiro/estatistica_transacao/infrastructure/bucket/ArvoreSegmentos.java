@@ -0,0 +1,140 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.bucket;
+
+import java.util.Arrays;
+import java.util.function.LongFunction;
+
+/**
+ * Árvore de segmentos sobre os buckets dos últimos segundos, para consultar
+ * estatísticas de qualquer janela até a capacidade em O(log n).
+ *
+ * As folhas são os segundos, em posições circulares ({@code segundo mod n}); cada
+ * nó interno guarda a combinação dos dois filhos. A consulta de um intervalo
+ * combina O(log n) nós, sempre da esquerda para a direita, para que min/max em
+ * empate fiquem com o segundo mais antigo, como na combinação sequencial.
+ *
+ * Quando o intervalo dá a volta no anel, é consultado em duas partes: do início
+ * até o fim do anel e depois do começo do anel até o fim do intervalo.
+ */
+public class ArvoreSegmentos extends AgregadoIncremental {
+
+    private final int escala;
+    private final int n;
+
+    // Árvore iterativa: folhas em [n, 2n), nó i tem filhos 2i e 2i+1; null = vazio
+    private final BucketEstatistica[] nos;
+    private final long[] segundoFolha;
+
+    /**
+     * @param capacidadeSegundos maior janela consultável, em segundos
+     * @param escala             escala do ponto fixo usada na combinação
+     * @param buckets            busca o bucket de um segundo, ou {@code null}
+     */
+    public ArvoreSegmentos(int capacidadeSegundos, int escala, LongFunction<BucketConcorrente> buckets) {
+        super(capacidadeSegundos, buckets);
+        this.escala = escala;
+        this.n = capacidadeSegundos;
+        this.nos = new BucketEstatistica[2 * n];
+        this.segundoFolha = new long[n];
+        Arrays.fill(segundoFolha, VAZIO);
+    }
+
+    public int getCapacidadeSegundos() {
+        return n;
+    }
+
+    /**
+     * Estatísticas dos segundos em {@code [inicioSegundo, fimSegundo]}. O intervalo
+     * deve caber na capacidade da árvore.
+     */
+    public synchronized BucketEstatistica calcular(long inicioSegundo, long fimSegundo) {
+        if (fimSegundo - inicioSegundo + 1 > n) {
+            throw new IllegalArgumentException("Intervalo maior que a capacidade da árvore: "
+                    + (fimSegundo - inicioSegundo + 1) + " > " + n);
+        }
+        sincronizar(fimSegundo);
+
+        BucketEstatistica resultado = new BucketEstatistica(escala);
+        if (inicioSegundo > fimSegundo) {
+            return resultado;
+        }
+        int inicio = indice(inicioSegundo);
+        int fim = indice(fimSegundo);
+        if (inicio <= fim) {
+            consultar(inicio, fim + 1, resultado);
+        } else {
+            consultar(inicio, n, resultado);
+            consultar(0, fim + 1, resultado);
+        }
+        return resultado;
+    }
+
+    @Override
+    protected void registrar(long segundo, BucketEstatistica snapshot) {
+        int indice = indice(segundo);
+        if (snapshot == null && segundoFolha[indice] == VAZIO) {
+            return;
+        }
+        segundoFolha[indice] = snapshot == null ? VAZIO : segundo;
+        atualizarFolha(indice, snapshot);
+    }
+
+    @Override
+    protected void descartarRegistrosAntesDe(long limiteSegundo) {
+        for (int i = 0; i < n; i++) {
+            if (segundoFolha[i] != VAZIO && segundoFolha[i] < limiteSegundo) {
+                segundoFolha[i] = VAZIO;
+                atualizarFolha(i, null);
+            }
+        }
+    }
+
+    @Override
+    protected void limparAgregado() {
+        Arrays.fill(nos, null);
+        Arrays.fill(segundoFolha, VAZIO);
+    }
+
+    private void atualizarFolha(int indice, BucketEstatistica valor) {
+        int no = indice + n;
+        nos[no] = valor;
+        for (no >>= 1; no >= 1; no >>= 1) {
+            nos[no] = combinar(nos[2 * no], nos[2 * no + 1]);
+        }
+    }
+
+    private BucketEstatistica combinar(BucketEstatistica esquerda, BucketEstatistica direita) {
+        if (esquerda == null) return direita;
+        if (direita == null) return esquerda;
+        BucketEstatistica combinado = new BucketEstatistica(escala);
+        combinado.combinarCom(esquerda);
+        combinado.combinarCom(direita);
+        return combinado;
+    }
+
+    /**
+     * Combina as folhas em [de, ate) no destino, da esquerda para a direita.
+     */
+    private void consultar(int de, int ate, BucketEstatistica destino) {
+        // Os nós da borda direita são encontrados de trás para frente; guarda para combinar no fim
+        BucketEstatistica[] direita = new BucketEstatistica[2 * (32 - Integer.numberOfLeadingZeros(n))];
+        int quantosDireita = 0;
+
+        for (int l = de + n, r = ate + n; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                combinarSeExistir(destino, nos[l++]);
+            }
+            if ((r & 1) == 1) {
+                direita[quantosDireita++] = nos[--r];
+            }
+        }
+        for (int i = quantosDireita - 1; i >= 0; i--) {
+            combinarSeExistir(destino, direita[i]);
+        }
+    }
+
+    private static void combinarSeExistir(BucketEstatistica destino, BucketEstatistica no) {
+        if (no != null) {
+            destino.combinarCom(no);
+        }
+    }
+}
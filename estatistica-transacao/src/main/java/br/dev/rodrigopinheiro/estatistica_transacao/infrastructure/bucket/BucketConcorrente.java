@@ -0,0 +1,564 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.bucket;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.BigDecimalStatistics;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.FixedPoint;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.LogHistogram;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.QuantileSketch;
+
+/**
+ * Bucket de um segundo seguro para escritas concorrentes, sem locks.
+ *
+ * Segue a mesma ideia do {@link java.util.concurrent.atomic.LongAdder}: as escritas
+ * começam numa célula base e, quando um CAS falha por contenção, passam a ser
+ * distribuídas entre sub-células com padding (evitando false sharing), escolhidas
+ * a partir do identificador da thread. count, sum e a soma dos quadrados são
+ * acumulados por célula; min e max usam laços de CAS. A leitura combina todas as células em um
+ * {@link BucketEstatistica}.
+ *
+ * Os valores são acumulados em ponto fixo ({@code long} na escala do bucket).
+ * Valores não representáveis, ou que estourariam a soma da célula, vão para
+ * campos BigDecimal da mesma célula, combinados na leitura.
+ *
+ * Cada célula também conta os valores por faixa do {@link LogHistogram}, então
+ * o histograma do segundo se espalha entre as células junto com count e sum.
+ *
+ * Opcionalmente, cada valor também entra no {@link SketchConcorrente} da
+ * célula que o registrou, de onde saem os percentis; como o histograma, os bins
+ * do sketch se espalham entre as células e são somados na leitura.
+ *
+ * A leitura é quiescentemente consistente: sob escritas simultâneas ela pode
+ * não enxergar as transações que ainda estão sendo registradas, mas nunca perde
+ * uma transação já concluída.
+ */
+public class BucketConcorrente {
+
+    private static final int MAX_CELULAS = proximaPotenciaDeDois(Runtime.getRuntime().availableProcessors());
+
+    private static final VarHandle CELULAS;
+    static {
+        try {
+            CELULAS = MethodHandles.lookup().findVarHandle(BucketConcorrente.class, "celulas", Celula[].class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int escala;
+    private final double fatorEscala;
+    private final Celula base;
+    private volatile Celula[] celulas;
+    private final boolean percentis;
+
+    public BucketConcorrente() {
+        this(FixedPoint.DEFAULT_SCALE);
+    }
+
+    public BucketConcorrente(int escala) {
+        this(escala, false);
+    }
+
+    /**
+     * @param percentis se os valores também entram no sketch de quantis
+     */
+    public BucketConcorrente(int escala, boolean percentis) {
+        this.escala = escala;
+        this.fatorEscala = Math.pow(10, escala);
+        this.percentis = percentis;
+        this.base = new Celula(escala, percentis);
+    }
+
+    public void addTransacao(BigDecimal valor) {
+        addTransacao(FixedPoint.toScaled(valor, escala), valor);
+    }
+
+    /**
+     * @param valorEscalado valor já em ponto fixo na escala deste bucket, ou
+     *                      {@link FixedPoint#NOT_REPRESENTABLE}
+     */
+    public void addTransacao(long valorEscalado, BigDecimal valor) {
+        double valorAproximado = valorEscalado != FixedPoint.NOT_REPRESENTABLE
+                ? valorEscalado / fatorEscala
+                : valor.doubleValue();
+        int faixa = LogHistogram.binOf(valorAproximado);
+        int indiceQuantil = percentis ? QuantileSketch.indexOf(valorAproximado) : 0;
+        Celula[] atuais = celulas;
+        if (atuais == null) {
+            if (base.adicionar(valorEscalado, valor, faixa, indiceQuantil, true)) {
+                return;
+            }
+            atuais = expandir();
+        }
+
+        int hash = hashDaThread();
+        while (!atuais[hash & (atuais.length - 1)].adicionar(valorEscalado, valor, faixa, indiceQuantil, true)) {
+            hash = reespalhar(hash);
+        }
+    }
+
+    /**
+     * Combina todas as células no bucket de destino.
+     */
+    public void acumularEm(BucketEstatistica destino) {
+        base.acumularEm(destino);
+        Celula[] atuais = celulas;
+        if (atuais != null) {
+            for (Celula celula : atuais) {
+                celula.acumularEm(destino);
+            }
+        }
+        if (percentis) {
+            QuantileSketch quantis = destino.quantis();
+            base.quantis.acumularEm(quantis);
+            if (atuais != null) {
+                for (Celula celula : atuais) {
+                    celula.quantis.acumularEm(quantis);
+                }
+            }
+        }
+    }
+
+    /**
+     * Bucket com um agregado já calculado, por exemplo lido de um snapshot.
+     * Soma, min e max vão para os campos de ponto fixo quando cabem neles, e
+     * para os de BigDecimal quando não; escritas posteriores seguem normalmente.
+     */
+    public static BucketConcorrente restaurado(int escala, long count, BigDecimal soma,
+            BigDecimal somaQuadrados, BigDecimal min, BigDecimal max) {
+        return restaurado(escala, count, soma, somaQuadrados, min, max, null, null);
+    }
+
+    /**
+     * @param histograma contagens por faixa do agregado, ou {@code null} se não
+     *                   são conhecidas
+     * @param quantis    sketch dos valores do agregado, ou {@code null} para um
+     *                   bucket sem percentis
+     */
+    public static BucketConcorrente restaurado(int escala, long count, BigDecimal soma,
+            BigDecimal somaQuadrados, BigDecimal min, BigDecimal max, LogHistogram histograma,
+            QuantileSketch quantis) {
+        BucketConcorrente bucket = new BucketConcorrente(escala, quantis != null);
+        bucket.base.restaurar(count, soma, somaQuadrados, min, max, histograma);
+        if (quantis != null) {
+            bucket.base.quantis.restaurar(quantis);
+        }
+        return bucket;
+    }
+
+    public BucketEstatistica snapshot() {
+        BucketEstatistica snapshot = new BucketEstatistica(escala);
+        acumularEm(snapshot);
+        return snapshot;
+    }
+
+    public long getCount() {
+        long total = base.count + base.countDecimal;
+        Celula[] atuais = celulas;
+        if (atuais != null) {
+            for (Celula celula : atuais) {
+                total += celula.count + celula.countDecimal;
+            }
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return getCount() == 0;
+    }
+
+    /**
+     * Zera o bucket reaproveitando as células já alocadas.
+     * Não é atômico em relação a escritas simultâneas: quem reutiliza o bucket
+     * deve garantir que não há mais escritas para o período anterior.
+     */
+    public void limpar() {
+        base.limpar();
+        Celula[] atuais = celulas;
+        if (atuais != null) {
+            for (Celula celula : atuais) {
+                celula.limpar();
+            }
+        }
+    }
+
+    private Celula[] expandir() {
+        Celula[] novas = new Celula[MAX_CELULAS];
+        for (int i = 0; i < novas.length; i++) {
+            novas[i] = new Celula(escala, percentis);
+        }
+        // Apenas uma thread instala o array; as demais usam o que venceu a corrida
+        Celula[] existentes = (Celula[]) CELULAS.compareAndExchange(this, (Celula[]) null, novas);
+        return existentes != null ? existentes : novas;
+    }
+
+    private static int hashDaThread() {
+        long id = Thread.currentThread().threadId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int reespalhar(int h) {
+        // xorshift, o mesmo usado pelo Striped64 para escolher outra célula
+        h ^= h << 13;
+        h ^= h >>> 17;
+        h ^= h << 5;
+        return h;
+    }
+
+    private static int proximaPotenciaDeDois(int n) {
+        return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    /*
+     * O padding é feito por herança porque a JVM pode reordenar os campos de
+     * uma mesma classe, mas sempre posiciona os campos da superclasse antes.
+     */
+    @SuppressWarnings("unused")
+    private static class PaddingEsquerda {
+        long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    private static class Valores extends PaddingEsquerda {
+        // Ponto fixo. min e max guardam o valor junto com a escala original (ver empacotar*)
+        volatile long count;
+        volatile long sum;
+        volatile int escalaSum;
+        volatile long min = Long.MAX_VALUE;
+        volatile long max = Long.MIN_VALUE;
+        // Soma dos quadrados dos valores escalados, em 128 bits sem sinal, dividida
+        // em quatro acumuladores: cada um soma uma fatia de 32 bits de x² (ver somarQuadrado)
+        volatile long quadrados0;
+        volatile long quadrados1;
+        volatile long quadrados2;
+        volatile long quadrados3;
+
+        // Fallback para valores que não cabem em ponto fixo
+        volatile long countDecimal;
+        volatile BigDecimal sumDecimal = BigDecimal.ZERO;
+        volatile BigDecimal minDecimal;
+        volatile BigDecimal maxDecimal;
+        volatile BigDecimal quadradosDecimal = BigDecimal.ZERO;
+
+        // Contagem por faixa do LogHistogram, dos dois caminhos
+        final AtomicLongArray histograma = new AtomicLongArray(LogHistogram.BIN_COUNT);
+    }
+
+    @SuppressWarnings("unused")
+    private static final class Celula extends Valores {
+        long p11, p12, p13, p14, p15, p16, p17;
+
+        /*
+         * min e max precisam de valor e escala original atualizados juntos, então
+         * os dois vão no mesmo long: valor nos bits altos e um código de 5 bits da
+         * escala nos baixos. A ordem dos longs empacotados segue a dos valores; em
+         * empate (ex.: 1.0 e 1.00) prevalece a maior escala, como em
+         * BigDecimalStatistics.
+         */
+        private static final int BITS_ESCALA = 5;
+        private static final long MASCARA_ESCALA = (1L << BITS_ESCALA) - 1;
+        private static final long LIMITE_EMPACOTAVEL = Long.MAX_VALUE >> BITS_ESCALA;
+        private static final long MASCARA_32 = 0xFFFF_FFFFL;
+
+        private static final VarHandle COUNT;
+        private static final VarHandle SUM;
+        private static final VarHandle ESCALA_SUM;
+        private static final VarHandle MIN;
+        private static final VarHandle MAX;
+        private static final VarHandle QUADRADOS_0;
+        private static final VarHandle QUADRADOS_1;
+        private static final VarHandle QUADRADOS_2;
+        private static final VarHandle QUADRADOS_3;
+        private static final VarHandle COUNT_DECIMAL;
+        private static final VarHandle SUM_DECIMAL;
+        private static final VarHandle MIN_DECIMAL;
+        private static final VarHandle MAX_DECIMAL;
+        private static final VarHandle QUADRADOS_DECIMAL;
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                COUNT = lookup.findVarHandle(Valores.class, "count", long.class);
+                SUM = lookup.findVarHandle(Valores.class, "sum", long.class);
+                ESCALA_SUM = lookup.findVarHandle(Valores.class, "escalaSum", int.class);
+                MIN = lookup.findVarHandle(Valores.class, "min", long.class);
+                MAX = lookup.findVarHandle(Valores.class, "max", long.class);
+                QUADRADOS_0 = lookup.findVarHandle(Valores.class, "quadrados0", long.class);
+                QUADRADOS_1 = lookup.findVarHandle(Valores.class, "quadrados1", long.class);
+                QUADRADOS_2 = lookup.findVarHandle(Valores.class, "quadrados2", long.class);
+                QUADRADOS_3 = lookup.findVarHandle(Valores.class, "quadrados3", long.class);
+                COUNT_DECIMAL = lookup.findVarHandle(Valores.class, "countDecimal", long.class);
+                SUM_DECIMAL = lookup.findVarHandle(Valores.class, "sumDecimal", BigDecimal.class);
+                MIN_DECIMAL = lookup.findVarHandle(Valores.class, "minDecimal", BigDecimal.class);
+                MAX_DECIMAL = lookup.findVarHandle(Valores.class, "maxDecimal", BigDecimal.class);
+                QUADRADOS_DECIMAL = lookup.findVarHandle(Valores.class, "quadradosDecimal", BigDecimal.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final int escala;
+        // Bins de quantis dos valores desta célula; nulo com os percentis desligados
+        private final SketchConcorrente quantis;
+
+        Celula(int escala, boolean percentis) {
+            this.escala = escala;
+            this.quantis = percentis ? new SketchConcorrente() : null;
+        }
+
+        /**
+         * Registra o valor na célula. Com {@code tentativaUnica}, desiste se o CAS
+         * da soma falhar, sinalizando contenção para o chamador trocar de célula.
+         * min e max podem ser reaplicados em outra célula sem efeito no resultado.
+         * {@code indiceQuantil} só é usado com os percentis ligados.
+         */
+        boolean adicionar(long valorEscalado, BigDecimal valor, int faixa, int indiceQuantil,
+                boolean tentativaUnica) {
+            // Negativos (que a validação já barra) vão para o BigDecimal: só com valores
+            // não negativos a soma em um long limita a dos quadrados a 128 bits
+            if (valorEscalado == FixedPoint.NOT_REPRESENTABLE || valorEscalado < 0
+                    || !empacotavel(valorEscalado, valor.scale())) {
+                return adicionarDecimal(valor, faixa, indiceQuantil, tentativaUnica);
+            }
+
+            int escalaOriginal = valor.scale();
+            atualizarMin(empacotarMin(valorEscalado, escalaOriginal));
+            atualizarMax(empacotarMax(valorEscalado, escalaOriginal));
+            atualizarEscalaSum(Math.max(0, escalaOriginal));
+
+            long somaAtual;
+            do {
+                somaAtual = sum;
+                long novaSoma = somaAtual + valorEscalado;
+                if (((somaAtual ^ novaSoma) & (valorEscalado ^ novaSoma)) < 0) {
+                    // Estouraria o long: este valor segue em BigDecimal
+                    return adicionarDecimal(valor, faixa, indiceQuantil, tentativaUnica);
+                }
+                if (SUM.compareAndSet(this, somaAtual, novaSoma)) {
+                    // count por último: quem o enxerga também enxerga soma, quadrados, escala, min, max e faixa
+                    somarQuadrado(valorEscalado);
+                    contarFaixas(faixa, indiceQuantil);
+                    COUNT.getAndAdd(this, 1L);
+                    return true;
+                }
+            } while (!tentativaUnica);
+            return false;
+        }
+
+        private boolean adicionarDecimal(BigDecimal valor, int faixa, int indiceQuantil, boolean tentativaUnica) {
+            atualizarMinDecimal(valor);
+            atualizarMaxDecimal(valor);
+
+            BigDecimal somaAtual;
+            do {
+                somaAtual = sumDecimal;
+                if (SUM_DECIMAL.compareAndSet(this, somaAtual, somaAtual.add(valor))) {
+                    somarQuadradoDecimal(valor.multiply(valor));
+                    contarFaixas(faixa, indiceQuantil);
+                    COUNT_DECIMAL.getAndAdd(this, 1L);
+                    return true;
+                }
+            } while (!tentativaUnica);
+            return false;
+        }
+
+        private void contarFaixas(int faixa, int indiceQuantil) {
+            histograma.getAndIncrement(faixa);
+            if (quantis != null) {
+                quantis.adicionar(indiceQuantil, 1);
+            }
+        }
+
+        /*
+         * x² tem até 128 bits. Cada fatia de 32 bits vai, com getAndAdd, para o seu
+         * acumulador, e o vai-um entre as fatias só é resolvido na leitura: nenhuma
+         * escrita precisa atualizar duas palavras juntas, então não há lock nem
+         * espera por outro escritor. Um leitor pode ver só parte das fatias de uma
+         * escrita em andamento, mas nunca menos que os quadrados já contados.
+         * Cada acumulador recebe menos de 2^32 por escrita e só estouraria depois
+         * de 2^32 escritas na mesma célula.
+         */
+        private void somarQuadrado(long valorEscalado) {
+            long baixa = valorEscalado * valorEscalado;
+            long alta = Math.multiplyHigh(valorEscalado, valorEscalado);
+            QUADRADOS_0.getAndAdd(this, baixa & MASCARA_32);
+            if ((baixa >>> 32) != 0) {
+                QUADRADOS_1.getAndAdd(this, baixa >>> 32);
+            }
+            // Valores escalados abaixo de 2^32, o caso comum, não chegam à parte alta
+            if (alta != 0) {
+                QUADRADOS_2.getAndAdd(this, alta & MASCARA_32);
+                QUADRADOS_3.getAndAdd(this, alta >>> 32);
+            }
+        }
+
+        private void somarQuadradoDecimal(BigDecimal quadrado) {
+            // A soma do valor já entrou: esta não pode mais desistir
+            BigDecimal atual;
+            do {
+                atual = quadradosDecimal;
+            } while (!QUADRADOS_DECIMAL.compareAndSet(this, atual, atual.add(quadrado)));
+        }
+
+        private boolean empacotavel(long valorEscalado, int escalaOriginal) {
+            return valorEscalado <= LIMITE_EMPACOTAVEL && valorEscalado >= -LIMITE_EMPACOTAVEL
+                    && escalaOriginal <= escala && escalaOriginal > escala - (1 << BITS_ESCALA);
+        }
+
+        private long empacotarMin(long valorEscalado, int escalaOriginal) {
+            // Maior escala -> menor código -> vence o empate no min
+            return (valorEscalado << BITS_ESCALA) | (escala - escalaOriginal);
+        }
+
+        private long empacotarMax(long valorEscalado, int escalaOriginal) {
+            // Maior escala -> maior código -> vence o empate no max
+            return (valorEscalado << BITS_ESCALA) | (escalaOriginal - escala + MASCARA_ESCALA);
+        }
+
+        private void atualizarMin(long empacotado) {
+            long atual;
+            while (empacotado < (atual = min)) {
+                if (MIN.compareAndSet(this, atual, empacotado)) {
+                    return;
+                }
+            }
+        }
+
+        private void atualizarMax(long empacotado) {
+            long atual;
+            while (empacotado > (atual = max)) {
+                if (MAX.compareAndSet(this, atual, empacotado)) {
+                    return;
+                }
+            }
+        }
+
+        private void atualizarEscalaSum(int escalaValor) {
+            int atual;
+            while (escalaValor > (atual = escalaSum)) {
+                if (ESCALA_SUM.compareAndSet(this, atual, escalaValor)) {
+                    return;
+                }
+            }
+        }
+
+        private void atualizarMinDecimal(BigDecimal valor) {
+            BigDecimal atual;
+            while ((atual = minDecimal) == null || BigDecimalStatistics.isBetterMin(valor, atual)) {
+                if (MIN_DECIMAL.compareAndSet(this, atual, valor)) {
+                    return;
+                }
+            }
+        }
+
+        private void atualizarMaxDecimal(BigDecimal valor) {
+            BigDecimal atual;
+            while ((atual = maxDecimal) == null || BigDecimalStatistics.isBetterMax(valor, atual)) {
+                if (MAX_DECIMAL.compareAndSet(this, atual, valor)) {
+                    return;
+                }
+            }
+        }
+
+        /** Só em uma célula nova, antes de o bucket ser publicado. */
+        void restaurar(long countTotal, BigDecimal soma, BigDecimal somaQuadrados, BigDecimal minimo,
+                BigDecimal maximo, LogHistogram contagens) {
+            if (contagens != null) {
+                for (int i = 0; i < LogHistogram.BIN_COUNT; i++) {
+                    histograma.set(i, contagens.getCount(i));
+                }
+            }
+            long somaEscalada = FixedPoint.toScaled(soma, escala);
+            long minEscalado = FixedPoint.toScaled(minimo, escala);
+            long maxEscalado = FixedPoint.toScaled(maximo, escala);
+            BigInteger quadradosEscalados = somaQuadrados.signum() >= 0 && somaQuadrados.scale() <= 2 * escala
+                    ? somaQuadrados.movePointRight(2 * escala).toBigIntegerExact()
+                    : null;
+            if (somaEscalada == FixedPoint.NOT_REPRESENTABLE || soma.scale() < 0
+                    || quadradosEscalados == null || quadradosEscalados.bitLength() >= 127
+                    || minEscalado == FixedPoint.NOT_REPRESENTABLE || !empacotavel(minEscalado, minimo.scale())
+                    || maxEscalado == FixedPoint.NOT_REPRESENTABLE || !empacotavel(maxEscalado, maximo.scale())) {
+                sumDecimal = soma;
+                quadradosDecimal = somaQuadrados;
+                minDecimal = minimo;
+                maxDecimal = maximo;
+                countDecimal = countTotal;
+                return;
+            }
+            sum = somaEscalada;
+            long alta = quadradosEscalados.shiftRight(Long.SIZE).longValue();
+            long baixa = quadradosEscalados.longValue();
+            quadrados0 = baixa & MASCARA_32;
+            quadrados1 = baixa >>> 32;
+            quadrados2 = alta & MASCARA_32;
+            quadrados3 = alta >>> 32;
+            escalaSum = soma.scale();
+            min = empacotarMin(minEscalado, minimo.scale());
+            max = empacotarMax(maxEscalado, maximo.scale());
+            count = countTotal;
+        }
+
+        void limpar() {
+            count = 0;
+            countDecimal = 0;
+            sum = 0;
+            escalaSum = 0;
+            quadrados0 = 0;
+            quadrados1 = 0;
+            quadrados2 = 0;
+            quadrados3 = 0;
+            min = Long.MAX_VALUE;
+            max = Long.MIN_VALUE;
+            sumDecimal = BigDecimal.ZERO;
+            quadradosDecimal = BigDecimal.ZERO;
+            minDecimal = null;
+            maxDecimal = null;
+            for (int i = 0; i < LogHistogram.BIN_COUNT; i++) {
+                histograma.set(i, 0);
+            }
+            if (quantis != null) {
+                quantis.limpar();
+            }
+        }
+
+        void acumularEm(BucketEstatistica destino) {
+            long countAtual = count;
+            if (countAtual != 0) {
+                // A escala é lida depois da soma para cobrir todos os valores somados
+                long somaAtual = sum;
+                int escalaSomaAtual = escalaSum;
+                // Recompõe os 128 bits: q0 + q1·2^32 + q2·2^64 + q3·2^96, sem sinal
+                long q0 = quadrados0;
+                long q1 = quadrados1;
+                long q2 = quadrados2;
+                long q3 = quadrados3;
+                long quadradosBaixaAtual = q0 + (q1 << 32);
+                long quadradosAltaAtual = (q1 >>> 32) + q2 + (q3 << 32)
+                        + (Long.compareUnsigned(quadradosBaixaAtual, q0) < 0 ? 1 : 0);
+                long minAtual = min;
+                long maxAtual = max;
+                destino.combinarFixo(countAtual, somaAtual, escalaSomaAtual, quadradosAltaAtual, quadradosBaixaAtual,
+                        minAtual >> BITS_ESCALA, escala - (int) (minAtual & MASCARA_ESCALA),
+                        maxAtual >> BITS_ESCALA, (int) (maxAtual & MASCARA_ESCALA) + escala - (int) MASCARA_ESCALA);
+            }
+
+            long countDecimalAtual = countDecimal;
+            if (countDecimalAtual != 0) {
+                destino.combinar(countDecimalAtual, sumDecimal, quadradosDecimal, minDecimal, maxDecimal);
+            }
+
+            if (countAtual != 0 || countDecimalAtual != 0) {
+                LogHistogram faixas = destino.histograma();
+                for (int i = 0; i < LogHistogram.BIN_COUNT; i++) {
+                    long n = histograma.get(i);
+                    if (n != 0) {
+                        faixas.acceptBin(i, n);
+                    }
+                }
+            }
+        }
+    }
+}
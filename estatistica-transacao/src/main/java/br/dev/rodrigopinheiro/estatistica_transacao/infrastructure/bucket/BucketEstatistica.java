@@ -3,49 +3,123 @@ package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.bucket;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.FixedPoint;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.FixedPointStatistics;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.LogHistogram;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.QuantileSketch;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Percentis;
+
 public class BucketEstatistica {
 
-    private long count = 0;
-    private BigDecimal sum = BigDecimal.ZERO;
-    private BigDecimal min = null;
-    private BigDecimal max = null;
+    // Agrega em ponto fixo e só recorre a BigDecimal quando necessário
+    private final FixedPointStatistics estatisticas;
+    private final int escala;
+    // Criado com o primeiro valor ou agregado combinado
+    private LogHistogram histograma;
+    // Criado ao combinar o primeiro agregado com sketch; nulo com os percentis desligados
+    private QuantileSketch quantis;
 
-    public void addTransacao(BigDecimal valor) {
-        count++;
-        sum = sum.add(valor);
-        if (min == null || valor.compareTo(min) < 0) {
-            min = valor;
+    public BucketEstatistica() {
+        this(FixedPoint.DEFAULT_SCALE);
+    }
+
+    public BucketEstatistica(int escala) {
+        this.escala = escala;
+        this.estatisticas = new FixedPointStatistics(escala);
+    }
+
+    /**
+     * @param percentis se o agregado já começa com um sketch de quantis, para
+     *                  que valores adicionados direto também entrem nele
+     */
+    public BucketEstatistica(int escala, boolean percentis) {
+        this(escala);
+        if (percentis) {
+            this.quantis = new QuantileSketch();
         }
-        if (max == null || valor.compareTo(max) > 0) {
-            max = valor;
+    }
+
+    public void addTransacao(BigDecimal valor) {
+        estatisticas.accept(FixedPoint.toScaled(valor, escala), valor);
+        histograma().accept(valor.doubleValue());
+        if (quantis != null) {
+            quantis.accept(valor.doubleValue());
         }
     }
 
     public void combinarCom(BucketEstatistica outroBucket) {
-        if(outroBucket.count==0) return;
+        estatisticas.combine(outroBucket.estatisticas);
+        if (outroBucket.histograma != null) {
+            histograma().merge(outroBucket.histograma);
+        }
+        if (outroBucket.quantis != null) {
+            quantis().merge(outroBucket.quantis);
+        }
+    }
 
-        this.count += outroBucket.count;
-        this.sum = this.sum.add(outroBucket.sum);
-        if (this.min == null || outroBucket.min.compareTo(this.min) < 0) {
-            this.min = outroBucket.min;
+    LogHistogram histograma() {
+        if (histograma == null) {
+            histograma = new LogHistogram();
         }
-        if (this.max == null || outroBucket.max.compareTo(this.max) > 0) {
-            this.max = outroBucket.max;
+        return histograma;
+    }
+
+    /** Contagens por faixa dos valores combinados, ou {@code null} sem valores. */
+    public LogHistogram getHistograma() {
+        return histograma;
+    }
+
+    QuantileSketch quantis() {
+        if (quantis == null) {
+            quantis = new QuantileSketch();
         }
+        return quantis;
+    }
+
+    /** Sketch dos valores combinados, ou {@code null} se nenhum tinha percentis. */
+    public QuantileSketch getQuantis() {
+        return quantis;
+    }
+
+    /** Percentis estimados, ou {@code null} sem sketch ou sem valores. */
+    public Percentis getPercentis() {
+        return getCount() == 0 ? null : Percentis.estimar(quantis, getMin(), getMax());
+    }
+
+    void combinar(long outroCount, BigDecimal outraSum, BigDecimal outraSomaQuadrados,
+            BigDecimal outroMin, BigDecimal outroMax) {
+        estatisticas.combineDecimal(outroCount, outraSum, outraSomaQuadrados, outroMin, outroMax);
+    }
+
+    void combinarFixo(long outroCount, long outraSum, int escalaSum, long quadradosAlta, long quadradosBaixa,
+            long outroMin, int escalaMin, long outroMax, int escalaMax) {
+        estatisticas.combineFixed(outroCount, outraSum, escalaSum, quadradosAlta, quadradosBaixa,
+                outroMin, escalaMin, outroMax, escalaMax);
     }
 
     public Boolean isEmpty() {
-        return count == 0;
+        return getCount() == 0;
     }
 
         // Getters
-    public long getCount() { return count; }
-    public BigDecimal getSum() { return sum; }
-    public BigDecimal getMin() { return count == 0 ? BigDecimal.ZERO : min; }
-    public BigDecimal getMax() { return count == 0 ? BigDecimal.ZERO : max; }
-    
+    public long getCount() { return estatisticas.getCount(); }
+    public BigDecimal getSum() { return estatisticas.getSum(); }
+    public BigDecimal getMin() { return estatisticas.getMin(); }
+    public BigDecimal getMax() { return estatisticas.getMax(); }
+    public BigDecimal getSomaQuadrados() { return estatisticas.getSumOfSquares(); }
+
     public BigDecimal getAvg() {
-        if (count == 0) return BigDecimal.ZERO;
-        return sum.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+        if (getCount() == 0) return BigDecimal.ZERO;
+        return estatisticas.getAvg(2, RoundingMode.HALF_UP);
+    }
+
+    public BigDecimal getVariancia() {
+        if (getCount() == 0) return BigDecimal.ZERO;
+        return estatisticas.getVariance(2, RoundingMode.HALF_UP);
+    }
+
+    public BigDecimal getDesvioPadrao() {
+        if (getCount() == 0) return BigDecimal.ZERO;
+        return estatisticas.getStandardDeviation(2, RoundingMode.HALF_UP);
     }
 }
@@ -0,0 +1,436 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.bucket;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Consolida os buckets por segundo em agregados por minuto e por hora.
+ *
+ * Os segundos ficam em resolução cheia só enquanto podem ser a borda de uma
+ * janela consultada: {@code segundosRetidos} atrás do segundo mais novo já
+ * escrito. Cada minuto encerrado é combinado em um {@link BucketEstatistica} com
+ * {@code combinarCom}, e cada hora encerrada a partir dos seus minutos; os
+ * minutos ficam retidos por {@code minutosRetidos} e as horas até serem
+ * descartadas. Um intervalo longo é respondido com as horas e minutos inteiros
+ * que ele contém mais os segundos das bordas, sempre em ordem cronológica.
+ *
+ * Escritas atrasadas em minutos já consolidados marcam o minuto, que é
+ * recalculado a partir dos seus segundos antes da próxima consulta ou
+ * consolidação. Escritas anteriores aos segundos retidos vão direto para o
+ * minuto (ou hora) que as contém. Os agregados publicados nunca são alterados:
+ * cada atualização troca a instância no mapa, e as consultas os leem sem lock.
+ *
+ * Fora dos segundos retidos a resolução é a do agregado: uma borda que caia no
+ * meio de um minuto (ou de uma hora já sem minutos) inclui o minuto (ou a hora)
+ * inteiro.
+ */
+public class ConsolidacaoTemporal {
+
+    public static final int SEGUNDOS_POR_MINUTO = 60;
+    public static final int MINUTOS_POR_HORA = 60;
+    public static final int SEGUNDOS_POR_HORA = SEGUNDOS_POR_MINUTO * MINUTOS_POR_HORA;
+
+    // Espera após o fim do minuto antes de consolidá-lo, para que escritas com
+    // pouco atraso não precisem recalcular o minuto
+    static final int ATRASO_CONSOLIDACAO_SEGUNDOS = 5;
+
+    // Escritas a menos disso do limite dos segundos retidos passam pelo lock, para
+    // não competir com a remoção dos segundos. A remoção avança um minuto por
+    // consolidação; como no deleteBefore, uma escrita parada por mais tempo que
+    // isso enquanto a retenção avança pode ser perdida
+    private static final int FOLGA_SEGUNDOS = SEGUNDOS_POR_MINUTO;
+
+    private static final long NENHUM = Long.MIN_VALUE;
+
+    private final Map<Long, BucketConcorrente> segundos;
+    private final int escala;
+    private final int segundosRetidos;
+    private final int minutosRetidos;
+    private final boolean percentis;
+
+    private final ConcurrentSkipListMap<Long, BucketEstatistica> minutos = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Long, BucketEstatistica> horas = new ConcurrentSkipListMap<>();
+    private final Set<Long> minutosAlterados = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final AtomicLong ultimoSegundo = new AtomicLong(NENHUM);
+    // Publicado antes de ler os segundos: escritas em minutos até aqui marcam o minuto
+    private volatile long minutoEmConsolidacao = NENHUM;
+    // Publicado depois dos agregados: as consultas usam os minutos até aqui
+    private volatile long minutoConsolidado = NENHUM;
+    // Início de minuto; os segundos anteriores já foram removidos
+    private volatile long limiteSegundos = NENHUM;
+    // Início de hora, em minutos; os minutos anteriores já foram removidos
+    private volatile long limiteMinutos = NENHUM;
+
+    /**
+     * @param segundos        buckets por segundo do repositório; os segundos fora da
+     *                        retenção são removidos deste mapa
+     * @param escala          escala do ponto fixo usada na combinação
+     * @param segundosRetidos segundos mantidos em resolução cheia atrás do mais novo
+     * @param minutosRetidos  minutos mantidos atrás do mais novo; deve cobrir os
+     *                        segundos retidos
+     * @param percentis       se os buckets têm sketch de quantis; as escritas que vão
+     *                        direto para um minuto ou hora também entram no sketch dele
+     */
+    public ConsolidacaoTemporal(Map<Long, BucketConcorrente> segundos, int escala,
+            int segundosRetidos, int minutosRetidos, boolean percentis) {
+        if (segundosRetidos <= 0) {
+            throw new IllegalArgumentException("segundosRetidos deve ser positivo: " + segundosRetidos);
+        }
+        if ((long) minutosRetidos * SEGUNDOS_POR_MINUTO < segundosRetidos) {
+            throw new IllegalArgumentException("minutosRetidos deve cobrir os segundos retidos: "
+                    + minutosRetidos + " minutos < " + segundosRetidos + " segundos");
+        }
+        this.segundos = segundos;
+        this.escala = escala;
+        this.segundosRetidos = segundosRetidos;
+        this.minutosRetidos = minutosRetidos;
+        this.percentis = percentis;
+    }
+
+    /**
+     * Indica se uma escrita no segundo deve passar por
+     * {@link #salvarProximoDoLimite}, em vez de ir direto para o bucket.
+     */
+    public boolean isProximoDoLimite(long segundo) {
+        return segundo < limiteSegundos + FOLGA_SEGUNDOS;
+    }
+
+    /**
+     * Escrita em segundo próximo ou além do limite dos segundos retidos. Se o
+     * segundo ainda é retido, executa {@code escritaNoSegundo}; senão soma o valor
+     * ao minuto ou hora que o contém.
+     */
+    public void salvarProximoDoLimite(long segundo, BigDecimal valor, Runnable escritaNoSegundo) {
+        lock.lock();
+        try {
+            if (segundo >= limiteSegundos) {
+                escritaNoSegundo.run();
+                aposEscrita(segundo);
+                return;
+            }
+            long minuto = Math.floorDiv(segundo, SEGUNDOS_POR_MINUTO);
+            if (minuto >= limiteMinutos) {
+                minutos.put(minuto, comValor(minutos.get(minuto), valor));
+            }
+            long hora = Math.floorDiv(minuto, MINUTOS_POR_HORA);
+            if (isHoraFechada(hora, minutoConsolidado)) {
+                horas.put(hora, comValor(horas.get(hora), valor));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Avisa que o bucket do segundo recebeu uma escrita. Deve ser chamado depois
+     * da escrita no bucket; consolida os minutos encerrados quando o segundo mais
+     * novo avança.
+     */
+    public void aposEscrita(long segundo) {
+        if (Math.floorDiv(segundo, SEGUNDOS_POR_MINUTO) <= minutoEmConsolidacao) {
+            minutosAlterados.add(Math.floorDiv(segundo, SEGUNDOS_POR_MINUTO));
+        }
+        if (segundo <= ultimoSegundo.get()) {
+            return;
+        }
+        long ultimo = ultimoSegundo.accumulateAndGet(segundo, Math::max);
+        if (ultimoMinutoEncerrado(ultimo) > minutoConsolidado && lock.tryLock()) {
+            // Sem o lock, a consolidação fica para a próxima escrita que avançar o segundo
+            try {
+                consolidar();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Percorre {@code [inicioSegundo, fimSegundo]} em ordem cronológica, passando
+     * cada agregado não vazio e o segundo em que ele começa: horas e minutos
+     * consolidados que cabem inteiros no intervalo e segundos nas bordas.
+     */
+    public void percorrer(long inicioSegundo, long fimSegundo, ObjLongConsumer<BucketEstatistica> visitante) {
+        if (!minutosAlterados.isEmpty()) {
+            lock.lock();
+            try {
+                recalcularAlterados();
+            } finally {
+                lock.unlock();
+            }
+        }
+        long consolidado = minutoConsolidado;
+        long limiteSeg = limiteSegundos;
+        long limiteMin = limiteMinutos;
+
+        long cursor = inicioSegundo;
+        while (cursor <= fimSegundo) {
+            long minuto = Math.floorDiv(cursor, SEGUNDOS_POR_MINUTO);
+            if (minuto > consolidado) {
+                // Daqui em diante nada foi consolidado: só há segundos
+                for (long segundo = cursor; segundo <= fimSegundo; segundo++) {
+                    visitarSegundo(segundo, visitante);
+                }
+                return;
+            }
+
+            long hora = Math.floorDiv(minuto, MINUTOS_POR_HORA);
+            long inicioHora = hora * SEGUNDOS_POR_HORA;
+            long proximaHora = inicioHora + SEGUNDOS_POR_HORA;
+            if (isHoraFechada(hora, consolidado)
+                    && (minuto < limiteMin || (cursor == inicioHora && proximaHora - 1 <= fimSegundo))) {
+                visitar(horas.get(hora), inicioHora, visitante);
+                cursor = pularHorasVazias(proximaHora, fimSegundo, consolidado);
+                continue;
+            }
+
+            long inicioMinuto = minuto * SEGUNDOS_POR_MINUTO;
+            if (cursor < limiteSeg
+                    || (cursor == inicioMinuto && inicioMinuto + SEGUNDOS_POR_MINUTO - 1 <= fimSegundo)) {
+                visitar(minutos.get(minuto), inicioMinuto, visitante);
+                cursor = inicioMinuto + SEGUNDOS_POR_MINUTO;
+                continue;
+            }
+
+            visitarSegundo(cursor, visitante);
+            cursor++;
+        }
+    }
+
+    /**
+     * Remove minutos e horas que terminam antes do limite. Deve ser chamado depois
+     * de remover os segundos anteriores ao limite: o minuto e a hora que o contêm
+     * são recalculados a partir do que sobrou, se ainda houver segundos (ou
+     * minutos) para isso; senão são mantidos inteiros.
+     */
+    public void descartarAntesDe(long limiteSegundo) {
+        lock.lock();
+        try {
+            long minuto = Math.floorDiv(limiteSegundo, SEGUNDOS_POR_MINUTO);
+            long hora = Math.floorDiv(minuto, MINUTOS_POR_HORA);
+            minutos.headMap(minuto).clear();
+            horas.headMap(hora).clear();
+            if (minuto * SEGUNDOS_POR_MINUTO >= limiteSegundos && minuto <= minutoEmConsolidacao) {
+                recalcularMinuto(minuto);
+            }
+            if (isHoraFechada(hora, minutoConsolidado)) {
+                recalcularHora(hora);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void limpar() {
+        lock.lock();
+        try {
+            minutos.clear();
+            horas.clear();
+            minutosAlterados.clear();
+            ultimoSegundo.set(NENHUM);
+            minutoEmConsolidacao = NENHUM;
+            minutoConsolidado = NENHUM;
+            limiteSegundos = NENHUM;
+            limiteMinutos = NENHUM;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getMinutoCount() {
+        return minutos.size();
+    }
+
+    public int getHoraCount() {
+        return horas.size();
+    }
+
+    private void consolidar() {
+        long ultimo = ultimoSegundo.get();
+        long alvo = ultimoMinutoEncerrado(ultimo);
+        long anterior = minutoConsolidado;
+        if (alvo <= anterior) {
+            return;
+        }
+        recalcularAlterados();
+
+        // Ordem importa: publica o alvo antes de ler os segundos, para que uma escrita
+        // concorrente seja vista aqui ou marque o minuto para ser recalculado
+        minutoEmConsolidacao = alvo;
+        TreeSet<Long> horasAfetadas = new TreeSet<>();
+        if (anterior != NENHUM) {
+            // A hora do último minuto consolidado pode ter ficado aberta
+            horasAfetadas.add(Math.floorDiv(anterior, MINUTOS_POR_HORA));
+        }
+        for (long minuto : minutosComSegundos(anterior == NENHUM ? NENHUM : anterior + 1, alvo)) {
+            if (recalcularMinuto(minuto)) {
+                horasAfetadas.add(Math.floorDiv(minuto, MINUTOS_POR_HORA));
+            }
+        }
+        for (long hora : horasAfetadas) {
+            if (isHoraFechada(hora, alvo)) {
+                recalcularHora(hora);
+            }
+        }
+        minutoConsolidado = alvo;
+
+        descartarRetidos(ultimo, alvo);
+    }
+
+    private void descartarRetidos(long ultimo, long consolidado) {
+        // Só saem segundos de minutos consolidados, e minutos de horas fechadas
+        long novoLimiteSegundos = Math.min(
+                Math.floorDiv(ultimo - segundosRetidos, SEGUNDOS_POR_MINUTO),
+                consolidado + 1) * SEGUNDOS_POR_MINUTO;
+        if (novoLimiteSegundos > limiteSegundos) {
+            // Minutos marcados precisam dos seus segundos para serem recalculados
+            recalcularAlterados();
+            limiteSegundos = novoLimiteSegundos;
+            segundos.keySet().removeIf(segundo -> segundo < novoLimiteSegundos);
+        }
+
+        long novoLimiteMinutos = Math.min(
+                Math.floorDiv(Math.floorDiv(ultimo, SEGUNDOS_POR_MINUTO) - minutosRetidos, MINUTOS_POR_HORA),
+                Math.floorDiv(consolidado + 1, MINUTOS_POR_HORA)) * MINUTOS_POR_HORA;
+        if (novoLimiteMinutos > limiteMinutos) {
+            limiteMinutos = novoLimiteMinutos;
+            minutos.headMap(novoLimiteMinutos).clear();
+        }
+    }
+
+    /**
+     * Recalcula os minutos marcados por escritas atrasadas, e as horas fechadas
+     * que os contêm. Deve ser chamado com o lock.
+     */
+    private void recalcularAlterados() {
+        TreeSet<Long> horasAfetadas = new TreeSet<>();
+        Iterator<Long> iterador = minutosAlterados.iterator();
+        while (iterador.hasNext()) {
+            long minuto = iterador.next();
+            // Remove antes de ler os segundos: uma escrita concorrente marca de novo
+            iterador.remove();
+            if (minuto * SEGUNDOS_POR_MINUTO >= limiteSegundos && minuto <= minutoEmConsolidacao) {
+                recalcularMinuto(minuto);
+                horasAfetadas.add(Math.floorDiv(minuto, MINUTOS_POR_HORA));
+            }
+        }
+        for (long hora : horasAfetadas) {
+            if (isHoraFechada(hora, minutoConsolidado)) {
+                recalcularHora(hora);
+            }
+        }
+    }
+
+    /** @return se o minuto ficou com alguma transação */
+    private boolean recalcularMinuto(long minuto) {
+        BucketEstatistica agregado = new BucketEstatistica(escala);
+        long inicio = minuto * SEGUNDOS_POR_MINUTO;
+        for (long segundo = inicio; segundo < inicio + SEGUNDOS_POR_MINUTO; segundo++) {
+            BucketConcorrente bucket = segundos.get(segundo);
+            if (bucket != null && !bucket.isEmpty()) {
+                bucket.acumularEm(agregado);
+            }
+        }
+        return publicar(minutos, minuto, agregado);
+    }
+
+    private void recalcularHora(long hora) {
+        if (hora * MINUTOS_POR_HORA < limiteMinutos) {
+            // Sem os minutos, a hora só muda pelas escritas diretas
+            return;
+        }
+        BucketEstatistica agregado = new BucketEstatistica(escala);
+        long inicio = hora * MINUTOS_POR_HORA;
+        for (BucketEstatistica minuto : minutos.subMap(inicio, inicio + MINUTOS_POR_HORA).values()) {
+            agregado.combinarCom(minuto);
+        }
+        publicar(horas, hora, agregado);
+    }
+
+    private static boolean publicar(Map<Long, BucketEstatistica> nivel, long chave, BucketEstatistica agregado) {
+        if (agregado.isEmpty()) {
+            nivel.remove(chave);
+            return false;
+        }
+        nivel.put(chave, agregado);
+        return true;
+    }
+
+    /**
+     * Minutos em {@code [de, ate]} que têm algum segundo. Para intervalos longos
+     * (ou desconhecidos, na primeira consolidação) parte das chaves dos segundos.
+     */
+    private Iterable<Long> minutosComSegundos(long de, long ate) {
+        TreeSet<Long> resultado = new TreeSet<>();
+        if (de != NENHUM && ate - de < MINUTOS_POR_HORA) {
+            for (long minuto = de; minuto <= ate; minuto++) {
+                resultado.add(minuto);
+            }
+            return resultado;
+        }
+        for (long segundo : segundos.keySet()) {
+            long minuto = Math.floorDiv(segundo, SEGUNDOS_POR_MINUTO);
+            if (minuto >= de && minuto <= ate) {
+                resultado.add(minuto);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Próximo cursor depois de uma hora: salta de uma vez as horas fechadas,
+     * vazias e inteiras no intervalo.
+     */
+    private long pularHorasVazias(long proximaHora, long fimSegundo, long consolidado) {
+        long primeiraHoraAberta = Math.floorDiv(consolidado + 1, MINUTOS_POR_HORA);
+        long fimHorasInteiras = Math.floorDiv(fimSegundo + 1, SEGUNDOS_POR_HORA);
+        long hora = Math.floorDiv(proximaHora, SEGUNDOS_POR_HORA);
+        if (horas.containsKey(hora) || hora >= Math.min(primeiraHoraAberta, fimHorasInteiras)) {
+            return proximaHora;
+        }
+        Long proximaComDados = horas.ceilingKey(hora);
+        long destino = Math.min(proximaComDados == null ? Long.MAX_VALUE : proximaComDados,
+                Math.min(primeiraHoraAberta, fimHorasInteiras));
+        return destino * SEGUNDOS_POR_HORA;
+    }
+
+    private void visitarSegundo(long segundo, ObjLongConsumer<BucketEstatistica> visitante) {
+        BucketConcorrente bucket = segundos.get(segundo);
+        if (bucket != null && !bucket.isEmpty()) {
+            visitante.accept(bucket.snapshot(), segundo);
+        }
+    }
+
+    private static void visitar(BucketEstatistica agregado, long inicio, ObjLongConsumer<BucketEstatistica> visitante) {
+        if (agregado != null) {
+            visitante.accept(agregado, inicio);
+        }
+    }
+
+    private BucketEstatistica comValor(BucketEstatistica atual, BigDecimal valor) {
+        // Copia em vez de alterar: o agregado publicado pode estar sendo lido
+        BucketEstatistica novo = new BucketEstatistica(escala, percentis);
+        if (atual != null) {
+            novo.combinarCom(atual);
+        }
+        novo.addTransacao(valor);
+        return novo;
+    }
+
+    private static boolean isHoraFechada(long hora, long consolidado) {
+        return consolidado != NENHUM && (hora + 1) * MINUTOS_POR_HORA - 1 <= consolidado;
+    }
+
+    private static long ultimoMinutoEncerrado(long ultimoSegundo) {
+        return Math.floorDiv(ultimoSegundo - ATRASO_CONSOLIDACAO_SEGUNDOS, SEGUNDOS_POR_MINUTO) - 1;
+    }
+}
@@ -0,0 +1,331 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.bucket;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.TreeMap;
+import java.util.function.LongFunction;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.BigDecimalStatistics;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.FixedPoint;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.QuantileSketch;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Estatistica;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Percentis;
+
+/**
+ * Agregado incremental da janela deslizante de estatísticas.
+ *
+ * Em vez de combinar todos os buckets da janela a cada consulta, mantém count,
+ * soma e soma dos quadrados correntes (somando a contribuição de cada segundo quando ele muda e
+ * subtraindo quando ele sai da janela) e min/max em deques monotônicas sobre os
+ * extremos de cada segundo. A soma dos quadrados é exata, então subtrair um
+ * segundo não deixa resíduo na variância. Com percentis, o sketch da janela também é
+ * corrente: o de cada segundo é somado quando ele muda e subtraído quando sai.
+ * O custo de uma consulta depende apenas do que mudou
+ * desde a consulta anterior, e não do tamanho da janela.
+ */
+public class JanelaDeslizante extends AgregadoIncremental {
+
+    private final int janelaSegundos;
+    private final int escala;
+
+    private final long[] registroSegundo;
+    private final long[] registroCount;
+    private final BigDecimal[] registroSoma;
+    private final BigDecimal[] registroSomaQuadrados;
+    private final QuantileSketch[] registroQuantis;
+    private final DequeMonotonica minimos;
+    private final DequeMonotonica maximos;
+
+    private long count;
+    private long somaEscalada;
+    private BigDecimal somaExcedente = BigDecimal.ZERO;
+    private final TreeMap<Integer, Integer> escalasSoma = new TreeMap<>();
+    private BigDecimal somaQuadrados = BigDecimal.ZERO;
+    // Nulo até o primeiro segundo com sketch
+    private QuantileSketch quantis;
+
+    /**
+     * @param janelaSegundos tamanho da janela; ela cobre os segundos
+     *                       {@code [fim - janelaSegundos, fim]}
+     * @param escala         escala do ponto fixo usada na soma corrente
+     * @param buckets        busca o bucket de um segundo, ou {@code null}
+     */
+    public JanelaDeslizante(int janelaSegundos, int escala, LongFunction<BucketConcorrente> buckets) {
+        super(janelaSegundos + 1, buckets);
+        this.janelaSegundos = janelaSegundos;
+        this.escala = escala;
+        this.registroSegundo = new long[getSegundos()];
+        this.registroCount = new long[getSegundos()];
+        this.registroSoma = new BigDecimal[getSegundos()];
+        this.registroSomaQuadrados = new BigDecimal[getSegundos()];
+        this.registroQuantis = new QuantileSketch[getSegundos()];
+        this.minimos = new DequeMonotonica(getSegundos(), false);
+        this.maximos = new DequeMonotonica(getSegundos(), true);
+        Arrays.fill(registroSegundo, VAZIO);
+    }
+
+    public int getJanelaSegundos() {
+        return janelaSegundos;
+    }
+
+    /**
+     * Estatísticas da janela {@code [fimSegundo - janelaSegundos, fimSegundo]}.
+     */
+    public synchronized Estatistica calcular(long fimSegundo) {
+        sincronizar(fimSegundo);
+        return estatisticaAtual();
+    }
+
+    @Override
+    protected void registrar(long segundo, BucketEstatistica snapshot) {
+        int indice = indice(segundo);
+        if (registroSegundo[indice] != VAZIO) {
+            desfazer(indice);
+        }
+        if (snapshot == null) {
+            return;
+        }
+
+        registroSegundo[indice] = segundo;
+        registroCount[indice] = snapshot.getCount();
+        registroSoma[indice] = snapshot.getSum();
+        registroSomaQuadrados[indice] = snapshot.getSomaQuadrados();
+        count += snapshot.getCount();
+        somar(snapshot.getSum());
+        somaQuadrados = somaQuadrados.add(snapshot.getSomaQuadrados());
+        escalasSoma.merge(snapshot.getSum().scale(), 1, Integer::sum);
+        if (snapshot.getQuantis() != null) {
+            if (quantis == null) {
+                quantis = new QuantileSketch();
+            }
+            quantis.merge(snapshot.getQuantis());
+            registroQuantis[indice] = snapshot.getQuantis();
+        }
+
+        minimos.atualizar(segundo, snapshot.getMin());
+        maximos.atualizar(segundo, snapshot.getMax());
+    }
+
+    private void desfazer(int indice) {
+        BigDecimal soma = registroSoma[indice];
+        count -= registroCount[indice];
+        subtrair(soma);
+        somaQuadrados = somaQuadrados.subtract(registroSomaQuadrados[indice]);
+        escalasSoma.computeIfPresent(soma.scale(), (escalaSoma, total) -> total == 1 ? null : total - 1);
+        if (registroQuantis[indice] != null) {
+            quantis.subtract(registroQuantis[indice]);
+            registroQuantis[indice] = null;
+        }
+        registroSegundo[indice] = VAZIO;
+        registroSoma[indice] = null;
+        registroSomaQuadrados[indice] = null;
+    }
+
+    @Override
+    protected void aoAvancar(long inicioSegundo) {
+        // count e soma dos segundos que saem são desfeitos quando a posição é
+        // reaproveitada em registrar; aqui só as deques precisam andar
+        minimos.removerAntesDe(inicioSegundo);
+        maximos.removerAntesDe(inicioSegundo);
+    }
+
+    @Override
+    protected void descartarRegistrosAntesDe(long limiteSegundo) {
+        for (int i = 0; i < registroSegundo.length; i++) {
+            if (registroSegundo[i] != VAZIO && registroSegundo[i] < limiteSegundo) {
+                desfazer(i);
+            }
+        }
+        minimos.removerAntesDe(limiteSegundo);
+        maximos.removerAntesDe(limiteSegundo);
+    }
+
+    private void somar(BigDecimal valor) {
+        long escalado = FixedPoint.toScaled(valor, escala);
+        if (escalado != FixedPoint.NOT_REPRESENTABLE) {
+            long resultado = somaEscalada + escalado;
+            if (((somaEscalada ^ resultado) & (escalado ^ resultado)) >= 0) {
+                somaEscalada = resultado;
+                return;
+            }
+        }
+        somaExcedente = somaExcedente.add(valor);
+    }
+
+    private void subtrair(BigDecimal valor) {
+        // Qualquer divisão entre as duas parcelas serve, desde que o total seja exato
+        long escalado = FixedPoint.toScaled(valor, escala);
+        if (escalado != FixedPoint.NOT_REPRESENTABLE) {
+            long resultado = somaEscalada - escalado;
+            if (((somaEscalada ^ escalado) & (somaEscalada ^ resultado)) >= 0) {
+                somaEscalada = resultado;
+                return;
+            }
+        }
+        somaExcedente = somaExcedente.subtract(valor);
+    }
+
+    private Estatistica estatisticaAtual() {
+        if (count == 0) {
+            return Estatistica.vazia();
+        }
+        // A soma usa a maior escala entre os segundos da janela, como na combinação dos buckets
+        BigDecimal soma = BigDecimal.valueOf(somaEscalada, escala)
+                .add(somaExcedente)
+                .setScale(escalasSoma.lastKey(), RoundingMode.UNNECESSARY);
+        BigDecimal media = soma.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+        BigDecimal min = minimos.frente();
+        BigDecimal max = maximos.frente();
+        return new Estatistica(count, soma, media, min, max,
+                BigDecimalStatistics.variance(count, soma, somaQuadrados, 2, RoundingMode.HALF_UP),
+                BigDecimalStatistics.standardDeviation(count, soma, somaQuadrados, 2, RoundingMode.HALF_UP),
+                Percentis.estimar(quantis, min, max));
+    }
+
+    @Override
+    protected void limparAgregado() {
+        Arrays.fill(registroSegundo, VAZIO);
+        Arrays.fill(registroSoma, null);
+        Arrays.fill(registroSomaQuadrados, null);
+        Arrays.fill(registroQuantis, null);
+        quantis = null;
+        minimos.limpar();
+        maximos.limpar();
+        count = 0;
+        somaEscalada = 0;
+        somaExcedente = BigDecimal.ZERO;
+        somaQuadrados = BigDecimal.ZERO;
+        escalasSoma.clear();
+    }
+
+    /**
+     * Deque monotônica sobre os extremos por segundo, ordenada por segundo.
+     *
+     * Guarda apenas os segundos que ainda podem ser o extremo da janela: um
+     * segundo sai quando um segundo mais novo é melhor pelo mesmo critério da
+     * combinação sequencial dos buckets ({@code BigDecimalStatistics.isBetterMin}
+     * e {@code isBetterMax}): valor melhor ou, no empate, escala maior. Um valor
+     * igual com escala maior remove o mais antigo; só com valor e escala iguais
+     * o mais antigo fica na frente. Como escritas atrasadas podem melhorar o extremo de um
+     * segundo que já está na janela, a atualização aceita qualquer segundo e não
+     * só o mais novo.
+     */
+    private static final class DequeMonotonica {
+
+        private final boolean maximo;
+        private final long[] segundos;
+        private final BigDecimal[] valores;
+        private int inicio;
+        private int fim;
+
+        DequeMonotonica(int capacidade, boolean maximo) {
+            this.maximo = maximo;
+            this.segundos = new long[capacidade + 1];
+            this.valores = new BigDecimal[capacidade + 1];
+        }
+
+        BigDecimal frente() {
+            return inicio < fim ? valores[inicio] : BigDecimal.ZERO;
+        }
+
+        void atualizar(long segundo, BigDecimal valor) {
+            int posicao = primeiroDepoisDe(segundo);
+            int limite = posicao;
+            if (limite > inicio && segundos[limite - 1] == segundo) {
+                // O registro anterior do mesmo segundo sempre é substituído
+                limite--;
+            }
+
+            if (posicao < fim && melhor(valores[posicao], valor)) {
+                // Um segundo mais novo já é melhor: este nunca será o extremo
+                remover(limite, posicao);
+                return;
+            }
+
+            int corte = limite;
+            while (corte > inicio && melhor(valor, valores[corte - 1])) {
+                corte--;
+            }
+            substituir(corte, posicao, segundo, valor);
+        }
+
+        void removerAntesDe(long segundo) {
+            while (inicio < fim && segundos[inicio] < segundo) {
+                valores[inicio++] = null;
+            }
+            if (inicio == fim) {
+                inicio = 0;
+                fim = 0;
+            }
+        }
+
+        void limpar() {
+            Arrays.fill(valores, null);
+            inicio = 0;
+            fim = 0;
+        }
+
+        private boolean melhor(BigDecimal a, BigDecimal b) {
+            return maximo ? BigDecimalStatistics.isBetterMax(a, b) : BigDecimalStatistics.isBetterMin(a, b);
+        }
+
+        private int primeiroDepoisDe(long segundo) {
+            if (inicio == fim || segundos[fim - 1] < segundo) {
+                // Caso comum: segundo mais novo que todos
+                return fim;
+            }
+            int baixo = inicio;
+            int alto = fim;
+            while (baixo < alto) {
+                int meio = (baixo + alto) >>> 1;
+                if (segundos[meio] <= segundo) {
+                    baixo = meio + 1;
+                } else {
+                    alto = meio;
+                }
+            }
+            return baixo;
+        }
+
+        /** Troca as entradas em [de, ate) por uma única entrada. */
+        private void substituir(int de, int ate, long segundo, BigDecimal valor) {
+            if (de == ate) {
+                if (fim == segundos.length) {
+                    int deslocamento = inicio;
+                    compactar();
+                    de -= deslocamento;
+                }
+                // Abre espaço deslocando as entradas mais novas para a direita
+                System.arraycopy(segundos, de, segundos, de + 1, fim - de);
+                System.arraycopy(valores, de, valores, de + 1, fim - de);
+                fim++;
+            } else if (ate - de > 1) {
+                remover(de + 1, ate);
+            }
+            segundos[de] = segundo;
+            valores[de] = valor;
+        }
+
+        /** Remove as entradas em [de, ate). */
+        private void remover(int de, int ate) {
+            int removidas = ate - de;
+            if (removidas == 0) {
+                return;
+            }
+            System.arraycopy(segundos, ate, segundos, de, fim - ate);
+            System.arraycopy(valores, ate, valores, de, fim - ate);
+            Arrays.fill(valores, fim - removidas, fim, null);
+            fim -= removidas;
+        }
+
+        private void compactar() {
+            int tamanho = fim - inicio;
+            System.arraycopy(segundos, inicio, segundos, 0, tamanho);
+            System.arraycopy(valores, inicio, valores, 0, tamanho);
+            Arrays.fill(valores, tamanho, fim, null);
+            inicio = 0;
+            fim = tamanho;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.bucket;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.QuantileSketch;
+
+/**
+ * Versão do {@link QuantileSketch} para as escritas concorrentes de uma célula
+ * do {@link BucketConcorrente}, sem locks. Cada célula tem o seu, para que os
+ * escritores de um segundo disputado não incrementem os mesmos contadores.
+ *
+ * Os {@value QuantileSketch#MAX_BINS} bins ficam em páginas de
+ * {@value #BINS_POR_PAGINA} contadores atômicos, criadas só quando um valor cai
+ * nelas: um segundo com poucas transações ou valores próximos ocupa poucas
+ * páginas, e nenhum passa de {@code MAX_BINS} contadores. A leitura soma as
+ * páginas em um {@link QuantileSketch} e, como no bucket, pode não enxergar as
+ * escritas em andamento.
+ */
+public class SketchConcorrente {
+
+    private static final int BINS_POR_PAGINA = 32;
+    private static final int PAGINAS = QuantileSketch.MAX_BINS / BINS_POR_PAGINA;
+
+    private final AtomicReferenceArray<AtomicLongArray> paginas = new AtomicReferenceArray<>(PAGINAS);
+    private final AtomicLong zeros = new AtomicLong();
+
+    public void adicionar(double valor) {
+        adicionar(QuantileSketch.indexOf(valor), 1);
+    }
+
+    /** Conta {@code n} valores no bin de índice {@code indice} do {@link QuantileSketch}. */
+    void adicionar(int indice, long n) {
+        if (indice < QuantileSketch.MIN_INDEX) {
+            zeros.addAndGet(n);
+            return;
+        }
+        int posicao = indice - QuantileSketch.MIN_INDEX;
+        pagina(posicao / BINS_POR_PAGINA).getAndAdd(posicao % BINS_POR_PAGINA, n);
+    }
+
+    private AtomicLongArray pagina(int numero) {
+        AtomicLongArray pagina = paginas.get(numero);
+        if (pagina == null) {
+            AtomicLongArray nova = new AtomicLongArray(BINS_POR_PAGINA);
+            // Apenas uma thread instala a página; as demais usam a que venceu a corrida
+            pagina = paginas.compareAndExchange(numero, null, nova);
+            if (pagina == null) {
+                pagina = nova;
+            }
+        }
+        return pagina;
+    }
+
+    /** Soma os bins ao sketch de destino. */
+    public void acumularEm(QuantileSketch destino) {
+        long zerosAtuais = zeros.get();
+        if (zerosAtuais != 0) {
+            destino.acceptIndex(QuantileSketch.MIN_INDEX - 1, zerosAtuais);
+        }
+        for (int numero = 0; numero < PAGINAS; numero++) {
+            AtomicLongArray pagina = paginas.get(numero);
+            if (pagina == null) {
+                continue;
+            }
+            for (int i = 0; i < BINS_POR_PAGINA; i++) {
+                long n = pagina.get(i);
+                if (n != 0) {
+                    destino.acceptIndex(QuantileSketch.MIN_INDEX + numero * BINS_POR_PAGINA + i, n);
+                }
+            }
+        }
+    }
+
+    /** Só em um sketch novo, antes de o bucket ser publicado. */
+    void restaurar(QuantileSketch origem) {
+        origem.forEachBin(this::adicionar);
+    }
+
+    /** Zera as contagens mantendo as páginas; mesmas condições de {@link BucketConcorrente#limpar()}. */
+    void limpar() {
+        zeros.set(0);
+        for (int numero = 0; numero < PAGINAS; numero++) {
+            AtomicLongArray pagina = paginas.get(numero);
+            if (pagina != null) {
+                for (int i = 0; i < BINS_POR_PAGINA; i++) {
+                    pagina.set(i, 0);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Liga as tarefas agendadas (limpeza, snapshot da estatística e dos buckets).
+ * Testes que controlam o relógio as desligam com
+ * {@code app.agendamento.habilitado=false} e chamam as tarefas diretamente.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "app.agendamento.habilitado", havingValue = "true", matchIfMissing = true)
+public class AgendamentoConfig {
+}
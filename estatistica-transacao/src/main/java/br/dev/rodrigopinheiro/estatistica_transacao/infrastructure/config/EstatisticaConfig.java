@@ -0,0 +1,19 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.service.EstatisticaCalculator;
+
+@Configuration
+public class EstatisticaConfig {
+
+    @Bean
+    public EstatisticaCalculator estatisticaCalculator(EstatisticaProperties estatisticaProperties) {
+        // O pool da agregação paralela é encerrado pelo close(), inferido pelo Spring
+        return new EstatisticaCalculator(estatisticaProperties.getEscalaPontoFixo(),
+                estatisticaProperties.getLimiarParalelo(),
+                estatisticaProperties.getBlocoParalelo(),
+                estatisticaProperties.getParalelismo());
+    }
+}
@@ -9,6 +9,13 @@ public class EstatisticaProperties {
     
     private int janelaSegundos = 60;
     private int maxJanelaSegundos = 3600;
+    private int escalaPontoFixo = 2;
+    private int minutosRetidos = 1440;
+    private int maxItensLote = 10_000;
+    private boolean percentisHabilitado = false;
+    private int limiarParalelo = 32_768;
+    private int blocoParalelo = 4096;
+    private int paralelismo = 0;
     
     public int getJanelaSegundos() {
         return janelaSegundos;
@@ -25,4 +32,60 @@ public class EstatisticaProperties {
     public void setMaxJanelaSegundos(int maxJanelaSegundos) {
         this.maxJanelaSegundos = maxJanelaSegundos;
     }
-}
\ No newline at end of file
+    
+    public int getEscalaPontoFixo() {
+        return escalaPontoFixo;
+    }
+    
+    public void setEscalaPontoFixo(int escalaPontoFixo) {
+        this.escalaPontoFixo = escalaPontoFixo;
+    }
+
+    public int getMinutosRetidos() {
+        return minutosRetidos;
+    }
+    
+    public void setMinutosRetidos(int minutosRetidos) {
+        this.minutosRetidos = minutosRetidos;
+    }
+    
+    public int getMaxItensLote() {
+        return maxItensLote;
+    }
+    
+    public void setMaxItensLote(int maxItensLote) {
+        this.maxItensLote = maxItensLote;
+    }
+    
+    public boolean isPercentisHabilitado() {
+        return percentisHabilitado;
+    }
+    
+    public void setPercentisHabilitado(boolean percentisHabilitado) {
+        this.percentisHabilitado = percentisHabilitado;
+    }
+
+    public int getLimiarParalelo() {
+        return limiarParalelo;
+    }
+
+    public void setLimiarParalelo(int limiarParalelo) {
+        this.limiarParalelo = limiarParalelo;
+    }
+
+    public int getBlocoParalelo() {
+        return blocoParalelo;
+    }
+
+    public void setBlocoParalelo(int blocoParalelo) {
+        this.blocoParalelo = blocoParalelo;
+    }
+
+    public int getParalelismo() {
+        return paralelismo;
+    }
+
+    public void setParalelismo(int paralelismo) {
+        this.paralelismo = paralelismo;
+    }
+}
@@ -8,7 +8,8 @@ import org.springframework.stereotype.Component;
 public class LimpezaProperties {
     
     private long maxAgeSegundos = 3600;
-    private long intervaloMilissegundos = 60000;
+    private long intervaloMilissegundos = 1000;
+    private long prazoFatiaMicrossegundos = 1000;
     
     public long getMaxAgeSegundos() {
         return maxAgeSegundos;
@@ -25,4 +26,12 @@ public class LimpezaProperties {
     public void setIntervaloMilissegundos(long intervaloMilissegundos) {
         this.intervaloMilissegundos = intervaloMilissegundos;
     }
+    
+    public long getPrazoFatiaMicrossegundos() {
+        return prazoFatiaMicrossegundos;
+    }
+    
+    public void setPrazoFatiaMicrossegundos(long prazoFatiaMicrossegundos) {
+        this.prazoFatiaMicrossegundos = prazoFatiaMicrossegundos;
+    }
 }
\ No newline at end of file
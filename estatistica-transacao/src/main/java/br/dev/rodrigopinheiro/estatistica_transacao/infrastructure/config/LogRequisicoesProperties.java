@@ -0,0 +1,47 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.log.CategoriaLog;
+
+@Component
+@ConfigurationProperties(prefix = "app.log-requisicoes")
+public class LogRequisicoesProperties {
+    
+    private int capacidade = 8192;
+    private double amostragemPadrao = 0.01;
+    private Map<CategoriaLog, Double> amostragem = new EnumMap<>(CategoriaLog.class);
+    
+    public int getCapacidade() {
+        return capacidade;
+    }
+    
+    public void setCapacidade(int capacidade) {
+        this.capacidade = capacidade;
+    }
+    
+    public double getAmostragemPadrao() {
+        return amostragemPadrao;
+    }
+    
+    public void setAmostragemPadrao(double amostragemPadrao) {
+        this.amostragemPadrao = amostragemPadrao;
+    }
+    
+    public Map<CategoriaLog, Double> getAmostragem() {
+        return amostragem;
+    }
+    
+    public void setAmostragem(Map<CategoriaLog, Double> amostragem) {
+        this.amostragem = amostragem;
+    }
+
+    /** Fração das entradas da categoria que são registradas, entre 0 e 1. */
+    public double getAmostragem(CategoriaLog categoria) {
+        return amostragem.getOrDefault(categoria, amostragemPadrao);
+    }
+}
@@ -0,0 +1,28 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "app.offheap")
+public class OffHeapProperties {
+
+    private int maxMegabytes = 256;
+    private int registrosPorSlab = 16 * 1024;
+
+    public int getMaxMegabytes() {
+        return maxMegabytes;
+    }
+
+    public void setMaxMegabytes(int maxMegabytes) {
+        this.maxMegabytes = maxMegabytes;
+    }
+
+    public int getRegistrosPorSlab() {
+        return registrosPorSlab;
+    }
+
+    public void setRegistrosPorSlab(int registrosPorSlab) {
+        this.registrosPorSlab = registrosPorSlab;
+    }
+}
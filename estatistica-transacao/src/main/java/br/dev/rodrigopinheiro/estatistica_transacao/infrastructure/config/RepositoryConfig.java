@@ -5,10 +5,14 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.DiarioTransacoes;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.TransacaoRepository;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.EstatisticaRepository;
 import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository.BucketTransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository.ColunarTransacaoRepository;
 import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository.InMemoryTransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository.OffHeapTransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository.RingBufferTransacaoRepository;
 
 @Configuration
 public class RepositoryConfig {
@@ -16,13 +20,52 @@ public class RepositoryConfig {
     @Bean
     @Primary
     @ConditionalOnProperty(name = "app.repository.type", havingValue = "bucket", matchIfMissing = false)
-    public EstatisticaRepository bucketRepository() {
-        return new BucketTransacaoRepository();
+    public EstatisticaRepository bucketRepository(EstatisticaProperties estatisticaProperties) {
+        return new BucketTransacaoRepository(estatisticaProperties.getEscalaPontoFixo(),
+                estatisticaProperties.getJanelaSegundos(),
+                estatisticaProperties.getMaxJanelaSegundos(),
+                estatisticaProperties.getMinutosRetidos(),
+                estatisticaProperties.isPercentisHabilitado());
     }
 
     @Bean
+    @Primary
+    @ConditionalOnProperty(name = "app.repository.type", havingValue = "ring", matchIfMissing = false)
+    public EstatisticaRepository ringBufferRepository(EstatisticaProperties estatisticaProperties) {
+        return new RingBufferTransacaoRepository(estatisticaProperties.getMaxJanelaSegundos(),
+                estatisticaProperties.getEscalaPontoFixo());
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "app.repository.type", havingValue = "columnar", matchIfMissing = false)
+    public EstatisticaRepository colunarRepository(EstatisticaProperties estatisticaProperties) {
+        return new ColunarTransacaoRepository(estatisticaProperties.getEscalaPontoFixo());
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "app.repository.type", havingValue = "offheap", matchIfMissing = false)
+    public EstatisticaRepository offHeapRepository(EstatisticaProperties estatisticaProperties,
+            OffHeapProperties offHeapProperties) {
+        return new OffHeapTransacaoRepository(estatisticaProperties.getEscalaPontoFixo(),
+                offHeapProperties.getMaxMegabytes() * 1024L * 1024L,
+                offHeapProperties.getRegistrosPorSlab());
+    }
+
+    @Bean
+    @Primary
     @ConditionalOnProperty(name = "app.repository.type", havingValue = "inmemory", matchIfMissing = true)
-    public TransacaoRepository inMemoryRepository() {
-        return new InMemoryTransacaoRepository();
+    public TransacaoRepository inMemoryRepository(InMemoryTransacaoRepository inMemoryTransacaoRepository) {
+        // A mesma instância do @Repository, e não uma segunda lista vazia
+        return inMemoryTransacaoRepository;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.wal.habilitado", havingValue = "false", matchIfMissing = true)
+    public DiarioTransacoes diarioDesligado() {
+        // Sem WAL: os métodos padrão não registram nada
+        return new DiarioTransacoes() {
+        };
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "app.snapshot")
+public class SnapshotProperties {
+
+    private boolean habilitado = false;
+    private String arquivo = "snapshot/buckets.snap";
+    private long intervaloMilissegundos = 10_000;
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    public void setHabilitado(boolean habilitado) {
+        this.habilitado = habilitado;
+    }
+
+    public String getArquivo() {
+        return arquivo;
+    }
+
+    public void setArquivo(String arquivo) {
+        this.arquivo = arquivo;
+    }
+
+    public long getIntervaloMilissegundos() {
+        return intervaloMilissegundos;
+    }
+
+    public void setIntervaloMilissegundos(long intervaloMilissegundos) {
+        this.intervaloMilissegundos = intervaloMilissegundos;
+    }
+}
@@ -0,0 +1,37 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "app.tcp")
+public class TcpProperties {
+    
+    private boolean habilitado = false;
+    private int porta = 9999;
+    private int tamanhoBuffer = 64 * 1024;
+    
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+    
+    public void setHabilitado(boolean habilitado) {
+        this.habilitado = habilitado;
+    }
+    
+    public int getPorta() {
+        return porta;
+    }
+    
+    public void setPorta(int porta) {
+        this.porta = porta;
+    }
+    
+    public int getTamanhoBuffer() {
+        return tamanhoBuffer;
+    }
+    
+    public void setTamanhoBuffer(int tamanhoBuffer) {
+        this.tamanhoBuffer = tamanhoBuffer;
+    }
+}
@@ -0,0 +1,66 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.wal.PoliticaFsync;
+
+@Component
+@ConfigurationProperties(prefix = "app.wal")
+public class WalProperties {
+
+    private boolean habilitado = false;
+    private String diretorio = "wal";
+    private PoliticaFsync politicaFsync = PoliticaFsync.INTERVALO;
+    private long intervaloFsyncMilissegundos = 100;
+    private int fsyncACada = 1000;
+    private int tamanhoSegmentoMegabytes = 64;
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    public void setHabilitado(boolean habilitado) {
+        this.habilitado = habilitado;
+    }
+
+    public String getDiretorio() {
+        return diretorio;
+    }
+
+    public void setDiretorio(String diretorio) {
+        this.diretorio = diretorio;
+    }
+
+    public PoliticaFsync getPoliticaFsync() {
+        return politicaFsync;
+    }
+
+    public void setPoliticaFsync(PoliticaFsync politicaFsync) {
+        this.politicaFsync = politicaFsync;
+    }
+
+    public long getIntervaloFsyncMilissegundos() {
+        return intervaloFsyncMilissegundos;
+    }
+
+    public void setIntervaloFsyncMilissegundos(long intervaloFsyncMilissegundos) {
+        this.intervaloFsyncMilissegundos = intervaloFsyncMilissegundos;
+    }
+
+    public int getFsyncACada() {
+        return fsyncACada;
+    }
+
+    public void setFsyncACada(int fsyncACada) {
+        this.fsyncACada = fsyncACada;
+    }
+
+    public int getTamanhoSegmentoMegabytes() {
+        return tamanhoSegmentoMegabytes;
+    }
+
+    public void setTamanhoSegmentoMegabytes(int tamanhoSegmentoMegabytes) {
+        this.tamanhoSegmentoMegabytes = tamanhoSegmentoMegabytes;
+    }
+}
@@ -0,0 +1,27 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timestamp;
+
+/** Busca das transações a partir de um momento no repositório em memória. */
+@Name(BuscaTransacoesEvent.NOME)
+@Label("Busca de Transações")
+@Category({"Estatística de Transações", "Consulta"})
+@Description("Percurso das transações retidas no repositório em memória")
+@StackTrace(false)
+public class BuscaTransacoesEvent extends Event {
+
+    public static final String NOME = "br.dev.rodrigopinheiro.estatistica.BuscaTransacoes";
+
+    @Label("Desde")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    public long desde;
+
+    @Label("Encontradas")
+    public int encontradas;
+}
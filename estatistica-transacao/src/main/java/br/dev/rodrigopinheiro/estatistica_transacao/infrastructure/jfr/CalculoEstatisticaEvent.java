@@ -0,0 +1,35 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/** Cálculo de estatísticas no repositório de buckets. */
+@Name(CalculoEstatisticaEvent.NOME)
+@Label("Cálculo de Estatísticas")
+@Category({"Estatística de Transações", "Consulta"})
+@Description("Cálculo das estatísticas de uma janela no repositório de buckets")
+@StackTrace(false)
+public class CalculoEstatisticaEvent extends Event {
+
+    public static final String NOME = "br.dev.rodrigopinheiro.estatistica.CalculoEstatistica";
+
+    @Label("Janela")
+    @Timespan(Timespan.SECONDS)
+    public long janelaSegundos;
+
+    @Label("Caminho")
+    @Description("janela (agregado incremental), arvore (árvore de segmentos) ou buckets")
+    public String caminho;
+
+    @Label("Buckets Processados")
+    @Description("Buckets combinados; zero fora do caminho que percorre buckets")
+    public int bucketsProcessados;
+
+    @Label("Transações")
+    public long transacoes;
+}
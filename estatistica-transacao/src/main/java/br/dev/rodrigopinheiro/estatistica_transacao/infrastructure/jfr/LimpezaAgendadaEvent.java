@@ -0,0 +1,32 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/** Uma fatia da limpeza agendada. */
+@Name(LimpezaAgendadaEvent.NOME)
+@Label("Limpeza Agendada")
+@Category({"Estatística de Transações", "Limpeza"})
+@Description("Execução da limpeza agendada das transações antigas")
+@StackTrace(false)
+public class LimpezaAgendadaEvent extends Event {
+
+    public static final String NOME = "br.dev.rodrigopinheiro.estatistica.LimpezaAgendada";
+
+    @Label("Idade Máxima")
+    @Timespan(Timespan.SECONDS)
+    public long maxAgeSegundos;
+
+    @Label("Removidas")
+    @Description("Transações ou buckets, conforme o repositório")
+    public long removidas;
+
+    @Label("Concluída")
+    @Description("Se a fatia chegou ao limite; senão a próxima continua de onde esta parou")
+    public boolean concluida;
+}
@@ -0,0 +1,39 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Registro de uma transação ou de um lote, com a validação e a escrita no
+ * repositório. A duração do evento é o tempo do registro.
+ */
+@Name(RegistroTransacaoEvent.NOME)
+@Label("Registro de Transação")
+@Category({"Estatística de Transações", "Ingestão"})
+@Description("Validação e registro de uma transação ou de um lote")
+@StackTrace(false)
+public class RegistroTransacaoEvent extends Event {
+
+    public static final String NOME = "br.dev.rodrigopinheiro.estatistica.RegistroTransacao";
+
+    @Label("Operação")
+    @Description("individual ou lote")
+    public String operacao;
+
+    @Label("Quantidade")
+    public int quantidade;
+
+    @Label("Aceitas")
+    public int aceitas;
+
+    @Label("Rejeitadas")
+    public int rejeitadas;
+
+    @Label("Erro")
+    @Description("Código do erro da transação individual rejeitada")
+    public String erro;
+}
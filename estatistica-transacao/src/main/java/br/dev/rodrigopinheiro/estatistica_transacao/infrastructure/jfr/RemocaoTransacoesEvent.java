@@ -0,0 +1,31 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timestamp;
+
+/** Remoção das transações anteriores a um limite no repositório em memória. */
+@Name(RemocaoTransacoesEvent.NOME)
+@Label("Remoção de Transações")
+@Category({"Estatística de Transações", "Limpeza"})
+@Description("Remoção das transações anteriores a um limite no repositório em memória")
+@StackTrace(false)
+public class RemocaoTransacoesEvent extends Event {
+
+    public static final String NOME = "br.dev.rodrigopinheiro.estatistica.RemocaoTransacoes";
+
+    @Label("Limite")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    public long limite;
+
+    @Label("Removidas")
+    public long removidas;
+
+    @Label("Retidas")
+    @Description("Transações que continuam no repositório")
+    public long retidas;
+}
@@ -0,0 +1,18 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.log;
+
+/** Categorias do log de requisições, cada uma com a sua taxa de amostragem. */
+public enum CategoriaLog {
+    INGESTAO("ingestao"),
+    LOTE("lote"),
+    CONSULTA("consulta");
+
+    private final String nome;
+
+    CategoriaLog(String nome) {
+        this.nome = nome;
+    }
+
+    public String nome() {
+        return nome;
+    }
+}
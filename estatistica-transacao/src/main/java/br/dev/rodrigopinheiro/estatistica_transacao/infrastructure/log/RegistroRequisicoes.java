@@ -0,0 +1,165 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.log;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config.LogRequisicoesProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Log estruturado das requisições, fora da thread que atende a requisição.
+ *
+ * Quem registra sorteia a amostragem da categoria com {@link #amostrar} e, só
+ * se a entrada for mantida, monta os campos e os guarda, sem formatá-los, em
+ * uma fila circular de capacidade fixa. Uma thread própria
+ * formata cada entrada como {@code chave=valor} e escreve no logger
+ * {@value #NOME_LOGGER}. Com a fila cheia a entrada é descartada e contada em
+ * {@code log.requisicoes.descartadas}, para que o log nunca segure uma
+ * requisição.
+ *
+ * Erros não passam pela amostragem; se a fila estiver cheia, são escritos
+ * direto na thread de quem registrou.
+ */
+@Component
+public class RegistroRequisicoes implements SmartLifecycle {
+
+    public static final String NOME_LOGGER = "requisicoes";
+
+    private static final Logger logger = LoggerFactory.getLogger(NOME_LOGGER);
+    private static final int TAMANHO_DRENAGEM = 256;
+
+    private final ArrayBlockingQueue<Entrada> fila;
+    // Indexado por ordinal: sem busca em mapa no caminho quente
+    private final double[] amostragem;
+    private final Counter descartadas;
+
+    private Thread thread;
+    private volatile boolean rodando;
+
+    public RegistroRequisicoes(LogRequisicoesProperties properties, MeterRegistry meterRegistry) {
+        this.fila = new ArrayBlockingQueue<>(properties.getCapacidade());
+        this.amostragem = new double[CategoriaLog.values().length];
+        for (CategoriaLog categoria : CategoriaLog.values()) {
+            amostragem[categoria.ordinal()] = properties.getAmostragem(categoria);
+        }
+        this.descartadas = Counter.builder("log.requisicoes.descartadas")
+                .description("Entradas do log de requisições descartadas com a fila cheia")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra uma entrada já sorteada: quem chama consulta {@link #amostrar}
+     * antes, para não montar os campos (e o array do varargs) de uma entrada que
+     * seria descartada.
+     *
+     * @param campos pares de chave e valor, formatados só na escrita
+     */
+    public void registrar(CategoriaLog categoria, String evento, Object... campos) {
+        if (!fila.offer(new Entrada(System.currentTimeMillis(), categoria, evento, campos, false))) {
+            descartadas.increment();
+        }
+    }
+
+    /** Registra a entrada sempre, sem amostragem. */
+    public void registrarErro(CategoriaLog categoria, String evento, Object... campos) {
+        Entrada entrada = new Entrada(System.currentTimeMillis(), categoria, evento, campos, true);
+        if (!fila.offer(entrada)) {
+            escrever(entrada);
+        }
+    }
+
+    /** Se a próxima entrada da categoria deve ser registrada, conforme a amostragem. */
+    public boolean amostrar(CategoriaLog categoria) {
+        double taxa = amostragem[categoria.ordinal()];
+        return taxa >= 1.0 || (taxa > 0.0 && ThreadLocalRandom.current().nextDouble() < taxa);
+    }
+
+    @Override
+    public void start() {
+        rodando = true;
+        thread = new Thread(this::executar, "log-requisicoes");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        rodando = false;
+        thread.interrupt();
+        try {
+            thread.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // O que chegou depois da última drenagem
+        List<Entrada> restantes = new ArrayList<>();
+        fila.drainTo(restantes);
+        restantes.forEach(RegistroRequisicoes::escrever);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return rodando;
+    }
+
+    private void executar() {
+        List<Entrada> lote = new ArrayList<>(TAMANHO_DRENAGEM);
+        while (rodando) {
+            try {
+                Entrada entrada = fila.poll(100, TimeUnit.MILLISECONDS);
+                if (entrada == null) {
+                    continue;
+                }
+                escrever(entrada);
+                fila.drainTo(lote, TAMANHO_DRENAGEM);
+                lote.forEach(RegistroRequisicoes::escrever);
+                lote.clear();
+            } catch (InterruptedException e) {
+                // stop() escreve o que ficou na fila
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Falha ao escrever entrada do log de requisições", e);
+            }
+        }
+    }
+
+    private static void escrever(Entrada entrada) {
+        if (entrada.erro() ? !logger.isWarnEnabled() : !logger.isInfoEnabled()) {
+            return;
+        }
+        StringBuilder linha = new StringBuilder(128)
+                .append("instante=").append(Instant.ofEpochMilli(entrada.instante()))
+                .append(" categoria=").append(entrada.categoria().nome())
+                .append(" evento=").append(entrada.evento());
+        Object[] campos = entrada.campos();
+        for (int i = 0; i + 1 < campos.length; i += 2) {
+            linha.append(' ').append(campos[i]).append('=').append(formatar(campos[i + 1]));
+        }
+        if (entrada.erro()) {
+            logger.warn(linha.toString());
+        } else {
+            logger.info(linha.toString());
+        }
+    }
+
+    private static Object formatar(Object valor) {
+        if (valor instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return valor;
+    }
+
+    private record Entrada(long instante, CategoriaLog categoria, String evento, Object[] campos, boolean erro) {
+    }
+}
@@ -23,9 +23,11 @@ public class BucketMetrics {
     public BucketInfo getBucketInfo() {
         return new BucketInfo(
             repository.getBucketCount(),
+            repository.getMinutoCount(),
+            repository.getHoraCount(),
             Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()
         );
     }
 
-    public record BucketInfo(int bucketCount, long memoryUsed) {}
+    public record BucketInfo(int bucketCount, int minuteBucketCount, int hourBucketCount, long memoryUsed) {}
 }
\ No newline at end of file
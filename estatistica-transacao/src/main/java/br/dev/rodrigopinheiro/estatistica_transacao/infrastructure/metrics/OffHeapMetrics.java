@@ -0,0 +1,40 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository.OffHeapTransacaoRepository;
+
+/**
+ * O endpoint {@code buckets} quando o repositório é o fora do heap: no lugar
+ * dos buckets por nível, os slabs e o uso do orçamento de memória direta.
+ */
+@Component
+@Endpoint(id = "buckets")
+@ConditionalOnProperty(name = "app.repository.type", havingValue = "offheap")
+public class OffHeapMetrics {
+
+    private final OffHeapTransacaoRepository repository;
+
+    public OffHeapMetrics(OffHeapTransacaoRepository repository) {
+        this.repository = repository;
+    }
+
+    @ReadOperation
+    public OffHeapInfo getOffHeapInfo() {
+        return new OffHeapInfo(
+            repository.getSlabCount(),
+            repository.getSlabsLivres(),
+            repository.getQuantidade(),
+            repository.getDescartadas(),
+            repository.getBytesAlocados(),
+            repository.getBytesMaximo(),
+            Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()
+        );
+    }
+
+    public record OffHeapInfo(int slabCount, int freeSlabCount, long transactionCount, long droppedCount,
+            long offHeapUsed, long offHeapMax, long memoryUsed) {}
+}
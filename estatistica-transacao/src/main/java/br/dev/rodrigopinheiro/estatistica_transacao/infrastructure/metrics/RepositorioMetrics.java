@@ -0,0 +1,74 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.metrics;
+
+import java.time.Instant;
+
+import org.springframework.stereotype.Component;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.EstatisticaRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.TransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config.EstatisticaProperties;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository.BucketTransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository.ColunarTransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository.InMemoryTransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.time.Relogio;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Gauges do repositório ativo. São lidos só quando as métricas são coletadas,
+ * e cada leitura é barata: um contador no repositório em memória e uma consulta
+ * da janela máxima (O(log n) na árvore de segmentos) nos demais.
+ */
+@Component
+public class RepositorioMetrics implements MeterBinder {
+
+    private final TransacaoRepository repository;
+    private final Relogio relogio;
+    private final EstatisticaProperties estatisticaProperties;
+
+    public RepositorioMetrics(TransacaoRepository repository, Relogio relogio,
+            EstatisticaProperties estatisticaProperties) {
+        this.repository = repository;
+        this.relogio = relogio;
+        this.estatisticaProperties = estatisticaProperties;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("transacoes.retidas", this, RepositorioMetrics::contarRetidas)
+            .description("Transações retidas no repositório (nos agregados, as da janela máxima)")
+            .register(registry);
+
+        if (repository instanceof BucketTransacaoRepository bucketRepo) {
+            bucketRepo.registrarMetricas(registry);
+            Gauge.builder("buckets.retidos", bucketRepo, BucketTransacaoRepository::getBucketCount)
+                .tag("nivel", "segundo")
+                .description("Buckets retidos no repositório de buckets")
+                .register(registry);
+            Gauge.builder("buckets.retidos", bucketRepo, BucketTransacaoRepository::getMinutoCount)
+                .tag("nivel", "minuto")
+                .description("Buckets retidos no repositório de buckets")
+                .register(registry);
+            Gauge.builder("buckets.retidos", bucketRepo, BucketTransacaoRepository::getHoraCount)
+                .tag("nivel", "hora")
+                .description("Buckets retidos no repositório de buckets")
+                .register(registry);
+        }
+    }
+
+    private double contarRetidas() {
+        if (repository instanceof InMemoryTransacaoRepository inMemory) {
+            return inMemory.getQuantidade();
+        }
+        if (repository instanceof ColunarTransacaoRepository colunar) {
+            return colunar.getQuantidade();
+        }
+        if (repository instanceof EstatisticaRepository estatisticaRepo) {
+            Instant agora = relogio.agora();
+            return estatisticaRepo.calcularEstatisticasEntre(
+                    agora.minusSeconds(estatisticaProperties.getMaxJanelaSegundos()), agora).count();
+        }
+        return Double.NaN;
+    }
+}
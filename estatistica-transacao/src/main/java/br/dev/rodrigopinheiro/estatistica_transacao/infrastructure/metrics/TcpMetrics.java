@@ -0,0 +1,34 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.metrics;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.adapters.tcp.BinarioTcpListener;
+
+@Component
+@Endpoint(id = "tcp")
+@ConditionalOnProperty(name = "app.tcp.habilitado", havingValue = "true")
+public class TcpMetrics {
+
+    private final BinarioTcpListener listener;
+
+    public TcpMetrics(BinarioTcpListener listener) {
+        this.listener = listener;
+    }
+
+    @ReadOperation
+    public TcpInfo getTcpInfo() {
+        List<ConexaoInfo> conexoes = listener.getConexoes().stream()
+            .map(c -> new ConexaoInfo(c.getRemoto(), c.getRecebidas(), c.getAceitas(), c.getRejeitadas()))
+            .toList();
+        return new TcpInfo(listener.getPortaLocal(), conexoes);
+    }
+
+    public record TcpInfo(int porta, List<ConexaoInfo> conexoes) {}
+
+    public record ConexaoInfo(String remoto, long recebidas, long aceitas, long rejeitadas) {}
+}
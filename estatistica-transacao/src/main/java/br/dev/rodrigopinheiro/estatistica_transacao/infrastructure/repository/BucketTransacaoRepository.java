@@ -1,36 +1,190 @@
 package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.FixedPoint;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.LogHistogram;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.QuantileSketch;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Estatistica;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Histograma;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.ResultadoRemocao;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.EstatisticaRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.bucket.ArvoreSegmentos;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.bucket.BucketConcorrente;
 import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.bucket.BucketEstatistica;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.bucket.ConsolidacaoTemporal;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.bucket.JanelaDeslizante;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.jfr.CalculoEstatisticaEvent;
 
 public class BucketTransacaoRepository implements EstatisticaRepository {
     
     private static final Logger logger = LoggerFactory.getLogger(BucketTransacaoRepository.class);
+    private static final long NENHUM = Long.MIN_VALUE;
     
-    private final Map<Long, BucketEstatistica> buckets = new ConcurrentHashMap<>();
+    private final Map<Long, BucketConcorrente> buckets = new ConcurrentHashMap<>();
+    private final int escala;
+    private final boolean percentis;
+    private final JanelaDeslizante janela;
+    private final ArvoreSegmentos arvore;
+    private final ConsolidacaoTemporal consolidacao;
+    // LongAdder: as escritas concorrentes não disputam o mesmo contador
+    private final LongAdder versao = new LongAdder();
+    // Roda da remoção incremental: o limite é publicado antes de remover, e todo
+    // segundo anterior a proximoSegundoRemocao já saiu do mapa
+    private volatile long limiteRemocao = NENHUM;
+    private long proximoSegundoRemocao = NENHUM;
+    // Segundos recriados por escritas atrasadas depois que a roda passou por eles
+    private final Set<Long> retardatarios = ConcurrentHashMap.newKeySet();
+    // Nulo até registrarMetricas: testes e benchmarks criam o repositório sem registry
+    private volatile DistributionSummary bucketsPercorridos;
+
+    /** Só os buckets por segundo, na escala padrão, sem janela, árvore, consolidação ou percentis. */
+    public BucketTransacaoRepository() {
+        this(FixedPoint.DEFAULT_SCALE, 0, 0, 0, false);
+    }
+
+    /**
+     * @param escala         escala do ponto fixo usado na agregação dos buckets
+     * @param janelaSegundos janela mantida incrementalmente (0 para desligar)
+     * @param maxJanelaSegundos maior janela atendida pela árvore de segmentos
+     *                       (0 para desligar); janelas maiores percorrem os buckets
+     * @param minutosRetidos minutos mantidos depois de consolidar os segundos (0 para
+     *                       desligar a consolidação e manter todos os segundos)
+     * @param percentis      se cada bucket mantém um sketch de quantis, de onde saem
+     *                       os percentis das estatísticas
+     */
+    public BucketTransacaoRepository(int escala, int janelaSegundos, int maxJanelaSegundos, int minutosRetidos,
+            boolean percentis) {
+        this.escala = escala;
+        this.percentis = percentis;
+        this.janela = janelaSegundos > 0
+                ? new JanelaDeslizante(janelaSegundos, escala, segundo -> buckets.get(segundo))
+                : null;
+        // Uma janela de N segundos cobre N + 1 segundos, com as duas bordas inclusivas
+        this.arvore = maxJanelaSegundos > 0
+                ? new ArvoreSegmentos(maxJanelaSegundos + 1, escala, segundo -> buckets.get(segundo))
+                : null;
+        // Segundos retidos cobrem a maior janela consultável, com um minuto de folga
+        this.consolidacao = minutosRetidos > 0
+                ? new ConsolidacaoTemporal(buckets, escala,
+                        Math.max(janelaSegundos, maxJanelaSegundos) + 1 + ConsolidacaoTemporal.SEGUNDOS_POR_MINUTO,
+                        minutosRetidos, percentis)
+                : null;
+    }
+
+    /**
+     * Registra as métricas das consultas que percorrem buckets. As contagens de
+     * buckets retidos vêm dos getters e são registradas como gauges por quem
+     * expõe as métricas.
+     */
+    public void registrarMetricas(MeterRegistry meterRegistry) {
+        this.bucketsPercorridos = DistributionSummary.builder("estatistica.buckets.percorridos")
+                .description("Buckets combinados por consulta maior que a janela máxima da árvore de segmentos")
+                .register(meterRegistry);
+    }
 
     @Override
     public void save(Transacao transacao) {
         long startTime = System.nanoTime();
         long segundo = transacao.dataHora().getEpochSecond();
 
-        buckets.computeIfAbsent(segundo, k -> new BucketEstatistica())
-                .addTransacao(transacao.valor());
+        if (consolidacao == null) {
+            salvarNoSegundo(segundo, transacao);
+        } else if (consolidacao.isProximoDoLimite(segundo)) {
+            // Raro: escrita atrasada perto ou além dos segundos retidos
+            consolidacao.salvarProximoDoLimite(segundo, transacao.valor(), () -> salvarNoSegundo(segundo, transacao));
+        } else {
+            salvarNoSegundo(segundo, transacao);
+            consolidacao.aposEscrita(segundo);
+        }
+        versao.increment();
         
-        long duration = System.nanoTime() - startTime;
-        logger.debug("Transação salva no bucket {} em {} ns - Total buckets: {}", 
-                    segundo, duration, buckets.size());
+        if (logger.isDebugEnabled()) {
+            long duration = System.nanoTime() - startTime;
+            logger.debug("Transação salva no bucket {} em {} ns - Total buckets: {}", 
+                        segundo, duration, buckets.size());
+        }
+    }
+
+    /**
+     * Agrupa as transações consecutivas do mesmo segundo: o bucket é buscado, e
+     * as estruturas derivadas avisadas, uma vez por grupo em vez de uma vez por
+     * transação. Lotes de uma rajada costumam ter quase tudo no mesmo segundo.
+     */
+    @Override
+    public void saveAll(List<Transacao> transacoes) {
+        long startTime = System.nanoTime();
+        int grupos = 0;
+        int i = 0;
+        while (i < transacoes.size()) {
+            long segundo = transacoes.get(i).dataHora().getEpochSecond();
+            if (consolidacao != null && consolidacao.isProximoDoLimite(segundo)) {
+                save(transacoes.get(i++));
+                continue;
+            }
+
+            BucketConcorrente bucket = bucketDo(segundo);
+            do {
+                Transacao transacao = transacoes.get(i++);
+                bucket.addTransacao(transacao.valorEmEscala(escala), transacao.valor());
+            } while (i < transacoes.size() && transacoes.get(i).dataHora().getEpochSecond() == segundo);
+
+            marcarAlterado(segundo);
+            if (consolidacao != null) {
+                consolidacao.aposEscrita(segundo);
+            }
+            grupos++;
+        }
+        versao.increment();
+
+        if (logger.isDebugEnabled()) {
+            long duration = System.nanoTime() - startTime;
+            logger.debug("Lote de {} transações salvo em {} grupos em {} ns - Total buckets: {}",
+                        transacoes.size(), grupos, duration, buckets.size());
+        }
+    }
+
+    private void salvarNoSegundo(long segundo, Transacao transacao) {
+        bucketDo(segundo).addTransacao(transacao.valorEmEscala(escala), transacao.valor());
+        marcarAlterado(segundo);
+    }
+
+    private BucketConcorrente bucketDo(long segundo) {
+        // get antes do computeIfAbsent: o bucket quase sempre já existe
+        BucketConcorrente bucket = buckets.get(segundo);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(segundo, k -> new BucketConcorrente(escala, percentis));
+            if (segundo < limiteRemocao) {
+                retardatarios.add(segundo);
+            }
+        }
+        return bucket;
+    }
+
+    private void marcarAlterado(long segundo) {
+        if (janela != null) {
+            janela.marcarAlterado(segundo);
+        }
+        if (arvore != null) {
+            arvore.marcarAlterado(segundo);
+        }
     }
 
     @Override
@@ -39,6 +193,16 @@ public class BucketTransacaoRepository implements EstatisticaRepository {
         int bucketsRemovidos = buckets.size();
         
         buckets.clear();
+        if (janela != null) {
+            janela.limpar();
+        }
+        if (arvore != null) {
+            arvore.limpar();
+        }
+        if (consolidacao != null) {
+            consolidacao.limpar();
+        }
+        versao.increment();
         
         long duration = System.nanoTime() - startTime;
         logger.info("Limpeza de buckets concluída em {} ns - {} buckets removidos", 
@@ -51,14 +215,26 @@ public class BucketTransacaoRepository implements EstatisticaRepository {
         long inicioSegundo = since.getEpochSecond();
         long fimSegundo = Instant.now().getEpochSecond();
 
+        if (consolidacao != null) {
+            // Minutos e horas consolidados viram transações no início do período
+            consolidacao.percorrer(inicioSegundo, fimSegundo, (agregado, segundo) -> {
+                Transacao media = Transacao.comPontoFixo(agregado.getAvg(), Instant.ofEpochSecond(segundo), escala);
+                for (long i = 0; i < agregado.getCount(); i++) {
+                    transacoes.add(media);
+                }
+            });
+            return transacoes;
+        }
+
         for (long segundo = inicioSegundo; segundo <= fimSegundo; segundo++) {
-            BucketEstatistica bucket = buckets.get(segundo);
+            BucketConcorrente bucket = buckets.get(segundo);
             if (bucket != null && !bucket.isEmpty()) {
                 // Reconstrói transações aproximadas usando valor médio
-                for (long i = 0; i < bucket.getCount(); i++) {
-                    transacoes.add(new Transacao(
-                            bucket.getAvg(),
-                            Instant.ofEpochSecond(segundo)));
+                BucketEstatistica snapshot = bucket.snapshot();
+                // (imutável, então a mesma instância serve para todas as cópias)
+                Transacao media = Transacao.comPontoFixo(snapshot.getAvg(), Instant.ofEpochSecond(segundo), escala);
+                for (long i = 0; i < snapshot.getCount(); i++) {
+                    transacoes.add(media);
                 }
             }
         }
@@ -70,45 +246,282 @@ public class BucketTransacaoRepository implements EstatisticaRepository {
     public void deleteBefore(Instant limite) {
         long limiteSegundo = limite.getEpochSecond();
         buckets.entrySet().removeIf(entry -> entry.getKey() < limiteSegundo);
+        descartarDerivadosAntesDe(limiteSegundo);
+        versao.increment();
+    }
+
+    /**
+     * Roda de tempo sobre os segundos: cada fatia remove só os segundos que
+     * expiraram desde a anterior, um {@code remove} por segundo, até o limite ou
+     * até esgotar o prazo. Na primeira fatia, ou depois de um salto maior que o
+     * próprio mapa, percorrer o mapa sai mais barato e é o que se faz.
+     */
+    @Override
+    public synchronized ResultadoRemocao removerExpiradas(Instant limite, long prazoNanos) {
+        long fim = System.nanoTime() + prazoNanos;
+        long limiteSegundo = limite.getEpochSecond();
+        if (limiteSegundo > limiteRemocao) {
+            limiteRemocao = limiteSegundo;
+        }
+
+        long[] removidos = new long[1];
+        if (proximoSegundoRemocao == NENHUM || limiteSegundo - proximoSegundoRemocao > buckets.size()) {
+            buckets.keySet().removeIf(segundo -> {
+                if (segundo < limiteSegundo) {
+                    removidos[0]++;
+                    return true;
+                }
+                return false;
+            });
+            proximoSegundoRemocao = Math.max(proximoSegundoRemocao, limiteSegundo);
+        }
+        for (Iterator<Long> it = retardatarios.iterator(); it.hasNext();) {
+            long segundo = it.next();
+            it.remove();
+            if (segundo < proximoSegundoRemocao && buckets.remove(segundo) != null) {
+                removidos[0]++;
+            }
+        }
+
+        int passos = 0;
+        while (proximoSegundoRemocao < limiteSegundo) {
+            if ((++passos & 0x3F) == 0 && System.nanoTime() - fim >= 0) {
+                break;
+            }
+            if (buckets.remove(proximoSegundoRemocao) != null) {
+                removidos[0]++;
+            }
+            proximoSegundoRemocao++;
+        }
+
+        boolean concluida = proximoSegundoRemocao >= limiteSegundo;
+        if (concluida) {
+            descartarDerivadosAntesDe(limiteSegundo);
+        }
+        versao.increment();
+        return new ResultadoRemocao(removidos[0], concluida);
+    }
+
+    private void descartarDerivadosAntesDe(long limiteSegundo) {
+        if (janela != null) {
+            janela.descartarAntesDe(limiteSegundo);
+        }
+        if (arvore != null) {
+            arvore.descartarAntesDe(limiteSegundo);
+        }
+        if (consolidacao != null) {
+            consolidacao.descartarAntesDe(limiteSegundo);
+        }
+    }
+
+    @Override
+    public long versao() {
+        return versao.sum();
+    }
+
+    /**
+     * Agregados dos segundos a partir de {@code desdeSegundo}, em ordem. Sob
+     * escritas simultâneas vale o mesmo que para as consultas: cada bucket pode
+     * não incluir as transações que ainda estão sendo registradas.
+     */
+    public SortedMap<Long, BucketEstatistica> snapshotSegundos(long desdeSegundo) {
+        SortedMap<Long, BucketEstatistica> segundos = new TreeMap<>();
+        buckets.forEach((segundo, bucket) -> {
+            if (segundo >= desdeSegundo && !bucket.isEmpty()) {
+                segundos.put(segundo, bucket.snapshot());
+            }
+        });
+        return segundos;
+    }
+
+    /**
+     * Recoloca o agregado de um segundo lido de um snapshot, passando pelas
+     * estruturas derivadas como uma escrita. Restaurar em ordem cronológica deixa
+     * a consolidação avançar uma única vez. Um segundo que já tem bucket, por
+     * exemplo reconstruído pelo WAL, é mantido como está.
+     *
+     * @param somaQuadrados soma dos quadrados dos valores do segundo
+     * @param histograma contagens por faixa do segundo, ou {@code null} se não
+     *                   são conhecidas
+     * @param quantis    sketch do segundo, ou {@code null}; ignorado com os
+     *                   percentis desligados. Com eles ligados e sem sketch
+     *                   (snapshot escrito com os percentis desligados), o segundo
+     *                   começa com um sketch vazio e só as escritas seguintes
+     *                   entram nele
+     * @return se o segundo foi restaurado
+     */
+    public boolean restaurarSegundo(long segundo, long count, BigDecimal soma, BigDecimal somaQuadrados,
+            BigDecimal min, BigDecimal max, LogHistogram histograma, QuantileSketch quantis) {
+        QuantileSketch sketch = !percentis ? null : quantis != null ? quantis : new QuantileSketch();
+        BucketConcorrente restaurado = BucketConcorrente.restaurado(escala, count, soma, somaQuadrados, min, max,
+                histograma, sketch);
+        if (buckets.putIfAbsent(segundo, restaurado) != null) {
+            return false;
+        }
+        if (segundo < limiteRemocao) {
+            retardatarios.add(segundo);
+        }
+        marcarAlterado(segundo);
+        if (consolidacao != null) {
+            consolidacao.aposEscrita(segundo);
+        }
+        versao.increment();
+        return true;
     }
 
     public int getBucketCount() {
         return buckets.size();
     }
 
+    public int getMinutoCount() {
+        return consolidacao != null ? consolidacao.getMinutoCount() : 0;
+    }
+
+    public int getHoraCount() {
+        return consolidacao != null ? consolidacao.getHoraCount() : 0;
+    }
+
     /**
      * Método otimizado que calcula estatísticas diretamente dos buckets
      * sem reconstruir objetos Transacao - muito mais rápido!
+     *
+     * Para a janela configurada usa o agregado incremental, cujo custo não
+     * depende do tamanho da janela; as demais, até a janela máxima, usam a
+     * árvore de segmentos em O(log n). Só o que passa disso percorre os buckets,
+     * e com a consolidação ligada combina horas e minutos inteiros e apenas os
+     * segundos das bordas.
      */
-    public Estatistica calcularEstatisticasSince(Instant since) {
+    @Override
+    public Estatistica calcularEstatisticasEntre(Instant inicio, Instant fim) {
+        CalculoEstatisticaEvent evento = new CalculoEstatisticaEvent();
+        evento.begin();
         long startTime = System.nanoTime();
-        long inicioSegundo = since.getEpochSecond();
-        long fimSegundo = Instant.now().getEpochSecond();
-        long janela = fimSegundo - inicioSegundo + 1;
+        long inicioSegundo = inicio.getEpochSecond();
+        long fimSegundo = fim.getEpochSecond();
 
-        BucketEstatistica estatisticaFinal = new BucketEstatistica();
-        int bucketsProcessados = 0;
+        if (janela != null && fimSegundo - inicioSegundo == janela.getJanelaSegundos()) {
+            Estatistica resultado = janela.calcular(fimSegundo);
+            registrarEvento(evento, "janela", janela.getJanelaSegundos(), 0, resultado);
+            if (logger.isDebugEnabled()) {
+                long duration = System.nanoTime() - startTime;
+                logger.debug("Estatísticas calculadas pela janela incremental em {} ns - Janela: {} segundos, Transações: {}",
+                           duration, janela.getJanelaSegundos(), resultado.count());
+            }
+            return resultado;
+        }
+
+        long tamanhoJanela = fimSegundo - inicioSegundo + 1;
+
+        if (arvore != null && tamanhoJanela <= arvore.getCapacidadeSegundos()) {
+            Estatistica resultado = paraEstatistica(arvore.calcular(inicioSegundo, fimSegundo));
+            registrarEvento(evento, "arvore", tamanhoJanela, 0, resultado);
+            if (logger.isDebugEnabled()) {
+                long duration = System.nanoTime() - startTime;
+                logger.debug("Estatísticas calculadas pela árvore de segmentos em {} ns - Janela: {} segundos, Transações: {}",
+                           duration, tamanhoJanela, resultado.count());
+            }
+            return resultado;
+        }
+
+        BucketEstatistica estatisticaFinal = new BucketEstatistica(escala);
+        int bucketsProcessados = percorrer(inicioSegundo, fimSegundo, estatisticaFinal);
 
+        Estatistica resultado = paraEstatistica(estatisticaFinal);
+        DistributionSummary resumo = bucketsPercorridos;
+        if (resumo != null) {
+            resumo.record(bucketsProcessados);
+        }
+        registrarEvento(evento, "buckets", tamanhoJanela, bucketsProcessados, resultado);
+        
+        if (logger.isDebugEnabled()) {
+            long duration = System.nanoTime() - startTime;
+            logger.debug("Estatísticas calculadas em {} ns - Janela: {} segundos, Buckets processados: {}/{}, Transações: {}", 
+                       duration, tamanhoJanela, bucketsProcessados, buckets.size(), resultado.count());
+        }
+        
+        return resultado;
+    }
+
+    /**
+     * Histograma dos valores dos segundos entre {@code inicio} e {@code fim}.
+     *
+     * Sai dos contadores por faixa de cada bucket, sem tocar em transações: até a
+     * janela máxima pela árvore de segmentos, combinando O(log n) nós, e acima
+     * dela percorrendo os buckets como {@link #calcularEstatisticasEntre}.
+     */
+    @Override
+    public Histograma calcularHistogramaEntre(Instant inicio, Instant fim) {
+        long startTime = System.nanoTime();
+        long inicioSegundo = inicio.getEpochSecond();
+        long fimSegundo = fim.getEpochSecond();
+        long tamanhoJanela = fimSegundo - inicioSegundo + 1;
+
+        BucketEstatistica agregado;
+        if (arvore != null && tamanhoJanela <= arvore.getCapacidadeSegundos()) {
+            agregado = arvore.calcular(inicioSegundo, fimSegundo);
+        } else {
+            agregado = new BucketEstatistica(escala);
+            percorrer(inicioSegundo, fimSegundo, agregado);
+        }
+
+        Histograma resultado = Histograma.de(agregado.getHistograma());
+        if (logger.isDebugEnabled()) {
+            long duration = System.nanoTime() - startTime;
+            logger.debug("Histograma calculado em {} ns - Janela: {} segundos, Transações: {}",
+                       duration, tamanhoJanela, resultado.count());
+        }
+        return resultado;
+    }
+
+    /**
+     * Combina no destino os segundos em {@code [inicioSegundo, fimSegundo]}: com a
+     * consolidação ligada, horas e minutos inteiros mais os segundos das bordas;
+     * sem ela, bucket a bucket.
+     *
+     * @return quantidade de agregados combinados
+     */
+    private int percorrer(long inicioSegundo, long fimSegundo, BucketEstatistica destino) {
+        if (consolidacao != null) {
+            int[] processados = new int[1];
+            consolidacao.percorrer(inicioSegundo, fimSegundo, (agregado, segundo) -> {
+                destino.combinarCom(agregado);
+                processados[0]++;
+            });
+            return processados[0];
+        }
+
+        int bucketsProcessados = 0;
         for (long segundo = inicioSegundo; segundo <= fimSegundo; segundo++) {
-            BucketEstatistica bucket = buckets.get(segundo);
+            BucketConcorrente bucket = buckets.get(segundo);
             if (bucket != null && !bucket.isEmpty()) {
-                estatisticaFinal.combinarCom(bucket);
+                bucket.acumularEm(destino);
                 bucketsProcessados++;
             }
         }
+        return bucketsProcessados;
+    }
 
-        Estatistica resultado = new Estatistica(
-                estatisticaFinal.getCount(),
-                estatisticaFinal.getSum(),
-                estatisticaFinal.getAvg(),
-                estatisticaFinal.getMin(),
-                estatisticaFinal.getMax()
+    private static void registrarEvento(CalculoEstatisticaEvent evento, String caminho, long janelaSegundos,
+            int bucketsProcessados, Estatistica resultado) {
+        if (evento.shouldCommit()) {
+            evento.caminho = caminho;
+            evento.janelaSegundos = janelaSegundos;
+            evento.bucketsProcessados = bucketsProcessados;
+            evento.transacoes = resultado.count();
+            evento.commit();
+        }
+    }
+
+    private Estatistica paraEstatistica(BucketEstatistica estatistica) {
+        return new Estatistica(
+                estatistica.getCount(),
+                estatistica.getSum(),
+                estatistica.getAvg(),
+                estatistica.getMin(),
+                estatistica.getMax(),
+                estatistica.getVariancia(),
+                estatistica.getDesvioPadrao(),
+                estatistica.getPercentis()
         );
-        
-        long duration = System.nanoTime() - startTime;
-        logger.info("Estatísticas calculadas em {} ns - Janela: {} segundos, Buckets processados: {}/{}, Transações: {}", 
-                   duration, janela, bucketsProcessados, buckets.size(), resultado.count());
-        
-        return resultado;
     }
 }
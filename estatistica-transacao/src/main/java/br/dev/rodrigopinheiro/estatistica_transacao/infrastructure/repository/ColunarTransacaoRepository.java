@@ -0,0 +1,332 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.FixedPoint;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.FixedPointStatistics;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Estatistica;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.ResultadoRemocao;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.EstatisticaRepository;
+
+/**
+ * Repositório exato em colunas: cada transação ocupa uma posição em arrays
+ * paralelos de um bloco (instante em epoch millis, valor em ponto fixo e escala
+ * original), cerca de 20 bytes por transação em vez de um {@link Transacao} com
+ * BigDecimal, Instant e o nó de uma lista.
+ *
+ * Os blocos só crescem no fim e guardam o menor e o maior instante que contêm.
+ * A agregação pula os blocos fora do intervalo e percorre os arrays dos demais
+ * em um laço sobre {@code long}, sem criar objetos por transação. A remoção
+ * descarta blocos inteiros cujo maior instante expirou; o que sobra antes do
+ * limite nos blocos mantidos é ignorado pelas leituras.
+ *
+ * Ao contrário dos buckets, os limites das consultas são instantes exatos, com
+ * precisão de milissegundo.
+ */
+public class ColunarTransacaoRepository implements EstatisticaRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColunarTransacaoRepository.class);
+
+    static final int TAMANHO_BLOCO = 4096;
+
+    private final int escala;
+    private final Object escrita = new Object();
+    private final ConcurrentLinkedDeque<Bloco> blocos = new ConcurrentLinkedDeque<>();
+    // Só a thread com o lock de escrita troca o bloco atual
+    private Bloco atual;
+    // Transações anteriores a este instante já foram removidas, mesmo que ainda ocupem um bloco
+    private volatile long limiteRemocaoMillis = Long.MIN_VALUE;
+    private final LongAdder quantidade = new LongAdder();
+    private final LongAdder versao = new LongAdder();
+
+    public ColunarTransacaoRepository() {
+        this(FixedPoint.DEFAULT_SCALE);
+    }
+
+    /**
+     * @param escala escala do ponto fixo em que os valores são guardados; valores
+     *               com mais casas ficam à parte, em BigDecimal
+     */
+    public ColunarTransacaoRepository(int escala) {
+        this.escala = escala;
+        this.atual = novoBloco();
+    }
+
+    @Override
+    public void save(Transacao transacao) {
+        synchronized (escrita) {
+            adicionar(transacao);
+        }
+        versao.increment();
+    }
+
+    @Override
+    public void saveAll(List<Transacao> transacoes) {
+        synchronized (escrita) {
+            for (Transacao transacao : transacoes) {
+                adicionar(transacao);
+            }
+        }
+        versao.increment();
+    }
+
+    private void adicionar(Transacao transacao) {
+        long millis = transacao.dataHora().toEpochMilli();
+        if (millis < limiteRemocaoMillis) {
+            logger.debug("Transação de {} descartada - anterior ao limite da limpeza", transacao.dataHora());
+            return;
+        }
+        if (atual.tamanho == TAMANHO_BLOCO) {
+            atual = novoBloco();
+        }
+        atual.adicionar(millis, transacao.valorEmEscala(escala), transacao.valor());
+        quantidade.increment();
+    }
+
+    private Bloco novoBloco() {
+        Bloco bloco = new Bloco();
+        blocos.addLast(bloco);
+        return bloco;
+    }
+
+    @Override
+    public void deleteAll() {
+        synchronized (escrita) {
+            blocos.clear();
+            atual = novoBloco();
+            quantidade.reset();
+        }
+        versao.increment();
+    }
+
+    @Override
+    public List<Transacao> findSince(Instant since) {
+        long inicio = Math.max(since.toEpochMilli(), limiteRemocaoMillis);
+        List<Transacao> transacoes = new ArrayList<>();
+        for (Bloco bloco : blocos) {
+            int tamanho = bloco.tamanho;
+            if (tamanho == 0 || bloco.maxMillis < inicio) {
+                continue;
+            }
+            for (int i = 0; i < tamanho; i++) {
+                long millis = bloco.millis[i];
+                if (millis >= inicio) {
+                    transacoes.add(bloco.transacao(i, escala));
+                }
+            }
+        }
+        return transacoes;
+    }
+
+    @Override
+    public void deleteBefore(Instant limite) {
+        removerExpiradas(limite, Long.MAX_VALUE);
+    }
+
+    /**
+     * Publica o limite, que já esconde das leituras o que expirou, e descarta
+     * os blocos cujo maior instante é anterior a ele, um bloco por vez.
+     */
+    @Override
+    public synchronized ResultadoRemocao removerExpiradas(Instant limite, long prazoNanos) {
+        long fim = System.nanoTime() + prazoNanos;
+        long limiteMillis = limite.toEpochMilli();
+        if (limiteMillis > limiteRemocaoMillis) {
+            limiteRemocaoMillis = limiteMillis;
+        }
+
+        long removidas = 0;
+        boolean concluida = true;
+        for (Bloco bloco : blocos) {
+            if (System.nanoTime() - fim >= 0) {
+                concluida = false;
+                break;
+            }
+            // Só blocos cheios: o atual continua recebendo escritas. Ler o tamanho
+            // antes torna visível o maior instante escrito junto com ele
+            if (bloco.tamanho == TAMANHO_BLOCO && bloco.maxMillis < limiteMillis && blocos.remove(bloco)) {
+                removidas += TAMANHO_BLOCO;
+            }
+        }
+
+        quantidade.add(-removidas);
+        versao.increment();
+        return new ResultadoRemocao(removidas, concluida);
+    }
+
+    @Override
+    public long versao() {
+        return versao.sum();
+    }
+
+    @Override
+    public Estatistica calcularEstatisticasEntre(Instant inicio, Instant fim) {
+        long startTime = System.nanoTime();
+        long inicioMillis = Math.max(inicio.toEpochMilli(), limiteRemocaoMillis);
+        long fimMillis = fim.toEpochMilli();
+        FixedPointStatistics estatisticas = new FixedPointStatistics(escala);
+        int blocosProcessados = 0;
+
+        for (Bloco bloco : blocos) {
+            int tamanho = bloco.tamanho;
+            if (tamanho == 0 || bloco.maxMillis < inicioMillis || bloco.minMillis > fimMillis) {
+                continue;
+            }
+            bloco.acumular(tamanho, inicioMillis, fimMillis, estatisticas);
+            blocosProcessados++;
+        }
+
+        Estatistica resultado = estatisticas.getCount() == 0 ? Estatistica.vazia() : new Estatistica(
+                estatisticas.getCount(),
+                estatisticas.getSum(),
+                estatisticas.getAvg(2, RoundingMode.HALF_UP),
+                estatisticas.getMin(),
+                estatisticas.getMax(),
+                estatisticas.getVariance(2, RoundingMode.HALF_UP),
+                estatisticas.getStandardDeviation(2, RoundingMode.HALF_UP)
+        );
+
+        if (logger.isDebugEnabled()) {
+            long duration = System.nanoTime() - startTime;
+            logger.debug("Estatísticas calculadas em {} ns - Blocos processados: {}/{}, Transações: {}",
+                    duration, blocosProcessados, blocos.size(), resultado.count());
+        }
+        return resultado;
+    }
+
+    /** Quantidade aproximada de transações guardadas, sem percorrer os blocos. */
+    public long getQuantidade() {
+        return quantidade.sum();
+    }
+
+    public int getBlocoCount() {
+        return blocos.size();
+    }
+
+    /**
+     * Bloco de tamanho fixo com as transações em arrays paralelos. Só a thread
+     * com o lock de escrita adiciona; a escrita em {@code tamanho}, que é volátil,
+     * publica a posição e os limites de tempo para as leituras, que não bloqueiam.
+     */
+    private static final class Bloco {
+
+        private final long[] millis = new long[TAMANHO_BLOCO];
+        private final long[] valores = new long[TAMANHO_BLOCO];
+        private final int[] escalas = new int[TAMANHO_BLOCO];
+        // Valores sem representação em ponto fixo, por posição; raros
+        private Map<Integer, BigDecimal> decimais;
+        private long minMillis = Long.MAX_VALUE;
+        private long maxMillis = Long.MIN_VALUE;
+        private volatile int tamanho;
+
+        void adicionar(long instante, long valorEscalado, BigDecimal valor) {
+            int posicao = tamanho;
+            millis[posicao] = instante;
+            valores[posicao] = valorEscalado;
+            escalas[posicao] = valor.scale();
+            if (valorEscalado == FixedPoint.NOT_REPRESENTABLE) {
+                if (decimais == null) {
+                    decimais = new ConcurrentHashMap<>();
+                }
+                decimais.put(posicao, valor);
+            }
+            if (instante < minMillis) {
+                minMillis = instante;
+            }
+            if (instante > maxMillis) {
+                maxMillis = instante;
+            }
+            tamanho = posicao + 1;
+        }
+
+        Transacao transacao(int posicao, int escala) {
+            long valorEscalado = valores[posicao];
+            BigDecimal valor = valorEscalado == FixedPoint.NOT_REPRESENTABLE
+                    ? decimais.get(posicao)
+                    : FixedPoint.toBigDecimal(valorEscalado, escala, escalas[posicao]);
+            return new Transacao(valor, Instant.ofEpochMilli(millis[posicao]), valorEscalado, escala);
+        }
+
+        /**
+         * Acumula as posições dentro do intervalo. Count, soma, soma dos
+         * quadrados (em 128 bits), min e max ficam em variáveis locais e só passam
+         * ao acumulador no fim, ou antes de um valor que exige BigDecimal ou de uma
+         * soma que estouraria.
+         */
+        void acumular(int tamanho, long inicioMillis, long fimMillis, FixedPointStatistics estatisticas) {
+            long count = 0;
+            long soma = 0;
+            int escalaSoma = 0;
+            long quadradosAlta = 0;
+            long quadradosBaixa = 0;
+            long min = 0;
+            int escalaMin = 0;
+            long max = 0;
+            int escalaMax = 0;
+
+            for (int i = 0; i < tamanho; i++) {
+                long instante = millis[i];
+                if (instante < inicioMillis || instante > fimMillis) {
+                    continue;
+                }
+                long valor = valores[i];
+                int escalaValor = escalas[i];
+                if (valor == FixedPoint.NOT_REPRESENTABLE) {
+                    estatisticas.combineFixed(count, soma, escalaSoma, quadradosAlta, quadradosBaixa,
+                            min, escalaMin, max, escalaMax);
+                    estatisticas.accept(valor, decimais.get(i));
+                    count = 0;
+                    soma = 0;
+                    escalaSoma = 0;
+                    quadradosAlta = 0;
+                    quadradosBaixa = 0;
+                    continue;
+                }
+                long novaSoma = soma + valor;
+                long quadradoBaixa = valor * valor;
+                long quadradoAlta = Math.multiplyHigh(valor, valor);
+                long novaBaixa = quadradosBaixa + quadradoBaixa;
+                long novaAlta = quadradosAlta + quadradoAlta
+                        + (Long.compareUnsigned(novaBaixa, quadradosBaixa) < 0 ? 1 : 0);
+                if (((soma ^ novaSoma) & (valor ^ novaSoma)) < 0 || novaAlta < 0) {
+                    estatisticas.combineFixed(count, soma, escalaSoma, quadradosAlta, quadradosBaixa,
+                            min, escalaMin, max, escalaMax);
+                    count = 0;
+                    novaSoma = valor;
+                    escalaSoma = 0;
+                    novaBaixa = quadradoBaixa;
+                    novaAlta = quadradoAlta;
+                }
+                if (count == 0 || valor < min || (valor == min && escalaValor > escalaMin)) {
+                    min = valor;
+                    escalaMin = escalaValor;
+                }
+                if (count == 0 || valor > max || (valor == max && escalaValor > escalaMax)) {
+                    max = valor;
+                    escalaMax = escalaValor;
+                }
+                soma = novaSoma;
+                quadradosAlta = novaAlta;
+                quadradosBaixa = novaBaixa;
+                if (escalaValor > escalaSoma) {
+                    escalaSoma = escalaValor;
+                }
+                count++;
+            }
+            estatisticas.combineFixed(count, soma, escalaSoma, quadradosAlta, quadradosBaixa,
+                    min, escalaMin, max, escalaMax);
+        }
+    }
+}
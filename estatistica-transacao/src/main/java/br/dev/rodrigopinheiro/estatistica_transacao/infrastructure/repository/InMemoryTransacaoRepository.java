@@ -1,36 +1,214 @@
 package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.springframework.stereotype.Repository;
 
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.ResultadoRemocao;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.TransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.jfr.BuscaTransacoesEvent;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.jfr.RemocaoTransacoesEvent;
 
+/**
+ * Guarda cada transação, sem agregar, em segmentos por segundo ordenados no
+ * tempo. A busca desce direto ao primeiro segundo pedido, O(log n + k), e a
+ * remoção descarta os segmentos inteiros que expiraram; só o segundo cortado
+ * pelo limite é filtrado transação a transação.
+ *
+ * Um segmento removido é fechado: uma escrita concorrente que ainda o tinha em
+ * mãos não entra nele nem na contagem. Ela é anterior ao limite da remoção,
+ * então sairia com o segmento de qualquer forma.
+ */
 @Repository
 public class InMemoryTransacaoRepository implements TransacaoRepository {
 
-    private final ConcurrentLinkedDeque<Transacao> transacoes = new ConcurrentLinkedDeque<>();
+    private final ConcurrentSkipListMap<Long, Segmento> segmentos = new ConcurrentSkipListMap<>();
+    // Somar os segmentos percorreria o mapa inteiro; o contador é O(1) para as métricas
+    private final LongAdder quantidade = new LongAdder();
+    private final LongAdder versao = new LongAdder();
 
     @Override
     public void save(Transacao transacao) {
-        transacoes.add(transacao);
+        if (segmentoDo(transacao.dataHora().getEpochSecond()).adicionar(transacao)) {
+            quantidade.increment();
+        }
+        versao.increment();
+    }
+
+    @Override
+    public void saveAll(List<Transacao> lote) {
+        // Lotes costumam vir do mesmo segundo: reaproveita o último segmento
+        long segundoAnterior = 0;
+        Segmento segmento = null;
+        int salvas = 0;
+        for (Transacao transacao : lote) {
+            long segundo = transacao.dataHora().getEpochSecond();
+            if (segmento == null || segundo != segundoAnterior) {
+                segmento = segmentoDo(segundo);
+                segundoAnterior = segundo;
+            }
+            if (segmento.adicionar(transacao)) {
+                salvas++;
+            }
+        }
+        quantidade.add(salvas);
+        versao.increment();
+    }
+
+    private Segmento segmentoDo(long segundo) {
+        Segmento segmento = segmentos.get(segundo);
+        if (segmento == null) {
+            segmento = segmentos.computeIfAbsent(segundo, k -> new Segmento());
+        }
+        return segmento;
     }
 
     @Override
     public void deleteAll() {
-        transacoes.clear();
+        segmentos.clear();
+        quantidade.reset();
+        versao.increment();
     }
 
     @Override
     public List<Transacao> findSince(Instant momento) {
-        return transacoes.stream().filter(t -> !t.dataHora().isBefore(momento)).toList();
+        BuscaTransacoesEvent evento = new BuscaTransacoesEvent();
+        evento.begin();
+        List<Transacao> encontradas = new ArrayList<>();
+        long segundo = momento.getEpochSecond();
+        for (Map.Entry<Long, Segmento> entrada : segmentos.tailMap(segundo, true).entrySet()) {
+            if (entrada.getKey() == segundo) {
+                // Só o primeiro segundo pode ter transações antes do momento
+                for (Transacao transacao : entrada.getValue().transacoes) {
+                    if (!transacao.dataHora().isBefore(momento)) {
+                        encontradas.add(transacao);
+                    }
+                }
+            } else {
+                encontradas.addAll(entrada.getValue().transacoes);
+            }
+        }
+        if (evento.shouldCommit()) {
+            evento.desde = momento.toEpochMilli();
+            evento.encontradas = encontradas.size();
+            evento.commit();
+        }
+        return encontradas;
     }
 
     public void deleteBefore(Instant limite) {
-        transacoes.removeIf(t -> t.dataHora().isBefore(limite));
+        removerExpiradas(limite, Long.MAX_VALUE);
+    }
+
+    @Override
+    public long versao() {
+        return versao.sum();
     }
 
+    /**
+     * Descarta os segmentos do início do mapa até o segundo do limite, um por
+     * vez, até esgotar o prazo; cada segmento sai inteiro, em tempo constante.
+     * O segundo cortado pelo limite é filtrado por último.
+     */
+    @Override
+    public synchronized ResultadoRemocao removerExpiradas(Instant limite, long prazoNanos) {
+        RemocaoTransacoesEvent evento = new RemocaoTransacoesEvent();
+        evento.begin();
+        long fim = System.nanoTime() + prazoNanos;
+        long limiteSegundo = limite.getEpochSecond();
+
+        long removidas = 0;
+        int passos = 0;
+        boolean concluida = true;
+        Map.Entry<Long, Segmento> primeiro;
+        while ((primeiro = segmentos.firstEntry()) != null && primeiro.getKey() < limiteSegundo) {
+            // nanoTime a cada 64 segmentos: o custo da checagem fica fora do laço
+            if ((++passos & 0x3F) == 0 && System.nanoTime() - fim >= 0) {
+                concluida = false;
+                break;
+            }
+            if (segmentos.remove(primeiro.getKey(), primeiro.getValue())) {
+                // Fechado só depois de sair do mapa: nenhuma escrita nova o encontra
+                removidas += primeiro.getValue().fechar();
+            }
+        }
+        if (concluida) {
+            Segmento cortado = segmentos.get(limiteSegundo);
+            if (cortado != null) {
+                removidas += cortado.removerAntesDe(limite);
+            }
+        }
+
+        quantidade.add(-removidas);
+        if (removidas > 0) {
+            versao.increment();
+        }
+        if (evento.shouldCommit()) {
+            evento.limite = limite.toEpochMilli();
+            evento.removidas = removidas;
+            evento.retidas = quantidade.sum();
+            evento.commit();
+        }
+        return new ResultadoRemocao(removidas, concluida);
+    }
+
+    /** Quantidade aproximada de transações retidas, sem percorrer os segmentos. */
+    public long getQuantidade() {
+        return quantidade.sum();
+    }
+
+    /** Segmentos por segundo retidos. */
+    public int getSegmentoCount() {
+        return segmentos.size();
+    }
+
+    /** Transações de um segundo, na ordem de chegada. */
+    private static final class Segmento {
+
+        private static final int FECHADO = Integer.MIN_VALUE;
+
+        private final ConcurrentLinkedQueue<Transacao> transacoes = new ConcurrentLinkedQueue<>();
+        // size() da fila percorre os nós; o descarte do segmento inteiro usa o contador
+        private final AtomicInteger tamanho = new AtomicInteger();
+
+        /** Devolve {@code false}, sem adicionar, se o segmento já foi fechado. */
+        boolean adicionar(Transacao transacao) {
+            // Reserva a vaga antes de entrar na fila: fechar() conta tudo o que foi reservado
+            int atual;
+            do {
+                atual = tamanho.get();
+                if (atual == FECHADO) {
+                    return false;
+                }
+            } while (!tamanho.compareAndSet(atual, atual + 1));
+            transacoes.add(transacao);
+            return true;
+        }
+
+        /** Impede novas escritas e devolve quantas o segmento recebeu. */
+        int fechar() {
+            return tamanho.getAndSet(FECHADO);
+        }
+
+        int removerAntesDe(Instant limite) {
+            int removidas = 0;
+            for (Iterator<Transacao> it = transacoes.iterator(); it.hasNext();) {
+                if (it.next().dataHora().isBefore(limite)) {
+                    it.remove();
+                    removidas++;
+                }
+            }
+            tamanho.addAndGet(-removidas);
+            return removidas;
+        }
+    }
 }
@@ -0,0 +1,447 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.FixedPoint;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.FixedPointStatistics;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.exception.CapacidadeEsgotadaException;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Estatistica;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.ResultadoRemocao;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.EstatisticaRepository;
+
+/**
+ * Repositório exato fora do heap: as transações ficam em registros de largura
+ * fixa dentro de slabs de {@link ByteBuffer} direto, então o volume retido não
+ * passa pelo GC e não alonga as pausas do G1.
+ *
+ * Cada registro tem {@value #BYTES_REGISTRO} bytes: instante em epoch millis,
+ * valor em ponto fixo e escala original. Os slabs são preenchidos em ordem e
+ * guardam o menor e o maior instante que contêm, como os blocos do
+ * {@link ColunarTransacaoRepository}. Valores sem ponto fixo, raros, ficam no
+ * heap, por posição.
+ *
+ * A memória é limitada por um orçamento fixo. Slabs que expiram ou são
+ * descartados voltam para uma lista livre e são reaproveitados antes de alocar
+ * outro; com o orçamento esgotado e nenhum slab livre, novas transações são
+ * recusadas com {@link CapacidadeEsgotadaException} e contadas. Reaproveitar um slab exige que nenhuma leitura o
+ * esteja percorrendo: as leituras seguram o lado de leitura de um lock, e só a
+ * remoção, rara, pega o de escrita.
+ */
+public class OffHeapTransacaoRepository implements EstatisticaRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapTransacaoRepository.class);
+
+    static final int BYTES_REGISTRO = 24;
+    private static final int DESLOCAMENTO_VALOR = 8;
+    private static final int DESLOCAMENTO_ESCALA = 16;
+
+    private final int escala;
+    private final int registrosPorSlab;
+    private final int maxSlabs;
+    private final Object escrita = new Object();
+    // Leituras percorrem slabs sob o lado de leitura; devolver slabs à lista livre exige o de escrita
+    private final ReentrantReadWriteLock reciclagem = new ReentrantReadWriteLock();
+    private final List<Slab> slabs = new ArrayList<>();
+    private final ArrayDeque<Slab> livres = new ArrayDeque<>();
+    private int slabsAlocados;
+    private Slab atual;
+    private volatile long limiteRemocaoMillis = Long.MIN_VALUE;
+    private final LongAdder quantidade = new LongAdder();
+    private final LongAdder descartadas = new LongAdder();
+    private final LongAdder versao = new LongAdder();
+
+    /**
+     * @param escala           escala do ponto fixo dos valores
+     * @param maxBytes         orçamento de memória fora do heap
+     * @param registrosPorSlab transações por slab
+     */
+    public OffHeapTransacaoRepository(int escala, long maxBytes, int registrosPorSlab) {
+        if (registrosPorSlab <= 0) {
+            throw new IllegalArgumentException("registrosPorSlab deve ser positivo");
+        }
+        long bytesSlab = (long) registrosPorSlab * BYTES_REGISTRO;
+        if (bytesSlab > Integer.MAX_VALUE || maxBytes < bytesSlab) {
+            throw new IllegalArgumentException("O orçamento precisa comportar ao menos um slab de " + bytesSlab + " bytes");
+        }
+        this.escala = escala;
+        this.registrosPorSlab = registrosPorSlab;
+        this.maxSlabs = (int) Math.min(Integer.MAX_VALUE, maxBytes / bytesSlab);
+    }
+
+    @Override
+    public void save(Transacao transacao) {
+        reciclagem.readLock().lock();
+        try {
+            synchronized (escrita) {
+                if (!adicionar(transacao)) {
+                    throw new CapacidadeEsgotadaException(0);
+                }
+            }
+        } finally {
+            reciclagem.readLock().unlock();
+        }
+        versao.increment();
+    }
+
+    @Override
+    public void saveAll(List<Transacao> transacoes) {
+        reciclagem.readLock().lock();
+        try {
+            synchronized (escrita) {
+                for (int i = 0; i < transacoes.size(); i++) {
+                    if (!adicionar(transacoes.get(i))) {
+                        descartadas.add(transacoes.size() - i - 1);
+                        throw new CapacidadeEsgotadaException(i);
+                    }
+                }
+            }
+        } finally {
+            reciclagem.readLock().unlock();
+            // Mesmo recusando parte do lote, o que veio antes foi salvo
+            versao.increment();
+        }
+    }
+
+    /** Devolve {@code false} se o orçamento está esgotado; a transação é contada como descartada. */
+    private boolean adicionar(Transacao transacao) {
+        long millis = transacao.dataHora().toEpochMilli();
+        if (millis < limiteRemocaoMillis) {
+            logger.debug("Transação de {} descartada - anterior ao limite da limpeza", transacao.dataHora());
+            return true;
+        }
+        if ((atual == null || atual.tamanho == registrosPorSlab) && !trocarSlab()) {
+            descartadas.increment();
+            return false;
+        }
+        atual.adicionar(millis, transacao.valorEmEscala(escala), transacao.valor());
+        quantidade.increment();
+        return true;
+    }
+
+    /** Chamado com o lock de escrita das transações. */
+    private boolean trocarSlab() {
+        Slab slab = livres.pollFirst();
+        if (slab == null) {
+            if (slabsAlocados == maxSlabs) {
+                return false;
+            }
+            slab = new Slab(registrosPorSlab);
+            slabsAlocados++;
+        }
+        synchronized (slabs) {
+            slabs.add(slab);
+        }
+        atual = slab;
+        return true;
+    }
+
+    @Override
+    public void deleteAll() {
+        reciclagem.writeLock().lock();
+        try {
+            synchronized (escrita) {
+                synchronized (slabs) {
+                    for (Slab slab : slabs) {
+                        livres.addLast(slab.reciclar());
+                    }
+                    slabs.clear();
+                }
+                atual = null;
+                quantidade.reset();
+            }
+        } finally {
+            reciclagem.writeLock().unlock();
+        }
+        versao.increment();
+    }
+
+    @Override
+    public List<Transacao> findSince(Instant since) {
+        long inicio = Math.max(since.toEpochMilli(), limiteRemocaoMillis);
+        List<Transacao> transacoes = new ArrayList<>();
+        reciclagem.readLock().lock();
+        try {
+            for (Slab slab : emUso()) {
+                int tamanho = slab.tamanho;
+                if (tamanho == 0 || slab.maxMillis < inicio) {
+                    continue;
+                }
+                for (int i = 0; i < tamanho; i++) {
+                    if (slab.millis(i) >= inicio) {
+                        transacoes.add(slab.transacao(i, escala));
+                    }
+                }
+            }
+        } finally {
+            reciclagem.readLock().unlock();
+        }
+        return transacoes;
+    }
+
+    @Override
+    public void deleteBefore(Instant limite) {
+        removerExpiradas(limite, Long.MAX_VALUE);
+    }
+
+    /**
+     * Publica o limite, que já esconde das leituras o que expirou, e devolve à
+     * lista livre os slabs cheios cujo maior instante é anterior a ele. O prazo
+     * é ignorado: a passada custa um teste por slab.
+     */
+    @Override
+    public ResultadoRemocao removerExpiradas(Instant limite, long prazoNanos) {
+        long limiteMillis = limite.toEpochMilli();
+        if (limiteMillis > limiteRemocaoMillis) {
+            limiteRemocaoMillis = limiteMillis;
+        }
+
+        long removidas = 0;
+        reciclagem.writeLock().lock();
+        try {
+            synchronized (escrita) {
+                synchronized (slabs) {
+                    for (Iterator<Slab> it = slabs.iterator(); it.hasNext();) {
+                        Slab slab = it.next();
+                        if (slab != atual && slab.maxMillis < limiteMillis) {
+                            it.remove();
+                            removidas += slab.tamanho;
+                            livres.addLast(slab.reciclar());
+                        }
+                    }
+                }
+            }
+        } finally {
+            reciclagem.writeLock().unlock();
+        }
+
+        quantidade.add(-removidas);
+        versao.increment();
+        return new ResultadoRemocao(removidas, true);
+    }
+
+    @Override
+    public long versao() {
+        return versao.sum();
+    }
+
+    @Override
+    public Estatistica calcularEstatisticasEntre(Instant inicio, Instant fim) {
+        long startTime = System.nanoTime();
+        long inicioMillis = Math.max(inicio.toEpochMilli(), limiteRemocaoMillis);
+        long fimMillis = fim.toEpochMilli();
+        FixedPointStatistics estatisticas = new FixedPointStatistics(escala);
+        int slabsProcessados = 0;
+
+        reciclagem.readLock().lock();
+        try {
+            for (Slab slab : emUso()) {
+                int tamanho = slab.tamanho;
+                if (tamanho == 0 || slab.maxMillis < inicioMillis || slab.minMillis > fimMillis) {
+                    continue;
+                }
+                slab.acumular(tamanho, inicioMillis, fimMillis, estatisticas);
+                slabsProcessados++;
+            }
+        } finally {
+            reciclagem.readLock().unlock();
+        }
+
+        Estatistica resultado = estatisticas.getCount() == 0 ? Estatistica.vazia() : new Estatistica(
+                estatisticas.getCount(),
+                estatisticas.getSum(),
+                estatisticas.getAvg(2, RoundingMode.HALF_UP),
+                estatisticas.getMin(),
+                estatisticas.getMax(),
+                estatisticas.getVariance(2, RoundingMode.HALF_UP),
+                estatisticas.getStandardDeviation(2, RoundingMode.HALF_UP)
+        );
+
+        if (logger.isDebugEnabled()) {
+            long duration = System.nanoTime() - startTime;
+            logger.debug("Estatísticas calculadas em {} ns - Slabs processados: {}, Transações: {}",
+                    duration, slabsProcessados, resultado.count());
+        }
+        return resultado;
+    }
+
+    private Slab[] emUso() {
+        synchronized (slabs) {
+            return slabs.toArray(new Slab[0]);
+        }
+    }
+
+    /** Quantidade aproximada de transações guardadas. */
+    public long getQuantidade() {
+        return quantidade.sum();
+    }
+
+    /** Transações recusadas por falta de orçamento. */
+    public long getDescartadas() {
+        return descartadas.sum();
+    }
+
+    public int getSlabCount() {
+        synchronized (slabs) {
+            return slabs.size();
+        }
+    }
+
+    public int getSlabsLivres() {
+        synchronized (escrita) {
+            return livres.size();
+        }
+    }
+
+    /** Bytes fora do heap já alocados, incluindo os slabs livres. */
+    public long getBytesAlocados() {
+        synchronized (escrita) {
+            return (long) slabsAlocados * registrosPorSlab * BYTES_REGISTRO;
+        }
+    }
+
+    public long getBytesMaximo() {
+        return (long) maxSlabs * registrosPorSlab * BYTES_REGISTRO;
+    }
+
+    /**
+     * Slab de registros de largura fixa. Só a thread com o lock de escrita
+     * adiciona; a escrita em {@code tamanho}, que é volátil, publica o registro e
+     * os limites de tempo para as leituras.
+     */
+    private static final class Slab {
+
+        private final ByteBuffer registros;
+        private Map<Integer, BigDecimal> decimais;
+        private long minMillis = Long.MAX_VALUE;
+        private long maxMillis = Long.MIN_VALUE;
+        private volatile int tamanho;
+
+        Slab(int capacidade) {
+            this.registros = ByteBuffer.allocateDirect(capacidade * BYTES_REGISTRO).order(ByteOrder.nativeOrder());
+        }
+
+        void adicionar(long instante, long valorEscalado, BigDecimal valor) {
+            int posicao = tamanho;
+            int base = posicao * BYTES_REGISTRO;
+            registros.putLong(base, instante);
+            registros.putLong(base + DESLOCAMENTO_VALOR, valorEscalado);
+            registros.putInt(base + DESLOCAMENTO_ESCALA, valor.scale());
+            if (valorEscalado == FixedPoint.NOT_REPRESENTABLE) {
+                if (decimais == null) {
+                    decimais = new ConcurrentHashMap<>();
+                }
+                decimais.put(posicao, valor);
+            }
+            if (instante < minMillis) {
+                minMillis = instante;
+            }
+            if (instante > maxMillis) {
+                maxMillis = instante;
+            }
+            tamanho = posicao + 1;
+        }
+
+        /** Chamado com o lock de reciclagem: nenhuma leitura enxerga o slab. */
+        Slab reciclar() {
+            tamanho = 0;
+            minMillis = Long.MAX_VALUE;
+            maxMillis = Long.MIN_VALUE;
+            decimais = null;
+            return this;
+        }
+
+        long millis(int posicao) {
+            return registros.getLong(posicao * BYTES_REGISTRO);
+        }
+
+        Transacao transacao(int posicao, int escala) {
+            int base = posicao * BYTES_REGISTRO;
+            long valorEscalado = registros.getLong(base + DESLOCAMENTO_VALOR);
+            BigDecimal valor = valorEscalado == FixedPoint.NOT_REPRESENTABLE
+                    ? decimais.get(posicao)
+                    : FixedPoint.toBigDecimal(valorEscalado, escala, registros.getInt(base + DESLOCAMENTO_ESCALA));
+            return new Transacao(valor, Instant.ofEpochMilli(registros.getLong(base)), valorEscalado, escala);
+        }
+
+        /** Mesmo laço dos blocos do repositório colunar, lendo do buffer. */
+        void acumular(int tamanho, long inicioMillis, long fimMillis, FixedPointStatistics estatisticas) {
+            long count = 0;
+            long soma = 0;
+            int escalaSoma = 0;
+            long quadradosAlta = 0;
+            long quadradosBaixa = 0;
+            long min = 0;
+            int escalaMin = 0;
+            long max = 0;
+            int escalaMax = 0;
+
+            for (int i = 0, base = 0; i < tamanho; i++, base += BYTES_REGISTRO) {
+                long instante = registros.getLong(base);
+                if (instante < inicioMillis || instante > fimMillis) {
+                    continue;
+                }
+                long valor = registros.getLong(base + DESLOCAMENTO_VALOR);
+                if (valor == FixedPoint.NOT_REPRESENTABLE) {
+                    estatisticas.combineFixed(count, soma, escalaSoma, quadradosAlta, quadradosBaixa,
+                            min, escalaMin, max, escalaMax);
+                    estatisticas.accept(valor, decimais.get(i));
+                    count = 0;
+                    soma = 0;
+                    escalaSoma = 0;
+                    quadradosAlta = 0;
+                    quadradosBaixa = 0;
+                    continue;
+                }
+                int escalaValor = registros.getInt(base + DESLOCAMENTO_ESCALA);
+                long novaSoma = soma + valor;
+                long quadradoBaixa = valor * valor;
+                long quadradoAlta = Math.multiplyHigh(valor, valor);
+                long novaBaixa = quadradosBaixa + quadradoBaixa;
+                long novaAlta = quadradosAlta + quadradoAlta
+                        + (Long.compareUnsigned(novaBaixa, quadradosBaixa) < 0 ? 1 : 0);
+                if (((soma ^ novaSoma) & (valor ^ novaSoma)) < 0 || novaAlta < 0) {
+                    estatisticas.combineFixed(count, soma, escalaSoma, quadradosAlta, quadradosBaixa,
+                            min, escalaMin, max, escalaMax);
+                    count = 0;
+                    novaSoma = valor;
+                    escalaSoma = 0;
+                    novaBaixa = quadradoBaixa;
+                    novaAlta = quadradoAlta;
+                }
+                if (count == 0 || valor < min || (valor == min && escalaValor > escalaMin)) {
+                    min = valor;
+                    escalaMin = escalaValor;
+                }
+                if (count == 0 || valor > max || (valor == max && escalaValor > escalaMax)) {
+                    max = valor;
+                    escalaMax = escalaValor;
+                }
+                soma = novaSoma;
+                quadradosAlta = novaAlta;
+                quadradosBaixa = novaBaixa;
+                if (escalaValor > escalaSoma) {
+                    escalaSoma = escalaValor;
+                }
+                count++;
+            }
+            estatisticas.combineFixed(count, soma, escalaSoma, quadradosAlta, quadradosBaixa,
+                    min, escalaMin, max, escalaMax);
+        }
+    }
+}
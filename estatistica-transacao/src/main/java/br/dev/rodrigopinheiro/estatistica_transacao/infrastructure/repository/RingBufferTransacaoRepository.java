@@ -0,0 +1,269 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.FixedPoint;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Estatistica;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Histograma;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.EstatisticaRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.bucket.BucketConcorrente;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.bucket.BucketEstatistica;
+
+/**
+ * Repositório de buckets por segundo em um anel de tamanho fixo.
+ *
+ * Os slots são pré-alocados e indexados por {@code epochSecond % capacidade}.
+ * Cada slot guarda o segundo que representa; quando uma escrita chega para um
+ * segundo mais novo, o slot é zerado e reaproveitado. Assim a memória é constante,
+ * nenhuma estrutura é alocada por segundo e os segundos antigos expiram sozinhos,
+ * sem depender da limpeza agendada.
+ *
+ * A capacidade é a maior janela consultável mais uma folga. Transações mais
+ * antigas que a maior janela (em relação ao segundo mais novo já registrado) são
+ * descartadas. Como um slot só é reutilizado por um segundo pelo menos
+ * {@link #FOLGA_SEGUNDOS} à frente do mais novo registrado, uma escrita atrasada
+ * não chega a cair em um slot que já foi reciclado.
+ */
+public class RingBufferTransacaoRepository implements EstatisticaRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(RingBufferTransacaoRepository.class);
+
+    static final int FOLGA_SEGUNDOS = 60;
+    private static final long VAZIO = Long.MIN_VALUE;
+
+    private final int janelaMaximaSegundos;
+    private final int escala;
+    private final Slot[] slots;
+    private volatile long ultimoSegundo = VAZIO;
+    private final LongAdder versao = new LongAdder();
+
+    public RingBufferTransacaoRepository(int janelaMaximaSegundos) {
+        this(janelaMaximaSegundos, FixedPoint.DEFAULT_SCALE);
+    }
+
+    /**
+     * @param janelaMaximaSegundos maior janela consultável
+     * @param escala               escala do ponto fixo usado na agregação dos slots
+     */
+    public RingBufferTransacaoRepository(int janelaMaximaSegundos, int escala) {
+        if (janelaMaximaSegundos <= 0) {
+            throw new IllegalArgumentException("janelaMaximaSegundos deve ser positiva");
+        }
+        this.janelaMaximaSegundos = janelaMaximaSegundos;
+        this.escala = escala;
+        this.slots = new Slot[janelaMaximaSegundos + FOLGA_SEGUNDOS];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot(escala);
+        }
+    }
+
+    @Override
+    public void save(Transacao transacao) {
+        long segundo = transacao.dataHora().getEpochSecond();
+        long ultimo = avancarUltimoSegundo(segundo);
+
+        if (segundo <= ultimo - janelaMaximaSegundos - 1) {
+            logger.debug("Transação do segundo {} descartada - fora da janela máxima de {} segundos",
+                    segundo, janelaMaximaSegundos);
+            return;
+        }
+
+        Slot slot = slots[indice(segundo)];
+        if (slot.segundo != segundo && !reciclar(slot, segundo)) {
+            return;
+        }
+        slot.bucket.addTransacao(transacao.valorEmEscala(escala), transacao.valor());
+        versao.increment();
+    }
+
+    @Override
+    public void deleteAll() {
+        for (Slot slot : slots) {
+            synchronized (slot) {
+                slot.bucket.limpar();
+                slot.segundo = VAZIO;
+            }
+        }
+        ultimoSegundo = VAZIO;
+        versao.increment();
+        logger.info("Limpeza do anel concluída - {} slots zerados", slots.length);
+    }
+
+    @Override
+    public List<Transacao> findSince(Instant since) {
+        List<Transacao> transacoes = new ArrayList<>();
+        long ultimo = ultimoSegundo;
+        if (ultimo == VAZIO) {
+            return transacoes;
+        }
+
+        long inicioSegundo = Math.max(since.getEpochSecond(), ultimo - slots.length + 1);
+        long fimSegundo = Math.min(Instant.now().getEpochSecond(), ultimo);
+
+        for (long segundo = inicioSegundo; segundo <= fimSegundo; segundo++) {
+            Slot slot = slots[indice(segundo)];
+            if (slot.segundo == segundo && !slot.bucket.isEmpty()) {
+                // Reconstrói transações aproximadas usando valor médio
+                BucketEstatistica snapshot = slot.bucket.snapshot();
+                // (imutável, então a mesma instância serve para todas as cópias)
+                Transacao media = Transacao.comPontoFixo(snapshot.getAvg(), Instant.ofEpochSecond(segundo), escala);
+                for (long i = 0; i < snapshot.getCount(); i++) {
+                    transacoes.add(media);
+                }
+            }
+        }
+
+        return transacoes;
+    }
+
+    /**
+     * Os slots expiram sozinhos ao serem reaproveitados; este método apenas
+     * antecipa a expiração dos segundos anteriores ao limite.
+     */
+    @Override
+    public void deleteBefore(Instant limite) {
+        long limiteSegundo = limite.getEpochSecond();
+        for (Slot slot : slots) {
+            if (slot.segundo != VAZIO && slot.segundo < limiteSegundo) {
+                synchronized (slot) {
+                    if (slot.segundo < limiteSegundo) {
+                        slot.bucket.limpar();
+                        slot.segundo = VAZIO;
+                    }
+                }
+            }
+        }
+        versao.increment();
+    }
+
+    @Override
+    public long versao() {
+        return versao.sum();
+    }
+
+    @Override
+    public Estatistica calcularEstatisticasEntre(Instant inicio, Instant fim) {
+        long startTime = System.nanoTime();
+        BucketEstatistica estatisticaFinal = new BucketEstatistica(escala);
+        int bucketsProcessados = acumular(inicio, fim, estatisticaFinal);
+
+        Estatistica resultado = new Estatistica(
+                estatisticaFinal.getCount(),
+                estatisticaFinal.getSum(),
+                estatisticaFinal.getAvg(),
+                estatisticaFinal.getMin(),
+                estatisticaFinal.getMax(),
+                estatisticaFinal.getVariancia(),
+                estatisticaFinal.getDesvioPadrao()
+        );
+
+        if (logger.isDebugEnabled()) {
+            long duration = System.nanoTime() - startTime;
+            logger.debug("Estatísticas calculadas em {} ns - Buckets processados: {}/{}, Transações: {}",
+                    duration, bucketsProcessados, slots.length, resultado.count());
+        }
+
+        return resultado;
+    }
+
+    /**
+     * Histograma a partir das contagens por faixa dos slots, sem reconstruir
+     * transações.
+     */
+    @Override
+    public Histograma calcularHistogramaEntre(Instant inicio, Instant fim) {
+        BucketEstatistica agregado = new BucketEstatistica(escala);
+        acumular(inicio, fim, agregado);
+        return Histograma.de(agregado.getHistograma());
+    }
+
+    /** @return quantidade de slots combinados no destino */
+    private int acumular(Instant inicio, Instant fim, BucketEstatistica destino) {
+        long ultimo = ultimoSegundo;
+        if (ultimo == VAZIO) {
+            return 0;
+        }
+        // Nunca percorre mais que a capacidade do anel, qualquer que seja a janela pedida
+        long inicioSegundo = Math.max(inicio.getEpochSecond(), ultimo - slots.length + 1);
+        long fimSegundo = Math.min(fim.getEpochSecond(), ultimo);
+
+        int bucketsProcessados = 0;
+        for (long segundo = inicioSegundo; segundo <= fimSegundo; segundo++) {
+            Slot slot = slots[indice(segundo)];
+            if (slot.segundo == segundo && !slot.bucket.isEmpty()) {
+                slot.bucket.acumularEm(destino);
+                bucketsProcessados++;
+            }
+        }
+        return bucketsProcessados;
+    }
+
+    public int getCapacidade() {
+        return slots.length;
+    }
+
+    /**
+     * Quantidade de slots que ainda guardam um segundo dentro da janela máxima.
+     */
+    public int getBucketCount() {
+        long ultimo = ultimoSegundo;
+        if (ultimo == VAZIO) {
+            return 0;
+        }
+        int ocupados = 0;
+        for (Slot slot : slots) {
+            long segundo = slot.segundo;
+            if (segundo != VAZIO && segundo > ultimo - janelaMaximaSegundos - 1) {
+                ocupados++;
+            }
+        }
+        return ocupados;
+    }
+
+    private boolean reciclar(Slot slot, long segundo) {
+        synchronized (slot) {
+            if (slot.segundo < segundo) {
+                // Zera antes de publicar o novo segundo: leitores só enxergam o slot já limpo
+                slot.bucket.limpar();
+                slot.segundo = segundo;
+                return true;
+            }
+            // O slot já foi reaproveitado por um segundo mais novo: esta escrita expirou
+            return slot.segundo == segundo;
+        }
+    }
+
+    private long avancarUltimoSegundo(long segundo) {
+        long atual = ultimoSegundo;
+        if (atual >= segundo) {
+            return atual;
+        }
+        // Só entra aqui uma vez por segundo novo
+        synchronized (this) {
+            if (ultimoSegundo < segundo) {
+                ultimoSegundo = segundo;
+            }
+            return ultimoSegundo;
+        }
+    }
+
+    private int indice(long segundo) {
+        return Math.floorMod(segundo, slots.length);
+    }
+
+    private static final class Slot {
+        private volatile long segundo = VAZIO;
+        private final BucketConcorrente bucket;
+
+        private Slot(int escala) {
+            this.bucket = new BucketConcorrente(escala);
+        }
+    }
+}
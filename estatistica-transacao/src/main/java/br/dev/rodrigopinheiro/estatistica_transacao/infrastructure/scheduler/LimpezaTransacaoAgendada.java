@@ -1,32 +1,91 @@
 package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.scheduler;
 
 import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.ResultadoRemocao;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.TransacaoRepository;
 import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config.LimpezaProperties;
-import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository.InMemoryTransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.jfr.LimpezaAgendadaEvent;
 import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.time.Relogio;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
+/**
+ * Remove as transações mais antigas que {@code app.limpeza.max-age-segundos}
+ * do repositório ativo, seja qual for a implementação.
+ *
+ * A cada execução o repositório recebe uma fatia de no máximo
+ * {@code prazo-fatia-microssegundos}; o que não couber fica para a próxima.
+ * O atraso mede quanto o último limite totalmente removido está atrás do
+ * limite atual: cresce quando as fatias não dão conta do que expira.
+ */
 @Component
 public class LimpezaTransacaoAgendada {
 
-    private final InMemoryTransacaoRepository repo;
+    private final TransacaoRepository repo;
     private final Relogio relogio;
     private final LimpezaProperties limpezaProperties;
+    private final Timer pausa;
+    private final Counter removidas;
 
-    public LimpezaTransacaoAgendada(InMemoryTransacaoRepository repo, 
+    // Último limite até o qual a remoção terminou; nulo antes da primeira
+    private volatile Instant limiteConcluido;
+
+    public LimpezaTransacaoAgendada(TransacaoRepository repo, 
                                    Relogio relogio,
-                                   LimpezaProperties limpezaProperties) {
+                                   LimpezaProperties limpezaProperties,
+                                   MeterRegistry meterRegistry) {
         this.repo = repo;
         this.relogio = relogio;
         this.limpezaProperties = limpezaProperties;
+        this.pausa = Timer.builder("limpeza.pausa")
+                .description("Duração de cada fatia da limpeza agendada")
+                .register(meterRegistry);
+        this.removidas = Counter.builder("limpeza.removidas")
+                .description("Itens removidos pela limpeza agendada (transações ou buckets, conforme o repositório)")
+                .register(meterRegistry);
+        Gauge.builder("limpeza.atraso", this, LimpezaTransacaoAgendada::atrasoSegundos)
+                .description("Segundos entre o limite atual e o último limite totalmente removido")
+                .baseUnit("seconds")
+                .register(meterRegistry);
     }
 
-    @Scheduled(fixedRateString = "#{@limpezaProperties.intervaloMilissegundos}")
+    @Scheduled(fixedDelayString = "#{@limpezaProperties.intervaloMilissegundos}")
     public void limparAntigas() {
-        Instant limite = relogio.agora().minusSeconds(limpezaProperties.getMaxAgeSegundos());
-        repo.deleteBefore(limite);
+        LimpezaAgendadaEvent evento = new LimpezaAgendadaEvent();
+        evento.begin();
+        long inicio = System.nanoTime();
+        Instant limite = limiteAtual();
+        ResultadoRemocao resultado = repo.removerExpiradas(limite,
+                TimeUnit.MICROSECONDS.toNanos(limpezaProperties.getPrazoFatiaMicrossegundos()));
+        if (resultado.concluida()) {
+            limiteConcluido = limite;
+        }
+        removidas.increment(resultado.removidas());
+        pausa.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        if (evento.shouldCommit()) {
+            evento.maxAgeSegundos = limpezaProperties.getMaxAgeSegundos();
+            evento.removidas = resultado.removidas();
+            evento.concluida = resultado.concluida();
+            evento.commit();
+        }
+    }
+
+    private Instant limiteAtual() {
+        return relogio.agora().minusSeconds(limpezaProperties.getMaxAgeSegundos());
+    }
+
+    private double atrasoSegundos() {
+        Instant concluido = limiteConcluido;
+        if (concluido == null) {
+            return Double.NaN;
+        }
+        return Math.max(0, limiteAtual().getEpochSecond() - concluido.getEpochSecond());
     }
-}
\ No newline at end of file
+}
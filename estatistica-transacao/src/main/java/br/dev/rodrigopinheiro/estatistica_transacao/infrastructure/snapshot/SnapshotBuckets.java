@@ -0,0 +1,326 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.snapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.LogHistogram;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.QuantileSketch;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.bucket.BucketEstatistica;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config.LimpezaProperties;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config.SnapshotProperties;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository.BucketTransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.time.Relogio;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Snapshot binário dos agregados por segundo do {@link BucketTransacaoRepository},
+ * para reiniciar com as estatísticas corretas sem reprocessar transações.
+ *
+ * O arquivo é {@code [mágico][versão][segundo de criação][quantidade]}, seguido
+ * de {@code [segundo][count][soma][quadrados][min][max][faixas][bins]} para cada
+ * segundo não vazio dentro da retenção, e termina com o CRC32C de tudo o que vem
+ * antes. Quadrados é a soma dos quadrados dos valores, da variância. Cada
+ * decimal é {@code [escala][comprimento][bytes do valor não escalado]}. Faixas
+ * (do histograma) e bins (do sketch de quantis) usam o mesmo formato,
+ * {@code [quantidade]} seguida de {@code [índice][contagem]} por posição não
+ * vazia, com quantidade zero para um segundo sem sketch. O snapshot é
+ * escrito em um arquivo temporário e só então renomeado sobre o anterior, então
+ * uma queda no meio da escrita deixa o snapshot anterior intacto.
+ *
+ * É escrito a cada {@code intervalo-milissegundos} e no desligamento, depois de
+ * o servidor web parar. Ao subir, antes do servidor web, os segundos ainda dentro
+ * da retenção são restaurados; um arquivo com CRC, mágico ou versão inválidos é
+ * ignorado por inteiro. Com o WAL também habilitado ele é reaplicado antes, e os
+ * segundos que ele já reconstruiu não são sobrescritos.
+ */
+@Component
+@ConditionalOnProperty(name = "app.snapshot.habilitado", havingValue = "true")
+@ConditionalOnProperty(name = "app.repository.type", havingValue = "bucket")
+public class SnapshotBuckets implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotBuckets.class);
+
+    static final int MAGICO = 0x534E4150;
+    static final int VERSAO = 4;
+    static final int CABECALHO = 20;
+    private static final int BYTES_BIN = Short.BYTES + Long.BYTES;
+
+    private final BucketTransacaoRepository repository;
+    private final Relogio relogio;
+    private final Path arquivo;
+    private final long maxAgeSegundos;
+    private final Timer tempoEscrita;
+    private final CRC32C crc = new CRC32C();
+    // Protegido pelo monitor de salvar; cabe todos os bins de um sketch mais o de zero, e as faixas
+    private final ByteBuffer bins = ByteBuffer.allocate((QuantileSketch.MAX_BINS + 1) * BYTES_BIN);
+
+    private volatile boolean rodando;
+
+    public SnapshotBuckets(BucketTransacaoRepository repository, Relogio relogio,
+            SnapshotProperties snapshotProperties, LimpezaProperties limpezaProperties,
+            MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.relogio = relogio;
+        this.arquivo = Paths.get(snapshotProperties.getArquivo());
+        this.maxAgeSegundos = limpezaProperties.getMaxAgeSegundos();
+        this.tempoEscrita = Timer.builder("snapshot.escrita")
+                .description("Duração de cada escrita do snapshot dos buckets")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "#{@snapshotProperties.intervaloMilissegundos}",
+            initialDelayString = "#{@snapshotProperties.intervaloMilissegundos}")
+    public void salvarPeriodicamente() {
+        if (!rodando) {
+            return;
+        }
+        try {
+            salvar();
+        } catch (UncheckedIOException e) {
+            logger.error("Falha ao escrever o snapshot dos buckets", e);
+        }
+    }
+
+    /**
+     * Escreve o snapshot com os segundos dentro da retenção.
+     *
+     * @return quantidade de segundos escritos
+     */
+    public synchronized int salvar() {
+        long inicio = System.nanoTime();
+        long agora = relogio.agora().getEpochSecond();
+        SortedMap<Long, BucketEstatistica> segundos = repository.snapshotSegundos(agora - maxAgeSegundos);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(CABECALHO + segundos.size() * 48);
+        try (DataOutputStream saida = new DataOutputStream(bytes)) {
+            saida.writeInt(MAGICO);
+            saida.writeInt(VERSAO);
+            saida.writeLong(agora);
+            saida.writeInt(segundos.size());
+            for (Map.Entry<Long, BucketEstatistica> entrada : segundos.entrySet()) {
+                BucketEstatistica agregado = entrada.getValue();
+                saida.writeLong(entrada.getKey());
+                saida.writeLong(agregado.getCount());
+                escreverDecimal(saida, agregado.getSum());
+                escreverDecimal(saida, agregado.getSomaQuadrados());
+                escreverDecimal(saida, agregado.getMin());
+                escreverDecimal(saida, agregado.getMax());
+                escreverHistograma(saida, agregado.getHistograma());
+                escreverQuantis(saida, agregado.getQuantis());
+            }
+            crc.reset();
+            crc.update(bytes.toByteArray());
+            saida.writeInt((int) crc.getValue());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        try {
+            Path pai = arquivo.toAbsolutePath().getParent();
+            if (pai != null) {
+                Files.createDirectories(pai);
+            }
+            try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer conteudo = ByteBuffer.wrap(bytes.toByteArray());
+                while (conteudo.hasRemaining()) {
+                    canal.write(conteudo);
+                }
+                canal.force(true);
+            }
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível escrever o snapshot " + arquivo, e);
+        }
+
+        long duracao = System.nanoTime() - inicio;
+        tempoEscrita.record(duracao, TimeUnit.NANOSECONDS);
+        logger.debug("Snapshot dos buckets escrito em {} ns - Segundos: {}, Bytes: {}",
+                duracao, segundos.size(), bytes.size());
+        return segundos.size();
+    }
+
+    private static void escreverDecimal(DataOutputStream saida, BigDecimal valor) throws IOException {
+        byte[] naoEscalado = valor.unscaledValue().toByteArray();
+        saida.writeInt(valor.scale());
+        saida.writeShort(naoEscalado.length);
+        saida.write(naoEscalado);
+    }
+
+    private void escreverHistograma(DataOutputStream saida, LogHistogram histograma) throws IOException {
+        bins.clear();
+        if (histograma != null) {
+            for (int faixa = 0; faixa < LogHistogram.BIN_COUNT; faixa++) {
+                long n = histograma.getCount(faixa);
+                if (n != 0) {
+                    bins.putShort((short) faixa).putLong(n);
+                }
+            }
+        }
+        escreverBins(saida);
+    }
+
+    private void escreverQuantis(DataOutputStream saida, QuantileSketch quantis) throws IOException {
+        bins.clear();
+        if (quantis != null) {
+            // Os bins passam pelo buffer porque o consumidor não pode lançar IOException
+            quantis.forEachBin((indice, n) -> bins.putShort((short) indice).putLong(n));
+        }
+        escreverBins(saida);
+    }
+
+    private void escreverBins(DataOutputStream saida) throws IOException {
+        saida.writeInt(bins.position() / BYTES_BIN);
+        saida.write(bins.array(), 0, bins.position());
+    }
+
+    /**
+     * Restaura os segundos do snapshot que ainda estão dentro da retenção.
+     *
+     * @return quantidade de segundos restaurados
+     */
+    int restaurar() {
+        long inicio = System.nanoTime();
+        byte[] conteudo;
+        try {
+            conteudo = Files.readAllBytes(arquivo);
+        } catch (NoSuchFileException e) {
+            logger.info("Nenhum snapshot dos buckets em {}; o repositório começa vazio", arquivo);
+            return 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível ler o snapshot " + arquivo, e);
+        }
+
+        if (conteudo.length < CABECALHO + Integer.BYTES) {
+            logger.warn("Snapshot dos buckets ignorado, arquivo truncado: {}", arquivo);
+            return 0;
+        }
+        ByteBuffer leitura = ByteBuffer.wrap(conteudo);
+        crc.reset();
+        crc.update(conteudo, 0, conteudo.length - Integer.BYTES);
+        if ((int) crc.getValue() != leitura.getInt(conteudo.length - Integer.BYTES)) {
+            logger.warn("Snapshot dos buckets ignorado, CRC inválido: {}", arquivo);
+            return 0;
+        }
+        if (leitura.getInt() != MAGICO || leitura.getInt() != VERSAO) {
+            logger.warn("Snapshot dos buckets ignorado, formato desconhecido: {}", arquivo);
+            return 0;
+        }
+
+        long criadoEm = leitura.getLong();
+        int quantidade = leitura.getInt();
+        long limite = relogio.agora().getEpochSecond() - maxAgeSegundos;
+        int restaurados = 0;
+        int expirados = 0;
+        try {
+            for (int i = 0; i < quantidade; i++) {
+                long segundo = leitura.getLong();
+                long count = leitura.getLong();
+                BigDecimal soma = lerDecimal(leitura);
+                BigDecimal somaQuadrados = lerDecimal(leitura);
+                BigDecimal min = lerDecimal(leitura);
+                BigDecimal max = lerDecimal(leitura);
+                LogHistogram histograma = lerHistograma(leitura);
+                QuantileSketch quantis = lerQuantis(leitura);
+                if (segundo < limite) {
+                    expirados++;
+                } else if (repository.restaurarSegundo(segundo, count, soma, somaQuadrados, min, max,
+                        histograma, quantis)) {
+                    restaurados++;
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            // O CRC confere, então só um arquivo escrito errado chega aqui
+            logger.warn("Snapshot dos buckets com conteúdo menor que o declarado: {}", arquivo);
+        }
+
+        logger.info("Snapshot dos buckets restaurado em {} ms - Criado há {} s, Segundos restaurados: {}, Expirados: {}",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio),
+                relogio.agora().getEpochSecond() - criadoEm, restaurados, expirados);
+        return restaurados;
+    }
+
+    private static BigDecimal lerDecimal(ByteBuffer leitura) {
+        int escala = leitura.getInt();
+        byte[] naoEscalado = new byte[leitura.getShort() & 0xFFFF];
+        leitura.get(naoEscalado);
+        return new BigDecimal(new BigInteger(naoEscalado), escala);
+    }
+
+    private static LogHistogram lerHistograma(ByteBuffer leitura) {
+        int faixas = leitura.getInt();
+        if (faixas == 0) {
+            return null;
+        }
+        LogHistogram histograma = new LogHistogram();
+        for (int i = 0; i < faixas; i++) {
+            histograma.acceptBin(leitura.getShort(), leitura.getLong());
+        }
+        return histograma;
+    }
+
+    private static QuantileSketch lerQuantis(ByteBuffer leitura) {
+        int bins = leitura.getInt();
+        if (bins == 0) {
+            return null;
+        }
+        QuantileSketch quantis = new QuantileSketch();
+        for (int i = 0; i < bins; i++) {
+            quantis.acceptIndex(leitura.getShort(), leitura.getLong());
+        }
+        return quantis;
+    }
+
+    @Override
+    public void start() {
+        restaurar();
+        rodando = true;
+    }
+
+    @Override
+    public void stop() {
+        rodando = false;
+        try {
+            salvar();
+        } catch (UncheckedIOException e) {
+            logger.error("Falha ao escrever o snapshot dos buckets no desligamento", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return rodando;
+    }
+
+    @Override
+    public int getPhase() {
+        // Depois do WAL e antes do servidor web; no desligamento, o contrário
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+}
@@ -0,0 +1,16 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.wal;
+
+/**
+ * Quando o WAL força as páginas mapeadas para o disco.
+ */
+public enum PoliticaFsync {
+
+    /** Nunca; fica a cargo do sistema operacional. Sobrevive à queda do processo, não à da máquina. */
+    NENHUMA,
+
+    /** Uma thread própria força o que foi escrito a cada {@code intervalo-fsync-milissegundos}. */
+    INTERVALO,
+
+    /** Quem completa {@code fsync-a-cada} registros desde o último força todos eles de uma vez. */
+    A_CADA_N
+}
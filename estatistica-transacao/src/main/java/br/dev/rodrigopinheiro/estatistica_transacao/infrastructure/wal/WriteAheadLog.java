@@ -0,0 +1,471 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.wal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.exception.CapacidadeEsgotadaException;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.DiarioTransacoes;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.TransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config.EstatisticaProperties;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config.LimpezaProperties;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config.WalProperties;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.time.Relogio;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Write-ahead log das transações aceitas, em segmentos mapeados em memória.
+ *
+ * Cada registro é {@code [comprimento][crc32c][segundos][nanos][escala][valor]},
+ * com o valor não escalado em um long quando cabe, ou nos bytes do BigInteger.
+ * Gravar é copiar alguns bytes para a página mapeada; quando elas vão para o
+ * disco depende da {@link PoliticaFsync}. Um registro incompleto ou com CRC
+ * errado marca o fim do que pode ser lido.
+ *
+ * Um segmento novo começa quando o atual enche ou quando passa
+ * {@code max-age-segundos / }{@value #SEGMENTOS_POR_RETENCAO} do seu início.
+ * Como uma transação nunca é posterior à sua chegada, um segmento encerrado
+ * há mais que {@code max-age-segundos} só tem transações que a limpeza já
+ * removeu, e o arquivo inteiro é apagado.
+ *
+ * Ao subir, antes do servidor web, os segmentos ainda relevantes são lidos em
+ * sequência e as transações dentro da retenção vão para o repositório em
+ * lotes; o WAL continua em um segmento novo.
+ */
+@Component
+@ConditionalOnProperty(name = "app.wal.habilitado", havingValue = "true")
+public class WriteAheadLog implements DiarioTransacoes, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    static final int MAGICO = 0x57414C31;
+    static final int CABECALHO_SEGMENTO = 8;
+    static final int CABECALHO_REGISTRO = 8;
+    static final String EXTENSAO = ".wal";
+    private static final int CAMPOS_FIXOS = 16;
+    private static final int SEGMENTOS_POR_RETENCAO = 4;
+    private static final int TAMANHO_LOTE_REPLAY = 4096;
+
+    private final TransacaoRepository repository;
+    private final Relogio relogio;
+    private final WalProperties walProperties;
+    private final EstatisticaProperties estatisticaProperties;
+    private final Path diretorio;
+    private final long maxAgeSegundos;
+    private final long duracaoSegmentoSegundos;
+    private final int tamanhoSegmento;
+    private final Timer tempoFsync;
+
+    // Tudo abaixo é protegido pelo monitor do WAL, exceto onde indicado
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer rascunho = ByteBuffer.allocate(64);
+    private Segmento atual;
+    private long sequencia;
+    private int pendentes;
+    // Serializa o force; nunca é pego antes do monitor do WAL
+    private final Object forcando = new Object();
+
+    private ScheduledExecutorService fsyncPeriodico;
+    private volatile boolean rodando;
+
+    @Autowired
+    public WriteAheadLog(TransacaoRepository repository, Relogio relogio, WalProperties walProperties,
+            LimpezaProperties limpezaProperties, EstatisticaProperties estatisticaProperties,
+            MeterRegistry meterRegistry) {
+        this(repository, relogio, walProperties, limpezaProperties, estatisticaProperties, meterRegistry,
+                walProperties.getTamanhoSegmentoMegabytes() * 1024 * 1024);
+    }
+
+    WriteAheadLog(TransacaoRepository repository, Relogio relogio, WalProperties walProperties,
+            LimpezaProperties limpezaProperties, EstatisticaProperties estatisticaProperties,
+            MeterRegistry meterRegistry, int tamanhoSegmento) {
+        this.repository = repository;
+        this.relogio = relogio;
+        this.walProperties = walProperties;
+        this.estatisticaProperties = estatisticaProperties;
+        this.diretorio = Paths.get(walProperties.getDiretorio());
+        this.maxAgeSegundos = limpezaProperties.getMaxAgeSegundos();
+        this.duracaoSegmentoSegundos = Math.max(1, maxAgeSegundos / SEGMENTOS_POR_RETENCAO);
+        this.tamanhoSegmento = tamanhoSegmento;
+        this.tempoFsync = Timer.builder("wal.fsync")
+                .description("Duração de cada force das páginas do WAL para o disco")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void registrar(Transacao transacao) {
+        synchronized (this) {
+            escrever(transacao);
+        }
+        aposEscrever();
+    }
+
+    @Override
+    public void registrar(List<Transacao> transacoes) {
+        if (transacoes.isEmpty()) {
+            return;
+        }
+        // O lote inteiro entra de uma vez e conta para um único force
+        synchronized (this) {
+            for (Transacao transacao : transacoes) {
+                escrever(transacao);
+            }
+        }
+        aposEscrever();
+    }
+
+    private void escrever(Transacao transacao) {
+        int comprimento = montar(transacao);
+        long agora = relogio.agora().getEpochSecond();
+        if (atual == null
+                || atual.posicao + CABECALHO_REGISTRO + comprimento > tamanhoSegmento
+                || agora >= atual.inicioSegundo + duracaoSegmentoSegundos) {
+            rotacionar(agora);
+        }
+
+        crc.reset();
+        crc.update(rascunho.array(), 0, comprimento);
+        MappedByteBuffer mapa = atual.mapa;
+        int posicao = atual.posicao;
+        mapa.putInt(posicao + 4, (int) crc.getValue());
+        mapa.put(posicao + CABECALHO_REGISTRO, rascunho.array(), 0, comprimento);
+        // O comprimento por último: até aqui o registro ainda lê como fim do segmento
+        mapa.putInt(posicao, comprimento);
+        atual.posicao = posicao + CABECALHO_REGISTRO + comprimento;
+        pendentes++;
+    }
+
+    /** Monta o corpo do registro no rascunho e devolve o seu comprimento. */
+    private int montar(Transacao transacao) {
+        BigDecimal valor = transacao.valor();
+        BigInteger naoEscalado = valor.unscaledValue();
+        boolean cabeEmLong = naoEscalado.bitLength() < 64;
+        byte[] bytes = cabeEmLong ? null : naoEscalado.toByteArray();
+        int comprimento = CAMPOS_FIXOS + (cabeEmLong ? Long.BYTES : bytes.length);
+        if (rascunho.capacity() < comprimento) {
+            rascunho = ByteBuffer.allocate(comprimento);
+        }
+
+        ByteBuffer corpo = rascunho.clear();
+        corpo.putLong(transacao.dataHora().getEpochSecond());
+        corpo.putInt(transacao.dataHora().getNano());
+        corpo.putInt(valor.scale());
+        if (cabeEmLong) {
+            corpo.putLong(naoEscalado.longValue());
+        } else {
+            corpo.put(bytes);
+        }
+        return comprimento;
+    }
+
+    private void aposEscrever() {
+        if (walProperties.getPoliticaFsync() == PoliticaFsync.A_CADA_N) {
+            boolean forcar;
+            synchronized (this) {
+                forcar = pendentes >= walProperties.getFsyncACada();
+            }
+            if (forcar) {
+                forcar();
+            }
+        }
+    }
+
+    /**
+     * Força para o disco o que foi escrito no segmento atual desde o último
+     * force. Escritas que chegam enquanto isso esperam o próximo.
+     */
+    void forcar() {
+        Segmento segmento;
+        int ate;
+        synchronized (this) {
+            segmento = atual;
+            if (segmento == null || pendentes == 0) {
+                return;
+            }
+            ate = segmento.posicao;
+            pendentes = 0;
+        }
+        synchronized (forcando) {
+            forcarAte(segmento, ate);
+        }
+    }
+
+    /** Chamado com o lock {@code forcando}. */
+    private void forcarAte(Segmento segmento, int ate) {
+        if (ate > segmento.forcado) {
+            long inicio = System.nanoTime();
+            segmento.mapa.force(segmento.forcado, ate - segmento.forcado);
+            segmento.forcado = ate;
+            tempoFsync.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void rotacionar(long agora) {
+        fecharAtual();
+        apagarExpirados(agora - maxAgeSegundos);
+        Path arquivo = diretorio.resolve(String.format("%019d-%06d%s", agora, sequencia++, EXTENSAO));
+        try {
+            FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoSegmento);
+            mapa.putInt(0, MAGICO);
+            atual = new Segmento(arquivo, canal, mapa, agora);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível criar o segmento " + arquivo, e);
+        }
+        logger.debug("Segmento do WAL iniciado: {}", arquivo);
+    }
+
+    private void fecharAtual() {
+        if (atual == null) {
+            return;
+        }
+        if (walProperties.getPoliticaFsync() != PoliticaFsync.NENHUMA) {
+            synchronized (forcando) {
+                forcarAte(atual, atual.posicao);
+            }
+        }
+        try {
+            atual.canal.close();
+        } catch (IOException e) {
+            logger.warn("Falha ao fechar o segmento {} do WAL", atual.arquivo, e);
+        }
+        atual = null;
+        pendentes = 0;
+    }
+
+    @Override
+    public synchronized void limpar() {
+        fecharAtual();
+        for (Path arquivo : segmentos()) {
+            apagar(arquivo);
+        }
+        logger.info("WAL descartado junto com o repositório");
+    }
+
+    @Override
+    public void start() {
+        try {
+            Files.createDirectories(diretorio);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível criar o diretório do WAL " + diretorio, e);
+        }
+        reaplicar();
+        if (walProperties.getPoliticaFsync() == PoliticaFsync.INTERVALO) {
+            fsyncPeriodico = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "wal-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalo = walProperties.getIntervaloFsyncMilissegundos();
+            fsyncPeriodico.scheduleWithFixedDelay(this::forcarPeriodicamente, intervalo, intervalo,
+                    TimeUnit.MILLISECONDS);
+        }
+        rodando = true;
+    }
+
+    private void forcarPeriodicamente() {
+        try {
+            forcar();
+        } catch (RuntimeException e) {
+            logger.error("Falha no fsync periódico do WAL", e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        rodando = false;
+        if (fsyncPeriodico != null) {
+            fsyncPeriodico.shutdownNow();
+        }
+        synchronized (this) {
+            // No desligamento o que foi escrito vai para o disco, qualquer que seja a política
+            if (atual != null) {
+                synchronized (forcando) {
+                    forcarAte(atual, atual.posicao);
+                }
+            }
+            fecharAtual();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return rodando;
+    }
+
+    @Override
+    public int getPhase() {
+        // Antes do servidor web: nenhuma requisição chega antes do estado ser reconstruído
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * Lê os segmentos em ordem e salva no repositório as transações dentro da
+     * retenção. Segmentos encerrados antes dela são apagados sem serem lidos.
+     */
+    private void reaplicar() {
+        long inicio = System.nanoTime();
+        Instant limite = relogio.agora().minusSeconds(maxAgeSegundos);
+        long lidas = 0;
+        long reaplicadas = 0;
+        int segmentosLidos = 0;
+
+        for (Path arquivo : segmentos()) {
+            long inicioSegundo = inicioSegundo(arquivo);
+            sequencia = Math.max(sequencia, sequencia(arquivo) + 1);
+            if (inicioSegundo + duracaoSegmentoSegundos < limite.getEpochSecond()) {
+                apagar(arquivo);
+                continue;
+            }
+            List<Transacao> lote = new ArrayList<>(TAMANHO_LOTE_REPLAY);
+            try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+                MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+                if (mapa.limit() < CABECALHO_SEGMENTO || mapa.getInt(0) != MAGICO) {
+                    logger.warn("Segmento do WAL ignorado, cabeçalho inválido: {}", arquivo);
+                    continue;
+                }
+                segmentosLidos++;
+                int posicao = CABECALHO_SEGMENTO;
+                while (posicao + CABECALHO_REGISTRO <= mapa.limit()) {
+                    int comprimento = mapa.getInt(posicao);
+                    if (comprimento < CAMPOS_FIXOS + 1 || posicao + CABECALHO_REGISTRO + comprimento > mapa.limit()) {
+                        break;
+                    }
+                    int corpo = posicao + CABECALHO_REGISTRO;
+                    crc.reset();
+                    crc.update(mapa.slice(corpo, comprimento));
+                    if ((int) crc.getValue() != mapa.getInt(posicao + 4)) {
+                        logger.warn("Registro do WAL corrompido em {}:{}; o restante do segmento foi ignorado",
+                                arquivo, posicao);
+                        break;
+                    }
+                    lidas++;
+                    Transacao transacao = ler(mapa, corpo, comprimento);
+                    if (!transacao.dataHora().isBefore(limite)) {
+                        lote.add(transacao);
+                        if (lote.size() == TAMANHO_LOTE_REPLAY) {
+                            reaplicadas += salvar(lote);
+                            lote = new ArrayList<>(TAMANHO_LOTE_REPLAY);
+                        }
+                    }
+                    posicao = corpo + comprimento;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Não foi possível ler o segmento " + arquivo, e);
+            }
+            reaplicadas += salvar(lote);
+        }
+
+        logger.info("WAL reaplicado em {} ms - Segmentos: {}, Registros lidos: {}, Transações reaplicadas: {}",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio), segmentosLidos, lidas, reaplicadas);
+    }
+
+    /** Salva um lote do replay; com a capacidade do repositório esgotada, o restante fica de fora. */
+    private int salvar(List<Transacao> lote) {
+        try {
+            repository.saveAll(lote);
+            return lote.size();
+        } catch (CapacidadeEsgotadaException e) {
+            logger.warn("Repositório sem capacidade durante o replay do WAL; {} transações não foram reaplicadas",
+                    lote.size() - e.getSalvas());
+            return e.getSalvas();
+        }
+    }
+
+    private Transacao ler(MappedByteBuffer mapa, int corpo, int comprimento) {
+        Instant dataHora = Instant.ofEpochSecond(mapa.getLong(corpo), mapa.getInt(corpo + 8));
+        int escalaValor = mapa.getInt(corpo + 12);
+        BigDecimal valor;
+        if (comprimento == CAMPOS_FIXOS + Long.BYTES) {
+            valor = BigDecimal.valueOf(mapa.getLong(corpo + CAMPOS_FIXOS), escalaValor);
+        } else {
+            byte[] bytes = new byte[comprimento - CAMPOS_FIXOS];
+            mapa.get(corpo + CAMPOS_FIXOS, bytes);
+            valor = new BigDecimal(new BigInteger(bytes), escalaValor);
+        }
+        return Transacao.comPontoFixo(valor, dataHora, estatisticaProperties.getEscalaPontoFixo());
+    }
+
+    /** Segmentos do diretório, do mais antigo para o mais novo. */
+    private List<Path> segmentos() {
+        List<Path> arquivos = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(diretorio, "*" + EXTENSAO)) {
+            stream.forEach(arquivos::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível listar o diretório do WAL " + diretorio, e);
+        }
+        // O nome começa pelo segundo de início com zeros à esquerda: a ordem do nome é a do tempo
+        arquivos.sort(null);
+        return arquivos;
+    }
+
+    private void apagarExpirados(long limiteSegundo) {
+        for (Path arquivo : segmentos()) {
+            if (inicioSegundo(arquivo) + duracaoSegmentoSegundos < limiteSegundo) {
+                apagar(arquivo);
+            }
+        }
+    }
+
+    private static void apagar(Path arquivo) {
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            logger.warn("Falha ao apagar o segmento {} do WAL", arquivo, e);
+        }
+    }
+
+    private static long inicioSegundo(Path arquivo) {
+        String nome = arquivo.getFileName().toString();
+        return Long.parseLong(nome.substring(0, nome.indexOf('-')));
+    }
+
+    private static long sequencia(Path arquivo) {
+        String nome = arquivo.getFileName().toString();
+        return Long.parseLong(nome.substring(nome.indexOf('-') + 1, nome.length() - EXTENSAO.length()));
+    }
+
+    private static final class Segmento {
+
+        private final Path arquivo;
+        private final FileChannel canal;
+        private final MappedByteBuffer mapa;
+        private final long inicioSegundo;
+        private int posicao = CABECALHO_SEGMENTO;
+        // Protegido pelo lock forcando
+        private int forcado;
+
+        private Segmento(Path arquivo, FileChannel canal, MappedByteBuffer mapa, long inicioSegundo) {
+            this.arquivo = arquivo;
+            this.canal = canal;
+            this.mapa = mapa;
+            this.inicioSegundo = inicioSegundo;
+        }
+    }
+}
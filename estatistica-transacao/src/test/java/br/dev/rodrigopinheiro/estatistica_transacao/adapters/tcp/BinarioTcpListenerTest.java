@@ -0,0 +1,109 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.adapters.tcp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.application.port.in.ObterEstatisticasPort;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Estatistica;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.TransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.time.Relogio;
+
+@SpringBootTest(properties = {"app.tcp.habilitado=true", "app.tcp.porta=0", "app.agendamento.habilitado=false"})
+class BinarioTcpListenerTest {
+
+    private static final Instant AGORA = Instant.parse("2025-10-20T10:15:30Z");
+
+    @Autowired
+    private BinarioTcpListener listener;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private ObterEstatisticasPort obterEstatisticasPort;
+
+    @MockitoBean
+    private Relogio relogio;
+
+    @BeforeEach
+    void setUp() {
+        when(relogio.agora()).thenReturn(AGORA);
+        transacaoRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Deve Registrar Frames Validos E Contar Rejeitados No Ack")
+    void shouldRegisterValidFramesAndCountRejectedInAck() throws Exception {
+        ByteBuffer frames = ByteBuffer.allocate(4 * FrameBinario.TAMANHO_TRANSACAO);
+        FrameBinario.escreverTransacao(frames, AGORA.minusSeconds(5).toEpochMilli(), 1000);
+        FrameBinario.escreverTransacao(frames, AGORA.minusSeconds(5).toEpochMilli(), -1);
+        FrameBinario.escreverTransacao(frames, AGORA.plusSeconds(60).toEpochMilli(), 500);
+        FrameBinario.escreverTransacao(frames, AGORA.minusSeconds(10).toEpochMilli(), 3050);
+
+        long[] ack = enviar(frames.array(), frames.capacity());
+
+        assertEquals(2, ack[0]);
+        assertEquals(2, ack[1]);
+        Estatistica estatistica = obterEstatisticasPort.execute();
+        assertEquals(2, estatistica.count());
+        assertEquals(0, new BigDecimal("40.50").compareTo(estatistica.sum()));
+    }
+
+    @Test
+    @DisplayName("Deve Montar Frames Partidos Entre Escritas")
+    void shouldAssembleFramesSplitAcrossWrites() throws Exception {
+        int quantidade = 1_000;
+        ByteBuffer frames = ByteBuffer.allocate(quantidade * FrameBinario.TAMANHO_TRANSACAO);
+        for (int i = 0; i < quantidade; i++) {
+            FrameBinario.escreverTransacao(frames, AGORA.minusSeconds(i % 50).toEpochMilli(), 100);
+        }
+
+        // Escritas de 7 bytes: nenhum frame chega inteiro de uma vez
+        long[] ack = enviar(frames.array(), 7);
+
+        assertEquals(quantidade, ack[0]);
+        assertEquals(0, ack[1]);
+        assertEquals(quantidade, obterEstatisticasPort.execute().count());
+    }
+
+    /** Envia os bytes em pedaços, encerra a escrita e devolve o último ack. */
+    private long[] enviar(byte[] bytes, int pedaco) throws Exception {
+        try (Socket socket = new Socket("localhost", listener.getPortaLocal())) {
+            socket.setTcpNoDelay(true);
+            OutputStream saida = socket.getOutputStream();
+            for (int i = 0; i < bytes.length; i += pedaco) {
+                saida.write(bytes, i, Math.min(pedaco, bytes.length - i));
+                saida.flush();
+            }
+            socket.shutdownOutput();
+
+            long[] ack = new long[2];
+            InputStream entrada = socket.getInputStream();
+            DataInputStream dados = new DataInputStream(entrada);
+            while (true) {
+                try {
+                    ack[0] = dados.readLong();
+                    ack[1] = dados.readLong();
+                } catch (EOFException e) {
+                    return ack;
+                }
+            }
+        }
+    }
+}
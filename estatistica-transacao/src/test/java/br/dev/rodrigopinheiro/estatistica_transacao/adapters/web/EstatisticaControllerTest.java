@@ -1,9 +1,12 @@
 package br.dev.rodrigopinheiro.estatistica_transacao.adapters.web;
 
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -22,7 +25,7 @@ import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
 import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.TransacaoRepository;
 import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.time.Relogio;
 
-@SpringBootTest
+@SpringBootTest(properties = "app.agendamento.habilitado=false")
 @AutoConfigureMockMvc
 public class EstatisticaControllerTest {
 
@@ -136,6 +139,131 @@ public class EstatisticaControllerTest {
                         """));
     }
 
+    @Test
+    @DisplayName("Deve calcular estatísticas da janela informada na consulta")
+    void shouldUseWindowFromQueryParameter() throws Exception {
+        transacaoRepository.save(new Transacao(new BigDecimal("10.00"), instanteFixo.minusSeconds(5)));
+        transacaoRepository.save(new Transacao(new BigDecimal("20.00"), instanteFixo.minusSeconds(200)));
+        transacaoRepository.save(new Transacao(new BigDecimal("40.00"), instanteFixo.minusSeconds(3000)));
+
+        mockMvc.perform(get("/estatistica").param("janela", "10"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("""
+                        {
+                            "count": 1,
+                            "sum": 10.00,
+                            "avg": 10.00,
+                            "min": 10.00,
+                            "max": 10.00
+                        }
+                        """));
+
+        mockMvc.perform(get("/estatistica").param("janela", "300"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("""
+                        {
+                            "count": 2,
+                            "sum": 30.00,
+                            "avg": 15.00,
+                            "min": 10.00,
+                            "max": 20.00
+                        }
+                        """));
+
+        mockMvc.perform(get("/estatistica").param("janela", "3600"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("""
+                        {
+                            "count": 3,
+                            "sum": 70.00,
+                            "avg": 23.33,
+                            "min": 10.00,
+                            "max": 40.00
+                        }
+                        """));
+    }
 
+    @Test
+    @DisplayName("Deve retornar 304 para If-None-Match com o ETag atual e 200 após nova transação")
+    void shouldHonorIfNoneMatchUntilRepositoryChanges() throws Exception {
+        transacaoRepository.save(new Transacao(new BigDecimal("10.00"), instanteFixo.minusSeconds(5)));
 
+        String etag = mockMvc.perform(get("/estatistica"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=1"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/estatistica").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        transacaoRepository.save(new Transacao(new BigDecimal("20.00"), instanteFixo.minusSeconds(5)));
+
+        String novoEtag = mockMvc.perform(get("/estatistica").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(content().json("""
+                        {
+                            "count": 2,
+                            "sum": 30.00,
+                            "avg": 15.00,
+                            "min": 10.00,
+                            "max": 20.00
+                        }
+                        """))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(etag, novoEtag);
+    }
+
+    @Test
+    @DisplayName("Deve contar as transações da janela em cada faixa do histograma")
+    void shouldCountWindowTransactionsPerHistogramBin() throws Exception {
+        transacaoRepository.save(new Transacao(new BigDecimal("0.005"), instanteFixo.minusSeconds(5)));
+        transacaoRepository.save(new Transacao(new BigDecimal("10.00"), instanteFixo.minusSeconds(5)));
+        transacaoRepository.save(new Transacao(new BigDecimal("19.99"), instanteFixo.minusSeconds(20)));
+        transacaoRepository.save(new Transacao(new BigDecimal("20.00"), instanteFixo.minusSeconds(40)));
+        transacaoRepository.save(new Transacao(new BigDecimal("2000000000.00"), instanteFixo.minusSeconds(59)));
+        transacaoRepository.save(new Transacao(new BigDecimal("30.00"), instanteFixo.minusSeconds(200)));
+
+        // Faixas: [0, 0.01), depois 1-2-5 a partir de 0.01; [10, 20) é a 11ª e [1e9, ∞) a última
+        mockMvc.perform(get("/estatistica/histograma"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(5))
+                .andExpect(jsonPath("$.faixas.length()").value(35))
+                .andExpect(jsonPath("$.faixas[0].de").value(0))
+                .andExpect(jsonPath("$.faixas[0].ate").value(0.01))
+                .andExpect(jsonPath("$.faixas[0].count").value(1))
+                .andExpect(jsonPath("$.faixas[10].de").value(10))
+                .andExpect(jsonPath("$.faixas[10].ate").value(20))
+                .andExpect(jsonPath("$.faixas[10].count").value(2))
+                .andExpect(jsonPath("$.faixas[11].count").value(1))
+                .andExpect(jsonPath("$.faixas[34].de").value(1000000000))
+                .andExpect(jsonPath("$.faixas[34].ate").doesNotExist())
+                .andExpect(jsonPath("$.faixas[34].count").value(1));
+
+        mockMvc.perform(get("/estatistica/histograma").param("janela", "300"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(6))
+                .andExpect(jsonPath("$.faixas[11].count").value(2));
+
+        mockMvc.perform(get("/estatistica/histograma").param("janela", "3601"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar janela fora dos limites configurados")
+    void shouldRejectWindowOutOfBounds() throws Exception {
+        mockMvc.perform(get("/estatistica").param("janela", "0"))
+                .andExpect(status().isUnprocessableEntity());
+
+        mockMvc.perform(get("/estatistica").param("janela", "3601"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @DisplayName("Deve retornar 400 para janela não numérica")
+    void shouldReturnBadRequestForNonNumericWindow() throws Exception {
+        mockMvc.perform(get("/estatistica").param("janela", "abc"))
+                .andExpect(status().isBadRequest());
+    }
 }
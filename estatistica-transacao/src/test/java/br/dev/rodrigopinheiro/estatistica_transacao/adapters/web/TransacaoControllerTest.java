@@ -3,8 +3,10 @@ package br.dev.rodrigopinheiro.estatistica_transacao.adapters.web;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 
 import java.time.Instant;
 
@@ -21,7 +23,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.time.Relogio;
 import org.springframework.http.MediaType;
 
-@SpringBootTest
+@SpringBootTest(properties = "app.agendamento.habilitado=false")
 @AutoConfigureMockMvc
 public class TransacaoControllerTest {
 
@@ -134,4 +136,133 @@ public class TransacaoControllerTest {
             .andExpect(status().isOk())
             .andExpect(content().string(""));
     }
+
+    @Test
+    @DisplayName("Deve Registrar Lote E Retornar Indices Rejeitados")
+    void shouldRegisterBatchAndReturnRejectedIndexes() throws Exception {
+        mockMvc.perform(delete("/transacao")).andExpect(status().isOk());
+
+        String jsonString = "[\n" +
+            "    {\"valor\": 10.00, \"dataHora\": \"2025-10-20T10:15:00Z\"},\n" +
+            "    {\"valor\": -1.00, \"dataHora\": \"2025-10-20T10:15:00Z\"},\n" +
+            "    {\"valor\": \"abc\", \"dataHora\": \"2025-10-20T10:15:00Z\"},\n" +
+            "    42,\n" +
+            "    {\"valor\": 30.00, \"dataHora\": \"2025-10-20T10:15:10Z\", \"extra\": {\"a\": [1, 2]}},\n" +
+            "    {\"valor\": 5.00, \"dataHora\": \"2025-10-21T10:15:00Z\"},\n" +
+            "    {\"dataHora\": \"2025-10-20T10:15:00Z\"}\n" +
+            "]";
+
+        mockMvc.perform(post("/transacao/lote")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(jsonString))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(7))
+            .andExpect(jsonPath("$.aceitas").value(2))
+            .andExpect(jsonPath("$.rejeitadas.length()").value(5))
+            .andExpect(jsonPath("$.rejeitadas[0].indice").value(1))
+            .andExpect(jsonPath("$.rejeitadas[0].codigo").value("VALOR_NEGATIVO"))
+            .andExpect(jsonPath("$.rejeitadas[1].indice").value(2))
+            .andExpect(jsonPath("$.rejeitadas[1].codigo").value("JSON_INVALID"))
+            .andExpect(jsonPath("$.rejeitadas[2].indice").value(3))
+            .andExpect(jsonPath("$.rejeitadas[2].codigo").value("JSON_INVALID"))
+            .andExpect(jsonPath("$.rejeitadas[3].indice").value(5))
+            .andExpect(jsonPath("$.rejeitadas[3].codigo").value("DATA_FUTURA"))
+            .andExpect(jsonPath("$.rejeitadas[4].indice").value(6))
+            .andExpect(jsonPath("$.rejeitadas[4].codigo").value("VALOR_INVALIDO"));
+
+        // Só as aceitas entram nas estatísticas
+        mockMvc.perform(get("/estatistica"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.count").value(2))
+            .andExpect(jsonPath("$.sum").value(40.00))
+            .andExpect(jsonPath("$.min").value(10.00))
+            .andExpect(jsonPath("$.max").value(30.00))
+            .andExpect(jsonPath("$.variance").value(100.00))
+            .andExpect(jsonPath("$.stddev").value(10.00));
+    }
+
+    @Test
+    @DisplayName("Deve Retornar 400 Quando Lote Nao For Array")
+    void shouldReturn400WhenBatchIsNotAnArray() throws Exception {
+        mockMvc.perform(post("/transacao/lote")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"valor\": 10.00, \"dataHora\": \"2025-10-20T10:15:00Z\"}"))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("Deve Retornar 400 Sem Registrar Nada Quando Lote Estiver Malformado")
+    void shouldReturn400WithoutSavingWhenBatchIsMalformed() throws Exception {
+        mockMvc.perform(delete("/transacao")).andExpect(status().isOk());
+
+        String jsonString = "[{\"valor\": 10.00, \"dataHora\": \"2025-10-20T10:15:00Z\"}, {\"valor\": ";
+
+        mockMvc.perform(post("/transacao/lote")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(jsonString))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().string(""));
+
+        mockMvc.perform(get("/estatistica"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.count").value(0));
+    }
+
+    @Test
+    @DisplayName("Deve Registrar Stream NDJSON E Retornar Totais")
+    void shouldRegisterNdjsonStreamAndReturnTotals() throws Exception {
+        mockMvc.perform(delete("/transacao")).andExpect(status().isOk());
+
+        String ndjson = "{\"valor\": 10.00, \"dataHora\": \"2025-10-20T10:15:00Z\"}\n" +
+            "{\"valor\": -1.00, \"dataHora\": \"2025-10-20T10:15:00Z\"}\r\n" +
+            "\n" +
+            "{\"valor\": \n" +
+            "[1, 2]\n" +
+            "{\"valor\": 5.00, \"dataHora\": \"2025-10-21T10:15:00Z\"}\n" +
+            "{\"valor\": 30.00, \"dataHora\": \"2025-10-20T10:15:10Z\"}";
+
+        mockMvc.perform(post("/transacao/stream")
+            .contentType("application/x-ndjson")
+            .content(ndjson))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(6))
+            .andExpect(jsonPath("$.aceitas").value(2))
+            .andExpect(jsonPath("$.rejeitadas").value(4))
+            .andExpect(jsonPath("$.rejeitadasPorCodigo.JSON_INVALID").value(2))
+            .andExpect(jsonPath("$.rejeitadasPorCodigo.VALOR_NEGATIVO").value(1))
+            .andExpect(jsonPath("$.rejeitadasPorCodigo.DATA_FUTURA").value(1));
+
+        mockMvc.perform(get("/estatistica"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.count").value(2))
+            .andExpect(jsonPath("$.sum").value(40.00));
+    }
+
+    @Test
+    @DisplayName("Deve Rejeitar Linha Grande Demais Sem Interromper O Stream")
+    void shouldRejectOversizedLineAndKeepReadingStream() throws Exception {
+        mockMvc.perform(delete("/transacao")).andExpect(status().isOk());
+
+        // Vários grupos de leitura, com uma linha acima do limite no meio
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 600; i++) {
+            ndjson.append("{\"valor\": 1.00, \"dataHora\": \"2025-10-20T10:15:00Z\"}\n");
+            if (i == 300) {
+                ndjson.append("{\"valor\": 1.00, \"extra\": \"").append("x".repeat(20_000)).append("\"}\n");
+            }
+        }
+
+        mockMvc.perform(post("/transacao/stream")
+            .contentType("application/x-ndjson")
+            .content(ndjson.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(601))
+            .andExpect(jsonPath("$.aceitas").value(600))
+            .andExpect(jsonPath("$.rejeitadasPorCodigo.JSON_INVALID").value(1));
+
+        mockMvc.perform(get("/estatistica"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.count").value(600));
+    }
 }
@@ -1,12 +1,16 @@
 package br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.math.BigDecimal;
+import java.math.MathContext;
 import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -162,6 +166,72 @@ public class BigDecimalStatisticsTest {
         assertEquals(new BigDecimal("15.25"), stats.getAvg(2, RoundingMode.HALF_UP));
     }
 
+    @Test
+    @DisplayName("Deve calcular variância e desvio padrão populacionais")
+    void shouldCalculatePopulationVarianceAndStandardDeviation() {
+        BigDecimalStatistics stats = Arrays.asList("2", "4", "4", "4", "5", "5", "7", "9").stream()
+                .collect(BigDecimalStatistics.summarizing(BigDecimal::new));
+
+        assertEquals(new BigDecimal("4.00"), stats.getVariance(2, RoundingMode.HALF_UP));
+        assertEquals(new BigDecimal("2.00"), stats.getStandardDeviation(2, RoundingMode.HALF_UP));
+        assertEquals(new BigDecimal("0.00"), new BigDecimalStatistics().getVariance(2, RoundingMode.HALF_UP));
+    }
+
+    @Test
+    @DisplayName("Deve calcular a variância igual à de duas passadas com valores grandes e pouca dispersão")
+    void shouldMatchTwoPassVarianceForLargeValuesWithSmallSpread() {
+        // Centavos de diferença em torno de um bilhão: x² tem 18 dígitos e a
+        // fórmula ingênua em double perde tudo o que importa
+        Random random = new Random(3);
+        List<BigDecimal> valores = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            valores.add(new BigDecimal("1000000000.00").add(BigDecimal.valueOf(random.nextInt(100), 2)));
+        }
+
+        BigDecimalStatistics stats = valores.stream().collect(BigDecimalStatistics.toCollector());
+        BigDecimal referencia = variancia(valores);
+
+        assertEquals(referencia.setScale(6, RoundingMode.HALF_UP), stats.getVariance(6, RoundingMode.HALF_UP));
+        assertEquals(referencia.sqrt(MathContext.DECIMAL128).setScale(6, RoundingMode.HALF_UP),
+                stats.getStandardDeviation(6, RoundingMode.HALF_UP));
+
+        double soma = 0;
+        double somaQuadrados = 0;
+        for (BigDecimal valor : valores) {
+            soma += valor.doubleValue();
+            somaQuadrados += valor.doubleValue() * valor.doubleValue();
+        }
+        double media = soma / valores.size();
+        double ingenua = somaQuadrados / valores.size() - media * media;
+        assertTrue(Math.abs(ingenua - referencia.doubleValue()) > 1,
+                "a fórmula ingênua em double deveria errar: " + ingenua);
+    }
+
+    @Test
+    @DisplayName("Deve combinar partes com a mesma variância de uma passada só")
+    void shouldCombineChunksWithSameVarianceAsSinglePass() {
+        Random random = new Random(11);
+        BigDecimalStatistics unica = new BigDecimalStatistics();
+        BigDecimalStatistics combinada = new BigDecimalStatistics();
+        BigDecimalStatistics parte = new BigDecimalStatistics();
+
+        for (int i = 0; i < 5_000; i++) {
+            BigDecimal valor = BigDecimal.valueOf(random.nextLong(1_000_000_000_000L), random.nextInt(4));
+            unica.accept(valor);
+            parte.accept(valor);
+            if (random.nextInt(50) == 0) {
+                combinada.combine(parte);
+                parte = new BigDecimalStatistics();
+            }
+        }
+        combinada.combine(parte);
+
+        assertEquals(0, unica.getSumOfSquares().compareTo(combinada.getSumOfSquares()));
+        assertEquals(unica.getVariance(4, RoundingMode.HALF_UP), combinada.getVariance(4, RoundingMode.HALF_UP));
+        assertEquals(unica.getStandardDeviation(4, RoundingMode.HALF_UP),
+                combinada.getStandardDeviation(4, RoundingMode.HALF_UP));
+    }
+
     @Test
     @DisplayName("Deve lidar com valores muito grandes")
     void shouldHandleVeryLargeValues() {
@@ -174,4 +244,16 @@ public class BigDecimalStatisticsTest {
         assertEquals(largeValue, stats.getMin());
         assertEquals(largeValue, stats.getMax());
     }
+
+    /** Variância populacional de referência: a média primeiro, os desvios depois. */
+    private static BigDecimal variancia(List<BigDecimal> valores) {
+        BigDecimal n = BigDecimal.valueOf(valores.size());
+        BigDecimal media = valores.stream().reduce(BigDecimal.ZERO, BigDecimal::add).divide(n, MathContext.DECIMAL128);
+        BigDecimal desvios = BigDecimal.ZERO;
+        for (BigDecimal valor : valores) {
+            BigDecimal desvio = valor.subtract(media);
+            desvios = desvios.add(desvio.multiply(desvio));
+        }
+        return desvios.divide(n, MathContext.DECIMAL128);
+    }
 }
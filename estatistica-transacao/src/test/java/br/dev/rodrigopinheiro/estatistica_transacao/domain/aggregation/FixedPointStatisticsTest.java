@@ -0,0 +1,171 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+public class FixedPointStatisticsTest {
+
+    private static final int ESCALA = 2;
+
+    @Test
+    @DisplayName("Deve inicializar com os mesmos valores do BigDecimalStatistics")
+    void shouldInitializeLikeBigDecimalStatistics() {
+        assertSameOutput(new BigDecimalStatistics(), new FixedPointStatistics(ESCALA));
+    }
+
+    @Test
+    @DisplayName("Deve converter e reconstruir valores mantendo a escala original")
+    void shouldConvertAndRebuildKeepingOriginalScale() {
+        assertEquals(12345, FixedPoint.toScaled(new BigDecimal("123.45"), ESCALA));
+        assertEquals(12340, FixedPoint.toScaled(new BigDecimal("123.4"), ESCALA));
+        assertEquals(100000, FixedPoint.toScaled(new BigDecimal("1E+3"), ESCALA));
+        assertEquals(FixedPoint.NOT_REPRESENTABLE, FixedPoint.toScaled(new BigDecimal("0.001"), ESCALA));
+        assertEquals(FixedPoint.NOT_REPRESENTABLE, FixedPoint.toScaled(new BigDecimal("1E+17"), ESCALA));
+        assertEquals(FixedPoint.NOT_REPRESENTABLE, FixedPoint.toScaled(null, ESCALA));
+
+        assertEquals("123.4", FixedPoint.toBigDecimal(12340, ESCALA, 1).toString());
+        assertEquals("1E+3", FixedPoint.toBigDecimal(100000, ESCALA, -3).toString());
+    }
+
+    @Test
+    @DisplayName("Deve produzir saída idêntica ao BigDecimalStatistics com escalas variadas")
+    void shouldMatchBigDecimalStatisticsWithMixedScales() {
+        Random random = new Random(42);
+
+        for (int rodada = 0; rodada < 200; rodada++) {
+            BigDecimalStatistics esperado = new BigDecimalStatistics();
+            FixedPointStatistics obtido = new FixedPointStatistics(ESCALA);
+
+            for (BigDecimal valor : valoresAleatorios(random, 1 + random.nextInt(50), 2)) {
+                esperado.accept(valor);
+                obtido.accept(FixedPoint.toScaled(valor, ESCALA), valor);
+            }
+
+            assertTrue(obtido.isFixedPoint());
+            assertSameOutput(esperado, obtido);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve migrar para BigDecimal quando o valor não é representável")
+    void shouldFallBackToBigDecimalForNonRepresentableValues() {
+        BigDecimalStatistics esperado = new BigDecimalStatistics();
+        FixedPointStatistics obtido = new FixedPointStatistics(ESCALA);
+
+        for (String texto : List.of("10.00", "5.5", "0.125", "7", "3.333")) {
+            BigDecimal valor = new BigDecimal(texto);
+            esperado.accept(valor);
+            obtido.accept(FixedPoint.toScaled(valor, ESCALA), valor);
+        }
+
+        assertFalse(obtido.isFixedPoint());
+        assertSameOutput(esperado, obtido);
+    }
+
+    @Test
+    @DisplayName("Deve migrar para BigDecimal quando a soma estoura o long")
+    void shouldFallBackToBigDecimalOnOverflow() {
+        BigDecimalStatistics esperado = new BigDecimalStatistics();
+        FixedPointStatistics obtido = new FixedPointStatistics(ESCALA);
+        BigDecimal grande = new BigDecimal("9999999999999999.99");
+
+        for (int i = 0; i < 10; i++) {
+            esperado.accept(grande);
+            obtido.accept(FixedPoint.toScaled(grande, ESCALA), grande);
+        }
+
+        assertFalse(obtido.isFixedPoint());
+        assertSameOutput(esperado, obtido);
+    }
+
+    @Test
+    @DisplayName("Deve acumular a soma dos quadrados em 128 bits sem migrar para BigDecimal")
+    void shouldAccumulateSquaresIn128Bits() {
+        BigDecimalStatistics esperado = new BigDecimalStatistics();
+        FixedPointStatistics obtido = new FixedPointStatistics(ESCALA);
+
+        // Cada quadrado escalado passa de 2^63, mas a soma cabe no long
+        for (int i = 0; i < 1_000; i++) {
+            BigDecimal valor = new BigDecimal("50000000000.00").add(BigDecimal.valueOf(i, 2));
+            esperado.accept(valor);
+            obtido.accept(FixedPoint.toScaled(valor, ESCALA), valor);
+        }
+
+        assertTrue(obtido.isFixedPoint());
+        assertSameOutput(esperado, obtido);
+    }
+
+    @Test
+    @DisplayName("Deve combinar acumuladores em ponto fixo e em BigDecimal")
+    void shouldCombineFixedAndDecimalAccumulators() {
+        Random random = new Random(7);
+
+        for (int rodada = 0; rodada < 100; rodada++) {
+            BigDecimalStatistics esperado = new BigDecimalStatistics();
+            FixedPointStatistics esquerda = new FixedPointStatistics(ESCALA);
+            FixedPointStatistics direita = new FixedPointStatistics(ESCALA);
+
+            // Escala até 3: parte dos valores não é representável
+            for (BigDecimal valor : valoresAleatorios(random, random.nextInt(20), 3)) {
+                esperado.accept(valor);
+                esquerda.accept(FixedPoint.toScaled(valor, ESCALA), valor);
+            }
+            for (BigDecimal valor : valoresAleatorios(random, random.nextInt(20), 2)) {
+                esperado.accept(valor);
+                direita.accept(FixedPoint.toScaled(valor, ESCALA), valor);
+            }
+
+            esquerda.combine(direita);
+            assertSameOutput(esperado, esquerda);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve funcionar como collector")
+    void shouldWorkAsCollector() {
+        List<BigDecimal> valores = List.of(new BigDecimal("100.00"), new BigDecimal("200.00"), new BigDecimal("50.00"));
+
+        FixedPointStatistics result = valores.stream()
+                .collect(FixedPointStatistics.summarizing(ESCALA, v -> FixedPoint.toScaled(v, ESCALA), v -> v));
+
+        assertEquals(3, result.getCount());
+        assertEquals("350.00", result.getSum().toString());
+        assertEquals("116.67", result.getAvg(2, RoundingMode.HALF_UP).toString());
+    }
+
+    private List<BigDecimal> valoresAleatorios(Random random, int quantidade, int escalaMaxima) {
+        List<BigDecimal> valores = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            int escala = random.nextInt(escalaMaxima + 1);
+            valores.add(BigDecimal.valueOf(random.nextInt(1_000_000), escala));
+        }
+        return valores;
+    }
+
+    private void assertSameOutput(BigDecimalStatistics esperado, FixedPointStatistics obtido) {
+        // toString compara também a escala, que é o que aparece no JSON
+        assertEquals(esperado.getCount(), obtido.getCount());
+        assertEquals(esperado.getSum().toString(), obtido.getSum().toString());
+        assertEquals(esperado.getMin().toString(), obtido.getMin().toString());
+        assertEquals(esperado.getMax().toString(), obtido.getMax().toString());
+        assertEquals(esperado.getAvg(2, RoundingMode.HALF_UP).toString(),
+                obtido.getAvg(2, RoundingMode.HALF_UP).toString());
+        assertEquals(0, esperado.getSumOfSquares().compareTo(obtido.getSumOfSquares()));
+        assertEquals(esperado.getVariance(2, RoundingMode.HALF_UP).toString(),
+                obtido.getVariance(2, RoundingMode.HALF_UP).toString());
+        assertEquals(esperado.getStandardDeviation(2, RoundingMode.HALF_UP).toString(),
+                obtido.getStandardDeviation(2, RoundingMode.HALF_UP).toString());
+    }
+}
@@ -0,0 +1,60 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class LogHistogramTest {
+
+    @Test
+    @DisplayName("Deve colocar cada valor na faixa que inclui o limite inferior e exclui o superior")
+    void shouldPlaceValuesInHalfOpenBins() {
+        assertEquals(35, LogHistogram.BIN_COUNT);
+        assertEquals(0, LogHistogram.binOf(0));
+        assertEquals(0, LogHistogram.binOf(0.009));
+        assertEquals(0, LogHistogram.binOf(-5));
+        assertEquals(LogHistogram.BIN_COUNT - 1, LogHistogram.binOf(1e9));
+        assertEquals(LogHistogram.BIN_COUNT - 1, LogHistogram.binOf(1e20));
+        assertNull(LogHistogram.upperBound(LogHistogram.BIN_COUNT - 1));
+
+        for (int faixa = 1; faixa < LogHistogram.BIN_COUNT; faixa++) {
+            BigDecimal limite = LogHistogram.lowerBound(faixa);
+            // O limite como chega de uma transação, com centavos, e o valor logo abaixo dele
+            assertEquals(faixa, LogHistogram.binOf(limite.setScale(Math.max(2, limite.scale())).doubleValue()),
+                    "limite " + limite);
+            assertEquals(faixa - 1, LogHistogram.binOf(limite.subtract(new BigDecimal("0.001")).doubleValue()),
+                    "abaixo de " + limite);
+            assertEquals(limite, LogHistogram.upperBound(faixa - 1));
+        }
+        assertEquals("1000000000", LogHistogram.lowerBound(LogHistogram.BIN_COUNT - 1).toPlainString());
+        assertEquals("0.05", LogHistogram.lowerBound(3).toString());
+    }
+
+    @Test
+    @DisplayName("Deve combinar histogramas somando as contagens de cada faixa")
+    void shouldMergeByAddingCounts() {
+        Random random = new Random(23);
+        LogHistogram todos = new LogHistogram();
+        LogHistogram primeiro = new LogHistogram();
+        LogHistogram segundo = new LogHistogram();
+        for (int i = 0; i < 10_000; i++) {
+            double valor = random.nextInt(100_000_000) / 100.0;
+            todos.accept(valor);
+            (i % 2 == 0 ? primeiro : segundo).accept(valor);
+        }
+
+        primeiro.merge(segundo);
+
+        assertEquals(10_000, primeiro.getCount());
+        for (int faixa = 0; faixa < LogHistogram.BIN_COUNT; faixa++) {
+            assertEquals(todos.getCount(faixa), primeiro.getCount(faixa), "faixa " + faixa);
+        }
+    }
+}
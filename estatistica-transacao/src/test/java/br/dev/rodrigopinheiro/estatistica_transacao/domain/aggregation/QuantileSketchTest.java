@@ -0,0 +1,69 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class QuantileSketchTest {
+
+    private static final double[] QUANTIS = {0, 0.01, 0.25, 0.5, 0.9, 0.99, 0.999, 1};
+
+    @Test
+    @DisplayName("Deve estimar cada quantil com erro relativo de no máximo 1%")
+    void shouldEstimateWithinRelativeAccuracy() {
+        Random random = new Random(7);
+        double[] valores = new double[100_000];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < valores.length; i++) {
+            // Cauda longa, de centavos a milhões
+            valores[i] = Math.round(Math.exp(random.nextGaussian() * 3 + 4) * 100) / 100.0;
+            sketch.accept(valores[i]);
+        }
+        Arrays.sort(valores);
+
+        for (double q : QUANTIS) {
+            double exato = valores[(int) Math.floor(q * (valores.length - 1))];
+            double estimado = sketch.quantile(q);
+            assertTrue(Math.abs(estimado - exato) <= QuantileSketch.RELATIVE_ACCURACY * exato + 1e-9,
+                    "q=" + q + ": estimado " + estimado + ", exato " + exato);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve combinar em qualquer ordem e subtrair o que foi combinado")
+    void shouldMergeInAnyOrderAndSubtract() {
+        Random random = new Random(8);
+        QuantileSketch todos = new QuantileSketch();
+        QuantileSketch primeiro = new QuantileSketch();
+        QuantileSketch segundo = new QuantileSketch();
+        for (int i = 0; i < 10_000; i++) {
+            // Inclui zero e valores fora da faixa indexada, que caem nos bins das pontas
+            double valor = i % 1000 == 0 ? 0 : i % 1000 == 1 ? 1e-9 : i % 1000 == 2 ? 1e20
+                    : random.nextInt(1_000_000) / 100.0;
+            todos.accept(valor);
+            (i % 3 == 0 ? primeiro : segundo).accept(valor);
+        }
+
+        QuantileSketch combinado = new QuantileSketch();
+        combinado.merge(segundo);
+        combinado.merge(primeiro);
+        for (double q : QUANTIS) {
+            assertEquals(todos.quantile(q), combinado.quantile(q), "q=" + q);
+        }
+
+        combinado.subtract(segundo);
+        assertEquals(primeiro.getCount(), combinado.getCount());
+        for (double q : QUANTIS) {
+            assertEquals(primeiro.quantile(q), combinado.quantile(q), "q=" + q);
+        }
+        assertEquals(0, todos.quantile(0));
+        assertEquals(QuantileSketch.valueOf(QuantileSketch.MAX_INDEX), todos.quantile(1));
+    }
+}
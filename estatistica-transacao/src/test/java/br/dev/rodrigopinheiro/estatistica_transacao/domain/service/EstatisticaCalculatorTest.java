@@ -0,0 +1,66 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.domain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+
+@SpringBootTest
+class EstatisticaCalculatorTest {
+
+    private static final int ESCALA = 2;
+    private static final Instant AGORA = Instant.parse("2025-10-20T12:15:30Z");
+
+    private final EstatisticaCalculator sequencial = new EstatisticaCalculator(ESCALA);
+
+    @Test
+    @DisplayName("Deve agregar em paralelo com resultado idêntico ao sequencial")
+    void shouldMatchSequentialWhenAggregatingInParallel() {
+        Random random = new Random(23);
+        try (EstatisticaCalculator paralelo = new EstatisticaCalculator(ESCALA, 1_000, 64, 4)) {
+            for (int rodada = 0; rodada < 20; rodada++) {
+                List<Transacao> transacoes = new ArrayList<>();
+                int quantidade = 1_000 + random.nextInt(20_000);
+                for (int i = 0; i < quantidade; i++) {
+                    transacoes.add(transacao(random));
+                }
+
+                assertEquals(sequencial.calcular(transacoes), paralelo.calcular(transacoes));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Deve migrar para BigDecimal em um bloco sem afetar os demais")
+    void shouldFallBackToBigDecimalInsideOneChunk() {
+        List<Transacao> transacoes = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            transacoes.add(Transacao.comPontoFixo(new BigDecimal("9999999999999999.99"), AGORA, ESCALA));
+        }
+        transacoes.add(2_500, new Transacao(new BigDecimal("0.001"), AGORA));
+
+        try (EstatisticaCalculator paralelo = new EstatisticaCalculator(ESCALA, 1, 100, 4)) {
+            assertEquals(sequencial.calcular(transacoes), paralelo.calcular(transacoes));
+            // Sem acesso aleatório a lista segue pelo caminho sequencial
+            assertEquals(sequencial.calcular(transacoes), paralelo.calcular(new LinkedList<>(transacoes)));
+        }
+    }
+
+    private static Transacao transacao(Random random) {
+        BigDecimal valor = random.nextInt(200) == 0
+                ? new BigDecimal("0.001")
+                : BigDecimal.valueOf(random.nextInt(1_000_000), random.nextInt(3));
+        // Parte já convertida para o ponto fixo, como as que vêm do repositório
+        return random.nextBoolean() ? Transacao.comPontoFixo(valor, AGORA, ESCALA) : new Transacao(valor, AGORA);
+    }
+}
@@ -0,0 +1,99 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.bucket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Estatistica;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository.BucketTransacaoRepository;
+
+@SpringBootTest
+class ArvoreSegmentosTest {
+
+    private static final int MAX_JANELA = 100;
+    private static final int ESCALA = 2;
+    private static final long INICIO = Instant.parse("2025-10-20T12:00:00Z").getEpochSecond();
+
+    @Test
+    @DisplayName("Deve calcular janelas diferentes sobre os mesmos buckets")
+    void shouldAnswerDifferentWindows() {
+        BucketTransacaoRepository repo = new BucketTransacaoRepository(ESCALA, 0, MAX_JANELA, 0, false);
+        long agora = INICIO + 1_000;
+        salvar(repo, "10.00", agora - 5);
+        salvar(repo, "20.00", agora - 30);
+        salvar(repo, "40.00", agora - 90);
+
+        assertEquals(new Estatistica(1, new BigDecimal("10.00"), new BigDecimal("10.00"),
+                new BigDecimal("10.00"), new BigDecimal("10.00"),
+                new BigDecimal("0.00"), new BigDecimal("0.00")), calcular(repo, agora, 10));
+        assertEquals(new Estatistica(2, new BigDecimal("30.00"), new BigDecimal("15.00"),
+                new BigDecimal("10.00"), new BigDecimal("20.00"),
+                new BigDecimal("25.00"), new BigDecimal("5.00")), calcular(repo, agora, 60));
+        assertEquals(new Estatistica(3, new BigDecimal("70.00"), new BigDecimal("23.33"),
+                new BigDecimal("10.00"), new BigDecimal("40.00"),
+                new BigDecimal("155.56"), new BigDecimal("12.47")), calcular(repo, agora, MAX_JANELA));
+    }
+
+    @Test
+    @DisplayName("Deve produzir o mesmo resultado que percorrer os buckets para qualquer janela")
+    void shouldMatchBucketWalkForAnyWindow() {
+        Random random = new Random(99);
+        BucketTransacaoRepository arvore = new BucketTransacaoRepository(ESCALA, 0, MAX_JANELA, 0, false);
+        BucketTransacaoRepository percorrendo = new BucketTransacaoRepository(ESCALA, 0, 0, 0, false);
+        long fim = INICIO;
+
+        for (int passo = 0; passo < 5_000; passo++) {
+            int escritas = random.nextInt(4);
+            for (int i = 0; i < escritas; i++) {
+                long segundo = fim - MAX_JANELA - 3 + random.nextInt(MAX_JANELA + 6);
+                Transacao transacao = new Transacao(valorAleatorio(random), Instant.ofEpochSecond(segundo));
+                arvore.save(transacao);
+                percorrendo.save(transacao);
+            }
+
+            int sorteio = random.nextInt(100);
+            if (sorteio < 60) {
+                fim += random.nextInt(3);
+            } else if (sorteio < 62) {
+                fim += MAX_JANELA + random.nextInt(MAX_JANELA);
+            } else if (sorteio < 64) {
+                fim -= random.nextInt(10);
+            } else if (sorteio < 66) {
+                Instant limite = Instant.ofEpochSecond(fim - random.nextInt(MAX_JANELA));
+                arvore.deleteBefore(limite);
+                percorrendo.deleteBefore(limite);
+            }
+
+            // Janelas de todos os tamanhos, inclusive as que dão a volta no anel de folhas
+            int janela = 1 + random.nextInt(MAX_JANELA);
+            assertEquals(calcular(percorrendo, fim, janela), calcular(arvore, fim, janela),
+                    "passo " + passo + ", janela " + janela);
+        }
+    }
+
+    private static BigDecimal valorAleatorio(Random random) {
+        // Mistura escalas, inclusive valores que não cabem no ponto fixo, e empates
+        return switch (random.nextInt(4)) {
+            case 0 -> BigDecimal.valueOf(random.nextInt(100));
+            case 1 -> BigDecimal.valueOf(random.nextInt(10_000), 1);
+            case 2 -> BigDecimal.valueOf(random.nextInt(100_000), 3);
+            default -> BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+        };
+    }
+
+    private static void salvar(BucketTransacaoRepository repo, String valor, long segundo) {
+        repo.save(new Transacao(new BigDecimal(valor), Instant.ofEpochSecond(segundo)));
+    }
+
+    private static Estatistica calcular(BucketTransacaoRepository repo, long fimSegundo, int janela) {
+        return repo.calcularEstatisticasEntre(Instant.ofEpochSecond(fimSegundo - janela),
+                Instant.ofEpochSecond(fimSegundo));
+    }
+}
@@ -0,0 +1,194 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.bucket;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.aggregation.QuantileSketch;
+
+@SpringBootTest
+class BucketConcorrenteTest {
+
+    @Test
+    @DisplayName("Deve iniciar vazio")
+    void shouldStartEmpty() {
+        BucketConcorrente bucket = new BucketConcorrente();
+
+        BucketEstatistica snapshot = bucket.snapshot();
+
+        assertTrue(bucket.isEmpty());
+        assertEquals(0, snapshot.getCount());
+        assertEquals(BigDecimal.ZERO, snapshot.getSum());
+        assertEquals(BigDecimal.ZERO, snapshot.getMin());
+        assertEquals(BigDecimal.ZERO, snapshot.getMax());
+    }
+
+    @Test
+    @DisplayName("Deve acumular em sequência igual ao BucketEstatistica")
+    void shouldMatchBucketEstatisticaSequentially() {
+        BucketConcorrente concorrente = new BucketConcorrente();
+        BucketEstatistica sequencial = new BucketEstatistica();
+
+        for (String valor : List.of("100.00", "200.00", "50.00", "0.01", "999.99")) {
+            concorrente.addTransacao(new BigDecimal(valor));
+            sequencial.addTransacao(new BigDecimal(valor));
+        }
+
+        BucketEstatistica snapshot = concorrente.snapshot();
+        assertEquals(sequencial.getCount(), snapshot.getCount());
+        assertEquals(sequencial.getSum(), snapshot.getSum());
+        assertEquals(sequencial.getMin(), snapshot.getMin());
+        assertEquals(sequencial.getMax(), snapshot.getMax());
+        assertEquals(sequencial.getAvg(), snapshot.getAvg());
+    }
+
+    @Test
+    @DisplayName("Não deve perder atualizações com várias threads no mesmo segundo")
+    void shouldNotLoseUpdatesUnderContention() throws Exception {
+        int threads = 32;
+        int porThread = 20_000;
+        BucketConcorrente bucket = new BucketConcorrente();
+
+        executarConcorrente(threads, porThread, bucket);
+
+        // Thread t registra os valores t*porThread + 1 ... (t+1)*porThread (em centavos)
+        long n = (long) threads * porThread;
+        BigDecimal somaEsperada = BigDecimal.valueOf(n * (n + 1) / 2, 2);
+
+        BucketEstatistica snapshot = bucket.snapshot();
+        assertEquals(n, snapshot.getCount());
+        assertEquals(n, bucket.getCount());
+        assertEquals(somaEsperada, snapshot.getSum());
+        assertEquals(new BigDecimal("0.01"), snapshot.getMin());
+        assertEquals(BigDecimal.valueOf(n, 2), snapshot.getMax());
+    }
+
+    @Test
+    @DisplayName("Deve somar os quantis de todas as células com várias threads no mesmo segundo")
+    void shouldMergeQuantilesFromAllCellsUnderContention() throws Exception {
+        int threads = 32;
+        int porThread = 20_000;
+        BucketConcorrente bucket = new BucketConcorrente(2, true);
+
+        executar(threads, porThread, bucket::addTransacao);
+
+        QuantileSketch esperado = new QuantileSketch();
+        long n = (long) threads * porThread;
+        for (long v = 1; v <= n; v++) {
+            esperado.accept(BigDecimal.valueOf(v, 2).doubleValue());
+        }
+        QuantileSketch quantis = bucket.snapshot().getQuantis();
+        assertEquals(n, quantis.getCount());
+        List<long[]> binsEsperados = new ArrayList<>();
+        esperado.forEachBin((indice, contagem) -> binsEsperados.add(new long[] { indice, contagem }));
+        List<long[]> bins = new ArrayList<>();
+        quantis.forEachBin((indice, contagem) -> bins.add(new long[] { indice, contagem }));
+        assertEquals(binsEsperados.size(), bins.size());
+        for (int i = 0; i < bins.size(); i++) {
+            assertArrayEquals(binsEsperados.get(i), bins.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Deve ler a soma dos quadrados consistente durante as escritas")
+    void shouldReadConsistentSumOfSquaresWhileWriting() throws Exception {
+        // Escalado perto de 2^30: o quadrado passa de 2^60 e a parte baixa dá a volta a cada 16 valores
+        lerDuranteEscritas(4, 200_000, new BigDecimal("10737418.25"));
+    }
+
+    @Test
+    @DisplayName("Deve concluir as escritas e somar os quadrados com mais threads que processadores")
+    void shouldSumSquaresWithMoreWritersThanCores() throws Exception {
+        int threads = Math.max(8, 4 * Runtime.getRuntime().availableProcessors());
+        // Escalado acima de 2^43: o quadrado ocupa também a fatia de 2^64 a 2^96
+        lerDuranteEscritas(threads, 20_000, new BigDecimal("123456789012.34"));
+    }
+
+    /**
+     * Escreve o mesmo valor em várias threads enquanto lê snapshots. Cada leitura
+     * precisa ter pelo menos os quadrados das transações já contadas e no máximo
+     * os das contadas depois dela mais uma em andamento por thread; um vai-um
+     * perdido entre as palavras deixaria 2^64 a menos.
+     */
+    private void lerDuranteEscritas(int threads, int porThread, BigDecimal valor) throws Exception {
+        BigInteger quadrado = valor.unscaledValue().pow(2);
+        BucketConcorrente bucket = new BucketConcorrente();
+
+        Thread escritores = new Thread(() -> {
+            try {
+                executar(threads, porThread, v -> bucket.addTransacao(valor));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        escritores.start();
+        int leituras = 0;
+        while (escritores.isAlive() || leituras == 0) {
+            BucketEstatistica snapshot = bucket.snapshot();
+            long countDepois = bucket.getCount();
+            BigInteger quadrados = snapshot.getSomaQuadrados().movePointRight(4).toBigIntegerExact();
+            assertTrue(quadrados.compareTo(quadrado.multiply(BigInteger.valueOf(snapshot.getCount()))) >= 0,
+                    "quadrados " + quadrados + " com count " + snapshot.getCount());
+            assertTrue(quadrados.compareTo(quadrado.multiply(BigInteger.valueOf(countDepois + threads))) <= 0,
+                    "quadrados " + quadrados + " com count " + countDepois + " depois da leitura");
+            leituras++;
+        }
+        escritores.join();
+
+        BucketEstatistica snapshot = bucket.snapshot();
+        long n = (long) threads * porThread;
+        assertEquals(n, snapshot.getCount());
+        assertEquals(new BigDecimal(quadrado.multiply(BigInteger.valueOf(n)), 4), snapshot.getSomaQuadrados());
+        assertEquals(new BigDecimal("0.00"), snapshot.getVariancia());
+    }
+
+    private long executarConcorrente(int threads, int porThread, BucketConcorrente bucket) throws Exception {
+        return executar(threads, porThread, valor -> bucket.addTransacao(valor));
+    }
+
+    private long executar(int threads, int porThread, Consumer<BigDecimal> registrar)
+            throws Exception {
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Thread> trabalhadores = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            long primeiro = (long) t * porThread + 1;
+            // Valores pré-criados para medir apenas o registro
+            BigDecimal[] valores = new BigDecimal[porThread];
+            for (int i = 0; i < porThread; i++) {
+                valores[i] = BigDecimal.valueOf(primeiro + i, 2);
+            }
+            Thread trabalhador = new Thread(() -> {
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (BigDecimal valor : valores) {
+                    registrar.accept(valor);
+                }
+            });
+            trabalhador.start();
+            trabalhadores.add(trabalhador);
+        }
+
+        long inicio = System.nanoTime();
+        largada.countDown();
+        for (Thread trabalhador : trabalhadores) {
+            trabalhador.join();
+        }
+        return System.nanoTime() - inicio;
+    }
+}
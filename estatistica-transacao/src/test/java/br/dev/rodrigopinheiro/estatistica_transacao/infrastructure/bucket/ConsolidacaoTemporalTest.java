@@ -0,0 +1,120 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.bucket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Estatistica;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository.BucketTransacaoRepository;
+
+@SpringBootTest
+class ConsolidacaoTemporalTest {
+
+    private static final int MAX_JANELA = 60;
+    private static final int MINUTOS_RETIDOS = 120;
+    private static final int ESCALA = 2;
+    private static final long INICIO = Instant.parse("2025-10-20T12:00:00Z").getEpochSecond();
+
+    @Test
+    @DisplayName("Deve manter só os segundos recentes e consolidar o restante em minutos e horas")
+    void shouldRollUpOldSecondsIntoMinutesAndHours() {
+        BucketTransacaoRepository repo = new BucketTransacaoRepository(ESCALA, 0, MAX_JANELA, MINUTOS_RETIDOS, false);
+        int horas = 6;
+        for (long segundo = INICIO; segundo < INICIO + horas * 3600L; segundo++) {
+            salvar(repo, "1.00", segundo);
+        }
+
+        // Janela máxima + folga em segundos, a retenção em minutos e uma hora por hora
+        assertTrue(repo.getBucketCount() <= MAX_JANELA + 2 * 60 + 5, "segundos: " + repo.getBucketCount());
+        assertTrue(repo.getMinutoCount() <= MINUTOS_RETIDOS + 60, "minutos: " + repo.getMinutoCount());
+        assertEquals(horas - 1, repo.getHoraCount());
+
+        Estatistica total = calcular(repo, INICIO, INICIO + horas * 3600L - 1);
+        assertEquals(horas * 3600L, total.count());
+        assertEquals(new BigDecimal("21600.00"), total.sum());
+    }
+
+    @Test
+    @DisplayName("Deve produzir o mesmo resultado que percorrer todos os segundos")
+    void shouldMatchBucketWalk() {
+        Random random = new Random(7);
+        BucketTransacaoRepository consolidado = new BucketTransacaoRepository(ESCALA, 0, MAX_JANELA, MINUTOS_RETIDOS, false);
+        BucketTransacaoRepository percorrendo = new BucketTransacaoRepository(ESCALA, 0, 0, 0, false);
+        long fim = INICIO;
+
+        for (int passo = 0; passo < 20_000; passo++) {
+            int escritas = random.nextInt(3);
+            for (int i = 0; i < escritas; i++) {
+                long segundo = fim - random.nextInt(10);
+                int sorteio = random.nextInt(100);
+                if (sorteio < 5) {
+                    // Atrasada: minuto já consolidado, mas com os segundos retidos
+                    segundo = fim - 60 - random.nextInt(MAX_JANELA);
+                } else if (sorteio < 7) {
+                    // Muito atrasada: já fora dos segundos retidos
+                    segundo = fim - 200 - random.nextInt(4 * 3600);
+                }
+                Transacao transacao = new Transacao(valorAleatorio(random), Instant.ofEpochSecond(segundo));
+                consolidado.save(transacao);
+                percorrendo.save(transacao);
+            }
+            fim += random.nextInt(2);
+
+            if (passo % 50 == 0) {
+                // Dentro dos segundos retidos o resultado é exato para qualquer intervalo
+                long inicio = fim - random.nextInt(MAX_JANELA + 60);
+                assertEquals(calcular(percorrendo, inicio, fim), calcular(consolidado, inicio, fim),
+                        "passo " + passo);
+
+                // Mais para trás, dentro dos minutos retidos, intervalos alinhados ao minuto
+                long inicioMinuto = Math.floorDiv(fim - random.nextInt((MINUTOS_RETIDOS - 60) * 60), 60) * 60;
+                assertEquals(calcular(percorrendo, inicioMinuto, fim), calcular(consolidado, inicioMinuto, fim),
+                        "passo " + passo + ", desde " + inicioMinuto);
+
+                // E horas inteiras
+                long inicioHora = Math.floorDiv(fim, 3600) * 3600 - 3600 * (1 + random.nextInt(4));
+                assertEquals(calcular(percorrendo, inicioHora, inicioHora + 3599),
+                        calcular(consolidado, inicioHora, inicioHora + 3599), "passo " + passo + ", hora " + inicioHora);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Deve recalcular o minuto e a hora ao descartar dados antigos")
+    void shouldRecomputeRollupsOnDeleteBefore() {
+        // Segundos retidos por uma hora: o minuto cortado pelo limite ainda pode ser recalculado
+        BucketTransacaoRepository repo = new BucketTransacaoRepository(ESCALA, 0, 3600, MINUTOS_RETIDOS, false);
+        salvar(repo, "10.00", INICIO + 10);
+        salvar(repo, "20.00", INICIO + 50);
+        salvar(repo, "30.00", INICIO + 70);
+        // Avança o suficiente para consolidar a primeira hora
+        salvar(repo, "1.00", INICIO + 3600 + 10);
+
+        repo.deleteBefore(Instant.ofEpochSecond(INICIO + 30));
+
+        assertEquals(new Estatistica(2, new BigDecimal("50.00"), new BigDecimal("25.00"),
+                new BigDecimal("20.00"), new BigDecimal("30.00"),
+                new BigDecimal("25.00"), new BigDecimal("5.00")), calcular(repo, INICIO - 10, INICIO + 3599));
+    }
+
+    private static BigDecimal valorAleatorio(Random random) {
+        // Uma única escala: empates entre valores iguais não dependem de qual segundo vence
+        return BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+    }
+
+    private static void salvar(BucketTransacaoRepository repo, String valor, long segundo) {
+        repo.save(new Transacao(new BigDecimal(valor), Instant.ofEpochSecond(segundo)));
+    }
+
+    private static Estatistica calcular(BucketTransacaoRepository repo, long inicioSegundo, long fimSegundo) {
+        return repo.calcularEstatisticasEntre(Instant.ofEpochSecond(inicioSegundo), Instant.ofEpochSecond(fimSegundo));
+    }
+}
@@ -0,0 +1,213 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.bucket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Estatistica;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository.BucketTransacaoRepository;
+
+@SpringBootTest
+class JanelaDeslizanteTest {
+
+    private static final int JANELA = 60;
+    private static final int ESCALA = 2;
+    private static final long INICIO = Instant.parse("2025-10-20T12:00:00Z").getEpochSecond();
+
+    @Test
+    @DisplayName("Deve retornar estatísticas zeradas sem transações")
+    void shouldReturnZeroStatisticsWhenEmpty() {
+        BucketTransacaoRepository repo = new BucketTransacaoRepository(ESCALA, JANELA, 0, 0, false);
+
+        Estatistica stats = calcular(repo, INICIO);
+
+        assertEquals(Estatistica.vazia(), stats);
+    }
+
+    @Test
+    @DisplayName("Deve remover os segundos que saem da janela")
+    void shouldEvictSecondsLeavingTheWindow() {
+        BucketTransacaoRepository repo = new BucketTransacaoRepository(ESCALA, JANELA, 0, 0, false);
+        salvar(repo, "10.00", INICIO);
+        salvar(repo, "5.00", INICIO + 1);
+        salvar(repo, "20.00", INICIO + 2);
+
+        assertEquals(new Estatistica(3, new BigDecimal("35.00"), new BigDecimal("11.67"),
+                new BigDecimal("5.00"), new BigDecimal("20.00"),
+                new BigDecimal("38.89"), new BigDecimal("6.24")), calcular(repo, INICIO + JANELA));
+
+        // INICIO sai da janela
+        assertEquals(new Estatistica(2, new BigDecimal("25.00"), new BigDecimal("12.50"),
+                new BigDecimal("5.00"), new BigDecimal("20.00"),
+                new BigDecimal("56.25"), new BigDecimal("7.50")), calcular(repo, INICIO + JANELA + 1));
+
+        // INICIO + 1 sai: o mínimo passa a ser o próximo da deque
+        assertEquals(new Estatistica(1, new BigDecimal("20.00"), new BigDecimal("20.00"),
+                new BigDecimal("20.00"), new BigDecimal("20.00"),
+                new BigDecimal("0.00"), new BigDecimal("0.00")), calcular(repo, INICIO + JANELA + 2));
+    }
+
+    @Test
+    @DisplayName("Deve considerar escritas atrasadas em segundos que já estão na janela")
+    void shouldApplyLateWritesInsideTheWindow() {
+        BucketTransacaoRepository repo = new BucketTransacaoRepository(ESCALA, JANELA, 0, 0, false);
+        salvar(repo, "10.00", INICIO + 10);
+        salvar(repo, "30.00", INICIO + 20);
+        calcular(repo, INICIO + 30);
+
+        // Novo mínimo e novo máximo em segundos antigos, depois da primeira consulta
+        salvar(repo, "1.5", INICIO + 5);
+        salvar(repo, "99.999", INICIO + 15);
+
+        assertEquals(new Estatistica(4, new BigDecimal("141.499"), new BigDecimal("35.37"),
+                new BigDecimal("1.5"), new BigDecimal("99.999"),
+                new BigDecimal("1499.14"), new BigDecimal("38.72")), calcular(repo, INICIO + 30));
+    }
+
+    @Test
+    @DisplayName("Deve produzir o mesmo resultado que percorrer os buckets")
+    void shouldMatchBucketWalk() {
+        Random random = new Random(2024);
+        BucketTransacaoRepository incremental = new BucketTransacaoRepository(ESCALA, JANELA, 0, 0, false);
+        BucketTransacaoRepository percorrendo = new BucketTransacaoRepository(ESCALA, 0, 0, 0, false);
+        long fim = INICIO;
+
+        for (int passo = 0; passo < 3_000; passo++) {
+            int escritas = random.nextInt(5);
+            for (int i = 0; i < escritas; i++) {
+                // Inclui segundos já fora da janela e um pouco à frente do fim
+                long segundo = fim - JANELA - 3 + random.nextInt(JANELA + 6);
+                Transacao transacao = new Transacao(valorAleatorio(random), Instant.ofEpochSecond(segundo));
+                incremental.save(transacao);
+                percorrendo.save(transacao);
+            }
+
+            int sorteio = random.nextInt(100);
+            if (sorteio < 50) {
+                fim += random.nextInt(3);
+            } else if (sorteio < 53) {
+                fim += JANELA + random.nextInt(JANELA);
+            } else if (sorteio < 55) {
+                fim -= random.nextInt(10);
+            } else if (sorteio < 57) {
+                Instant limite = Instant.ofEpochSecond(fim - JANELA + random.nextInt(JANELA / 2));
+                incremental.deleteBefore(limite);
+                percorrendo.deleteBefore(limite);
+            } else if (sorteio < 58) {
+                incremental.deleteAll();
+                percorrendo.deleteAll();
+            }
+
+            assertEquals(calcular(percorrendo, fim), calcular(incremental, fim), "passo " + passo);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve manter os percentis da janela iguais aos de percorrer os buckets")
+    void shouldMatchBucketWalkPercentiles() {
+        Random random = new Random(2025);
+        BucketTransacaoRepository incremental = new BucketTransacaoRepository(ESCALA, JANELA, 0, 0, true);
+        BucketTransacaoRepository percorrendo = new BucketTransacaoRepository(ESCALA, 0, 0, 0, true);
+        long fim = INICIO;
+
+        for (int passo = 0; passo < 1_000; passo++) {
+            for (int i = 0; i < 20; i++) {
+                long segundo = fim - JANELA - 3 + random.nextInt(JANELA + 6);
+                Transacao transacao = new Transacao(valorAleatorio(random), Instant.ofEpochSecond(segundo));
+                incremental.save(transacao);
+                percorrendo.save(transacao);
+            }
+            fim += random.nextInt(3);
+            if (random.nextInt(100) == 0) {
+                Instant limite = Instant.ofEpochSecond(fim - JANELA + random.nextInt(JANELA / 2));
+                incremental.deleteBefore(limite);
+                percorrendo.deleteBefore(limite);
+            }
+
+            Estatistica esperado = calcular(percorrendo, fim);
+            assertEquals(esperado, calcular(incremental, fim), "passo " + passo);
+            assertEquals(esperado.count() > 0, esperado.percentis() != null, "passo " + passo);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve convergir para o resultado dos buckets com escritas concorrentes")
+    void shouldConvergeUnderConcurrentWrites() throws Exception {
+        BucketTransacaoRepository repo = new BucketTransacaoRepository(ESCALA, JANELA, 0, 0, false);
+        BucketTransacaoRepository percorrendo = new BucketTransacaoRepository(ESCALA, 0, 0, 0, false);
+        long fim = INICIO + JANELA;
+        int threads = 8;
+        int porThread = 20_000;
+
+        AtomicBoolean escrevendo = new AtomicBoolean(true);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Thread> trabalhadores = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long semente = t;
+            Thread trabalhador = new Thread(() -> {
+                Random random = new Random(semente);
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < porThread; i++) {
+                    long segundo = INICIO + random.nextInt(JANELA + 1);
+                    Transacao transacao = new Transacao(valorAleatorio(random), Instant.ofEpochSecond(segundo));
+                    repo.save(transacao);
+                    percorrendo.save(transacao);
+                }
+            });
+            trabalhador.start();
+            trabalhadores.add(trabalhador);
+        }
+
+        Thread leitor = new Thread(() -> {
+            while (escrevendo.get()) {
+                calcular(repo, fim);
+            }
+        });
+        leitor.start();
+        largada.countDown();
+        for (Thread trabalhador : trabalhadores) {
+            trabalhador.join();
+        }
+        escrevendo.set(false);
+        leitor.join();
+
+        Estatistica esperado = calcular(percorrendo, fim);
+        assertEquals((long) threads * porThread, esperado.count());
+        assertEquals(esperado, calcular(repo, fim));
+    }
+
+    private static BigDecimal valorAleatorio(Random random) {
+        // Mistura escalas, inclusive valores que não cabem no ponto fixo, e empates
+        return switch (random.nextInt(4)) {
+            case 0 -> BigDecimal.valueOf(random.nextInt(100));
+            case 1 -> BigDecimal.valueOf(random.nextInt(10_000), 1);
+            case 2 -> BigDecimal.valueOf(random.nextInt(100_000), 3);
+            default -> BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+        };
+    }
+
+    private static void salvar(BucketTransacaoRepository repo, String valor, long segundo) {
+        repo.save(new Transacao(new BigDecimal(valor), Instant.ofEpochSecond(segundo)));
+    }
+
+    private static Estatistica calcular(BucketTransacaoRepository repo, long fimSegundo) {
+        return repo.calcularEstatisticasEntre(Instant.ofEpochSecond(fimSegundo - JANELA),
+                Instant.ofEpochSecond(fimSegundo));
+    }
+}
@@ -0,0 +1,27 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.TransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository.InMemoryTransacaoRepository;
+
+@SpringBootTest(properties = "app.repository.type=inmemory")
+class RepositoryConfigTest {
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private InMemoryTransacaoRepository inMemoryTransacaoRepository;
+
+    @Test
+    @DisplayName("Deve usar o mesmo repositório em memória que a limpeza agendada")
+    void shouldUseSameInMemoryRepositoryAsScheduledCleanup() {
+        assertSame(inMemoryTransacaoRepository, transacaoRepository);
+    }
+}
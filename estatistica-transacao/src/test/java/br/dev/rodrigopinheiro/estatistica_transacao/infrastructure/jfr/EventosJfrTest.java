@@ -0,0 +1,141 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.jfr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.application.exception.RegraNegocioException;
+import br.dev.rodrigopinheiro.estatistica_transacao.application.port.in.ObterEstatisticasPort;
+import br.dev.rodrigopinheiro.estatistica_transacao.application.port.in.RegistrarTransacaoPort;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.TransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository.InMemoryTransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.scheduler.LimpezaTransacaoAgendada;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.time.Relogio;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+@SpringBootTest(properties = "app.agendamento.habilitado=false")
+class EventosJfrTest {
+
+    private static final Instant AGORA = Instant.parse("2025-10-20T10:15:30Z");
+
+    @Autowired
+    private RegistrarTransacaoPort registrarTransacaoPort;
+
+    @Autowired
+    private ObterEstatisticasPort obterEstatisticasPort;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private InMemoryTransacaoRepository inMemoryTransacaoRepository;
+
+    @Autowired
+    private LimpezaTransacaoAgendada limpezaTransacaoAgendada;
+
+    @MockitoBean
+    private Relogio relogio;
+
+    @TempDir
+    private Path diretorio;
+
+    @BeforeEach
+    void setUp() {
+        when(relogio.agora()).thenReturn(AGORA);
+        transacaoRepository.deleteAll();
+        inMemoryTransacaoRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Deve emitir eventos de registro e de cálculo de estatísticas")
+    void shouldEmitIngestAndStatisticsEvents() throws IOException {
+        List<RecordedEvent> eventos = gravar(() -> {
+            registrarTransacaoPort.execute(new Transacao(new BigDecimal("10.00"), AGORA.minusSeconds(5)));
+            assertThrows(RegraNegocioException.class, () -> registrarTransacaoPort.execute(
+                    new Transacao(new BigDecimal("-1.00"), AGORA.minusSeconds(5))));
+            obterEstatisticasPort.execute();
+        }, RegistroTransacaoEvent.NOME, CalculoEstatisticaEvent.NOME);
+
+        List<RecordedEvent> registros = doTipo(eventos, RegistroTransacaoEvent.NOME);
+        assertEquals(2, registros.size());
+        assertEquals(1, registros.get(0).getInt("aceitas"));
+        assertEquals("VALOR_NEGATIVO", registros.get(1).getString("erro"));
+
+        List<RecordedEvent> calculos = doTipo(eventos, CalculoEstatisticaEvent.NOME);
+        assertEquals(1, calculos.size());
+        assertEquals(1, calculos.get(0).getLong("transacoes"));
+        assertTrue(calculos.get(0).getLong("janelaSegundos") > 0);
+    }
+
+    @Test
+    @DisplayName("Deve emitir eventos de busca, remoção e limpeza agendada")
+    void shouldEmitFindAndEvictionEvents() throws IOException {
+        inMemoryTransacaoRepository.save(new Transacao(new BigDecimal("10.00"), AGORA.minusSeconds(5)));
+        inMemoryTransacaoRepository.save(new Transacao(new BigDecimal("20.00"), AGORA.minus(Duration.ofDays(2))));
+
+        List<RecordedEvent> eventos = gravar(() -> {
+            inMemoryTransacaoRepository.findSince(AGORA.minusSeconds(60));
+            inMemoryTransacaoRepository.removerExpiradas(AGORA.minus(Duration.ofDays(1)), Long.MAX_VALUE);
+            transacaoRepository.save(new Transacao(new BigDecimal("30.00"), AGORA.minus(Duration.ofDays(2))));
+            limpezaTransacaoAgendada.limparAntigas();
+        }, BuscaTransacoesEvent.NOME, RemocaoTransacoesEvent.NOME, LimpezaAgendadaEvent.NOME);
+
+        RecordedEvent busca = doTipo(eventos, BuscaTransacoesEvent.NOME).get(0);
+        assertEquals(1, busca.getInt("encontradas"));
+
+        RecordedEvent remocao = doTipo(eventos, RemocaoTransacoesEvent.NOME).get(0);
+        assertEquals(1, remocao.getLong("removidas"));
+        assertEquals(1, remocao.getLong("retidas"));
+
+        // Repositório de buckets: remove o bucket do segundo antigo
+        assertTrue(doTipo(eventos, LimpezaAgendadaEvent.NOME).stream()
+                .anyMatch(limpeza -> limpeza.getLong("removidas") == 1 && limpeza.getBoolean("concluida")));
+    }
+
+    private List<RecordedEvent> gravar(Runnable acao, String... nomes) throws IOException {
+        Path arquivo = diretorio.resolve("gravacao.jfr");
+        try (Recording gravacao = new Recording()) {
+            for (String nome : nomes) {
+                gravacao.enable(nome).withThreshold(Duration.ZERO);
+            }
+            gravacao.start();
+            acao.run();
+            gravacao.stop();
+            gravacao.dump(arquivo);
+        }
+        // A gravação é da JVM inteira: tarefas agendadas de outros contextos de teste ficam de fora
+        long thread = Thread.currentThread().threadId();
+        List<RecordedEvent> eventos = RecordingFile.readAllEvents(arquivo).stream()
+                .filter(evento -> evento.getThread() != null && evento.getThread().getJavaThreadId() == thread)
+                .toList();
+        Files.deleteIfExists(arquivo);
+        return eventos;
+    }
+
+    private static List<RecordedEvent> doTipo(List<RecordedEvent> eventos, String nome) {
+        return eventos.stream()
+                .filter(evento -> evento.getEventType().getName().equals(nome))
+                .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                .toList();
+    }
+}
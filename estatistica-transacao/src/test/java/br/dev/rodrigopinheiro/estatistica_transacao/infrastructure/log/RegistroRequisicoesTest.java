@@ -0,0 +1,97 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.log;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config.LogRequisicoesProperties;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest
+class RegistroRequisicoesTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(RegistroRequisicoes.NOME_LOGGER);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private Level nivelAnterior;
+
+    @BeforeEach
+    void setUp() {
+        nivelAnterior = logger.getLevel();
+        logger.setLevel(Level.INFO);
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+        logger.setLevel(nivelAnterior);
+    }
+
+    @Test
+    @DisplayName("Deve registrar conforme a amostragem da categoria e sempre os erros")
+    void shouldSampleByCategoryAndAlwaysLogErrors() {
+        RegistroRequisicoes registro = new RegistroRequisicoes(propriedades(16, 1.0, 0.0), meterRegistry);
+        registro.start();
+
+        if (registro.amostrar(CategoriaLog.INGESTAO)) {
+            registro.registrar(CategoriaLog.INGESTAO, "transacao.registrada",
+                    "valor", new BigDecimal("1E+2"), "dataHora", Instant.parse("2025-10-20T10:15:30Z"));
+        }
+        if (registro.amostrar(CategoriaLog.CONSULTA)) {
+            registro.registrar(CategoriaLog.CONSULTA, "estatistica.calculada", "count", 1);
+        }
+        registro.registrarErro(CategoriaLog.CONSULTA, "estatistica.janela-invalida", "janela", 0);
+        registro.stop();
+
+        List<ILoggingEvent> eventos = appender.list;
+        assertEquals(2, eventos.size());
+        assertEquals(Level.INFO, eventos.get(0).getLevel());
+        assertTrue(eventos.get(0).getFormattedMessage().endsWith(
+                "categoria=ingestao evento=transacao.registrada valor=100 dataHora=2025-10-20T10:15:30Z"),
+                eventos.get(0).getFormattedMessage());
+        assertEquals(Level.WARN, eventos.get(1).getLevel());
+        assertTrue(eventos.get(1).getFormattedMessage().endsWith(
+                "categoria=consulta evento=estatistica.janela-invalida janela=0"));
+    }
+
+    @Test
+    @DisplayName("Deve descartar e contar entradas com a fila cheia, mas não os erros")
+    void shouldDropAndCountWhenQueueIsFull() {
+        // Sem start: nada drena a fila
+        RegistroRequisicoes registro = new RegistroRequisicoes(propriedades(2, 1.0, 1.0), meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            registro.registrar(CategoriaLog.INGESTAO, "transacao.registrada", "indice", i);
+        }
+        registro.registrarErro(CategoriaLog.INGESTAO, "transacao.rejeitada", "erro", "VALOR_NEGATIVO");
+
+        assertEquals(3, meterRegistry.get("log.requisicoes.descartadas").counter().count());
+        // O erro foi escrito direto, na thread de quem registrou
+        assertEquals(1, appender.list.size());
+        assertEquals(Level.WARN, appender.list.get(0).getLevel());
+    }
+
+    private static LogRequisicoesProperties propriedades(int capacidade, double ingestao, double consulta) {
+        LogRequisicoesProperties properties = new LogRequisicoesProperties();
+        properties.setCapacidade(capacidade);
+        properties.getAmostragem().put(CategoriaLog.INGESTAO, ingestao);
+        properties.getAmostragem().put(CategoriaLog.CONSULTA, consulta);
+        return properties;
+    }
+}
@@ -0,0 +1,102 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.application.exception.RegraNegocioException;
+import br.dev.rodrigopinheiro.estatistica_transacao.application.port.in.LimparTransacoesPort;
+import br.dev.rodrigopinheiro.estatistica_transacao.application.port.in.ObterEstatisticasPort;
+import br.dev.rodrigopinheiro.estatistica_transacao.application.port.in.RegistrarTransacaoPort;
+import br.dev.rodrigopinheiro.estatistica_transacao.application.port.in.RegistrarTransacoesLotePort;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.time.Relogio;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = "app.agendamento.habilitado=false")
+class RepositorioMetricsTest {
+
+    private static final Instant AGORA = Instant.parse("2025-10-20T10:15:30Z");
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RegistrarTransacaoPort registrarTransacaoPort;
+
+    @Autowired
+    private RegistrarTransacoesLotePort registrarTransacoesLotePort;
+
+    @Autowired
+    private ObterEstatisticasPort obterEstatisticasPort;
+
+    @Autowired
+    private LimparTransacoesPort limparTransacoesPort;
+
+    @MockitoBean
+    private Relogio relogio;
+
+    @BeforeEach
+    void setUp() {
+        when(relogio.agora()).thenReturn(AGORA);
+        limparTransacoesPort.execute();
+    }
+
+    @Test
+    @DisplayName("Deve contar aceitas e rejeitadas por código de erro")
+    void shouldCountAcceptedAndRejectedByErrorCode() {
+        double aceitasAntes = contador("transacao.aceitas");
+        double negativasAntes = rejeitadas("VALOR_NEGATIVO");
+        double futurasAntes = rejeitadas("DATA_FUTURA");
+        long lotesAntes = meterRegistry.get("transacao.registro").tag("operacao", "lote").timer().count();
+
+        registrarTransacaoPort.execute(new Transacao(new BigDecimal("10.00"), AGORA.minusSeconds(5)));
+        assertThrows(RegraNegocioException.class, () -> registrarTransacaoPort.execute(
+                new Transacao(new BigDecimal("-1.00"), AGORA.minusSeconds(5))));
+        registrarTransacoesLotePort.execute(List.of(
+                new Transacao(new BigDecimal("20.00"), AGORA.minusSeconds(1)),
+                new Transacao(new BigDecimal("30.00"), AGORA.plusSeconds(60))));
+
+        assertEquals(2, contador("transacao.aceitas") - aceitasAntes);
+        assertEquals(1, rejeitadas("VALOR_NEGATIVO") - negativasAntes);
+        assertEquals(1, rejeitadas("DATA_FUTURA") - futurasAntes);
+        assertEquals(1, meterRegistry.get("transacao.registro").tag("operacao", "lote").timer().count() - lotesAntes);
+        assertEquals(2, meterRegistry.get("transacoes.retidas").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Deve medir a consulta de estatísticas e os buckets retidos")
+    void shouldTimeQueriesAndExposeRetainedBuckets() {
+        registrarTransacaoPort.execute(new Transacao(new BigDecimal("10.00"), AGORA.minusSeconds(5)));
+        registrarTransacaoPort.execute(new Transacao(new BigDecimal("20.00"), AGORA.minusSeconds(10)));
+        long consultasAntes = meterRegistry.get("estatistica.consulta").timers().stream()
+                .mapToLong(timer -> timer.count()).sum();
+
+        obterEstatisticasPort.execute();
+
+        long consultas = meterRegistry.get("estatistica.consulta").timers().stream()
+                .mapToLong(timer -> timer.count()).sum();
+        assertEquals(1, consultas - consultasAntes);
+        assertTrue(meterRegistry.get("buckets.retidos").tag("nivel", "segundo").gauge().value() >= 2);
+    }
+
+    private double contador(String nome) {
+        return meterRegistry.get(nome).counter().count();
+    }
+
+    private double rejeitadas(String codigo) {
+        return meterRegistry.get("transacao.rejeitadas").tag("erro", codigo).counter().count();
+    }
+}
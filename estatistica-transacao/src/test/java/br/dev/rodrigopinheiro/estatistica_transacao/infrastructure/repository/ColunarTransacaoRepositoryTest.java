@@ -0,0 +1,87 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Estatistica;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.service.EstatisticaCalculator;
+
+@SpringBootTest
+class ColunarTransacaoRepositoryTest {
+
+    private static final Instant AGORA = Instant.parse("2025-10-20T12:15:30.500Z");
+
+    private final EstatisticaCalculator calculator = new EstatisticaCalculator();
+
+    @Test
+    @DisplayName("Deve calcular o mesmo que o cálculo sobre as transações, em qualquer intervalo")
+    void shouldMatchCalculatorOverTransactions() {
+        Random random = new Random(11);
+        ColunarTransacaoRepository repo = new ColunarTransacaoRepository();
+        List<Transacao> todas = new ArrayList<>();
+        for (int i = 0; i < 3 * ColunarTransacaoRepository.TAMANHO_BLOCO; i++) {
+            Transacao transacao = new Transacao(valorAleatorio(random), AGORA.minusMillis(random.nextInt(3_600_000)));
+            repo.save(transacao);
+            todas.add(transacao);
+        }
+
+        for (int consulta = 0; consulta < 50; consulta++) {
+            Instant inicio = AGORA.minusMillis(random.nextInt(3_600_000));
+            Instant fim = inicio.plusMillis(random.nextInt(600_000));
+            List<Transacao> noIntervalo = todas.stream()
+                    .filter(t -> !t.dataHora().isBefore(inicio) && !t.dataHora().isAfter(fim))
+                    .toList();
+            assertEquals(calculator.calcular(noIntervalo), repo.calcularEstatisticasEntre(inicio, fim),
+                    "de " + inicio + " a " + fim);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve guardar valores sem ponto fixo e reconstruir as transações exatas")
+    void shouldKeepNonFixedPointValuesExact() {
+        ColunarTransacaoRepository repo = new ColunarTransacaoRepository();
+        repo.save(new Transacao(new BigDecimal("10.5"), AGORA.minusSeconds(10)));
+        repo.save(new Transacao(new BigDecimal("0.001"), AGORA.minusSeconds(5)));
+        repo.save(new Transacao(new BigDecimal("99999999999999999999.99"), AGORA.minusSeconds(1)));
+
+        assertEquals(List.of(new BigDecimal("10.5"), new BigDecimal("0.001"), new BigDecimal("99999999999999999999.99")),
+                repo.findSince(AGORA.minusSeconds(60)).stream().map(Transacao::valor).toList());
+        Estatistica estatistica = repo.calcularEstatisticasEntre(AGORA.minusSeconds(60), AGORA);
+        assertEquals(new BigDecimal("100000000000000000010.491"), estatistica.sum());
+        assertEquals(new BigDecimal("0.001"), estatistica.min());
+    }
+
+    @Test
+    @DisplayName("Deve descartar blocos expirados e esconder o restante anterior ao limite")
+    void shouldDropExpiredBlocksAndHideTheRest() {
+        ColunarTransacaoRepository repo = new ColunarTransacaoRepository();
+        int tamanho = ColunarTransacaoRepository.TAMANHO_BLOCO;
+        for (int i = 0; i < tamanho; i++) {
+            repo.save(new Transacao(new BigDecimal("1.00"), AGORA.minusSeconds(7200)));
+        }
+        repo.save(new Transacao(new BigDecimal("2.00"), AGORA.minusSeconds(7200)));
+        repo.save(new Transacao(new BigDecimal("3.00"), AGORA.minusSeconds(10)));
+
+        repo.deleteBefore(AGORA.minusSeconds(3600));
+
+        assertEquals(1, repo.getBlocoCount());
+        assertEquals(2, repo.getQuantidade());
+        assertEquals(1, repo.findSince(Instant.EPOCH).size());
+        assertEquals(1, repo.calcularEstatisticasEntre(Instant.EPOCH, AGORA).count());
+    }
+
+    private static BigDecimal valorAleatorio(Random random) {
+        // Escalas diferentes: a soma fica com a maior e min/max com a do valor escolhido
+        return BigDecimal.valueOf(random.nextInt(1_000_000), random.nextInt(3));
+    }
+}
@@ -0,0 +1,76 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Estatistica;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.EstatisticaRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.service.EstatisticaCalculator;
+
+@SpringBootTest
+class EmpateMinMaxTest {
+
+    private static final Instant BASE = Instant.now().truncatedTo(ChronoUnit.SECONDS).minusSeconds(10);
+
+    @Test
+    @DisplayName("Deve escolher a maior escala no empate de min e max em todos os repositórios")
+    void shouldPreferLargerScaleOnTiesInEveryRepository() {
+        List<Transacao> transacoes = List.of(
+                // Maior escala chegando depois, antes e no meio, em segundos diferentes
+                transacao(0, "1.0"), transacao(0, "1.00"), transacao(0, "5.0"), transacao(0, "5.00"),
+                transacao(1, "1.00"), transacao(1, "1"), transacao(1, "5.00"), transacao(1, "5"),
+                transacao(2, "1"), transacao(2, "1.00"), transacao(2, "1.0"), transacao(2, "5.0"));
+
+        verificar(transacoes, "1.00", "5.00");
+    }
+
+    @Test
+    @DisplayName("Deve escolher a maior escala no empate mesmo quando ela não cabe no ponto fixo")
+    void shouldPreferLargerScaleOnTiesBeyondFixedPoint() {
+        List<Transacao> transacoes = List.of(
+                transacao(0, "1.00"), transacao(0, "5.00"),
+                transacao(1, "1.000"), transacao(1, "5.000"),
+                transacao(2, "1.0"), transacao(2, "5"));
+
+        verificar(transacoes, "1.000", "5.000");
+    }
+
+    private static void verificar(List<Transacao> transacoes, String minEsperado, String maxEsperado) {
+        Map<String, EstatisticaRepository> repositorios = Map.of(
+                "bucket", new BucketTransacaoRepository(2, 60, 3600, 0, false),
+                "colunar", new ColunarTransacaoRepository(2),
+                "offheap", new OffHeapTransacaoRepository(2, 16L * 1024 * OffHeapTransacaoRepository.BYTES_REGISTRO, 1024),
+                "ring", new RingBufferTransacaoRepository(3600, 2));
+
+        List<Estatistica> resultados = new ArrayList<>();
+        resultados.add(new EstatisticaCalculator().calcular(transacoes));
+        for (Map.Entry<String, EstatisticaRepository> repositorio : repositorios.entrySet()) {
+            transacoes.forEach(repositorio.getValue()::save);
+            // A janela incremental e o percurso pelos segundos
+            resultados.add(repositorio.getValue().calcularEstatisticasEntre(BASE.plusSeconds(2).minusSeconds(60),
+                    BASE.plusSeconds(2)));
+            resultados.add(repositorio.getValue().calcularEstatisticasEntre(BASE, BASE.plusSeconds(2)));
+        }
+
+        for (Estatistica resultado : resultados) {
+            // equals do BigDecimal compara também a escala
+            assertEquals(new BigDecimal(minEsperado), resultado.min());
+            assertEquals(new BigDecimal(maxEsperado), resultado.max());
+        }
+    }
+
+    private static Transacao transacao(int segundo, String valor) {
+        return new Transacao(new BigDecimal(valor), BASE.plusSeconds(segundo).plusMillis(100 * segundo));
+    }
+}
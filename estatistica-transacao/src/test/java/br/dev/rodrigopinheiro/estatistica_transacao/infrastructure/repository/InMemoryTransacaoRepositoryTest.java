@@ -0,0 +1,102 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+
+@SpringBootTest
+class InMemoryTransacaoRepositoryTest {
+
+    private InMemoryTransacaoRepository repo;
+    private Instant agora;
+
+    @BeforeEach
+    void setUp() {
+        repo = new InMemoryTransacaoRepository();
+        agora = Instant.parse("2025-10-20T12:15:30.500Z");
+    }
+
+    @Test
+    @DisplayName("Deve buscar com precisão abaixo do segundo, mesmo fora de ordem")
+    void shouldFindSinceWithSubSecondPrecision() {
+        repo.save(transacao("1.00", agora.minusMillis(100)));
+        repo.save(transacao("2.00", agora.plusMillis(100)));
+        repo.save(transacao("3.00", agora.minusSeconds(90)));
+        repo.saveAll(List.of(transacao("4.00", agora), transacao("5.00", agora.plusSeconds(10))));
+
+        List<Transacao> encontradas = repo.findSince(agora);
+
+        assertEquals(List.of(new BigDecimal("2.00"), new BigDecimal("4.00"), new BigDecimal("5.00")),
+                encontradas.stream().map(Transacao::valor).sorted().toList());
+        assertEquals(5, repo.findSince(agora.minusSeconds(90)).size());
+    }
+
+    @Test
+    @DisplayName("Deve descartar segundos inteiros e filtrar só o segundo cortado pelo limite")
+    void shouldDropWholeSegmentsAndFilterBoundary() {
+        for (int i = 1; i <= 100; i++) {
+            repo.save(transacao("1.00", agora.minusSeconds(i)));
+        }
+        repo.save(transacao("2.00", agora.minusMillis(200)));
+        repo.save(transacao("3.00", agora.plusMillis(200)));
+
+        repo.deleteBefore(agora);
+
+        assertEquals(1, repo.getQuantidade());
+        assertEquals(1, repo.getSegmentoCount());
+        assertEquals(new BigDecimal("3.00"), repo.findSince(agora.minusSeconds(200)).get(0).valor());
+    }
+
+    @Test
+    @DisplayName("Deve manter a contagem exata com escritas concorrentes à remoção dos segundos")
+    void shouldKeepExactCountWhileEvictingConcurrently() throws InterruptedException {
+        int escritores = 4;
+        int porEscritor = 50_000;
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < escritores; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                // Sempre nos segundos que a remoção está descartando
+                for (int i = 0; i < porEscritor; i++) {
+                    repo.save(transacao("1.00", agora.plusSeconds(i / 10)));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        largada.countDown();
+        while (threads.stream().anyMatch(Thread::isAlive)) {
+            for (int segundo = 0; segundo <= porEscritor / 10; segundo += 5) {
+                repo.removerExpiradas(agora.plusSeconds(segundo), Long.MAX_VALUE);
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        repo.deleteBefore(agora.plusSeconds(porEscritor));
+
+        assertEquals(0, repo.getSegmentoCount());
+        assertEquals(0, repo.getQuantidade());
+    }
+
+    private static Transacao transacao(String valor, Instant dataHora) {
+        return new Transacao(new BigDecimal(valor), dataHora);
+    }
+}
@@ -0,0 +1,144 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.application.port.in.RegistrarTransacoesLotePort;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.exception.CapacidadeEsgotadaException;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.ResultadoLote;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.enums.ErroCode;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.TransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.service.EstatisticaCalculator;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.metrics.OffHeapMetrics;
+
+@SpringBootTest(properties = {"app.repository.type=offheap", "app.offheap.max-megabytes=1"})
+@AutoConfigureMockMvc
+class OffHeapTransacaoRepositoryTest {
+
+    private static final Instant AGORA = Instant.parse("2025-10-20T12:15:30.500Z");
+    private static final int REGISTROS_POR_SLAB = 1024;
+    private static final long BYTES_SLAB = REGISTROS_POR_SLAB * OffHeapTransacaoRepository.BYTES_REGISTRO;
+
+    @Autowired
+    private OffHeapMetrics offHeapMetrics;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private RegistrarTransacoesLotePort registrarLote;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final EstatisticaCalculator calculator = new EstatisticaCalculator();
+
+    @Test
+    @DisplayName("Deve calcular o mesmo que o cálculo sobre as transações, em qualquer intervalo")
+    void shouldMatchCalculatorOverTransactions() {
+        Random random = new Random(13);
+        OffHeapTransacaoRepository repo = new OffHeapTransacaoRepository(2, 16 * BYTES_SLAB, REGISTROS_POR_SLAB);
+        List<Transacao> todas = new ArrayList<>();
+        for (int i = 0; i < 5 * REGISTROS_POR_SLAB; i++) {
+            BigDecimal valor = i % 1000 == 0
+                    ? new BigDecimal("0.001")
+                    : BigDecimal.valueOf(random.nextInt(1_000_000), random.nextInt(3));
+            Transacao transacao = new Transacao(valor, AGORA.minusMillis(random.nextInt(3_600_000)));
+            repo.save(transacao);
+            todas.add(transacao);
+        }
+
+        for (int consulta = 0; consulta < 50; consulta++) {
+            Instant inicio = AGORA.minusMillis(random.nextInt(3_600_000));
+            Instant fim = inicio.plusMillis(random.nextInt(600_000));
+            List<Transacao> noIntervalo = todas.stream()
+                    .filter(t -> !t.dataHora().isBefore(inicio) && !t.dataHora().isAfter(fim))
+                    .toList();
+            assertEquals(calculator.calcular(noIntervalo), repo.calcularEstatisticasEntre(inicio, fim),
+                    "de " + inicio + " a " + fim);
+        }
+        assertEquals(todas.size(), repo.findSince(Instant.EPOCH).size());
+    }
+
+    @Test
+    @DisplayName("Deve respeitar o orçamento e reaproveitar os slabs expirados")
+    void shouldRespectBudgetAndRecycleSlabs() {
+        OffHeapTransacaoRepository repo = new OffHeapTransacaoRepository(2, 2 * BYTES_SLAB, REGISTROS_POR_SLAB);
+        for (int i = 0; i < 2 * REGISTROS_POR_SLAB; i++) {
+            repo.save(new Transacao(new BigDecimal("1.00"), AGORA.minusSeconds(7200)));
+        }
+        Transacao semEspaco = new Transacao(new BigDecimal("1.00"), AGORA.minusSeconds(7200));
+        assertThrows(CapacidadeEsgotadaException.class, () -> repo.save(semEspaco));
+        CapacidadeEsgotadaException lote = assertThrows(CapacidadeEsgotadaException.class,
+                () -> repo.saveAll(List.of(semEspaco, semEspaco, semEspaco)));
+        assertEquals(0, lote.getSalvas());
+        assertEquals(4, repo.getDescartadas());
+        assertEquals(2 * BYTES_SLAB, repo.getBytesAlocados());
+
+        repo.deleteBefore(AGORA.minusSeconds(3600));
+        assertEquals(1, repo.getSlabsLivres());
+
+        repo.save(new Transacao(new BigDecimal("2.00"), AGORA));
+        repo.save(new Transacao(new BigDecimal("3.00"), AGORA));
+        assertEquals(2, repo.calcularEstatisticasEntre(AGORA.minusSeconds(60), AGORA).count());
+        assertEquals(0, repo.getSlabsLivres());
+        assertEquals(2 * BYTES_SLAB, repo.getBytesAlocados());
+    }
+
+    @Test
+    @DisplayName("Deve informar ao produtor as transações recusadas com o orçamento esgotado")
+    void shouldReportRejectedTransactionsWhenBudgetIsExhausted() throws Exception {
+        Instant recente = Instant.now().minusSeconds(1);
+        List<Transacao> enchimento = IntStream.range(0, (int) (offHeapMetrics.getOffHeapInfo().offHeapMax()
+                        / OffHeapTransacaoRepository.BYTES_REGISTRO) - 1)
+                .mapToObj(i -> new Transacao(new BigDecimal("1.00"), recente))
+                .toList();
+        try {
+            transacaoRepository.saveAll(enchimento);
+
+            ResultadoLote resultado = registrarLote.execute(List.of(
+                    new Transacao(new BigDecimal("-1.00"), recente),
+                    new Transacao(new BigDecimal("2.00"), recente),
+                    new Transacao(new BigDecimal("3.00"), recente)));
+
+            assertEquals(1, resultado.aceitas());
+            assertEquals(List.of(
+                    new ResultadoLote.Rejeicao(0, ErroCode.VALOR_NEGATIVO),
+                    new ResultadoLote.Rejeicao(2, ErroCode.CAPACIDADE_ESGOTADA)), resultado.rejeicoes());
+
+            mockMvc.perform(post("/transacao")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"valor\": 4.00, \"dataHora\": \"" + recente + "\"}"))
+                    .andExpect(status().isInsufficientStorage());
+        } finally {
+            transacaoRepository.deleteAll();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve informar o uso fora do heap no endpoint de buckets")
+    void shouldReportOffHeapUsageOnBucketsEndpoint() {
+        OffHeapMetrics.OffHeapInfo info = offHeapMetrics.getOffHeapInfo();
+
+        assertEquals(1024 * 1024 / (16_384 * OffHeapTransacaoRepository.BYTES_REGISTRO)
+                * 16_384L * OffHeapTransacaoRepository.BYTES_REGISTRO, info.offHeapMax());
+    }
+}
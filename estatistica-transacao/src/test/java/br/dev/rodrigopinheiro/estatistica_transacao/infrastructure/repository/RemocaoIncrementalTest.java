@@ -0,0 +1,92 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.ResultadoRemocao;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.TransacaoRepository;
+
+@SpringBootTest
+class RemocaoIncrementalTest {
+
+    private static final long INICIO = Instant.parse("2025-10-20T12:00:00Z").getEpochSecond();
+    private static final int SEGUNDOS = 20_000;
+
+    @Test
+    @DisplayName("Deve remover em fatias até concluir no repositório em memória")
+    void shouldEvictInSlicesInMemory() {
+        InMemoryTransacaoRepository repo = new InMemoryTransacaoRepository();
+        preencher(repo);
+
+        long removidas = removerAteConcluir(repo, Instant.ofEpochSecond(INICIO + SEGUNDOS / 2));
+
+        assertEquals(SEGUNDOS / 2, removidas);
+        assertEquals(SEGUNDOS / 2, repo.getQuantidade());
+        assertEquals(SEGUNDOS / 2, repo.findSince(Instant.ofEpochSecond(INICIO)).size());
+    }
+
+    @Test
+    @DisplayName("Deve avançar a roda de segundos em fatias até concluir no repositório de buckets")
+    void shouldAdvanceWheelInSlicesWithBuckets() {
+        BucketTransacaoRepository repo = new BucketTransacaoRepository(2, 0, 0, 0, false);
+        preencher(repo);
+        // Primeira passada percorre o mapa; as seguintes só os segundos que expiraram
+        removerAteConcluir(repo, Instant.ofEpochSecond(INICIO + 10));
+
+        long removidas = removerAteConcluir(repo, Instant.ofEpochSecond(INICIO + SEGUNDOS / 2));
+
+        assertEquals(SEGUNDOS / 2 - 10, removidas);
+        assertEquals(SEGUNDOS / 2, repo.getBucketCount());
+        assertEquals(SEGUNDOS / 2, repo.calcularEstatisticasEntre(Instant.ofEpochSecond(INICIO),
+                Instant.ofEpochSecond(INICIO + SEGUNDOS)).count());
+    }
+
+    @Test
+    @DisplayName("Deve remover escrita atrasada em segundo pelo qual a roda já passou")
+    void shouldEvictLateWriteBehindWheel() {
+        BucketTransacaoRepository repo = new BucketTransacaoRepository(2, 0, 0, 0, false);
+        salvar(repo, INICIO + 100);
+        removerAteConcluir(repo, Instant.ofEpochSecond(INICIO + 50));
+        removerAteConcluir(repo, Instant.ofEpochSecond(INICIO + 60));
+
+        salvar(repo, INICIO + 5);
+        ResultadoRemocao resultado = repo.removerExpiradas(Instant.ofEpochSecond(INICIO + 61), Long.MAX_VALUE);
+
+        assertTrue(resultado.concluida());
+        assertEquals(1, resultado.removidas());
+        assertEquals(1, repo.getBucketCount());
+    }
+
+    private static long removerAteConcluir(TransacaoRepository repo, Instant limite) {
+        long removidas = 0;
+        int fatias = 0;
+        ResultadoRemocao resultado;
+        do {
+            // Prazo zero: cada fatia para na primeira checagem do relógio
+            resultado = repo.removerExpiradas(limite, 0);
+            removidas += resultado.removidas();
+            fatias++;
+            assertFalse(fatias > SEGUNDOS, "não concluiu");
+        } while (!resultado.concluida());
+        return removidas;
+    }
+
+    private static void preencher(TransacaoRepository repo) {
+        for (long segundo = INICIO; segundo < INICIO + SEGUNDOS; segundo++) {
+            salvar(repo, segundo);
+        }
+    }
+
+    private static void salvar(TransacaoRepository repo, long segundo) {
+        repo.save(new Transacao(new BigDecimal("1.00"), Instant.ofEpochSecond(segundo)));
+    }
+}
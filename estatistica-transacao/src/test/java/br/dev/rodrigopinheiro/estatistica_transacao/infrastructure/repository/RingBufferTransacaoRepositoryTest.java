@@ -0,0 +1,85 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Estatistica;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+
+@SpringBootTest
+class RingBufferTransacaoRepositoryTest {
+
+    private static final int JANELA_MAXIMA = 60;
+
+    private RingBufferTransacaoRepository repo;
+    private Instant agora;
+
+    @BeforeEach
+    void setUp() {
+        repo = new RingBufferTransacaoRepository(JANELA_MAXIMA);
+        agora = Instant.parse("2025-10-20T12:15:30Z");
+    }
+
+    @Test
+    @DisplayName("Deve calcular estatísticas apenas dos segundos dentro da janela")
+    void shouldCalculateStatisticsWithinWindow() {
+        repo.save(new Transacao(new BigDecimal("100.00"), agora.minusSeconds(30)));
+        repo.save(new Transacao(new BigDecimal("200.00"), agora.minusSeconds(45)));
+        repo.save(new Transacao(new BigDecimal("50.00"), agora.minusSeconds(10)));
+        repo.save(new Transacao(new BigDecimal("999.00"), agora.minusSeconds(59)));
+
+        Estatistica stats = repo.calcularEstatisticasSince(agora.minusSeconds(50));
+
+        assertEquals(3, stats.count());
+        assertEquals(new BigDecimal("350.00"), stats.sum());
+        assertEquals(new BigDecimal("116.67"), stats.avg());
+        assertEquals(new BigDecimal("50.00"), stats.min());
+        assertEquals(new BigDecimal("200.00"), stats.max());
+    }
+
+    @Test
+    @DisplayName("Deve reaproveitar o slot quando o anel dá a volta")
+    void shouldRecycleSlotOnWrapAround() {
+        Instant antigo = agora.minusSeconds(repo.getCapacidade());
+        repo.save(new Transacao(new BigDecimal("999.00"), antigo));
+        repo.save(new Transacao(new BigDecimal("10.00"), agora));
+
+        Estatistica stats = repo.calcularEstatisticasSince(antigo);
+
+        assertEquals(1, stats.count());
+        assertEquals(new BigDecimal("10.00"), stats.sum());
+        assertEquals(1, repo.getBucketCount());
+    }
+
+    @Test
+    @DisplayName("Deve descartar transações mais antigas que a janela máxima")
+    void shouldDiscardTransactionsOlderThanMaxWindow() {
+        repo.save(new Transacao(new BigDecimal("10.00"), agora));
+        repo.save(new Transacao(new BigDecimal("20.00"), agora.minusSeconds(JANELA_MAXIMA)));
+        repo.save(new Transacao(new BigDecimal("999.00"), agora.minusSeconds(JANELA_MAXIMA + 1)));
+
+        Estatistica stats = repo.calcularEstatisticasSince(agora.minusSeconds(repo.getCapacidade()));
+
+        assertEquals(2, stats.count());
+        assertEquals(new BigDecimal("30.00"), stats.sum());
+    }
+
+    @Test
+    @DisplayName("Deve zerar todos os slots ao limpar")
+    void shouldClearAllSlots() {
+        repo.save(new Transacao(new BigDecimal("10.00"), agora));
+        repo.save(new Transacao(new BigDecimal("20.00"), agora.minusSeconds(5)));
+
+        repo.deleteAll();
+
+        assertEquals(0, repo.calcularEstatisticasSince(agora.minusSeconds(JANELA_MAXIMA)).count());
+        assertEquals(0, repo.getBucketCount());
+    }
+}
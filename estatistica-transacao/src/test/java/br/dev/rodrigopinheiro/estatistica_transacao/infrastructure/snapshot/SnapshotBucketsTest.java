@@ -0,0 +1,112 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Estatistica;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config.LimpezaProperties;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config.SnapshotProperties;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository.BucketTransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.time.Relogio;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest
+class SnapshotBucketsTest {
+
+    private static final Instant AGORA = Instant.parse("2025-10-20T12:15:30Z");
+
+    @TempDir
+    private Path diretorio;
+
+    @Test
+    @DisplayName("Deve restaurar os segundos dentro da retenção com as mesmas estatísticas")
+    void shouldRestoreRetainedSecondsWithSameStatistics() {
+        Random random = new Random(17);
+        BucketTransacaoRepository original = repositorio();
+        for (int i = 0; i < 20_000; i++) {
+            BigDecimal valor = i % 500 == 0
+                    ? new BigDecimal("0.001")
+                    : BigDecimal.valueOf(random.nextInt(1_000_000), random.nextInt(3));
+            original.save(new Transacao(valor, AGORA.minusSeconds(random.nextInt(7200))));
+        }
+        original.save(new Transacao(new BigDecimal("99999999999999999999.99"), AGORA.minusSeconds(30)));
+        snapshot(original).salvar();
+
+        BucketTransacaoRepository restaurado = repositorio();
+        int segundos = snapshot(restaurado).restaurar();
+
+        assertEquals(original.snapshotSegundos(AGORA.minusSeconds(3600).getEpochSecond()).size(), segundos);
+        assertEquals(original.calcularEstatisticasEntre(AGORA.minusSeconds(60), AGORA),
+                restaurado.calcularEstatisticasEntre(AGORA.minusSeconds(60), AGORA));
+        assertEquals(original.calcularEstatisticasEntre(AGORA.minusSeconds(3000), AGORA.minusSeconds(100)),
+                restaurado.calcularEstatisticasEntre(AGORA.minusSeconds(3000), AGORA.minusSeconds(100)));
+        assertEquals(original.calcularHistogramaEntre(AGORA.minusSeconds(3000), AGORA),
+                restaurado.calcularHistogramaEntre(AGORA.minusSeconds(3000), AGORA));
+        assertEquals(Estatistica.vazia(),
+                restaurado.calcularEstatisticasEntre(AGORA.minusSeconds(7200), AGORA.minusSeconds(3601)));
+    }
+
+    @Test
+    @DisplayName("Deve ignorar o snapshot inteiro quando o CRC não confere")
+    void shouldIgnoreSnapshotWithInvalidCrc() throws IOException {
+        BucketTransacaoRepository original = repositorio();
+        original.save(new Transacao(new BigDecimal("1.00"), AGORA.minusSeconds(10)));
+        original.save(new Transacao(new BigDecimal("2.00"), AGORA.minusSeconds(5)));
+        snapshot(original).salvar();
+        try (RandomAccessFile arquivo = new RandomAccessFile(diretorio.resolve("buckets.snap").toFile(), "rw")) {
+            // O primeiro byte do count do primeiro segundo
+            arquivo.seek(SnapshotBuckets.CABECALHO + Long.BYTES);
+            int lido = arquivo.read();
+            arquivo.seek(SnapshotBuckets.CABECALHO + Long.BYTES);
+            arquivo.write(lido ^ 0xFF);
+        }
+
+        BucketTransacaoRepository restaurado = repositorio();
+
+        assertEquals(0, snapshot(restaurado).restaurar());
+        assertEquals(0, restaurado.getBucketCount());
+    }
+
+    @Test
+    @DisplayName("Deve manter os segundos já reconstruídos antes do snapshot")
+    void shouldKeepSecondsAlreadyPresent() {
+        BucketTransacaoRepository original = repositorio();
+        original.save(new Transacao(new BigDecimal("1.00"), AGORA.minusSeconds(10)));
+        original.save(new Transacao(new BigDecimal("2.00"), AGORA.minusSeconds(5)));
+        snapshot(original).salvar();
+
+        BucketTransacaoRepository restaurado = repositorio();
+        restaurado.save(new Transacao(new BigDecimal("7.00"), AGORA.minusSeconds(5)));
+
+        assertEquals(1, snapshot(restaurado).restaurar());
+        Estatistica estatistica = restaurado.calcularEstatisticasEntre(AGORA.minusSeconds(60), AGORA);
+        assertEquals(2, estatistica.count());
+        assertEquals(new BigDecimal("8.00"), estatistica.sum());
+        assertFalse(restaurado.restaurarSegundo(AGORA.minusSeconds(10).getEpochSecond(), 1,
+                BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ONE, null, null));
+    }
+
+    private static BucketTransacaoRepository repositorio() {
+        return new BucketTransacaoRepository(2, 60, 3600, 1440, true);
+    }
+
+    private SnapshotBuckets snapshot(BucketTransacaoRepository repository) {
+        SnapshotProperties snapshotProperties = new SnapshotProperties();
+        snapshotProperties.setArquivo(diretorio.resolve("buckets.snap").toString());
+        return new SnapshotBuckets(repository, Relogio.fixo(AGORA), snapshotProperties, new LimpezaProperties(),
+                new SimpleMeterRegistry());
+    }
+}
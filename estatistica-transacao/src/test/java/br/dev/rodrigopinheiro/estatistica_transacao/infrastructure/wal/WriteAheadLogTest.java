@@ -0,0 +1,126 @@
+package br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.wal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.model.Transacao;
+import br.dev.rodrigopinheiro.estatistica_transacao.domain.port.out.TransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config.EstatisticaProperties;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config.LimpezaProperties;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.config.WalProperties;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.repository.InMemoryTransacaoRepository;
+import br.dev.rodrigopinheiro.estatistica_transacao.infrastructure.time.Relogio;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest
+class WriteAheadLogTest {
+
+    private static final Instant AGORA = Instant.parse("2025-10-20T12:15:30.123456789Z");
+    // Registros com o valor em long: cabeçalho + 16 bytes de campos fixos + 8 do valor
+    private static final int BYTES_REGISTRO = WriteAheadLog.CABECALHO_REGISTRO + 24;
+
+    @TempDir
+    private Path diretorio;
+
+    @Test
+    @DisplayName("Deve reaplicar ao subir só as transações dentro da retenção, com valor e instante exatos")
+    void shouldReplayOnlyRetainedTransactions() {
+        WriteAheadLog wal = wal(new InMemoryTransacaoRepository(), AGORA, PoliticaFsync.A_CADA_N, 64 * 1024);
+        wal.start();
+        wal.registrar(transacao("1.00", AGORA.minusSeconds(10)));
+        wal.registrar(transacao("5.00", AGORA.minusSeconds(7200)));
+        wal.registrar(List.of(transacao("2.5", AGORA.minusSeconds(5)),
+                transacao("99999999999999999999.99", AGORA.minusSeconds(1))));
+        wal.stop();
+
+        InMemoryTransacaoRepository repo = new InMemoryTransacaoRepository();
+        WriteAheadLog reinicio = wal(repo, AGORA, PoliticaFsync.A_CADA_N, 64 * 1024);
+        reinicio.start();
+        reinicio.stop();
+
+        List<Transacao> reaplicadas = repo.findSince(Instant.EPOCH);
+        assertEquals(List.of(new BigDecimal("1.00"), new BigDecimal("2.5"), new BigDecimal("99999999999999999999.99")),
+                reaplicadas.stream().map(Transacao::valor).toList());
+        assertEquals(AGORA.minusSeconds(1), reaplicadas.get(2).dataHora());
+    }
+
+    @Test
+    @DisplayName("Deve parar a reaplicação no primeiro registro corrompido")
+    void shouldStopReplayAtCorruptedRecord() throws IOException {
+        WriteAheadLog wal = wal(new InMemoryTransacaoRepository(), AGORA, PoliticaFsync.NENHUMA, 64 * 1024);
+        wal.start();
+        for (int i = 0; i < 3; i++) {
+            wal.registrar(transacao("1.00", AGORA.minusSeconds(i)));
+        }
+        wal.stop();
+        try (RandomAccessFile arquivo = new RandomAccessFile(segmentos().get(0).toFile(), "rw")) {
+            // Um byte do valor do terceiro registro
+            long posicao = WriteAheadLog.CABECALHO_SEGMENTO + 2L * BYTES_REGISTRO + BYTES_REGISTRO - 1;
+            arquivo.seek(posicao);
+            int original = arquivo.read();
+            arquivo.seek(posicao);
+            arquivo.write(original ^ 0xFF);
+        }
+
+        InMemoryTransacaoRepository repo = new InMemoryTransacaoRepository();
+        WriteAheadLog reinicio = wal(repo, AGORA, PoliticaFsync.NENHUMA, 64 * 1024);
+        reinicio.start();
+        reinicio.stop();
+
+        assertEquals(2, repo.getQuantidade());
+    }
+
+    @Test
+    @DisplayName("Deve rotacionar segmentos cheios e apagar os que saíram da retenção")
+    void shouldRotateAndDeleteExpiredSegments() throws IOException {
+        int tamanhoSegmento = WriteAheadLog.CABECALHO_SEGMENTO + 4 * BYTES_REGISTRO;
+        WriteAheadLog wal = wal(new InMemoryTransacaoRepository(), AGORA, PoliticaFsync.INTERVALO, tamanhoSegmento);
+        wal.start();
+        for (int i = 0; i < 10; i++) {
+            wal.registrar(transacao("1.00", AGORA.minusSeconds(i)));
+        }
+        wal.stop();
+        assertEquals(3, segmentos().size());
+
+        InMemoryTransacaoRepository repo = new InMemoryTransacaoRepository();
+        WriteAheadLog reinicio = wal(repo, AGORA.plusSeconds(7200), PoliticaFsync.INTERVALO, tamanhoSegmento);
+        reinicio.start();
+        reinicio.stop();
+
+        assertEquals(0, repo.getQuantidade());
+        assertEquals(0, segmentos().size());
+    }
+
+    private WriteAheadLog wal(TransacaoRepository repo, Instant agora, PoliticaFsync politica, int tamanhoSegmento) {
+        WalProperties walProperties = new WalProperties();
+        walProperties.setDiretorio(diretorio.toString());
+        walProperties.setPoliticaFsync(politica);
+        walProperties.setFsyncACada(2);
+        return new WriteAheadLog(repo, Relogio.fixo(agora), walProperties, new LimpezaProperties(),
+                new EstatisticaProperties(), new SimpleMeterRegistry(), tamanhoSegmento);
+    }
+
+    private List<Path> segmentos() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.sorted(Comparator.naturalOrder()).toList();
+        }
+    }
+
+    private static Transacao transacao(String valor, Instant dataHora) {
+        return new Transacao(new BigDecimal(valor), dataHora);
+    }
+}